@@ -0,0 +1,57 @@
+package com.myfullstackproject.springbootproject1.benchmark;
+
+import com.myfullstackproject.springbootproject1.SpringbootProject1Application;
+import com.myfullstackproject.springbootproject1.model.Product;
+import com.myfullstackproject.springbootproject1.service.ProductBatchWriter;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Contexte Spring des benchmarks : H2 embarquée (configuration de test), sans serveur web ni import CSV.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        List<String> all = new ArrayList<>(List.of(
+                // Base propre au benchmark, fermée avec le contexte et non à l'arrêt de la JVM
+                "spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_ON_EXIT=FALSE",
+                "spring.jpa.show-sql=false",
+                "catalog.import.enabled=false",
+                "logging.level.root=WARN"));
+        all.addAll(List.of(properties));
+        return new SpringApplicationBuilder(SpringbootProject1Application.class)
+                .web(WebApplicationType.NONE)
+                .properties(all.toArray(String[]::new))
+                .run();
+    }
+
+    static List<Product> products(String prefix, int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(Product.builder()
+                    .asin(String.format("%s%07d", prefix, i))
+                    .title("Benchmark product " + i)
+                    .price(1.0 + i % 500)
+                    .rating(1 + (i % 41) / 10.0)
+                    .ratingCount((long) i % 1000)
+                    .rank(i)
+                    .build());
+        }
+        return products;
+    }
+
+    static void seed(ConfigurableApplicationContext context, String prefix, int count) {
+        ProductBatchWriter writer = context.getBean(ProductBatchWriter.class);
+        List<Product> products = products(prefix, count);
+        for (int from = 0; from < count; from += 1000) {
+            writer.upsert(products.subList(from, Math.min(from + 1000, count)));
+        }
+    }
+}
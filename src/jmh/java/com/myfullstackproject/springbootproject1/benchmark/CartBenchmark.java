@@ -0,0 +1,81 @@
+package com.myfullstackproject.springbootproject1.benchmark;
+
+import com.myfullstackproject.springbootproject1.dto.CartLine;
+import com.myfullstackproject.springbootproject1.model.Role;
+import com.myfullstackproject.springbootproject1.model.Utilisateur;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import com.myfullstackproject.springbootproject1.repository.ProductSort;
+import com.myfullstackproject.springbootproject1.repository.UtilisateurRepository;
+import com.myfullstackproject.springbootproject1.service.CartService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parcours panier de bout en bout (CartService -> base) : ajout, changement de quantité, lecture.
+ * Comparé entre le stockage direct et l'écriture différée.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CartBenchmark {
+
+    private static final int PRODUCTS = 1_000;
+
+    @Param({"direct", "write-behind"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private CartService cartService;
+    private Long userId;
+    private long firstProductId;
+    private Long lineId;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("cart.store.mode=" + mode);
+        BenchmarkApplication.seed(context, "CART", PRODUCTS);
+        cartService = context.getBean(CartService.class);
+        userId = context.getBean(UtilisateurRepository.class).save(Utilisateur.builder()
+                .nom("bench")
+                .email("bench@example.com")
+                .motDePasse("secret")
+                .role(Role.ACHETEUR)
+                .build()).getId();
+        firstProductId = context.getBean(ProductRepository.class)
+                .findSummariesAfter(ProductSort.RANK, false, null, 1).get(0).id();
+        lineId = cartService.addToCart(userId, firstProductId, 1).id();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CartLine addExistingLine() {
+        return cartService.addToCart(userId, firstProductId, 1);
+    }
+
+    @Benchmark
+    public CartLine addRotatingProducts() {
+        // Les PRODUCTS premiers produits : nouvelle ligne au premier passage, incrément ensuite
+        return cartService.addToCart(userId, firstProductId + (counter++ % PRODUCTS), 1);
+    }
+
+    @Benchmark
+    public CartLine updateQuantity() {
+        return cartService.updateQuantity(userId, lineId, 1 + (counter++ & 7));
+    }
+
+    @Benchmark
+    public List<CartLine> readCart() {
+        return cartService.getCart(userId);
+    }
+}
@@ -0,0 +1,68 @@
+package com.myfullstackproject.springbootproject1.benchmark;
+
+import com.myfullstackproject.springbootproject1.model.Product;
+import com.myfullstackproject.springbootproject1.service.CsvProductMapper;
+import com.opencsv.CSVReader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lignes CSV du catalogue -> {@link Product} : conversion seule, puis lecture opencsv + conversion.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CsvParsingBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    private String csv;
+    private List<String[]> rows;
+
+    @Setup
+    public void setUp() throws Exception {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < ROWS; i++) {
+            // Une ligne sur quatre : catégorie vide (colonnes one-hot) et titre entre guillemets
+            String category = i % 4 == 0 ? "" : "Electronics";
+            String title = i % 4 == 0 ? "\"Product, " + i + "\"" : "Product " + i;
+            builder.append(String.format("B%09d,%s,https://example.com/%d,%d,%d,4.%d,%d,%d.99,0,0,0,1,0,0,0,%s%n",
+                    i, category, i, i % 20, i, i % 10, i % 5000, i % 300, title));
+        }
+        csv = builder.toString();
+        rows = new ArrayList<>(ROWS);
+        try (CSVReader reader = new CSVReader(new StringReader(csv))) {
+            String[] row;
+            while ((row = reader.readNext()) != null) {
+                rows.add(row);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapRows(Blackhole blackhole) {
+        for (String[] row : rows) {
+            blackhole.consume(CsvProductMapper.toProduct(row));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void readAndMapRows(Blackhole blackhole) throws Exception {
+        try (CSVReader reader = new CSVReader(new StringReader(csv))) {
+            String[] row;
+            while ((row = reader.readNext()) != null) {
+                blackhole.consume(CsvProductMapper.toProduct(row));
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.myfullstackproject.springbootproject1.benchmark;
+
+import com.myfullstackproject.springbootproject1.dto.CartLine;
+import com.myfullstackproject.springbootproject1.dto.ProductSummary;
+import com.myfullstackproject.springbootproject1.model.CartItem;
+import com.myfullstackproject.springbootproject1.model.Product;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sérialisation Jackson des listes renvoyées par l'API : entités (Product, CartItem) et DTO équivalents.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"20", "200"})
+    public int size;
+
+    private final ObjectMapper mapper = JsonMapper.builder().build();
+
+    private List<Product> products;
+    private List<ProductSummary> summaries;
+    private List<CartItem> cartItems;
+    private List<CartLine> cartLines;
+
+    @Setup
+    public void setUp() {
+        products = BenchmarkApplication.products("JSON", size);
+        summaries = new ArrayList<>(size);
+        cartItems = new ArrayList<>(size);
+        cartLines = new ArrayList<>(size);
+        long id = 1;
+        for (Product product : products) {
+            product.setId(id++);
+            ProductSummary summary = new ProductSummary(product.getId(), product.getAsin(), product.getTitle(),
+                    product.getPrice(), product.getRating(), product.getRatingCount(), product.getRank(), null, null);
+            summaries.add(summary);
+            cartItems.add(CartItem.builder().id(product.getId()).product(product).quantity(2).build());
+            cartLines.add(new CartLine(product.getId(), 2, summary));
+        }
+    }
+
+    @Benchmark
+    public byte[] productEntities() {
+        return mapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] productSummaries() {
+        return mapper.writeValueAsBytes(summaries);
+    }
+
+    @Benchmark
+    public byte[] cartItemEntities() {
+        return mapper.writeValueAsBytes(cartItems);
+    }
+
+    @Benchmark
+    public byte[] cartLines() {
+        return mapper.writeValueAsBytes(cartLines);
+    }
+}
@@ -0,0 +1,81 @@
+package com.myfullstackproject.springbootproject1.benchmark;
+
+import com.myfullstackproject.springbootproject1.dto.ProductSummary;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import com.myfullstackproject.springbootproject1.service.LeaderboardService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top 10 d'une catégorie : classement en mémoire contre la requête ORDER BY ... LIMIT équivalente.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LeaderboardBenchmark {
+
+    private static final int PRODUCTS = 50_000;
+    private static final int CATEGORIES = 20;
+    private static final int TOP = 10;
+    private static final long MIN_REVIEWS = 20;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private LeaderboardService leaderboardService;
+    private long firstCategorieId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("leaderboard.min-reviews=" + MIN_REVIEWS);
+        productRepository = context.getBean(ProductRepository.class);
+        leaderboardService = context.getBean(LeaderboardService.class);
+        BenchmarkApplication.seed(context, "TOP", PRODUCTS);
+
+        // Produits répartis sur quelques catégories, comme le catalogue importé
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        for (int i = 0; i < CATEGORIES; i++) {
+            jdbc.update("INSERT INTO categorie (nom) VALUES (?)", "Benchmark " + i);
+        }
+        firstCategorieId = jdbc.queryForObject("SELECT MIN(id) FROM categorie", Long.class);
+        jdbc.update("UPDATE produits SET categorie_id = ? + MOD(id, ?)", firstCategorieId, CATEGORIES);
+        leaderboardService.rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductSummary> topRankedInMemory() {
+        return leaderboardService.top(LeaderboardService.Ranking.RANK, randomCategorie(), TOP);
+    }
+
+    @Benchmark
+    public List<ProductSummary> topRankedSql() {
+        return productRepository.findTopRankedInCategorie(randomCategorie(), PageRequest.of(0, TOP));
+    }
+
+    @Benchmark
+    public List<ProductSummary> topRatedInMemory() {
+        return leaderboardService.top(LeaderboardService.Ranking.RATING, randomCategorie(), TOP);
+    }
+
+    @Benchmark
+    public List<ProductSummary> topRatedSql() {
+        return productRepository.findTopRatedInCategorie(randomCategorie(), MIN_REVIEWS, PageRequest.of(0, TOP));
+    }
+
+    private long randomCategorie() {
+        return firstCategorieId + ThreadLocalRandom.current().nextInt(CATEGORIES);
+    }
+}
@@ -0,0 +1,153 @@
+package com.myfullstackproject.springbootproject1.benchmark;
+
+import com.myfullstackproject.springbootproject1.recommendation.Baskets;
+import com.myfullstackproject.springbootproject1.recommendation.CoOccurrenceModel;
+import com.myfullstackproject.springbootproject1.service.CsvProductMapper;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * « Souvent achetés ensemble » sur un historique synthétique : reconstruction complète (1 thread ou fork/join),
+ * lecture des voisins d'un produit (chemin de la fiche produit) et commande appliquée incrémentalement.
+ * <p>
+ * Le catalogue part de Cleaned1..csv : chaque ligne devient {@link #VARIANTS} produits de même catégorie,
+ * d'autant plus souvent achetés que le rang de la ligne est bon. Les commandes piochent leur premier produit
+ * selon cette popularité, puis restent le plus souvent dans la même catégorie.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecommendationBenchmark {
+
+    private static final int VARIANTS = 1_000;
+    private static final int ORDERS = 200_000;
+    private static final int CARTS = 20_000;
+    private static final double SAME_CATEGORY = 0.7;
+    private static final int TOP_K = 20;
+    private static final int MIN_SUPPORT = 2;
+    private static final int MAX_BASKET_SIZE = 50;
+
+    @Param({"1", "4"})
+    private int parallelism;
+
+    private Baskets baskets;
+    private ForkJoinPool pool;
+    private CoOccurrenceModel model;
+    private long[] productIds;
+    private double[] cumulative;
+    private Map<String, int[]> byCategory;
+    private List<long[]> extraOrders;
+    private Random random;
+    private int cursor;
+
+    @Setup
+    public void setUp() throws Exception {
+        // 1) Catalogue : lignes CSV démultipliées, poids = 1 / (rang × rang de la variante)
+        List<String[]> rows = new ArrayList<>();
+        try (CSVReader reader = new CSVReaderBuilder(new InputStreamReader(
+                getClass().getResourceAsStream("/Cleaned1..csv"), StandardCharsets.UTF_8)).withSkipLines(1).build()) {
+            String[] row;
+            while ((row = reader.readNext()) != null) {
+                rows.add(row);
+            }
+        }
+        int size = rows.size() * VARIANTS;
+        productIds = new long[size];
+        cumulative = new double[size];
+        String[] categories = new String[size];
+        double total = 0;
+        for (int r = 0; r < rows.size(); r++) {
+            String[] row = rows.get(r);
+            Integer rank = CsvProductMapper.toProduct(row).getRank();
+            String category = String.valueOf(CsvProductMapper.categoryName(row));
+            for (int v = 0; v < VARIANTS; v++) {
+                int p = r * VARIANTS + v;
+                productIds[p] = p + 1;
+                categories[p] = category;
+                total += 1.0 / ((rank == null ? rows.size() : rank) * (v + 1.0));
+                cumulative[p] = total;
+            }
+        }
+        Map<String, List<Integer>> members = new HashMap<>();
+        for (int p = 0; p < size; p++) {
+            members.computeIfAbsent(categories[p], c -> new ArrayList<>()).add(p);
+        }
+        byCategory = new HashMap<>();
+        members.forEach((c, list) -> byCategory.put(c, list.stream().mapToInt(Integer::intValue).toArray()));
+
+        // 2) Historique : commandes (poids 3) puis paniers en cours (poids 1)
+        random = new Random(42);
+        baskets = new Baskets();
+        for (int o = 0; o < ORDERS; o++) {
+            baskets.add(basket(categories), 3);
+        }
+        for (int c = 0; c < CARTS; c++) {
+            baskets.add(basket(categories), 1);
+        }
+        extraOrders = new ArrayList<>();
+        for (int o = 0; o < 10_000; o++) {
+            extraOrders.add(basket(categories));
+        }
+
+        pool = new ForkJoinPool(parallelism);
+        model = CoOccurrenceModel.build(baskets, TOP_K, MIN_SUPPORT, MAX_BASKET_SIZE, pool);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public CoOccurrenceModel rebuild() {
+        return CoOccurrenceModel.build(baskets, TOP_K, MIN_SUPPORT, MAX_BASKET_SIZE, pool);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<CoOccurrenceModel.Neighbour> recommend() {
+        return model.neighbours(productIds[popular()], 10);
+    }
+
+    // Le modèle grossit au fil des itérations, comme en production entre deux reconstructions
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public CoOccurrenceModel applyOrder() {
+        model.add(extraOrders.get(cursor++ % extraOrders.size()), 3);
+        return model;
+    }
+
+    private long[] basket(String[] categories) {
+        int first = popular();
+        int[] sameCategory = byCategory.get(categories[first]);
+        long[] basket = new long[2 + random.nextInt(5)];
+        basket[0] = productIds[first];
+        for (int k = 1; k < basket.length; k++) {
+            int p = random.nextDouble() < SAME_CATEGORY
+                    ? sameCategory[random.nextInt(sameCategory.length)]
+                    : popular();
+            basket[k] = productIds[p];
+        }
+        return basket;
+    }
+
+    private int popular() {
+        int p = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[cumulative.length - 1]);
+        return p >= 0 ? p : Math.min(-p - 1, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,84 @@
+package com.myfullstackproject.springbootproject1.benchmark;
+
+import com.myfullstackproject.springbootproject1.dto.ProductSummary;
+import com.myfullstackproject.springbootproject1.model.Product;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import com.myfullstackproject.springbootproject1.repository.ProductSort;
+import com.myfullstackproject.springbootproject1.service.ProductBatchWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lectures et écritures produits sur H2 embarquée, à travers les repositories de l'application.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepositoryBenchmark {
+
+    private static final int PRODUCTS = 20_000;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private ProductBatchWriter productBatchWriter;
+    private List<Product> existingBatch;
+    private long minId;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        productRepository = context.getBean(ProductRepository.class);
+        productBatchWriter = context.getBean(ProductBatchWriter.class);
+        BenchmarkApplication.seed(context, "REPO", PRODUCTS);
+        existingBatch = BenchmarkApplication.products("REPO", 1000);
+        minId = productRepository.findSummariesAfter(ProductSort.RANK, false, null, 1).get(0).id();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductSummary> firstPageByRank() {
+        return productRepository.findSummariesAfter(ProductSort.RANK, false, null, 50);
+    }
+
+    @Benchmark
+    public List<ProductSummary> firstPageByPrice() {
+        return productRepository.findSummariesAfter(ProductSort.PRICE, false, null, 50);
+    }
+
+    @Benchmark
+    public Object detailsById() {
+        return productRepository.findDetailsById(minId + ThreadLocalRandom.current().nextInt(PRODUCTS));
+    }
+
+    @Benchmark
+    public Object entityById() {
+        return productRepository.findById(minId + ThreadLocalRandom.current().nextInt(PRODUCTS));
+    }
+
+    @Benchmark
+    public ProductBatchWriter.UpsertResult upsertExisting1000() {
+        return productBatchWriter.upsert(existingBatch);
+    }
+
+    @Benchmark
+    public Product saveNewEntity() {
+        return productRepository.save(Product.builder()
+                .asin("NEW" + sequence.incrementAndGet())
+                .title("New product")
+                .price(9.99)
+                .build());
+    }
+}
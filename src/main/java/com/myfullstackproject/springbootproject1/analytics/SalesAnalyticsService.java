@@ -0,0 +1,95 @@
+package com.myfullstackproject.springbootproject1.analytics;
+
+import com.myfullstackproject.springbootproject1.dto.BasketStats;
+import com.myfullstackproject.springbootproject1.dto.CategoryRevenue;
+import com.myfullstackproject.springbootproject1.dto.DailyRevenue;
+import com.myfullstackproject.springbootproject1.dto.ProductDetails;
+import com.myfullstackproject.springbootproject1.dto.TopProduct;
+import com.myfullstackproject.springbootproject1.service.ProductCatalogCache;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Requêtes d'analyse des ventes, servies uniquement par les agrégats de {@link SalesRollupService}.
+ * Aucune lecture de commandes / lignes_commande : le panier moyen d'une année lit au plus 365 lignes de stats_ventes_jour.
+ * Les bornes de période sont incluses.
+ */
+@Service
+public class SalesAnalyticsService {
+
+    private static final String DAILY_SQL =
+            "SELECT jour, chiffre_affaires, commandes, articles FROM stats_ventes_jour "
+                    + "WHERE jour BETWEEN ? AND ? ORDER BY jour";
+
+    private static final String CATEGORIES_SQL =
+            "SELECT s.categorie_id, c.nom, SUM(s.chiffre_affaires) AS ca, SUM(s.quantite) AS qte "
+                    + "FROM stats_ventes_categorie_jour s LEFT JOIN categorie c ON c.id = s.categorie_id "
+                    + "WHERE s.jour BETWEEN ? AND ? GROUP BY s.categorie_id, c.nom ORDER BY ca DESC, s.categorie_id";
+
+    private static final String TOP_PRODUCTS_SQL =
+            "SELECT produit_id, SUM(quantite) AS qte, SUM(chiffre_affaires) AS ca FROM stats_ventes_produit_jour "
+                    + "WHERE jour BETWEEN ? AND ? GROUP BY produit_id ORDER BY qte DESC, produit_id LIMIT ?";
+
+    private static final String BASKET_SQL =
+            "SELECT COALESCE(SUM(commandes), 0), COALESCE(SUM(chiffre_affaires), 0), COALESCE(SUM(articles), 0) "
+                    + "FROM stats_ventes_jour WHERE jour BETWEEN ? AND ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductCatalogCache productCatalogCache;
+
+    public SalesAnalyticsService(JdbcTemplate jdbcTemplate, ProductCatalogCache productCatalogCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.productCatalogCache = productCatalogCache;
+    }
+
+    public List<DailyRevenue> dailyRevenue(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(DAILY_SQL, (rs, i) -> new DailyRevenue(
+                rs.getObject(1, LocalDate.class), rs.getDouble(2), rs.getLong(3), rs.getLong(4)), from, to);
+    }
+
+    public List<CategoryRevenue> revenueByCategory(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(CATEGORIES_SQL, (rs, i) -> {
+            long categorieId = rs.getLong(1);
+            return categorieId == SalesRollupService.NO_CATEGORY
+                    ? new CategoryRevenue(null, null, rs.getDouble(3), rs.getLong(4))
+                    : new CategoryRevenue(categorieId, rs.getString(2), rs.getDouble(3), rs.getLong(4));
+        }, from, to);
+    }
+
+    public List<TopProduct> topProducts(LocalDate from, LocalDate to, int limit) {
+        List<ProductSales> rows = jdbcTemplate.query(TOP_PRODUCTS_SQL,
+                (rs, i) -> new ProductSales(rs.getLong(1), rs.getLong(2), rs.getDouble(3)), from, to, limit);
+
+        // Titres et prix depuis le cache catalogue, en un seul lot (une requête IN pour les absents du cache),
+        // pas de jointure sur produits
+        Map<Long, ProductDetails> details = productCatalogCache.findAll(
+                        rows.stream().map(ProductSales::productId).toList(), List.of()).stream()
+                .collect(Collectors.toMap(ProductDetails::id, Function.identity()));
+        return rows.stream()
+                .map(row -> new TopProduct(row.productId(),
+                        Optional.ofNullable(details.get(row.productId())).map(ProductDetails::toSummary).orElse(null),
+                        row.quantity(), row.revenue()))
+                .toList();
+    }
+
+    public BasketStats basket(LocalDate from, LocalDate to) {
+        return jdbcTemplate.queryForObject(BASKET_SQL, (rs, i) -> {
+            long orders = rs.getLong(1);
+            double revenue = rs.getDouble(2);
+            long items = rs.getLong(3);
+            return orders == 0
+                    ? new BasketStats(0, 0, 0, 0, 0)
+                    : new BasketStats(orders, revenue, items, revenue / orders, (double) items / orders);
+        }, from, to);
+    }
+
+    private record ProductSales(long productId, long quantity, double revenue) {
+    }
+}
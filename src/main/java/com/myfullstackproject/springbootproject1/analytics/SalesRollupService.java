@@ -0,0 +1,322 @@
+package com.myfullstackproject.springbootproject1.analytics;
+
+import com.myfullstackproject.springbootproject1.event.OrderPlacedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Agrégats de ventes (stats_ventes_jour, stats_ventes_categorie_jour, stats_ventes_produit_jour)
+ * tenus à jour de façon incrémentale.
+ * <p>
+ * Chaque commande validée arrive en {@link OrderPlacedEvent} après le commit et est mise en file :
+ * la commande ne fait aucune écriture de plus. Un rafraîchissement périodique vide la file, additionne
+ * les deltas en mémoire (une ligne par jour, par jour et catégorie, par jour et produit) et les ajoute
+ * aux agrégats par lots d'upserts, en une transaction.
+ * <p>
+ * Ce qui est compté est noté en base, pas en mémoire : la même transaction passe commandes.agregee à vrai,
+ * et une commande déjà marquée (par la reconstruction, ou déjà rattrapée) n'est pas recomptée. Les commandes
+ * dont l'événement s'est perdu (arrêt brutal, redéploiement) restent non marquées et sont relues au démarrage
+ * suivant ; à l'arrêt normal, la file est vidée. La reconstruction marque puis recalcule toutes les commandes
+ * validées : une commande validée pendant ce temps reste non marquée et passe par la file, quel que soit son id.
+ */
+@Service
+public class SalesRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupService.class);
+
+    // Produit sans catégorie : clé 0 (pas de NULL dans une clé unique)
+    static final long NO_CATEGORY = 0L;
+
+    private static final String UPSERT_DAY_SQL =
+            "INSERT INTO stats_ventes_jour (jour, chiffre_affaires, commandes, articles) VALUES (?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE chiffre_affaires = chiffre_affaires + VALUES(chiffre_affaires), "
+                    + "commandes = commandes + VALUES(commandes), articles = articles + VALUES(articles)";
+
+    private static final String UPSERT_CATEGORY_SQL =
+            "INSERT INTO stats_ventes_categorie_jour (jour, categorie_id, chiffre_affaires, quantite) VALUES (?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE chiffre_affaires = chiffre_affaires + VALUES(chiffre_affaires), "
+                    + "quantite = quantite + VALUES(quantite)";
+
+    private static final String UPSERT_PRODUCT_SQL =
+            "INSERT INTO stats_ventes_produit_jour (jour, produit_id, chiffre_affaires, quantite) VALUES (?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE chiffre_affaires = chiffre_affaires + VALUES(chiffre_affaires), "
+                    + "quantite = quantite + VALUES(quantite)";
+
+    // 0 ligne modifiée : commande déjà comptée
+    private static final String MARK_ORDER_SQL = "UPDATE commandes SET agregee = TRUE WHERE id = ? AND agregee = FALSE";
+
+    private static final String MARK_ALL_SQL = "UPDATE commandes SET agregee = TRUE WHERE agregee = FALSE";
+
+    private static final String COUNT_ORDERS_SQL = "SELECT COUNT(*) FROM commandes WHERE agregee = TRUE";
+
+    // Rattrapage : commandes validées jamais comptées, catégorie courante du produit comme la reconstruction
+    private static final String UNAPPLIED_SQL =
+            "SELECT c.id, c.date_creation, l.produit_id, p.categorie_id, l.quantite, l.prix_unitaire "
+                    + "FROM commandes c JOIN lignes_commande l ON l.commande_id = c.id "
+                    + "LEFT JOIN produits p ON p.id = l.produit_id "
+                    + "WHERE c.agregee = FALSE ORDER BY c.id";
+
+    private static final String REBUILD_DAY_SQL =
+            "INSERT INTO stats_ventes_jour (jour, chiffre_affaires, commandes, articles) "
+                    + "SELECT CAST(c.date_creation AS DATE), SUM(l.quantite * l.prix_unitaire), COUNT(DISTINCT c.id), SUM(l.quantite) "
+                    + "FROM commandes c JOIN lignes_commande l ON l.commande_id = c.id "
+                    + "WHERE c.agregee = TRUE GROUP BY CAST(c.date_creation AS DATE)";
+
+    // Catégorie courante du produit (lignes_commande ne garde pas celle du jour de la commande)
+    private static final String REBUILD_CATEGORY_SQL =
+            "INSERT INTO stats_ventes_categorie_jour (jour, categorie_id, chiffre_affaires, quantite) "
+                    + "SELECT CAST(c.date_creation AS DATE), COALESCE(p.categorie_id, 0), SUM(l.quantite * l.prix_unitaire), SUM(l.quantite) "
+                    + "FROM commandes c JOIN lignes_commande l ON l.commande_id = c.id "
+                    + "LEFT JOIN produits p ON p.id = l.produit_id "
+                    + "WHERE c.agregee = TRUE GROUP BY CAST(c.date_creation AS DATE), COALESCE(p.categorie_id, 0)";
+
+    private static final String REBUILD_PRODUCT_SQL =
+            "INSERT INTO stats_ventes_produit_jour (jour, produit_id, chiffre_affaires, quantite) "
+                    + "SELECT CAST(c.date_creation AS DATE), l.produit_id, SUM(l.quantite * l.prix_unitaire), SUM(l.quantite) "
+                    + "FROM commandes c JOIN lignes_commande l ON l.commande_id = c.id "
+                    + "WHERE c.agregee = TRUE GROUP BY CAST(c.date_creation AS DATE), l.produit_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final ConcurrentLinkedQueue<OrderPlacedEvent> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    // Un seul rafraîchissement ou reconstruction à la fois
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final AtomicLong ordersApplied = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    public SalesRollupService(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${analytics.rollup.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    // Après le commit : une commande annulée n'arrive jamais ici
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        pending.add(event);
+        pendingCount.incrementAndGet();
+    }
+
+    /**
+     * Applique les commandes en attente aux agrégats ; retourne le nombre de commandes appliquées.
+     */
+    @Scheduled(fixedDelayString = "${analytics.rollup.refresh-interval:10s}")
+    public int refresh() {
+        lock.lock();
+        try {
+            List<OrderPlacedEvent> batch = drain();
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            int applied;
+            try {
+                applied = transactionTemplate.execute(status -> apply(batch));
+            } catch (RuntimeException e) {
+                // Échec : les commandes repartiront au prochain rafraîchissement
+                pending.addAll(batch);
+                pendingCount.addAndGet(batch.size());
+                log.warn("Sales rollup refresh failed, {} orders re-queued: {}", batch.size(), e.getMessage());
+                throw e;
+            }
+            if (applied > 0) {
+                ordersApplied.addAndGet(applied);
+                refreshes.incrementAndGet();
+            }
+            return applied;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remet en file les commandes validées jamais comptées (événements perdus), puis les applique.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int catchUp() {
+        Map<Long, OrderPlacedEvent> orders = new LinkedHashMap<>();
+        jdbcTemplate.query(UNAPPLIED_SQL, (RowCallbackHandler) rs -> {
+            long orderId = rs.getLong(1);
+            OrderPlacedEvent order = orders.get(orderId);
+            if (order == null) {
+                order = new OrderPlacedEvent(orderId, rs.getObject(2, LocalDateTime.class), new ArrayList<>());
+                orders.put(orderId, order);
+            }
+            order.lines().add(new OrderPlacedEvent.Line(rs.getLong(3), rs.getObject(4, Long.class),
+                    rs.getInt(5), rs.getDouble(6)));
+        });
+        if (!orders.isEmpty()) {
+            log.info("Sales rollups: {} committed orders were never applied, catching up", orders.size());
+            orders.values().forEach(this::onOrderPlaced);
+        }
+        return refresh();
+    }
+
+    // Arrêt de l'application : les commandes en file sont écrites
+    @PreDestroy
+    public void refreshOnShutdown() {
+        refresh();
+    }
+
+    /**
+     * Recalcule tous les agrégats depuis commandes / lignes_commande.
+     */
+    public RebuildReport rebuild() {
+        lock.lock();
+        try {
+            long start = System.nanoTime();
+            // Déjà validées, donc marquées et comptées par la reconstruction
+            int discarded = drain().size();
+            RebuildReport report = transactionTemplate.execute(status -> {
+                jdbcTemplate.update(MARK_ALL_SQL);
+                long orders = jdbcTemplate.queryForObject(COUNT_ORDERS_SQL, Long.class);
+                jdbcTemplate.update("DELETE FROM stats_ventes_jour");
+                jdbcTemplate.update("DELETE FROM stats_ventes_categorie_jour");
+                jdbcTemplate.update("DELETE FROM stats_ventes_produit_jour");
+                int days = jdbcTemplate.update(REBUILD_DAY_SQL);
+                int categoryDays = jdbcTemplate.update(REBUILD_CATEGORY_SQL);
+                int productDays = jdbcTemplate.update(REBUILD_PRODUCT_SQL);
+                return new RebuildReport(orders, days, categoryDays, productDays, discarded,
+                        Duration.ofNanos(System.nanoTime() - start));
+            });
+            rebuilds.incrementAndGet();
+            log.info("Sales rollups rebuilt: {}", report);
+            return report;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(cron = "${analytics.rollup.rebuild-cron:-}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    public Metrics metrics() {
+        return new Metrics(pendingCount.get(), ordersApplied.get(), refreshes.get(), rebuilds.get());
+    }
+
+    private List<OrderPlacedEvent> drain() {
+        List<OrderPlacedEvent> batch = new ArrayList<>();
+        OrderPlacedEvent event;
+        while ((event = pending.poll()) != null) {
+            batch.add(event);
+        }
+        pendingCount.addAndGet(-batch.size());
+        return batch;
+    }
+
+    // Dans la transaction d'écriture : marquage et agrégats sont validés (ou annulés) ensemble
+    private int apply(List<OrderPlacedEvent> batch) {
+        int[][] marked = jdbcTemplate.batchUpdate(MARK_ORDER_SQL, batch, batchSize,
+                (ps, event) -> ps.setLong(1, event.orderId()));
+        Deltas deltas = new Deltas();
+        int applied = 0;
+        int index = 0;
+        for (int[] counts : marked) {
+            for (int count : counts) {
+                if (count > 0) {
+                    deltas.add(batch.get(index));
+                    applied++;
+                }
+                index++;
+            }
+        }
+        if (applied > 0) {
+            write(deltas);
+        }
+        return applied;
+    }
+
+    private void write(Deltas deltas) {
+        jdbcTemplate.batchUpdate(UPSERT_DAY_SQL, new ArrayList<>(deltas.days.entrySet()), batchSize, (ps, e) -> {
+            ps.setObject(1, e.getKey());
+            ps.setDouble(2, e.getValue().revenue);
+            ps.setLong(3, e.getValue().orders);
+            ps.setLong(4, e.getValue().quantity);
+        });
+        jdbcTemplate.batchUpdate(UPSERT_CATEGORY_SQL, new ArrayList<>(deltas.categories.entrySet()), batchSize, (ps, e) -> {
+            ps.setObject(1, e.getKey().day());
+            ps.setLong(2, e.getKey().id());
+            ps.setDouble(3, e.getValue().revenue);
+            ps.setLong(4, e.getValue().quantity);
+        });
+        jdbcTemplate.batchUpdate(UPSERT_PRODUCT_SQL, new ArrayList<>(deltas.products.entrySet()), batchSize, (ps, e) -> {
+            ps.setObject(1, e.getKey().day());
+            ps.setLong(2, e.getKey().id());
+            ps.setDouble(3, e.getValue().revenue);
+            ps.setLong(4, e.getValue().quantity);
+        });
+    }
+
+    // Deltas cumulés d'un lot de commandes : autant d'upserts que de clés, pas que de lignes
+    private static final class Deltas {
+        final Map<LocalDate, Totals> days = new HashMap<>();
+        final Map<DayKey, Totals> categories = new HashMap<>();
+        final Map<DayKey, Totals> products = new HashMap<>();
+
+        void add(OrderPlacedEvent event) {
+            LocalDate day = event.createdAt().toLocalDate();
+            Totals dayTotals = days.computeIfAbsent(day, d -> new Totals());
+            dayTotals.orders++;
+            for (OrderPlacedEvent.Line line : event.lines()) {
+                double revenue = line.quantity() * line.unitPrice();
+                dayTotals.add(line.quantity(), revenue);
+                long categorieId = line.categorieId() == null ? NO_CATEGORY : line.categorieId();
+                categories.computeIfAbsent(new DayKey(day, categorieId), k -> new Totals()).add(line.quantity(), revenue);
+                products.computeIfAbsent(new DayKey(day, line.productId()), k -> new Totals()).add(line.quantity(), revenue);
+            }
+        }
+    }
+
+    private record DayKey(LocalDate day, long id) {
+    }
+
+    private static final class Totals {
+        double revenue;
+        long quantity;
+        long orders;
+
+        void add(int quantity, double revenue) {
+            this.quantity += quantity;
+            this.revenue += revenue;
+        }
+    }
+
+    public record RebuildReport(long orders, int days, int categoryDays, int productDays,
+                                int discardedDeltas, Duration elapsed) {
+    }
+
+    public record Metrics(int pendingOrders, long ordersApplied, long refreshes, long rebuilds) {
+    }
+}
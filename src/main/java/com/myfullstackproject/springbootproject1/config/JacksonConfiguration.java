@@ -0,0 +1,21 @@
+package com.myfullstackproject.springbootproject1.config;
+
+import org.springframework.boot.jackson.autoconfigure.JsonMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tools.jackson.databind.ser.std.SimpleBeanPropertyFilter;
+import tools.jackson.databind.ser.std.SimpleFilterProvider;
+
+/**
+ * Filtre Jackson par défaut : les types marqués {@code @JsonFilter} sont écrits en entier,
+ * sauf indication contraire pour une réponse donnée (paramètre {@code fields=}).
+ */
+@Configuration
+public class JacksonConfiguration {
+
+    @Bean
+    public JsonMapperBuilderCustomizer defaultPropertyFilter() {
+        return builder -> builder.filterProvider(new SimpleFilterProvider()
+                .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+}
@@ -0,0 +1,57 @@
+package com.myfullstackproject.springbootproject1.config;
+
+import com.myfullstackproject.springbootproject1.datasource.ReadReplicaRouting;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Réplique en lecture (datasource.replica.enabled=true) : deux pools Hikari, primaire (spring.datasource.*,
+ * spring.datasource.hikari.*) et réplique (datasource.replica.*, datasource.replica.hikari.*), derrière une seule
+ * DataSource aiguillée par {@link ReadReplicaRouting}. Les pools ne sont pas des beans : une seule DataSource
+ * dans le contexte pour Hibernate, Flyway, JdbcTemplate et le comptage des requêtes SQL.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public ReadReplicaRouting readReplicaRouting(DataSourceProperties properties,
+                                                 Environment environment,
+                                                 @Value("${datasource.replica.url}") String replicaUrl,
+                                                 @Value("${datasource.replica.username:}") String replicaUsername,
+                                                 @Value("${datasource.replica.password:}") String replicaPassword,
+                                                 @Value("${datasource.replica.max-lag:5s}") Duration maxLag,
+                                                 @Value("${datasource.replica.sticky-window:5s}") Duration stickyWindow) {
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (primary.getPoolName() == null) {
+            primary.setPoolName("primary");
+        }
+
+        HikariDataSource replica = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(replicaUrl).username(replicaUsername).password(replicaPassword).build();
+        binder.bind("datasource.replica.hikari", Bindable.ofInstance(replica));
+        if (replica.getPoolName() == null) {
+            replica.setPoolName(primary.getPoolName() + "-replica");
+        }
+        return new ReadReplicaRouting(primary, replica, maxLag, stickyWindow);
+    }
+
+    @Bean
+    public DataSource dataSource(ReadReplicaRouting readReplicaRouting) {
+        return readReplicaRouting.dataSource();
+    }
+}
@@ -0,0 +1,89 @@
+package com.myfullstackproject.springbootproject1.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Cache de second niveau Hibernate (JCache, implémentation Caffeine) pour les entités de référence :
+ * Product, Categorie, Utilisateur, et cache de requêtes pour la liste des catégories.
+ * <p>
+ * Chaque région reçoit une part du budget mémoire (jpa.second-level-cache.memory-budget) ; son nombre
+ * maximal d'entrées est cette part divisée par la taille estimée d'une entrée. Les régions sont créées ici :
+ * une entité annotée @Cache sans région déclarée fait échouer le démarrage.
+ */
+@Configuration
+@ConditionalOnProperty(name = "jpa.second-level-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class SecondLevelCacheConfiguration {
+
+    public static final String PRODUCTS = "produits";
+    public static final String CATEGORIES = "categories";
+    public static final String USERS = "utilisateurs";
+    public static final String CATEGORY_QUERIES = "requetes.categories";
+
+    // Région, part du budget, taille estimée d'une entrée (état désassemblé + clé + surcoût Caffeine)
+    private static final List<Region> REGIONS = List.of(
+            new Region(PRODUCTS, 0.70, 2048),
+            new Region(USERS, 0.15, 512),
+            new Region(CATEGORIES, 0.02, 256),
+            new Region(CATEGORY_QUERIES, 0.03, 8 * 1024),
+            new Region(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, 0.10, 4096));
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(
+            @Value("${jpa.second-level-cache.memory-budget:64MB}") DataSize memoryBudget,
+            @Value("${jpa.second-level-cache.ttl:30m}") Duration ttl) {
+        // Gestionnaire propre à ce contexte Spring (plusieurs contextes possibles dans une même JVM, en test)
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate-l2-" + UUID.randomUUID()), getClass().getClassLoader());
+        for (Region region : REGIONS) {
+            long maximumSize = Math.max(100, (long) (memoryBudget.toBytes() * region.budgetShare() / region.entryBytes()));
+            cacheManager.createCache(region.name(), configuration(OptionalLong.of(maximumSize),
+                    OptionalLong.of(ttl.toNanos())));
+        }
+        // Horodatage des dernières écritures par table : une entrée par table, jamais expirée
+        // (une entrée perdue rendrait valides des résultats de requête périmés)
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                configuration(OptionalLong.of(10_000), OptionalLong.empty()));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheProperties(CacheManager secondLevelCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> configuration(OptionalLong maximumSize, OptionalLong expireAfterWrite) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // Hibernate met en cache un état désassemblé immuable : pas de copie par sérialisation à chaque accès
+        configuration.setStoreByValue(false);
+        configuration.setMaximumSize(maximumSize);
+        configuration.setExpireAfterWrite(expireAfterWrite);
+        return configuration;
+    }
+
+    private record Region(String name, double budgetShare, int entryBytes) {
+    }
+}
@@ -0,0 +1,91 @@
+package com.myfullstackproject.springbootproject1.controller;
+
+import com.myfullstackproject.springbootproject1.analytics.SalesAnalyticsService;
+import com.myfullstackproject.springbootproject1.analytics.SalesRollupService;
+import com.myfullstackproject.springbootproject1.dto.BasketStats;
+import com.myfullstackproject.springbootproject1.dto.CategoryRevenue;
+import com.myfullstackproject.springbootproject1.dto.DailyRevenue;
+import com.myfullstackproject.springbootproject1.dto.TopProduct;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Analyse des ventes (rôle ANALYSTE) : lue dans les agrégats, rafraîchis en différé après chaque commande.
+ * Période : from / to au format ISO (yyyy-MM-dd), incluses ; par défaut les 30 derniers jours.
+ */
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "http://localhost:5173")
+public class AnalyticsController {
+
+    private static final int DEFAULT_DAYS = 30;
+    private static final int MAX_RANGE_DAYS = 3660;
+    private static final int MAX_TOP = 100;
+
+    private final SalesAnalyticsService salesAnalyticsService;
+    private final SalesRollupService salesRollupService;
+
+    public AnalyticsController(SalesAnalyticsService salesAnalyticsService, SalesRollupService salesRollupService) {
+        this.salesAnalyticsService = salesAnalyticsService;
+        this.salesRollupService = salesRollupService;
+    }
+
+    // 1. CHIFFRE D'AFFAIRES PAR JOUR (jours sans vente absents)
+    @GetMapping("/revenue/daily")
+    public List<DailyRevenue> dailyRevenue(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        Period period = period(from, to);
+        return salesAnalyticsService.dailyRevenue(period.from(), period.to());
+    }
+
+    // 2. CHIFFRE D'AFFAIRES PAR CATÉGORIE sur la période, du plus élevé au plus faible
+    @GetMapping("/revenue/categories")
+    public List<CategoryRevenue> revenueByCategory(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        Period period = period(from, to);
+        return salesAnalyticsService.revenueByCategory(period.from(), period.to());
+    }
+
+    // 3. MEILLEURES VENTES (quantité vendue)
+    @GetMapping("/top-products")
+    public List<TopProduct> topProducts(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                        @RequestParam(defaultValue = "10") int limit) {
+        Period period = period(from, to);
+        return salesAnalyticsService.topProducts(period.from(), period.to(), Math.min(Math.max(limit, 1), MAX_TOP));
+    }
+
+    // 4. PANIER MOYEN : montant et nombre d'articles par commande
+    @GetMapping("/basket")
+    public BasketStats basket(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        Period period = period(from, to);
+        return salesAnalyticsService.basket(period.from(), period.to());
+    }
+
+    // 5. RECONSTRUCTION complète des agrégats depuis commandes / lignes_commande
+    @PostMapping("/rebuild")
+    public SalesRollupService.RebuildReport rebuild() {
+        return salesRollupService.rebuild();
+    }
+
+    private static Period period(LocalDate from, LocalDate to) {
+        LocalDate end = to == null ? LocalDate.now() : to;
+        LocalDate start = from == null ? end.minusDays(DEFAULT_DAYS - 1) : from;
+        if (start.isAfter(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from doit précéder to");
+        }
+        if (start.plusDays(MAX_RANGE_DAYS).isBefore(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Période limitée à " + MAX_RANGE_DAYS + " jours");
+        }
+        return new Period(start, end);
+    }
+
+    private record Period(LocalDate from, LocalDate to) {
+    }
+}
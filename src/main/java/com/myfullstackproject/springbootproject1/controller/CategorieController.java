@@ -0,0 +1,46 @@
+package com.myfullstackproject.springbootproject1.controller;
+
+import com.myfullstackproject.springbootproject1.dto.CategoryFacets;
+import com.myfullstackproject.springbootproject1.dto.CategoryProductsPage;
+import com.myfullstackproject.springbootproject1.dto.ProductPage;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import com.myfullstackproject.springbootproject1.service.CategoryFacetService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/categories")
+@CrossOrigin(origins = "http://localhost:5173")
+public class CategorieController {
+
+    private final CategoryFacetService categoryFacetService;
+    private final ProductRepository productRepository;
+
+    public CategorieController(CategoryFacetService categoryFacetService,
+                               ProductRepository productRepository) {
+        this.categoryFacetService = categoryFacetService;
+        this.productRepository = productRepository;
+    }
+
+    // 1) Catégories avec leurs facettes précalculées
+    @GetMapping
+    public List<CategoryFacets> getCategories() {
+        return categoryFacetService.allFacets();
+    }
+
+    // 2) Produits d'une catégorie (pagination par curseur) + facettes
+    @GetMapping("/{id}/produits")
+    public CategoryProductsPage getCategoryProducts(@PathVariable Long id,
+                                                    @RequestParam(defaultValue = "rank") String sort,
+                                                    @RequestParam(required = false) String direction,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "50") int size,
+                                                    @RequestParam(required = false) String fields) {
+        ProductFieldsAdvice.select(fields);
+        CategoryFacets facets = categoryFacetService.facets(id)
+                .orElseThrow(() -> new RuntimeException("Catégorie introuvable"));
+        ProductPage page = ProductPages.page(productRepository, id, sort, direction, cursor, size);
+        return new CategoryProductsPage(facets, page.items(), page.nextCursor());
+    }
+}
@@ -0,0 +1,156 @@
+package com.myfullstackproject.springbootproject1.controller;
+
+import com.myfullstackproject.springbootproject1.analytics.SalesRollupService;
+import com.myfullstackproject.springbootproject1.datasource.ReadReplicaRouting;
+import com.myfullstackproject.springbootproject1.feed.ProductChangeFeed;
+import com.myfullstackproject.springbootproject1.monitoring.HibernateStatistics;
+import com.myfullstackproject.springbootproject1.monitoring.RequestMetrics;
+import com.myfullstackproject.springbootproject1.recommendation.RecommendationService;
+import com.myfullstackproject.springbootproject1.search.ProductSearchService;
+import com.myfullstackproject.springbootproject1.search.SearchIndexStats;
+import com.myfullstackproject.springbootproject1.service.CheckoutService;
+import com.myfullstackproject.springbootproject1.service.ImportPipelineStats;
+import com.myfullstackproject.springbootproject1.service.LeaderboardService;
+import com.myfullstackproject.springbootproject1.service.ParallelCatalogImporter;
+import com.myfullstackproject.springbootproject1.service.ProductCatalogCache;
+import com.myfullstackproject.springbootproject1.service.WriteBehindCartStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    private final ProductCatalogCache productCatalogCache;
+    private final ProductSearchService productSearchService;
+    private final ObjectProvider<WriteBehindCartStore> writeBehindCartStore;
+    private final CheckoutService checkoutService;
+    private final RequestMetrics requestMetrics;
+    private final HibernateStatistics hibernateStatistics;
+    private final SalesRollupService salesRollupService;
+    private final LeaderboardService leaderboardService;
+    private final RecommendationService recommendationService;
+    private final ObjectProvider<ReadReplicaRouting> readReplicaRouting;
+    private final ProductChangeFeed productChangeFeed;
+    private final ParallelCatalogImporter parallelCatalogImporter;
+
+    public MetricsController(ProductCatalogCache productCatalogCache,
+                             ProductSearchService productSearchService,
+                             ObjectProvider<WriteBehindCartStore> writeBehindCartStore,
+                             CheckoutService checkoutService,
+                             RequestMetrics requestMetrics,
+                             HibernateStatistics hibernateStatistics,
+                             SalesRollupService salesRollupService,
+                             LeaderboardService leaderboardService,
+                             RecommendationService recommendationService,
+                             ObjectProvider<ReadReplicaRouting> readReplicaRouting,
+                             ProductChangeFeed productChangeFeed,
+                             ParallelCatalogImporter parallelCatalogImporter) {
+        this.productCatalogCache = productCatalogCache;
+        this.productSearchService = productSearchService;
+        this.writeBehindCartStore = writeBehindCartStore;
+        this.checkoutService = checkoutService;
+        this.requestMetrics = requestMetrics;
+        this.hibernateStatistics = hibernateStatistics;
+        this.salesRollupService = salesRollupService;
+        this.leaderboardService = leaderboardService;
+        this.recommendationService = recommendationService;
+        this.readReplicaRouting = readReplicaRouting;
+        this.productChangeFeed = productChangeFeed;
+        this.parallelCatalogImporter = parallelCatalogImporter;
+    }
+
+    // Statistiques du cache catalogue (hits, misses, évictions)
+    @GetMapping("/product-cache")
+    public ProductCatalogCache.CacheMetrics productCache() {
+        return productCatalogCache.metrics();
+    }
+
+    // Taille de l'index de recherche
+    @GetMapping("/search-index")
+    public SearchIndexStats searchIndex() {
+        return productSearchService.stats();
+    }
+
+    // Paniers en écriture différée : mutations reçues vs lignes réellement écrites
+    @GetMapping("/cart-store")
+    public WriteBehindCartStore.Metrics cartStore() {
+        WriteBehindCartStore store = writeBehindCartStore.getIfAvailable();
+        if (store == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "cart.store.mode n'est pas write-behind");
+        }
+        return store.metrics();
+    }
+
+    // Commandes passées, conflits optimistes rejoués, commandes abandonnées
+    @GetMapping("/checkout")
+    public CheckoutService.Metrics checkout() {
+        return checkoutService.metrics();
+    }
+
+    // Par endpoint : latence (histogramme, p50/p95/p99), instructions SQL et entités chargées par requête
+    @GetMapping("/requests")
+    public List<RequestMetrics.EndpointMetrics> requests() {
+        return requestMetrics.snapshot();
+    }
+
+    @DeleteMapping("/requests")
+    public void resetRequests() {
+        requestMetrics.reset();
+    }
+
+    // Classements en mémoire : reconstructions complètes, mises à jour incrémentales, périmé ou non
+    @GetMapping("/leaderboards")
+    public LeaderboardService.Metrics leaderboards() {
+        return leaderboardService.metrics();
+    }
+
+    // Recommandations : produits du modèle, commandes appliquées, reconstructions
+    @GetMapping("/recommendations")
+    public RecommendationService.Metrics recommendations() {
+        return recommendationService.metrics();
+    }
+
+    // Flux SSE produits : abonnés, produits suivis, événements regroupés et envoyés, clients lents déconnectés
+    @GetMapping("/product-stream")
+    public ProductChangeFeed.Metrics productStream() {
+        return productChangeFeed.metrics();
+    }
+
+    // Pools primaire / réplique (connexions actives, libres, en attente), retard de la réplique, aiguillage des lectures
+    @GetMapping("/datasources")
+    public ReadReplicaRouting.Metrics datasources() {
+        ReadReplicaRouting routing = readReplicaRouting.getIfAvailable();
+        if (routing == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "datasource.replica.enabled n'est pas activé");
+        }
+        return routing.metrics();
+    }
+
+    // Import CSV parallèle en cours ou dernier terminé : lignes par étape, débit par thread, profondeur des files
+    @GetMapping("/import")
+    public ImportPipelineStats importPipeline() {
+        return parallelCatalogImporter.getLastStats();
+    }
+
+    // Statistiques Hibernate : requêtes, chargements, cache de second niveau et cache de requêtes
+    @GetMapping("/hibernate")
+    public HibernateStatistics.Snapshot hibernate() {
+        return hibernateStatistics.snapshot();
+    }
+
+    @DeleteMapping("/hibernate")
+    public void resetHibernate() {
+        hibernateStatistics.reset();
+    }
+
+    // Agrégats de ventes : commandes en attente de rafraîchissement, appliquées, reconstructions
+    @GetMapping("/analytics")
+    public SalesRollupService.Metrics analytics() {
+        return salesRollupService.metrics();
+    }
+}
@@ -0,0 +1,54 @@
+package com.myfullstackproject.springbootproject1.controller;
+
+import com.myfullstackproject.springbootproject1.dto.OrderDetails;
+import com.myfullstackproject.springbootproject1.dto.OrderPage;
+import com.myfullstackproject.springbootproject1.repository.OrderCursor;
+import com.myfullstackproject.springbootproject1.service.CheckoutService;
+import com.myfullstackproject.springbootproject1.service.OrderHistoryService;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/commandes")
+@CrossOrigin(origins = "http://localhost:5173")
+public class OrderController {
+
+    private static final int MAX_PAGE_SIZE = 50;
+
+    private final CheckoutService checkoutService;
+    private final OrderHistoryService orderHistoryService;
+
+    private static final Long DEMO_USER_ID = 1L; // Utilisateur test ID=1
+
+    public OrderController(CheckoutService checkoutService, OrderHistoryService orderHistoryService) {
+        this.checkoutService = checkoutService;
+        this.orderHistoryService = orderHistoryService;
+    }
+
+    // 1. COMMANDER : le panier devient une commande (prix figés, panier vidé)
+    @PostMapping("/checkout")
+    public OrderDetails checkout() {
+        return checkoutService.checkout(DEMO_USER_ID);
+    }
+
+    // 2. HISTORIQUE : plus récentes d'abord, page suivante via nextCursor
+    @GetMapping
+    public OrderPage history(@RequestParam(required = false) String cursor,
+                             @RequestParam(defaultValue = "20") int size) {
+        OrderCursor after;
+        try {
+            after = cursor == null || cursor.isBlank() ? null : OrderCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return orderHistoryService.history(DEMO_USER_ID, after, Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+    }
+
+    // 3. DÉTAIL d'une commande de l'utilisateur
+    @GetMapping("/{id}")
+    public OrderDetails getOrder(@PathVariable Long id) {
+        return orderHistoryService.findOrder(DEMO_USER_ID, id)
+                .orElseThrow(() -> new RuntimeException("Commande introuvable"));
+    }
+}
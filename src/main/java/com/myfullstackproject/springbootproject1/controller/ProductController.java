@@ -1,32 +1,207 @@
 package com.myfullstackproject.springbootproject1.controller;
 
-import com.myfullstackproject.springbootproject1.model.Product;
+import com.myfullstackproject.springbootproject1.dto.ProductBatch;
+import com.myfullstackproject.springbootproject1.dto.ProductBatchRequest;
+import com.myfullstackproject.springbootproject1.dto.ProductDetails;
+import com.myfullstackproject.springbootproject1.dto.ProductPage;
+import com.myfullstackproject.springbootproject1.dto.ProductSearchResponse;
+import com.myfullstackproject.springbootproject1.dto.ProductSummary;
+import com.myfullstackproject.springbootproject1.dto.Recommendation;
+import com.myfullstackproject.springbootproject1.feed.ProductChangeFeed;
+import com.myfullstackproject.springbootproject1.recommendation.RecommendationService;
 import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import com.myfullstackproject.springbootproject1.search.ProductSearchService;
+import com.myfullstackproject.springbootproject1.search.SearchFilter;
+import com.myfullstackproject.springbootproject1.search.SearchResult;
+import com.myfullstackproject.springbootproject1.service.LeaderboardService;
+import com.myfullstackproject.springbootproject1.service.ProductCatalogCache;
+import com.myfullstackproject.springbootproject1.service.ProductExportService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/produits")
 @CrossOrigin(origins = "http://localhost:5173") // port Vite par défaut
 public class ProductController {
 
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final ProductRepository productRepository;
+    private final ProductExportService productExportService;
+    private final ProductCatalogCache productCatalogCache;
+    private final ProductSearchService productSearchService;
+    private final LeaderboardService leaderboardService;
+    private final RecommendationService recommendationService;
+    private final ProductChangeFeed productChangeFeed;
 
-    public ProductController(ProductRepository productRepository) {
+    public ProductController(ProductRepository productRepository,
+                             ProductExportService productExportService,
+                             ProductCatalogCache productCatalogCache,
+                             ProductSearchService productSearchService,
+                             LeaderboardService leaderboardService,
+                             RecommendationService recommendationService,
+                             ProductChangeFeed productChangeFeed) {
         this.productRepository = productRepository;
+        this.productExportService = productExportService;
+        this.productCatalogCache = productCatalogCache;
+        this.productSearchService = productSearchService;
+        this.leaderboardService = leaderboardService;
+        this.recommendationService = recommendationService;
+        this.productChangeFeed = productChangeFeed;
     }
 
-    // 1) Liste de tous les produits
+    // 1) Liste paginée des produits (pagination par curseur, tri rank | price | rating ; fields=title,price,...)
     @GetMapping
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    public ProductPage getProducts(@RequestParam(defaultValue = "rank") String sort,
+                                   @RequestParam(required = false) String direction,
+                                   @RequestParam(required = false) String cursor,
+                                   @RequestParam(defaultValue = "50") int size,
+                                   @RequestParam(required = false) String fields) {
+        ProductFieldsAdvice.select(fields);
+        return ProductPages.page(productRepository, null, sort, direction, cursor, size);
+    }
+
+    // 2) Export complet en NDJSON, écrit au fil de l'eau
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        StreamingResponseBody body = productExportService::writeNdjson;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // 3) Recherche plein texte (titre + description), filtres optionnels
+    @GetMapping("/search")
+    public ProductSearchResponse searchProducts(@RequestParam String q,
+                                                @RequestParam(required = false) Long categorieId,
+                                                @RequestParam(required = false) Double minPrice,
+                                                @RequestParam(required = false) Double maxPrice,
+                                                @RequestParam(required = false) Double minRating,
+                                                @RequestParam(defaultValue = "20") int size,
+                                                @RequestParam(required = false) String fields) {
+        ProductFieldsAdvice.select(fields);
+        int limit = Math.min(Math.max(size, 1), ProductPages.MAX_PAGE_SIZE);
+        SearchResult result = productSearchService.search(q,
+                new SearchFilter(categorieId, minPrice, maxPrice, minRating), limit);
+        if (result.hits().isEmpty()) {
+            return new ProductSearchResponse(result.totalMatches(), List.of());
+        }
+
+        // Une seule requête IN pour toute la page, puis remise dans l'ordre du score
+        List<Long> ids = result.hits().stream().map(SearchResult.Hit::productId).toList();
+        Map<Long, ProductSummary> summaries = productRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductSummary::id, Function.identity()));
+        List<ProductSearchResponse.Hit> items = new ArrayList<>(ids.size());
+        for (SearchResult.Hit hit : result.hits()) {
+            ProductSummary summary = summaries.get(hit.productId());
+            if (summary != null) {
+                items.add(new ProductSearchResponse.Hit(summary, hit.score()));
+            }
+        }
+        return new ProductSearchResponse(result.totalMatches(), items);
+    }
+
+    // 4) Classements précalculés : meilleures ventes (by=rank) ou mieux notés (by=rating), par catégorie ou global
+    @GetMapping("/top")
+    public List<ProductSummary> topProducts(@RequestParam(defaultValue = "rank") String by,
+                                            @RequestParam(required = false) Long categorieId,
+                                            @RequestParam(defaultValue = "10") int limit,
+                                            @RequestParam(required = false) String fields) {
+        ProductFieldsAdvice.select(fields);
+        LeaderboardService.Ranking ranking;
+        try {
+            ranking = LeaderboardService.Ranking.parse(by);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Classement inconnu : " + by);
+        }
+        return leaderboardService.top(ranking, categorieId, Math.min(Math.max(limit, 1), leaderboardService.size()));
+    }
+
+    // 5) Souvent achetés ensemble : voisins précalculés à partir des commandes et des paniers
+    @GetMapping("/{id}/recommandations")
+    public List<Recommendation> recommendations(@PathVariable Long id,
+                                                @RequestParam(defaultValue = "10") int limit,
+                                                @RequestParam(required = false) String fields) {
+        ProductFieldsAdvice.select(fields);
+        if (!productCatalogCache.exists(id)) {
+            throw new RuntimeException("Produit introuvable");
+        }
+        return recommendationService.recommend(id, Math.min(Math.max(limit, 1), recommendationService.topK()));
     }
 
-    // 2) Détail d’un produit par id
+    // 6) Détail d’un produit par id (servi par le cache catalogue) ; 304 si If-None-Match / If-Modified-Since correspond
     @GetMapping("/{id}")
-    public Product getProductById(@PathVariable Long id) {
-        return productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Produit introuvable"));
+    public ResponseEntity<ProductDetails> getProductById(@PathVariable Long id) {
+        return conditional(productCatalogCache.findById(id)
+                .orElseThrow(() -> new RuntimeException("Produit introuvable")));
+    }
+
+    // 7) Détail d’un produit par ASIN
+    @GetMapping("/asin/{asin}")
+    public ResponseEntity<ProductDetails> getProductByAsin(@PathVariable String asin) {
+        return conditional(productCatalogCache.findByAsin(asin)
+                .orElseThrow(() -> new RuntimeException("Produit introuvable")));
+    }
+
+    // 8) Fiches de plusieurs produits en un appel (lignes de panier, de commande) : cache catalogue,
+    //    puis une requête IN par type de clé pour les fiches manquantes
+    @PostMapping("/batch")
+    public ProductBatch getProductsBatch(@RequestBody ProductBatchRequest request) {
+        List<Long> ids = request.ids() == null ? List.of()
+                : request.ids().stream().filter(Objects::nonNull).distinct().toList();
+        List<String> asins = request.asins() == null ? List.of()
+                : request.asins().stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.size() + asins.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Au plus " + MAX_BATCH_SIZE + " produits par lot");
+        }
+        List<ProductDetails> products = productCatalogCache.findAll(ids, asins);
+        Set<Long> foundIds = products.stream().map(ProductDetails::id).collect(Collectors.toSet());
+        Set<String> foundAsins = products.stream().map(ProductDetails::asin).collect(Collectors.toSet());
+        return new ProductBatch(products,
+                ids.stream().filter(id -> !foundIds.contains(id)).toList(),
+                asins.stream().filter(asin -> !foundAsins.contains(asin)).toList());
+    }
+
+    // 9) Reconstruction complète des recommandations (commandes + paniers en cours)
+    @PostMapping("/recommandations/rebuild")
+    public RecommendationService.RebuildReport rebuildRecommendations() {
+        return recommendationService.rebuild();
+    }
+
+    // 10) Flux SSE des changements de prix et de note des produits ids=1,2,3 (état courant envoyé à l'abonnement)
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam List<Long> ids) {
+        List<Long> wanted = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (wanted.isEmpty() || wanted.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Entre 1 et " + MAX_BATCH_SIZE + " produits par flux");
+        }
+        return productChangeFeed.subscribe(wanted);
+    }
+
+    // ETag + Last-Modified : Spring répond 304 sans corps quand la requête conditionnelle correspond ;
+    // no-cache = le client garde la fiche mais la revalide à chaque fois
+    private static ResponseEntity<ProductDetails> conditional(ProductDetails details) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(details.etag());
+        if (details.lastModified() != null) {
+            response.lastModified(details.lastModified().atZone(ZoneId.systemDefault()));
+        }
+        return response.body(details);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,103 @@
+package com.myfullstackproject.springbootproject1.controller;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.myfullstackproject.springbootproject1.dto.ProductSummary;
+import org.springframework.boot.jackson.JacksonMixin;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.JacksonCodecSupport;
+import org.springframework.http.converter.AbstractJacksonHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+import tools.jackson.databind.ser.std.SimpleBeanPropertyFilter;
+import tools.jackson.databind.ser.std.SimpleFilterProvider;
+
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Paramètre {@code fields=} des listes de produits : seuls les champs demandés de {@link ProductSummary}
+ * sont sérialisés ({@code id} toujours inclus). Le filtre Jackson est passé en indication d'écriture
+ * au convertisseur ; sans {@code fields}, tous les champs sont écrits.
+ */
+@ControllerAdvice(assignableTypes = {ProductController.class, CategorieController.class})
+public class ProductFieldsAdvice implements ResponseBodyAdvice<Object> {
+
+    static final String FILTER_ID = "productFields";
+    private static final String SELECTED_ATTRIBUTE = ProductFieldsAdvice.class.getName() + ".selected";
+
+    private static final Set<String> ALLOWED = Arrays.stream(ProductSummary.class.getRecordComponents())
+            .map(RecordComponent::getName)
+            .collect(Collectors.toCollection(TreeSet::new));
+
+    /**
+     * Valide {@code fields} et le retient pour la sérialisation de la réponse en cours.
+     */
+    static void select(String fields) {
+        Set<String> selected = parse(fields);
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (selected != null && attributes != null) {
+            attributes.setAttribute(SELECTED_ATTRIBUTE, selected, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    private static Set<String> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!ALLOWED.contains(name)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Champ inconnu : " + name + " (autorisés : " + ALLOWED + ")");
+            }
+            selected.add(name);
+        }
+        return selected;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return AbstractJacksonHttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+                                  Class<? extends HttpMessageConverter<?>> converterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        return body;
+    }
+
+    @Override
+    public Map<String, Object> determineWriteHints(Object body, MethodParameter returnType, MediaType contentType,
+                                                   Class<? extends HttpMessageConverter<?>> converterType) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Object selected = attributes == null ? null : attributes.getAttribute(SELECTED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (!(selected instanceof Set<?> names)) {
+            return Map.of();
+        }
+        SimpleFilterProvider filters = new SimpleFilterProvider()
+                .addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(names.toArray(String[]::new)));
+        return Map.of(JacksonCodecSupport.FILTER_PROVIDER_HINT, filters);
+    }
+
+    // Rattache ProductSummary au filtre ; sans indication, le filtre par défaut du mapper écrit tout
+    @JacksonMixin(ProductSummary.class)
+    @JsonFilter(FILTER_ID)
+    abstract static class ProductSummaryMixin {
+    }
+}
@@ -0,0 +1,58 @@
+package com.myfullstackproject.springbootproject1.controller;
+
+import com.myfullstackproject.springbootproject1.dto.ProductPage;
+import com.myfullstackproject.springbootproject1.dto.ProductSummary;
+import com.myfullstackproject.springbootproject1.repository.ProductCursor;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import com.myfullstackproject.springbootproject1.repository.ProductSort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Lecture des paramètres de pagination par curseur, commune aux listes de produits.
+ */
+final class ProductPages {
+
+    static final int MAX_PAGE_SIZE = 200;
+
+    private ProductPages() {
+    }
+
+    static ProductPage page(ProductRepository productRepository, Long categorieId,
+                            String sort, String direction, String cursor, int size) {
+        ProductSort productSort;
+        boolean descending;
+        ProductCursor after;
+        try {
+            productSort = ProductSort.from(sort);
+            descending = descending(direction, productSort);
+            // Un curseur d'un autre tri ou d'un autre sens sauterait ou répéterait des produits : refusé
+            after = cursor == null || cursor.isBlank() ? null : ProductCursor.decode(cursor, productSort, descending);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        int limit = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        List<ProductSummary> items = productRepository.findSummariesAfter(categorieId, productSort, descending, after, limit);
+        String nextCursor = items.size() == limit
+                ? ProductCursor.after(productSort, descending, items.get(items.size() - 1)).encode()
+                : null;
+        return new ProductPage(items, nextCursor);
+    }
+
+    // Comme pour le tri : une valeur inconnue est refusée plutôt que lue comme « asc »
+    private static boolean descending(String direction, ProductSort productSort) {
+        if (direction == null) {
+            return productSort.isDescendingByDefault();
+        }
+        if ("asc".equalsIgnoreCase(direction)) {
+            return false;
+        }
+        if ("desc".equalsIgnoreCase(direction)) {
+            return true;
+        }
+        throw new IllegalArgumentException("Sens de tri inconnu : " + direction);
+    }
+}
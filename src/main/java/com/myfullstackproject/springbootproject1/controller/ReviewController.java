@@ -0,0 +1,55 @@
+package com.myfullstackproject.springbootproject1.controller;
+
+import com.myfullstackproject.springbootproject1.dto.ReviewLine;
+import com.myfullstackproject.springbootproject1.dto.ReviewPage;
+import com.myfullstackproject.springbootproject1.dto.ReviewRequest;
+import com.myfullstackproject.springbootproject1.service.ReviewService;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "http://localhost:5173")
+public class ReviewController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final ReviewService reviewService;
+
+    private static final Long DEMO_USER_ID = 1L; // Utilisateur test ID=1
+
+    public ReviewController(ReviewService reviewService) {
+        this.reviewService = reviewService;
+    }
+
+    // 1. DÉPOSER un avis (note du produit mise à jour immédiatement)
+    @PostMapping("/produits/{productId}/avis")
+    public ReviewLine addReview(@PathVariable Long productId, @RequestBody ReviewRequest request) {
+        try {
+            return reviewService.submit(DEMO_USER_ID, productId, request.stars(), request.comment());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // 2. LISTER les avis d'un produit, plus récents d'abord
+    @GetMapping("/produits/{productId}/avis")
+    public ReviewPage reviews(@PathVariable Long productId,
+                              @RequestParam(required = false) String cursor,
+                              @RequestParam(defaultValue = "20") int size) {
+        Long beforeId;
+        try {
+            beforeId = cursor == null || cursor.isBlank() ? null : Long.valueOf(cursor);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Curseur invalide");
+        }
+        return reviewService.reviews(productId, beforeId, Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+    }
+
+    // 3. RÉCONCILIER les notes de tous les produits avec avis_produits
+    @PostMapping("/avis/reconcile")
+    public ReviewService.ReconcileReport reconcile() {
+        return reviewService.reconcile();
+    }
+}
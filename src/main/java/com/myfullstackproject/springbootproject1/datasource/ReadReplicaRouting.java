@@ -0,0 +1,216 @@
+package com.myfullstackproject.springbootproject1.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Séparation lecture / écriture : les transactions {@code @Transactional(readOnly = true)} (lectures du catalogue)
+ * vont sur le pool de la réplique, tout le reste (paniers, commandes, avis, hors transaction) sur le primaire.
+ * <p>
+ * La connexion physique n'est prise qu'à la première instruction SQL ({@link LazyConnectionDataSourceProxy}) :
+ * à ce moment le drapeau readOnly de la transaction est connu et choisit le pool. Une lecture reste sur le primaire :
+ * <ul>
+ *     <li>tant que la réplique a plus de {@code datasource.replica.max-lag} de retard, ou n'a pas encore été
+ *     vérifiée, ou ne répond pas ;</li>
+ *     <li>pendant {@code datasource.replica.sticky-window} après une écriture du même thread ou, via un cookie,
+ *     du même client HTTP ({@link ReadYourWrites}).</li>
+ * </ul>
+ * Retard mesuré par une horloge : une ligne de horloge_replication écrite sur le primaire à chaque vérification,
+ * relue sur la réplique ; le retard est l'âge de la valeur relue.
+ */
+public class ReadReplicaRouting implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadReplicaRouting.class);
+
+    private static final String HEARTBEAT_UPDATE_SQL = "UPDATE horloge_replication SET horodatage_ms = ? WHERE id = 1";
+    private static final String HEARTBEAT_INSERT_SQL = "INSERT INTO horloge_replication (id, horodatage_ms) VALUES (1, ?)";
+    private static final String HEARTBEAT_SELECT_SQL = "SELECT horodatage_ms FROM horloge_replication WHERE id = 1";
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+    private final JdbcTemplate primaryJdbc;
+    private final JdbcTemplate replicaJdbc;
+    private final long maxLagMillis;
+    private final long stickyWindowMillis;
+    private final LazyConnectionDataSourceProxy dataSource;
+
+    // Réplique utilisable : faux jusqu'à la première vérification réussie
+    private volatile boolean replicaInUse;
+    private volatile Long replicaLagMillis;
+    // Vérification planifiée et appels directs (tests) : un seul aller-retour à la fois. ReentrantLock plutôt
+    // que synchronized : le thread virtuel qui attend la réplique n'épingle pas son porteur
+    private final ReentrantLock checkLock = new ReentrantLock();
+
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReadsLagging = new LongAdder();
+    private final LongAdder primaryReadsSticky = new LongAdder();
+
+    public ReadReplicaRouting(HikariDataSource primary, HikariDataSource replica, Duration maxLag,
+                              Duration stickyWindow) {
+        this.primary = primary;
+        this.replica = replica;
+        this.primaryJdbc = new JdbcTemplate(primary);
+        this.replicaJdbc = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLag.toMillis();
+        this.stickyWindowMillis = stickyWindow.toMillis();
+        // Autocommit et isolation par défaut lus sur le primaire lui-même, puis aiguillage par connexion
+        this.dataSource = new LazyConnectionDataSourceProxy(primary);
+        this.dataSource.setTargetDataSource(new Route(this::writeConnection));
+        this.dataSource.setReadOnlyDataSource(new Route(this::readConnection));
+    }
+
+    /**
+     * DataSource de l'application : une connexion paresseuse, aiguillée à la première instruction SQL.
+     */
+    public DataSource dataSource() {
+        return dataSource;
+    }
+
+    // Écriture ou hors transaction : toujours le primaire
+    private Connection writeConnection() throws SQLException {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            ReadYourWrites.writeStarted(stickyWindowMillis);
+        }
+        primaryConnections.increment();
+        return primary.getConnection();
+    }
+
+    private Connection readConnection() throws SQLException {
+        if (!replicaInUse) {
+            primaryReadsLagging.increment();
+            return primary.getConnection();
+        }
+        if (ReadYourWrites.pinned()) {
+            primaryReadsSticky.increment();
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = replica.getConnection();
+            replicaReads.increment();
+            return connection;
+        } catch (SQLException e) {
+            // Réplique injoignable : primaire jusqu'à la prochaine vérification réussie
+            unusable("replica connection failed: " + e.getMessage());
+            primaryReadsLagging.increment();
+            return primary.getConnection();
+        }
+    }
+
+    /**
+     * Écrit l'horloge sur le primaire puis relit celle de la réplique : au-delà du retard maximal, ou si la
+     * réplique ne répond pas, les lectures repassent sur le primaire jusqu'à la vérification suivante.
+     */
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-interval:1s}")
+    public void checkReplica() {
+        checkLock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            if (primaryJdbc.update(HEARTBEAT_UPDATE_SQL, now) == 0) {
+                primaryJdbc.update(HEARTBEAT_INSERT_SQL, now);
+            }
+            Long seen = replicaJdbc.queryForObject(HEARTBEAT_SELECT_SQL, Long.class);
+            long lag = Math.max(0, System.currentTimeMillis() - seen);
+            replicaLagMillis = lag;
+            if (lag > maxLagMillis) {
+                unusable("replica lag " + lag + " ms > " + maxLagMillis + " ms");
+            } else if (!replicaInUse) {
+                replicaInUse = true;
+                log.info("Read-only transactions routed to the replica (lag {} ms)", lag);
+            }
+        } catch (DataAccessException e) {
+            replicaLagMillis = null;
+            unusable("replica check failed: " + e.getMessage());
+        } finally {
+            checkLock.unlock();
+        }
+    }
+
+    private void unusable(String reason) {
+        if (replicaInUse) {
+            replicaInUse = false;
+            log.warn("Read-only transactions routed to the primary: {}", reason);
+        }
+    }
+
+    public Metrics metrics() {
+        return new Metrics(replicaInUse, replicaLagMillis, primaryConnections.sum(), replicaReads.sum(),
+                primaryReadsLagging.sum(), primaryReadsSticky.sum(),
+                List.of(pool("primary", primary), pool("replica", replica)));
+    }
+
+    HikariDataSource primary() {
+        return primary;
+    }
+
+    HikariDataSource replica() {
+        return replica;
+    }
+
+    @Override
+    public void close() {
+        replica.close();
+        primary.close();
+    }
+
+    // Le pool Hikari n'existe qu'après la première connexion
+    private static Pool pool(String role, HikariDataSource dataSource) {
+        HikariPoolMXBean bean = dataSource.getHikariPoolMXBean();
+        if (bean == null) {
+            return new Pool(role, dataSource.getPoolName(), 0, 0, 0, 0);
+        }
+        return new Pool(role, dataSource.getPoolName(), bean.getActiveConnections(), bean.getIdleConnections(),
+                bean.getTotalConnections(), bean.getThreadsAwaitingConnection());
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+
+    private static final class Route extends AbstractDataSource {
+
+        private final ConnectionSupplier supplier;
+
+        Route(ConnectionSupplier supplier) {
+            this.supplier = supplier;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return supplier.get();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new SQLException("Identifiants fixés par le pool");
+        }
+    }
+
+    /**
+     * {@code primaryConnections} : écritures et accès hors transaction ; {@code primaryReadsLagging} : lectures
+     * renvoyées au primaire faute de réplique à jour ; {@code primaryReadsSticky} : lectures d'un client qui vient d'écrire.
+     */
+    public record Metrics(boolean replicaInUse, Long replicaLagMillis, long primaryConnections, long replicaReads,
+                          long primaryReadsLagging, long primaryReadsSticky, List<Pool> pools) {
+    }
+
+    public record Pool(String role, String name, int active, int idle, int total, int waiting) {
+    }
+}
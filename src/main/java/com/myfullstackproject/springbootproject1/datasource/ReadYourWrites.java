@@ -0,0 +1,82 @@
+package com.myfullstackproject.springbootproject1.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Lecture de ses propres écritures, portée par le thread : après une transaction en écriture, ses lectures
+ * restent sur le primaire pendant la fenêtre {@code datasource.replica.sticky-window}. Cela couvre les
+ * consommateurs d'événements après commit (index de recherche, classements), exécutés
+ * sur le thread qui a écrit, et la suite de la requête HTTP.
+ * <p>
+ * Entre deux requêtes du même client, l'échéance passe par le cookie de {@link ReadYourWritesFilter}.
+ * <p>
+ * Les lectures partagées entre clients (cache catalogue, flux SSE) ne peuvent pas compter sur l'épinglage de
+ * celui qui a écrit : elles passent par {@link #onPrimary} quand elles suivent une modification.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<State> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    static void begin(long pinnedUntil, Runnable onFirstWrite) {
+        CURRENT.set(new State(pinnedUntil, onFirstWrite));
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Exécute {@code work} avec toutes ses lectures sur le primaire, quel que soit le thread.
+     * Sans réplique configurée, ne change rien.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        if (PRIMARY.get() != null) {
+            return work.get();
+        }
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            PRIMARY.remove();
+        }
+    }
+
+    static boolean pinned() {
+        if (PRIMARY.get() != null) {
+            return true;
+        }
+        State state = CURRENT.get();
+        return state != null && System.currentTimeMillis() < state.pinnedUntil;
+    }
+
+    static void writeStarted(long windowMillis) {
+        State state = CURRENT.get();
+        if (state == null) {
+            // Hors requête HTTP (import, tâche planifiée) : le thread seul est épinglé
+            state = new State(0, null);
+            CURRENT.set(state);
+        }
+        state.pinnedUntil = Math.max(state.pinnedUntil, System.currentTimeMillis() + windowMillis);
+        if (!state.written) {
+            state.written = true;
+            if (state.onFirstWrite != null) {
+                state.onFirstWrite.run();
+            }
+        }
+    }
+
+    private static final class State {
+        long pinnedUntil;
+        boolean written;
+        final Runnable onFirstWrite;
+
+        State(long pinnedUntil, Runnable onFirstWrite) {
+            this.pinnedUntil = pinnedUntil;
+            this.onFirstWrite = onFirstWrite;
+        }
+    }
+}
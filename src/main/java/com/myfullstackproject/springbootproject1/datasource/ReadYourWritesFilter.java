@@ -0,0 +1,74 @@
+package com.myfullstackproject.springbootproject1.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Après une écriture, les requêtes suivantes du même client restent sur le primaire pendant
+ * {@code datasource.replica.sticky-window} : la réplique, en retard de quelques millisecondes à quelques
+ * secondes, ne renverrait pas encore le panier ou la commande qu'il vient de modifier.
+ * <p>
+ * L'échéance est gardée côté client dans un cookie (pas de session, plusieurs instances possibles) ;
+ * sans authentification, « le client » est le navigateur qui a écrit.
+ */
+@Component
+@ConditionalOnProperty(name = "datasource.replica.enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "primary-until";
+
+    private final Duration stickyWindow;
+
+    public ReadYourWritesFilter(@Value("${datasource.replica.sticky-window:5s}") Duration stickyWindow) {
+        this.stickyWindow = stickyWindow;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ReadYourWrites.begin(pinnedUntil(request), () -> pin(response));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.end();
+        }
+    }
+
+    private void pin(HttpServletResponse response) {
+        if (response.isCommitted()) {
+            return;
+        }
+        Cookie cookie = new Cookie(COOKIE, Long.toString(System.currentTimeMillis() + stickyWindow.toMillis()));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.max(1, stickyWindow.toSeconds()));
+        response.addCookie(cookie);
+    }
+
+    private static long pinnedUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
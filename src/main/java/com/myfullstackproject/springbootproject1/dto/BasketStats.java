@@ -0,0 +1,7 @@
+package com.myfullstackproject.springbootproject1.dto;
+
+/**
+ * Panier moyen sur une période : montant et nombre d'articles par commande.
+ */
+public record BasketStats(long orders, double revenue, long items, double averageAmount, double averageItems) {
+}
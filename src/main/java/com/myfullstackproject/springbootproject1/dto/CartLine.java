@@ -0,0 +1,13 @@
+package com.myfullstackproject.springbootproject1.dto;
+
+/**
+ * Ligne de panier telle qu'envoyée au client : quantité + résumé produit, sans l'utilisateur.
+ */
+public record CartLine(Long id, Integer quantity, ProductSummary product) {
+
+    // Constructeur à plat pour les projections JPQL (pas de constructeur imbriqué en JPQL)
+    public CartLine(Long id, Integer quantity, Long productId, String asin, String title, Double price,
+                    Double rating, Long ratingCount, Integer rank, String imageUrl, Long categorieId) {
+        this(id, quantity, new ProductSummary(productId, asin, title, price, rating, ratingCount, rank, imageUrl, categorieId));
+    }
+}
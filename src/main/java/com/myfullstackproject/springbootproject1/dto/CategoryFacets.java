@@ -0,0 +1,24 @@
+package com.myfullstackproject.springbootproject1.dto;
+
+import java.util.List;
+
+/**
+ * Agrégats précalculés d'une catégorie : nombre de produits, histogramme des prix, répartition des notes.
+ * {@code unknown} compte les produits sans prix (resp. sans note).
+ */
+public record CategoryFacets(
+        Long id,
+        String nom,
+        long productCount,
+        Double averagePrice,
+        List<Bucket> priceHistogram,
+        long unknownPrice,
+        List<Bucket> ratingDistribution,
+        long unknownRating) {
+
+    /**
+     * Intervalle [from, to[ ; {@code to} null pour le dernier.
+     */
+    public record Bucket(double from, Double to, long count) {
+    }
+}
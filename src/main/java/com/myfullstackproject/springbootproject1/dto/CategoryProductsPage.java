@@ -0,0 +1,9 @@
+package com.myfullstackproject.springbootproject1.dto;
+
+import java.util.List;
+
+/**
+ * Page produits d'une catégorie, accompagnée de ses facettes.
+ */
+public record CategoryProductsPage(CategoryFacets facets, List<ProductSummary> items, String nextCursor) {
+}
@@ -0,0 +1,7 @@
+package com.myfullstackproject.springbootproject1.dto;
+
+/**
+ * Chiffre d'affaires d'une catégorie sur une période ; categorieId null = produits sans catégorie.
+ */
+public record CategoryRevenue(Long categorieId, String categorieNom, double revenue, long quantity) {
+}
@@ -0,0 +1,14 @@
+package com.myfullstackproject.springbootproject1.dto;
+
+/**
+ * Ligne de panier lue au moment de la commande : quantité, stock et version courants du produit.
+ */
+public record CheckoutLine(ProductSummary product, Integer quantity, Integer stock, long version) {
+
+    // Constructeur à plat pour les projections JPQL (pas de constructeur imbriqué en JPQL)
+    public CheckoutLine(Long productId, String asin, String title, Double price, Double rating, Long ratingCount,
+                        Integer rank, String imageUrl, Long categorieId, Integer quantity, Integer stock, long version) {
+        this(new ProductSummary(productId, asin, title, price, rating, ratingCount, rank, imageUrl, categorieId),
+                quantity, stock, version);
+    }
+}
@@ -0,0 +1,6 @@
+package com.myfullstackproject.springbootproject1.dto;
+
+import java.time.LocalDate;
+
+public record DailyRevenue(LocalDate day, double revenue, long orders, long items) {
+}
@@ -0,0 +1,14 @@
+package com.myfullstackproject.springbootproject1.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Commande telle qu'envoyée au client, sans l'utilisateur.
+ */
+public record OrderDetails(
+        Long id,
+        LocalDateTime createdAt,
+        Double totalAmount,
+        List<OrderLine> items) {
+}
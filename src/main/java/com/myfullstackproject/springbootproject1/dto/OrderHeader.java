@@ -0,0 +1,9 @@
+package com.myfullstackproject.springbootproject1.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * En-tête de commande (sans les lignes), lu par projection.
+ */
+public record OrderHeader(Long id, LocalDateTime createdAt, Double totalAmount) {
+}
@@ -0,0 +1,14 @@
+package com.myfullstackproject.springbootproject1.dto;
+
+/**
+ * Ligne de commande rattachée à sa commande, pour regrouper les lignes d'une page de commandes.
+ */
+public record OrderItemRow(Long orderId, OrderLine line) {
+
+    // Constructeur à plat pour les projections JPQL (pas de constructeur imbriqué en JPQL)
+    public OrderItemRow(Long orderId, Integer quantity, Double unitPrice, Long productId, String asin, String title,
+                        Double price, Double rating, Long ratingCount, Integer rank, String imageUrl, Long categorieId) {
+        this(orderId, new OrderLine(quantity, unitPrice,
+                new ProductSummary(productId, asin, title, price, rating, ratingCount, rank, imageUrl, categorieId)));
+    }
+}
@@ -0,0 +1,7 @@
+package com.myfullstackproject.springbootproject1.dto;
+
+/**
+ * Ligne de commande : quantité, prix unitaire figé au moment de la commande et résumé produit.
+ */
+public record OrderLine(Integer quantity, Double unitPrice, ProductSummary product) {
+}
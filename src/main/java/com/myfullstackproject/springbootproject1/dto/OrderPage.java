@@ -0,0 +1,9 @@
+package com.myfullstackproject.springbootproject1.dto;
+
+import java.util.List;
+
+/**
+ * Page de l'historique de commandes ; {@code nextCursor} est null sur la dernière page.
+ */
+public record OrderPage(List<OrderDetails> items, String nextCursor) {
+}
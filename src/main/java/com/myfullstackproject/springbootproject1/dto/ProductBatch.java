@@ -0,0 +1,9 @@
+package com.myfullstackproject.springbootproject1.dto;
+
+import java.util.List;
+
+/**
+ * Fiches trouvées (ids puis ASIN, dans l'ordre demandé, sans doublon) et clés sans produit.
+ */
+public record ProductBatch(List<ProductDetails> products, List<Long> missingIds, List<String> missingAsins) {
+}
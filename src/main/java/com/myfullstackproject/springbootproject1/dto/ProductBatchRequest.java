@@ -0,0 +1,9 @@
+package com.myfullstackproject.springbootproject1.dto;
+
+import java.util.List;
+
+/**
+ * Corps de POST /api/produits/batch : ids et / ou ASIN, l'un ou l'autre pouvant manquer.
+ */
+public record ProductBatchRequest(List<Long> ids, List<String> asins) {
+}
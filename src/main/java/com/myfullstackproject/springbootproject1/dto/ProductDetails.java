@@ -0,0 +1,43 @@
+package com.myfullstackproject.springbootproject1.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.myfullstackproject.springbootproject1.util.Fnv64;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fiche produit complète, sans association JPA : peut être mise en cache et sérialisée hors session.
+ */
+public record ProductDetails(
+        Long id,
+        String asin,
+        String title,
+        Double price,
+        Double rating,
+        Long ratingCount,
+        Integer rank,
+        String description,
+        String imageUrl,
+        String noSellers,
+        Long categorieId,
+        String categorieNom,
+        // Servi en en-tête Last-Modified, pas dans le corps
+        @JsonIgnore LocalDateTime lastModified) {
+
+    public ProductSummary toSummary() {
+        return new ProductSummary(id, asin, title, price, rating, ratingCount, rank, imageUrl, categorieId);
+    }
+
+    /**
+     * Empreinte 64 bits du contenu renvoyé (hors date de modification) : même fiche, même ETag, quelle que soit
+     * l'instance. Sur 32 bits, deux versions d'une fiche pouvaient partager un ETag et servir un 304 périmé.
+     */
+    public String etag() {
+        long h = Fnv64.OFFSET;
+        for (Object field : new Object[]{id, asin, title, price, rating, ratingCount, rank,
+                description, imageUrl, noSellers, categorieId, categorieNom}) {
+            h = Fnv64.hash(h, field);
+        }
+        return Long.toHexString(h);
+    }
+}
@@ -0,0 +1,7 @@
+package com.myfullstackproject.springbootproject1.dto;
+
+/**
+ * Colonnes d'un produit qui alimentent les facettes de catégorie.
+ */
+public record ProductFacetRow(Long id, Long categorieId, Double price, Double rating) {
+}
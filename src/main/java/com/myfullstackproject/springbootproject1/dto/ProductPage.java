@@ -0,0 +1,9 @@
+package com.myfullstackproject.springbootproject1.dto;
+
+import java.util.List;
+
+/**
+ * Page de produits ; {@code nextCursor} est null sur la dernière page.
+ */
+public record ProductPage(List<ProductSummary> items, String nextCursor) {
+}
@@ -0,0 +1,11 @@
+package com.myfullstackproject.springbootproject1.dto;
+
+/**
+ * Événement du flux /api/produits/stream : prix et note moyenne courants d'un produit.
+ */
+public record ProductPriceChange(Long id, Double prix, Double noteMoyenne) {
+
+    public static ProductPriceChange of(ProductDetails details) {
+        return new ProductPriceChange(details.id(), details.price(), details.rating());
+    }
+}
@@ -0,0 +1,12 @@
+package com.myfullstackproject.springbootproject1.dto;
+
+import java.util.List;
+
+/**
+ * Résultats de recherche classés ; {@code total} compte toutes les correspondances, pas seulement la page.
+ */
+public record ProductSearchResponse(long total, List<Hit> items) {
+
+    public record Hit(ProductSummary product, double score) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.myfullstackproject.springbootproject1.dto;
+
+/**
+ * Vue légère d'un produit pour les listes : pas de description (TEXT) ni d'associations.
+ */
+public record ProductSummary(
+        Long id,
+        String asin,
+        String title,
+        Double price,
+        Double rating,
+        Long ratingCount,
+        Integer rank,
+        String imageUrl,
+        Long categorieId) {
+}
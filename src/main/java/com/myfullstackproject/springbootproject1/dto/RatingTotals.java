@@ -0,0 +1,7 @@
+package com.myfullstackproject.springbootproject1.dto;
+
+/**
+ * Somme des étoiles et nombre d'avis locaux d'un produit, calculés en base (GROUP BY).
+ */
+public record RatingTotals(Long productId, Long starSum, Long count) {
+}
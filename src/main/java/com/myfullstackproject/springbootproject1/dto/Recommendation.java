@@ -0,0 +1,7 @@
+package com.myfullstackproject.springbootproject1.dto;
+
+/**
+ * Produit souvent acheté avec le produit consulté ; {@code score} entre 0 et 1 (cosinus des co-occurrences).
+ */
+public record Recommendation(ProductSummary product, double score) {
+}
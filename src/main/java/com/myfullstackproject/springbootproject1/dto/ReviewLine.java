@@ -0,0 +1,9 @@
+package com.myfullstackproject.springbootproject1.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Avis tel qu'affiché sous un produit : seul le nom de l'auteur est exposé.
+ */
+public record ReviewLine(Long id, Integer stars, String comment, LocalDateTime createdAt, String author) {
+}
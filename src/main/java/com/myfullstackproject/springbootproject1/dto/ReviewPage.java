@@ -0,0 +1,9 @@
+package com.myfullstackproject.springbootproject1.dto;
+
+import java.util.List;
+
+/**
+ * Page d'avis d'un produit ; {@code nextCursor} est null sur la dernière page.
+ */
+public record ReviewPage(List<ReviewLine> items, String nextCursor) {
+}
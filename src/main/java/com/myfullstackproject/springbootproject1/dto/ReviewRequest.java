@@ -0,0 +1,7 @@
+package com.myfullstackproject.springbootproject1.dto;
+
+/**
+ * Corps de la requête de dépôt d'avis.
+ */
+public record ReviewRequest(Integer stars, String comment) {
+}
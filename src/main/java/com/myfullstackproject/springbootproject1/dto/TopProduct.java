@@ -0,0 +1,7 @@
+package com.myfullstackproject.springbootproject1.dto;
+
+/**
+ * Produit classé par quantité vendue ; {@code product} est null si le produit a été supprimé depuis.
+ */
+public record TopProduct(Long productId, ProductSummary product, long quantity, double revenue) {
+}
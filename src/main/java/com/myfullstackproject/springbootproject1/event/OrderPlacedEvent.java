@@ -0,0 +1,14 @@
+package com.myfullstackproject.springbootproject1.event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Publié dans la transaction de commande ; les abonnés le reçoivent après le commit.
+ * Porte tout ce qu'il faut aux agrégats de ventes, sans relire commandes ni produits.
+ */
+public record OrderPlacedEvent(Long orderId, LocalDateTime createdAt, List<Line> lines) {
+
+    public record Line(Long productId, Long categorieId, int quantity, double unitPrice) {
+    }
+}
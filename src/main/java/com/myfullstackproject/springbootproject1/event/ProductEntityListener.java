@@ -0,0 +1,27 @@
+package com.myfullstackproject.springbootproject1.event;
+
+import com.myfullstackproject.springbootproject1.model.Product;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Relaie les écritures JPA sur {@link Product} en {@link ProductsChangedEvent}.
+ * Instancié par Spring (conteneur de beans Hibernate), d'où l'injection par constructeur.
+ */
+public class ProductEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProductEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void productChanged(Product product) {
+        eventPublisher.publishEvent(ProductsChangedEvent.ofProduct(product.getId(), product.getAsin()));
+    }
+}
@@ -0,0 +1,18 @@
+package com.myfullstackproject.springbootproject1.event;
+
+import java.util.Set;
+
+/**
+ * Publié quand des produits sont créés, modifiés ou supprimés (save JPA ou import CSV).
+ * Selon la source on connaît l'id, l'ASIN ou les deux ; les abonnés (caches, index) invalident ce qu'ils peuvent.
+ */
+public record ProductsChangedEvent(Set<Long> ids, Set<String> asins) {
+
+    public static ProductsChangedEvent ofProduct(Long id, String asin) {
+        return new ProductsChangedEvent(id == null ? Set.of() : Set.of(id), asin == null ? Set.of() : Set.of(asin));
+    }
+
+    public static ProductsChangedEvent ofAsins(Set<String> asins) {
+        return new ProductsChangedEvent(Set.of(), Set.copyOf(asins));
+    }
+}
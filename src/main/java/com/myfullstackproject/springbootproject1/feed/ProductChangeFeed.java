@@ -0,0 +1,300 @@
+package com.myfullstackproject.springbootproject1.feed;
+
+import com.myfullstackproject.springbootproject1.datasource.ReadYourWrites;
+import com.myfullstackproject.springbootproject1.dto.ProductDetails;
+import com.myfullstackproject.springbootproject1.dto.ProductPriceChange;
+import com.myfullstackproject.springbootproject1.event.ProductsChangedEvent;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import com.myfullstackproject.springbootproject1.service.ProductCatalogCache;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Flux SSE des changements de prix et de note moyenne (GET /api/produits/stream), à la place du polling
+ * des fiches produit ouvertes.
+ * <p>
+ * Les {@link ProductsChangedEvent} (save JPA, import, avis) ne font que marquer les produits suivis par au moins
+ * un abonné. Toutes les {@code catalog.stream.coalesce-window}, les produits marqués sont relus d'un coup, en une
+ * requête IN sur le primaire : ni une réplique en retard ni un chargement du cache commencé avant la modification
+ * ne doivent faire passer le nouveau prix pour inchangé. Plusieurs modifications d'un même produit dans la
+ * fenêtre donnent un seul événement, et rien n'est envoyé si ni le prix ni la note n'ont changé. L'événement est sérialisé une fois,
+ * puis déposé dans le tampon borné de chaque abonné.
+ * <p>
+ * Un abonné inactif ne coûte qu'une requête asynchrone en attente (aucun thread) ; un thread virtuel n'écrit
+ * sur sa connexion que lorsque son tampon contient quelque chose. Un client trop lent dont le tampon déborde
+ * est déconnecté : EventSource se reconnecte et repart de l'état courant, envoyé à l'abonnement.
+ */
+@Service
+public class ProductChangeFeed {
+
+    public static final String EVENT_NAME = "produit";
+
+    // Commentaire SSE : garde la connexion ouverte et détecte les clients partis
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("ping").build();
+
+    private final ProductCatalogCache productCatalogCache;
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final long timeoutMillis;
+
+    private final Map<Long, Topic> topics = new ConcurrentHashMap<>();
+    // ASIN -> id des produits suivis : les événements d'import ne portent parfois que l'ASIN
+    private final Map<String, Long> idsByAsin = new ConcurrentHashMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder notifications = new LongAdder();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public ProductChangeFeed(ProductCatalogCache productCatalogCache,
+                             ProductRepository productRepository,
+                             ObjectMapper objectMapper,
+                             @Value("${catalog.stream.buffer-size:32}") int bufferSize,
+                             @Value("${catalog.stream.timeout:30m}") Duration timeout) {
+        this.productCatalogCache = productCatalogCache;
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    /**
+     * Abonne un client aux produits {@code ids} ; leur état courant est envoyé tout de suite.
+     */
+    public SseEmitter subscribe(Collection<Long> ids) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = register(emitter, ids);
+        for (ProductDetails details : productCatalogCache.findAll(subscriber.ids, List.of())) {
+            ProductPriceChange current = ProductPriceChange.of(details);
+            Topic topic = topics.get(details.id());
+            if (topic != null && topic.initialize(current, details.asin())) {
+                idsByAsin.put(details.asin(), details.id());
+            }
+            subscriber.offer(frame(current));
+        }
+        return emitter;
+    }
+
+    Subscriber register(SseEmitter emitter, Collection<Long> ids) {
+        Subscriber subscriber = new Subscriber(emitter, Set.copyOf(ids), bufferSize);
+        subscribers.add(subscriber);
+        for (Long id : subscriber.ids) {
+            topics.compute(id, (key, topic) -> {
+                Topic current = topic != null ? topic : new Topic();
+                current.subscribers.add(subscriber);
+                return current;
+            });
+        }
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+        // Fin normale du flux : le client se reconnecte (sinon Spring répondrait 503)
+        emitter.onTimeout(emitter::complete);
+        return subscriber;
+    }
+
+    // Après commit : la fiche relue au prochain flush est celle qui vient d'être écrite
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        if (topics.isEmpty()) {
+            return;
+        }
+        for (Long id : event.ids()) {
+            if (topics.containsKey(id)) {
+                pending.add(id);
+                notifications.increment();
+            }
+        }
+        for (String asin : event.asins()) {
+            Long id = idsByAsin.get(asin);
+            if (id != null) {
+                pending.add(id);
+                notifications.increment();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.stream.coalesce-window:250ms}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            List<Long> ids = new ArrayList<>(pending.size());
+            for (Iterator<Long> it = pending.iterator(); it.hasNext(); ) {
+                ids.add(it.next());
+                it.remove();
+            }
+            // Entrées du cache tout juste invalidées : la lecture directe ne coûte rien de plus
+            List<ProductDetails> changed = ReadYourWrites.onPrimary(() -> productRepository.findDetailsByIdIn(ids));
+            for (ProductDetails details : changed) {
+                Topic topic = topics.get(details.id());
+                ProductPriceChange change = ProductPriceChange.of(details);
+                // Titre, stock, description... : rien pour le flux
+                if (topic == null || change.equals(topic.last)) {
+                    continue;
+                }
+                topic.last = change;
+                published.increment();
+                Set<DataWithMediaType> frame = frame(change);
+                for (Subscriber subscriber : topic.subscribers) {
+                    subscriber.offer(frame);
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.stream.heartbeat:30s}", initialDelayString = "${catalog.stream.heartbeat:30s}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(HEARTBEAT);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        for (Subscriber subscriber : subscribers) {
+            unsubscribe(subscriber);
+            subscriber.emitter.complete();
+        }
+        senders.shutdownNow();
+    }
+
+    public Metrics metrics() {
+        return new Metrics(subscribers.size(), topics.size(), notifications.sum(), published.sum(),
+                delivered.sum(), dropped.sum());
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        for (Long id : subscriber.ids) {
+            topics.computeIfPresent(id, (key, topic) -> {
+                topic.subscribers.remove(subscriber);
+                if (!topic.subscribers.isEmpty()) {
+                    return topic;
+                }
+                if (topic.asin != null) {
+                    idsByAsin.remove(topic.asin, key);
+                }
+                return null;
+            });
+        }
+    }
+
+    private Set<DataWithMediaType> frame(ProductPriceChange change) {
+        return SseEmitter.event()
+                .id(Long.toString(sequence.incrementAndGet()))
+                .name(EVENT_NAME)
+                .data(objectMapper.writeValueAsString(change), MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    /**
+     * {@code notifications} : modifications reçues pour des produits suivis ; {@code published} : événements
+     * émis après regroupement ; {@code delivered} : événements écrits sur les connexions ;
+     * {@code dropped} : clients déconnectés parce que leur tampon débordait.
+     */
+    public record Metrics(int subscribers, int products, long notifications, long published,
+                          long delivered, long dropped) {
+    }
+
+    // Abonnés d'un produit et dernier état envoyé ; last n'est écrit que par le flush (et à la création)
+    private static final class Topic {
+
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        private volatile ProductPriceChange last;
+        private volatile String asin;
+
+        synchronized boolean initialize(ProductPriceChange current, String asin) {
+            if (this.asin != null) {
+                return false;
+            }
+            this.asin = asin;
+            if (last == null) {
+                last = current;
+            }
+            return true;
+        }
+    }
+
+    final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Set<Long> ids;
+        private final BlockingQueue<Set<DataWithMediaType>> buffer;
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, Set<Long> ids, int bufferSize) {
+            this.emitter = emitter;
+            this.ids = ids;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        void offer(Set<DataWithMediaType> frame) {
+            if (!buffer.offer(frame)) {
+                // Client trop lent : déconnecté sans attendre (l'écriture en cours peut bloquer l'emitter)
+                dropped.increment();
+                unsubscribe(this);
+                senders.execute(emitter::complete);
+                return;
+            }
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                do {
+                    Set<DataWithMediaType> frame;
+                    while ((frame = buffer.poll()) != null) {
+                        emitter.send(frame);
+                        if (frame != HEARTBEAT) {
+                            delivered.increment();
+                        }
+                    }
+                    sending.set(false);
+                    // Trame déposée entre le dernier poll et la remise à false
+                } while (!buffer.isEmpty() && sending.compareAndSet(false, true));
+            } catch (IOException | IllegalStateException e) {
+                // Connexion fermée ou emitter déjà terminé
+                unsubscribe(this);
+            }
+        }
+    }
+}
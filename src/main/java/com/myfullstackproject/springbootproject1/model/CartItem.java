@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "articles_panier")
+@Table(name = "articles_panier", uniqueConstraints =
+        // Une ligne par (utilisateur, produit) : cible de l'upsert d'ajout au panier
+        @UniqueConstraint(name = "uk_panier_utilisateur_produit", columnNames = {"utilisateur_id", "produit_id"}))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -20,7 +22,7 @@ public class CartItem {
     @JoinColumn(name = "utilisateur_id")
     private Utilisateur utilisateur;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "produit_id")
     private com.myfullstackproject.springbootproject1.model.Product product;
 
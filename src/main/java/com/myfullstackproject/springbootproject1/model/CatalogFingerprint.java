@@ -0,0 +1,25 @@
+package com.myfullstackproject.springbootproject1.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Empreinte (hash 64 bits) de la dernière ligne du CSV fournisseur appliquée pour un ASIN.
+ * Écrite et lue en JDBC par l'import différentiel (CatalogDeltaImporter, ProductBatchWriter).
+ */
+@Entity
+@Table(name = "empreintes_catalogue")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogFingerprint {
+
+    @Id
+    @Column(name = "code_asin")
+    private String asin;
+
+    // 0 : produit retiré du fichier mais conservé (commandes, avis ou paniers), stock à 0
+    @Column(name = "empreinte", nullable = false)
+    private long fingerprint;
+}
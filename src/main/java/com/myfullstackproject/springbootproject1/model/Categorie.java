@@ -1,7 +1,11 @@
 package com.myfullstackproject.springbootproject1.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.myfullstackproject.springbootproject1.config.SecondLevelCacheConfiguration;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.List;
 
 @Entity
@@ -10,6 +14,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfiguration.CATEGORIES)
 public class Categorie {
 
     @Id
@@ -22,6 +27,9 @@ public class Categorie {
     @Column(columnDefinition = "TEXT")
     private String description;
 
+    // Pas de sérialisation de la collection : cycle Product -> Categorie -> produits.
+    // Pas de cache non plus : l'import et les suppressions changent l'appartenance en JDBC, sans la voir
+    @JsonIgnore
     @OneToMany(mappedBy = "categorie")
     private List<Product> produits;
 }
\ No newline at end of file
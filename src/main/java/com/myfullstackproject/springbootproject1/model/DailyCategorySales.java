@@ -0,0 +1,37 @@
+package com.myfullstackproject.springbootproject1.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Ventes d'une catégorie sur une journée ; categorie_id = 0 pour les produits sans catégorie.
+ */
+@Entity
+@Table(name = "stats_ventes_categorie_jour", uniqueConstraints =
+        @UniqueConstraint(name = "uk_stats_categorie_jour", columnNames = {"jour", "categorie_id"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyCategorySales {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "jour", nullable = false)
+    private LocalDate day;
+
+    // Pas de clé étrangère : l'historique survit à la suppression d'une catégorie
+    @Column(name = "categorie_id", nullable = false)
+    private Long categorieId;
+
+    @Column(name = "chiffre_affaires", nullable = false)
+    private double revenue;
+
+    @Column(name = "quantite", nullable = false)
+    private long quantity;
+}
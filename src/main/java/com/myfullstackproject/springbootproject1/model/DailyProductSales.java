@@ -0,0 +1,37 @@
+package com.myfullstackproject.springbootproject1.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Ventes d'un produit sur une journée (meilleures ventes sur une période).
+ */
+@Entity
+@Table(name = "stats_ventes_produit_jour", uniqueConstraints =
+        @UniqueConstraint(name = "uk_stats_produit_jour", columnNames = {"jour", "produit_id"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyProductSales {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "jour", nullable = false)
+    private LocalDate day;
+
+    // Pas de clé étrangère : l'historique survit à la suppression du produit
+    @Column(name = "produit_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "chiffre_affaires", nullable = false)
+    private double revenue;
+
+    @Column(name = "quantite", nullable = false)
+    private long quantity;
+}
@@ -0,0 +1,32 @@
+package com.myfullstackproject.springbootproject1.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Agrégat des ventes d'une journée, tenu à jour par SalesRollupService (pas d'écriture JPA).
+ */
+@Entity
+@Table(name = "stats_ventes_jour")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailySales {
+
+    @Id
+    @Column(name = "jour")
+    private LocalDate day;
+
+    @Column(name = "chiffre_affaires", nullable = false)
+    private double revenue;
+
+    @Column(name = "commandes", nullable = false)
+    private long orders;
+
+    @Column(name = "articles", nullable = false)
+    private long items;
+}
@@ -8,7 +8,11 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "commandes")
+@Table(name = "commandes", indexes = {
+        // Historique d'un utilisateur par date : pagination par clé (date_creation, id)
+        @Index(name = "idx_commandes_utilisateur_date", columnList = "utilisateur_id, date_creation, id"),
+        // Commandes pas encore comptées dans les agrégats de ventes (rattrapage au démarrage)
+        @Index(name = "idx_commandes_agregee", columnList = "agregee")})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -30,6 +34,11 @@ public class Order {
     @Column(name = "montant_total")
     private Double totalAmount;
 
+    // Comptée dans les agrégats de ventes ; écrit uniquement par SalesRollupService (jamais par un UPDATE JPA)
+    @Builder.Default
+    @Column(name = "agregee", nullable = false, updatable = false)
+    private boolean aggregated = false;
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
     private List<OrderItem> items;
 }
\ No newline at end of file
@@ -1,10 +1,30 @@
 package com.myfullstackproject.springbootproject1.model;
 
+import com.myfullstackproject.springbootproject1.config.SecondLevelCacheConfiguration;
+import com.myfullstackproject.springbootproject1.event.ProductEntityListener;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "produits")
+@Table(name = "produits", indexes = {
+        // Pagination par clé : (clé de tri, id)
+        @Index(name = "idx_produits_rang", columnList = "rang_amazon, id"),
+        @Index(name = "idx_produits_prix", columnList = "prix, id"),
+        @Index(name = "idx_produits_note", columnList = "note_moyenne, id"),
+        @Index(name = "idx_produits_categorie_rang", columnList = "categorie_id, rang_amazon, id"),
+        // Profil prod : créés par la migration V2 (db/migration)
+        @Index(name = "idx_produits_categorie_prix", columnList = "categorie_id, prix, id"),
+        @Index(name = "idx_produits_categorie_note", columnList = "categorie_id, note_moyenne, id")
+})
+@EntityListeners(ProductEntityListener.class)
+// Écritures JDBC (import, avis, réservation de stock) : entrées évincées par EntityCacheInvalidator
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfiguration.PRODUCTS)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -50,4 +70,38 @@ public class Product {
 
     @Column(name = "Nombre_vendur")
     private String no_sellers;
+
+    // Stock disponible ; null = non suivi (le CSV du catalogue n'en fournit pas)
+    @Column(name = "stock")
+    private Integer stock;
+
+    // Agrégats des avis, écrits uniquement en SQL (ReviewService, ProductBatchWriter) :
+    // valeur catalogue figée au premier avis local + somme et nombre des avis locaux.
+    // note_moyenne / nombre_avis en sont la combinaison.
+    @ColumnDefault("0")
+    @Column(name = "somme_notes_catalogue", nullable = false, insertable = false, updatable = false)
+    private double catalogRatingSum;
+
+    @ColumnDefault("0")
+    @Column(name = "nombre_avis_catalogue", nullable = false, insertable = false, updatable = false)
+    private long catalogRatingCount;
+
+    @ColumnDefault("0")
+    @Column(name = "somme_avis", nullable = false, insertable = false, updatable = false)
+    private long localRatingSum;
+
+    @ColumnDefault("0")
+    @Column(name = "nombre_avis_locaux", nullable = false, insertable = false, updatable = false)
+    private long localRatingCount;
+
+    // Dernière modification de la fiche (Last-Modified HTTP) ; renseignée aussi par les écritures SQL
+    @UpdateTimestamp
+    @Column(name = "date_modification")
+    private LocalDateTime lastModified;
+
+    // Verrou optimiste : incrémenté à chaque changement de prix ou de stock
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
 }
\ No newline at end of file
@@ -5,7 +5,9 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "avis_produits")
+@Table(name = "avis_produits", indexes =
+        // Avis d'un produit, plus récents d'abord : pagination par clé sur id
+        @Index(name = "idx_avis_produit", columnList = "produit_id, id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,24 @@
+package com.myfullstackproject.springbootproject1.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Horloge de réplication : une ligne écrite sur le primaire et relue sur la réplique par ReadReplicaRouting
+ * pour mesurer le retard de la réplique (pas d'écriture JPA).
+ */
+@Entity
+@Table(name = "horloge_replication")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplicationHeartbeat {
+
+    @Id
+    private Long id;
+
+    // Epoch en millisecondes, horloge de l'application
+    @Column(name = "horodatage_ms", nullable = false)
+    private long timestampMillis;
+}
@@ -1,7 +1,11 @@
 package com.myfullstackproject.springbootproject1.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.myfullstackproject.springbootproject1.config.SecondLevelCacheConfiguration;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 
 @Entity
@@ -10,6 +14,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfiguration.USERS)
 public class Utilisateur {
 
     @Id
@@ -22,9 +27,12 @@ public class Utilisateur {
     @Column(nullable = false, unique = true, length = 150)
     private String email;
 
+    // Jamais sérialisés, même si une entité Utilisateur finit dans une réponse
+    @JsonIgnore
     @Column(name = "mot_de_passe", nullable = false, length = 255)
     private String motDePasse;
 
+    @JsonIgnore
     @Column(name = "reponse_secrete")
     private String reponseSecrete;
 
@@ -0,0 +1,78 @@
+package com.myfullstackproject.springbootproject1.monitoring;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.spi.DomainDataRegion;
+import org.hibernate.cache.spi.QueryResultsRegion;
+import org.hibernate.cache.spi.Region;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Statistiques Hibernate (requêtes, chargements, cache de second niveau et cache de requêtes)
+ * et comptage des entités chargées par requête HTTP ({@link QueryCounter}).
+ * Les compteurs globaux ne sont alimentés qu'avec hibernate.generate_statistics=true.
+ */
+@Component
+public class HibernateStatistics {
+
+    private final SessionFactoryImplementor sessionFactory;
+
+    public HibernateStatistics(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        sessionFactory.getServiceRegistry().requireService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event -> QueryCounter.entityLoaded());
+    }
+
+    public Snapshot snapshot() {
+        Statistics stats = sessionFactory.getStatistics();
+        Map<String, RegionMetrics> regions = new TreeMap<>();
+        for (String name : stats.getSecondLevelCacheRegionNames()) {
+            // Régions d'entités / collections ou de résultats de requêtes ; horodatages ignorés
+            Region region = sessionFactory.getCache().getRegion(name);
+            CacheRegionStatistics regionStats = region instanceof QueryResultsRegion ? stats.getQueryRegionStatistics(name)
+                    : region instanceof DomainDataRegion ? stats.getDomainDataRegionStatistics(name) : null;
+            if (regionStats != null) {
+                regions.put(name, new RegionMetrics(regionStats.getHitCount(), regionStats.getMissCount(),
+                        regionStats.getPutCount(), regionStats.getElementCountInMemory()));
+            }
+        }
+        return new Snapshot(stats.isStatisticsEnabled(),
+                stats.getPrepareStatementCount(),
+                stats.getQueryExecutionCount(),
+                stats.getQueryExecutionMaxTime(),
+                stats.getQueryExecutionMaxTimeQueryString(),
+                stats.getEntityLoadCount(),
+                stats.getEntityFetchCount(),
+                stats.getCollectionLoadCount(),
+                stats.getCollectionFetchCount(),
+                stats.getSecondLevelCacheHitCount(),
+                stats.getSecondLevelCacheMissCount(),
+                stats.getSecondLevelCachePutCount(),
+                stats.getQueryCacheHitCount(),
+                stats.getQueryCacheMissCount(),
+                stats.getQueryCachePutCount(),
+                regions);
+    }
+
+    public void reset() {
+        sessionFactory.getStatistics().clear();
+    }
+
+    public record Snapshot(boolean enabled, long preparedStatements, long queryExecutions, long slowestQueryMs,
+                           String slowestQuery, long entityLoads, long entityFetches, long collectionLoads,
+                           long collectionFetches, long secondLevelCacheHits, long secondLevelCacheMisses,
+                           long secondLevelCachePuts, long queryCacheHits, long queryCacheMisses,
+                           long queryCachePuts, Map<String, RegionMetrics> secondLevelCacheRegions) {
+    }
+
+    public record RegionMetrics(long hits, long misses, long puts, long elementsInMemory) {
+    }
+}
@@ -0,0 +1,42 @@
+package com.myfullstackproject.springbootproject1.monitoring;
+
+/**
+ * Compteurs SQL / entités de la requête HTTP en cours, portés par le thread qui la traite.
+ * Hors requête mesurée (tâches planifiées, @Async), les appels sont ignorés.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    static void begin() {
+        CURRENT.set(new Counts());
+    }
+
+    static Counts end() {
+        Counts counts = CURRENT.get();
+        CURRENT.remove();
+        return counts == null ? new Counts() : counts;
+    }
+
+    static void statementPrepared() {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.statements++;
+        }
+    }
+
+    static void entityLoaded() {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.entities++;
+        }
+    }
+
+    static final class Counts {
+        int statements;
+        int entities;
+    }
+}
@@ -0,0 +1,126 @@
+package com.myfullstackproject.springbootproject1.monitoring;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Agrégats par endpoint ("GET /api/produits/{id}") : histogramme de latence à seuils fixes,
+ * instructions SQL et entités chargées par requête, requêtes au-dessus du budget SQL.
+ */
+@Component
+public class RequestMetrics {
+
+    // Bornes supérieures des seuils de l'histogramme, en millisecondes (le dernier seuil est ouvert)
+    private static final long[] BUCKET_BOUNDS_MS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long nanos, int statements, int entities, boolean overBudget) {
+        endpoints.computeIfAbsent(endpoint, key -> new EndpointStats()).record(nanos, statements, entities, overBudget);
+    }
+
+    public List<EndpointMetrics> snapshot() {
+        List<EndpointMetrics> result = new ArrayList<>(endpoints.size());
+        endpoints.forEach((endpoint, stats) -> result.add(stats.snapshot(endpoint)));
+        result.sort(Comparator.comparing(EndpointMetrics::endpoint));
+        return result;
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+
+    private static int bucket(long nanos) {
+        long millis = nanos / 1_000_000;
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            if (millis < BUCKET_BOUNDS_MS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS_MS.length;
+    }
+
+    private static final class EndpointStats {
+
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MS.length + 1);
+        private final LongAdder statements = new LongAdder();
+        private final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+        private final LongAdder entities = new LongAdder();
+        private final LongAccumulator maxEntities = new LongAccumulator(Math::max, 0);
+        private final LongAdder overBudget = new LongAdder();
+
+        void record(long nanos, int statementCount, int entityCount, boolean exceeded) {
+            requests.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            buckets.incrementAndGet(bucket(nanos));
+            statements.add(statementCount);
+            maxStatements.accumulate(statementCount);
+            entities.add(entityCount);
+            maxEntities.accumulate(entityCount);
+            if (exceeded) {
+                overBudget.increment();
+            }
+        }
+
+        EndpointMetrics snapshot(String endpoint) {
+            long[] counts = new long[buckets.length()];
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+            double maxMs = maxNanos.get() / 1e6;
+
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < counts.length; i++) {
+                histogram.put(i < BUCKET_BOUNDS_MS.length ? "<" + BUCKET_BOUNDS_MS[i] + "ms"
+                        : ">=" + BUCKET_BOUNDS_MS[BUCKET_BOUNDS_MS.length - 1] + "ms", counts[i]);
+            }
+            long n = Math.max(1, requests.sum());
+            return new EndpointMetrics(endpoint, requests.sum(),
+                    totalNanos.sum() / 1e6 / n,
+                    percentile(counts, total, 0.50, maxMs),
+                    percentile(counts, total, 0.95, maxMs),
+                    percentile(counts, total, 0.99, maxMs),
+                    maxMs,
+                    (double) statements.sum() / n, maxStatements.get(),
+                    (double) entities.sum() / n, maxEntities.get(),
+                    overBudget.sum(), histogram);
+        }
+
+        // Borne supérieure du seuil qui contient le percentile (majorant, plafonné au maximum observé)
+        private static double percentile(long[] counts, long total, double p, double maxMs) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(p * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return i < BUCKET_BOUNDS_MS.length ? Math.min(BUCKET_BOUNDS_MS[i], maxMs) : maxMs;
+                }
+            }
+            return maxMs;
+        }
+    }
+
+    public record EndpointMetrics(String endpoint, long requests, double meanMs, double p50Ms, double p95Ms,
+                                  double p99Ms, double maxMs, double statementsPerRequest, long maxStatements,
+                                  double entitiesPerRequest, long maxEntities, long overBudget,
+                                  Map<String, Long> latencyHistogram) {
+    }
+}
@@ -0,0 +1,77 @@
+package com.myfullstackproject.springbootproject1.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Mesure chaque requête des chemins suivis (request.metrics.paths) : durée, instructions SQL, entités chargées.
+ * Une requête qui dépasse request.metrics.query-budget instructions SQL est journalisée.
+ * Les réponses asynchrones (export NDJSON) travaillent sur un autre thread et ne sont pas mesurées.
+ */
+@Component
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestMetricsFilter.class);
+
+    private final RequestMetrics requestMetrics;
+    private final List<String> paths;
+    private final int queryBudget;
+
+    public RequestMetricsFilter(RequestMetrics requestMetrics,
+                                @Value("${request.metrics.paths:/api/produits,/api/panier}") List<String> paths,
+                                @Value("${request.metrics.query-budget:10}") int queryBudget) {
+        this.requestMetrics = requestMetrics;
+        this.paths = paths;
+        this.queryBudget = queryBudget;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        for (String path : paths) {
+            if (uri.equals(path) || uri.startsWith(path + "/")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryCounter.begin();
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long nanos = System.nanoTime() - start;
+            QueryCounter.Counts counts = QueryCounter.end();
+            if (!request.isAsyncStarted()) {
+                record(request, nanos, counts);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, long nanos, QueryCounter.Counts counts) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (pattern != null ? pattern : "(unmapped)");
+        boolean overBudget = counts.statements > queryBudget;
+        if (overBudget) {
+            log.warn("Query budget exceeded: {} {} ran {} SQL statements (budget {}), loaded {} entities in {} ms",
+                    request.getMethod(), request.getRequestURI(), counts.statements, queryBudget,
+                    counts.entities, nanos / 1_000_000);
+        }
+        requestMetrics.record(endpoint, nanos, counts.statements, counts.entities, overBudget);
+    }
+}
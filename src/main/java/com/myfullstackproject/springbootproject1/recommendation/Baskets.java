@@ -0,0 +1,60 @@
+package com.myfullstackproject.springbootproject1.recommendation;
+
+import java.util.Arrays;
+
+/**
+ * Paniers (commandes ou paniers en cours) mis bout à bout dans des tableaux primitifs :
+ * les produits du panier {@code b} sont {@code items[offsets[b] .. offsets[b + 1][}, de poids {@code weights[b]}.
+ */
+public final class Baskets {
+
+    private long[] items = new long[1024];
+    private int[] offsets = new int[257];
+    private int[] weights = new int[256];
+    private int count;
+
+    /**
+     * Ajoute un panier ; les doublons sont retirés, un panier de moins de deux produits est ignoré.
+     */
+    public void add(long[] productIds, int weight) {
+        long[] distinct = Arrays.stream(productIds).distinct().toArray();
+        if (distinct.length < 2) {
+            return;
+        }
+        int start = offsets[count];
+        if (start + distinct.length > items.length) {
+            items = Arrays.copyOf(items, Math.max(items.length * 2, start + distinct.length));
+        }
+        if (count + 1 >= weights.length) {
+            weights = Arrays.copyOf(weights, weights.length * 2);
+            offsets = Arrays.copyOf(offsets, weights.length + 1);
+        }
+        System.arraycopy(distinct, 0, items, start, distinct.length);
+        weights[count] = weight;
+        offsets[++count] = start + distinct.length;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    int start(int basket) {
+        return offsets[basket];
+    }
+
+    int end(int basket) {
+        return offsets[basket + 1];
+    }
+
+    int weight(int basket) {
+        return weights[basket];
+    }
+
+    long item(int position) {
+        return items[position];
+    }
+
+    int totalItems() {
+        return offsets[count];
+    }
+}
@@ -0,0 +1,327 @@
+package com.myfullstackproject.springbootproject1.recommendation;
+
+import com.myfullstackproject.springbootproject1.util.LongLongHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Matrice creuse de co-occurrence produit × produit et, pour chaque produit, ses {@code topK} voisins.
+ * <p>
+ * Les produits reçoivent un index dense ; chaque ligne de la matrice est une {@link LongLongHashMap}
+ * index voisin -> poids cumulé, sans boxing. Le score d'un voisin est le cosinus
+ * {@code c(i, j) / sqrt(n(i) × n(j))} ({@code n} = poids des paniers contenant le produit), pour ne pas
+ * recommander partout les produits les plus vendus ; une paire vue moins de {@code minSupport} fois est ignorée.
+ * Les voisins retenus sont gardés dans deux tableaux parallèles (id produit, score) triés par score.
+ * <p>
+ * Construction complète en deux passes : index inversé produit -> paniers (séquentiel), puis une ligne
+ * par produit en fork/join, chaque tâche n'écrivant que ses propres lignes.
+ * Mise à jour incrémentale : un panier ajoute ses paires et recalcule les voisins de ses produits ; les scores
+ * des autres produits, qui dépendent aussi de n(i), ne sont corrigés qu'à leur prochain recalcul.
+ * <p>
+ * Non thread-safe.
+ */
+public final class CoOccurrenceModel {
+
+    // En dessous, une tâche fork/join traite ses lignes sans se découper
+    private static final int SPLIT_THRESHOLD = 64;
+
+    private static final long[] NO_IDS = new long[0];
+    private static final float[] NO_SCORES = new float[0];
+
+    private final int topK;
+    private final long minSupport;
+    private final int maxBasketSize;
+
+    private final LongLongHashMap indexOf;
+    private long[] productIds;
+    private long[] occurrences;
+    private LongLongHashMap[] rows;
+    private long[][] neighbourIds;
+    private float[][] neighbourScores;
+    private int size;
+
+    public CoOccurrenceModel(int topK, long minSupport, int maxBasketSize) {
+        this(topK, minSupport, maxBasketSize, 1024);
+    }
+
+    private CoOccurrenceModel(int topK, long minSupport, int maxBasketSize, int capacity) {
+        this.topK = Math.max(1, topK);
+        this.minSupport = Math.max(1, minSupport);
+        this.maxBasketSize = Math.max(2, maxBasketSize);
+        this.indexOf = new LongLongHashMap(capacity);
+        this.productIds = new long[capacity];
+        this.occurrences = new long[capacity];
+        this.rows = new LongLongHashMap[capacity];
+        this.neighbourIds = new long[capacity][];
+        this.neighbourScores = new float[capacity][];
+    }
+
+    /**
+     * Construit le modèle complet ; {@code pool} répartit le calcul des lignes entre ses threads.
+     */
+    public static CoOccurrenceModel build(Baskets baskets, int topK, long minSupport, int maxBasketSize,
+                                          ForkJoinPool pool) {
+        CoOccurrenceModel model = new CoOccurrenceModel(topK, minSupport, maxBasketSize,
+                Math.max(16, baskets.totalItems() / 4));
+
+        // 1) Index denses, occurrences et paniers réécrits en index (tronqués à maxBasketSize)
+        int basketCount = baskets.count();
+        int[] basketStart = new int[basketCount + 1];
+        int[] basketItems = new int[baskets.totalItems()];
+        int position = 0;
+        for (int b = 0; b < basketCount; b++) {
+            basketStart[b] = position;
+            int end = Math.min(baskets.end(b), baskets.start(b) + model.maxBasketSize);
+            for (int p = baskets.start(b); p < end; p++) {
+                int index = model.indexFor(baskets.item(p));
+                model.occurrences[index] += baskets.weight(b);
+                basketItems[position++] = index;
+            }
+        }
+        basketStart[basketCount] = position;
+
+        // 2) Index inversé produit -> paniers (tri par comptage)
+        int n = model.size;
+        int[] productStart = new int[n + 1];
+        for (int p = 0; p < position; p++) {
+            productStart[basketItems[p] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            productStart[i + 1] += productStart[i];
+        }
+        int[] basketsOfProduct = new int[position];
+        int[] fill = Arrays.copyOf(productStart, n);
+        for (int b = 0; b < basketCount; b++) {
+            for (int p = basketStart[b]; p < basketStart[b + 1]; p++) {
+                basketsOfProduct[fill[basketItems[p]]++] = b;
+            }
+        }
+
+        // 3) Lignes et voisins en parallèle : la tâche [from, to[ n'écrit que rows[from..to[
+        int[] weights = new int[basketCount];
+        for (int b = 0; b < basketCount; b++) {
+            weights[b] = baskets.weight(b);
+        }
+        pool.invoke(new RowTask(model, 0, n, productStart, basketsOfProduct, basketStart, basketItems, weights));
+        return model;
+    }
+
+    /**
+     * Ajoute un panier (commande validée, par exemple) et recalcule les voisins de ses produits.
+     */
+    public void add(long[] basketProductIds, int weight) {
+        long[] distinct = Arrays.stream(basketProductIds).distinct().limit(maxBasketSize).toArray();
+        if (distinct.length < 2) {
+            return;
+        }
+        int[] indexes = new int[distinct.length];
+        for (int k = 0; k < distinct.length; k++) {
+            indexes[k] = indexFor(distinct[k]);
+            occurrences[indexes[k]] += weight;
+        }
+        for (int i : indexes) {
+            LongLongHashMap row = row(i);
+            for (int j : indexes) {
+                if (j != i) {
+                    row.addTo(j, weight);
+                }
+            }
+        }
+        for (int i : indexes) {
+            computeNeighbours(i);
+        }
+    }
+
+    /**
+     * Voisins de {@code productId}, du plus proche au moins proche (au plus {@code limit}).
+     */
+    public List<Neighbour> neighbours(long productId, int limit) {
+        if (!indexOf.containsKey(productId)) {
+            return List.of();
+        }
+        int index = (int) indexOf.get(productId, -1);
+        long[] ids = neighbourIds[index];
+        float[] scores = neighbourScores[index];
+        int count = Math.min(limit, ids.length);
+        List<Neighbour> result = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) {
+            result.add(new Neighbour(ids[k], scores[k]));
+        }
+        return result;
+    }
+
+    /**
+     * Poids cumulé des paniers contenant les deux produits.
+     */
+    public long coOccurrences(long first, long second) {
+        if (!indexOf.containsKey(first) || !indexOf.containsKey(second)) {
+            return 0;
+        }
+        LongLongHashMap row = rows[(int) indexOf.get(first, -1)];
+        return row == null ? 0 : row.get(indexOf.get(second, -1), 0);
+    }
+
+    public int products() {
+        return size;
+    }
+
+    /**
+     * Nombre de paires (i, j) non nulles, chaque paire comptée dans les deux sens.
+     */
+    public long pairs() {
+        long pairs = 0;
+        for (int i = 0; i < size; i++) {
+            pairs += rows[i] == null ? 0 : rows[i].size();
+        }
+        return pairs;
+    }
+
+    private int indexFor(long productId) {
+        long existing = indexOf.get(productId, -1);
+        if (existing >= 0) {
+            return (int) existing;
+        }
+        if (size == productIds.length) {
+            int capacity = size * 2;
+            productIds = Arrays.copyOf(productIds, capacity);
+            occurrences = Arrays.copyOf(occurrences, capacity);
+            rows = Arrays.copyOf(rows, capacity);
+            neighbourIds = Arrays.copyOf(neighbourIds, capacity);
+            neighbourScores = Arrays.copyOf(neighbourScores, capacity);
+        }
+        productIds[size] = productId;
+        neighbourIds[size] = NO_IDS;
+        neighbourScores[size] = NO_SCORES;
+        indexOf.put(productId, size);
+        return size++;
+    }
+
+    private LongLongHashMap row(int index) {
+        LongLongHashMap row = rows[index];
+        if (row == null) {
+            row = new LongLongHashMap(8);
+            rows[index] = row;
+        }
+        return row;
+    }
+
+    // Sélection des topK meilleurs scores de la ligne : tableaux bornés, le plus faible remplacé
+    private void computeNeighbours(int index) {
+        LongLongHashMap row = rows[index];
+        if (row == null) {
+            return;
+        }
+        int[] best = new int[topK];
+        float[] bestScores = new float[topK];
+        // count, puis position du plus faible une fois les topK places prises (recherchée après chaque remplacement)
+        int[] state = {0, 0};
+        double self = occurrences[index];
+        row.forEach((neighbour, together) -> {
+            if (together < minSupport) {
+                return;
+            }
+            int j = (int) neighbour;
+            float score = (float) (together / Math.sqrt(self * occurrences[j]));
+            if (state[0] < topK) {
+                best[state[0]] = j;
+                bestScores[state[0]++] = score;
+                if (state[0] < topK) {
+                    return;
+                }
+            } else if (worse(bestScores[state[1]], best[state[1]], score, j)) {
+                best[state[1]] = j;
+                bestScores[state[1]] = score;
+            } else {
+                return;
+            }
+            int weakest = 0;
+            for (int k = 1; k < topK; k++) {
+                if (worse(bestScores[k], best[k], bestScores[weakest], best[weakest])) {
+                    weakest = k;
+                }
+            }
+            state[1] = weakest;
+        });
+
+        // Tri par insertion (topK petit) : score décroissant, puis id produit croissant
+        int n = state[0];
+        for (int a = 1; a < n; a++) {
+            int j = best[a];
+            float score = bestScores[a];
+            int b = a - 1;
+            while (b >= 0 && worse(bestScores[b], best[b], score, j)) {
+                best[b + 1] = best[b];
+                bestScores[b + 1] = bestScores[b];
+                b--;
+            }
+            best[b + 1] = j;
+            bestScores[b + 1] = score;
+        }
+        long[] ids = new long[n];
+        for (int k = 0; k < n; k++) {
+            ids[k] = productIds[best[k]];
+        }
+        neighbourIds[index] = ids;
+        neighbourScores[index] = Arrays.copyOf(bestScores, n);
+    }
+
+    // (score, index) a est-il moins bon que b ? À score égal, le plus petit id produit passe devant
+    private boolean worse(float scoreA, int a, float scoreB, int b) {
+        return scoreA < scoreB || (scoreA == scoreB && productIds[a] > productIds[b]);
+    }
+
+    private static final class RowTask extends RecursiveAction {
+
+        private final CoOccurrenceModel model;
+        private final int from;
+        private final int to;
+        private final int[] productStart;
+        private final int[] basketsOfProduct;
+        private final int[] basketStart;
+        private final int[] basketItems;
+        private final int[] weights;
+
+        RowTask(CoOccurrenceModel model, int from, int to, int[] productStart, int[] basketsOfProduct,
+                int[] basketStart, int[] basketItems, int[] weights) {
+            this.model = model;
+            this.from = from;
+            this.to = to;
+            this.productStart = productStart;
+            this.basketsOfProduct = basketsOfProduct;
+            this.basketStart = basketStart;
+            this.basketItems = basketItems;
+            this.weights = weights;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RowTask(model, from, middle, productStart, basketsOfProduct, basketStart, basketItems, weights),
+                        new RowTask(model, middle, to, productStart, basketsOfProduct, basketStart, basketItems, weights));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                LongLongHashMap row = new LongLongHashMap(Math.max(8, productStart[i + 1] - productStart[i]));
+                for (int k = productStart[i]; k < productStart[i + 1]; k++) {
+                    int basket = basketsOfProduct[k];
+                    for (int p = basketStart[basket]; p < basketStart[basket + 1]; p++) {
+                        int j = basketItems[p];
+                        if (j != i) {
+                            row.addTo(j, weights[basket]);
+                        }
+                    }
+                }
+                model.rows[i] = row;
+                model.computeNeighbours(i);
+            }
+        }
+    }
+
+    public record Neighbour(long productId, float score) {
+    }
+}
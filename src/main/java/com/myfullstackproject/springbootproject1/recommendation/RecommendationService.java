@@ -0,0 +1,262 @@
+package com.myfullstackproject.springbootproject1.recommendation;
+
+import com.myfullstackproject.springbootproject1.dto.ProductDetails;
+import com.myfullstackproject.springbootproject1.dto.Recommendation;
+import com.myfullstackproject.springbootproject1.event.OrderPlacedEvent;
+import com.myfullstackproject.springbootproject1.service.ProductCatalogCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * « Souvent achetés ensemble » : voisins de chaque produit dans un {@link CoOccurrenceModel} en mémoire.
+ * <p>
+ * Les commandes (lignes_commande groupées par commande) comptent {@link #ORDER_WEIGHT} fois plus que
+ * les paniers en cours (articles_panier groupés par utilisateur), signal plus faible.
+ * Une commande validée arrive en {@link OrderPlacedEvent} après le commit et met à jour le modèle
+ * sur place ; les paniers ne sont relus qu'à la reconstruction complète.
+ * <p>
+ * La reconstruction relit tout jusqu'à la plus grande commande existante et calcule les lignes en fork/join,
+ * à côté du modèle courant qui continue de servir ; les commandes arrivées entre-temps sont rejouées
+ * sur le nouveau modèle avant l'échange. Comme pour les agrégats de ventes, une commande encore en cours
+ * de validation pendant la lecture peut manquer jusqu'à la reconstruction suivante.
+ */
+@Service
+public class RecommendationService {
+
+    private static final Logger log = LoggerFactory.getLogger(RecommendationService.class);
+
+    static final int ORDER_WEIGHT = 3;
+    static final int CART_WEIGHT = 1;
+
+    private static final String MAX_ORDER_SQL = "SELECT COALESCE(MAX(id), 0) FROM commandes";
+
+    private static final String ORDER_LINES_SQL =
+            "SELECT commande_id, produit_id FROM lignes_commande WHERE commande_id <= ? ORDER BY commande_id";
+
+    private static final String CART_LINES_SQL =
+            "SELECT utilisateur_id, produit_id FROM articles_panier ORDER BY utilisateur_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductCatalogCache productCatalogCache;
+    private final int topK;
+    private final long minSupport;
+    private final int maxBasketSize;
+    private final int parallelism;
+
+    // Lecture : recommandations ; écriture : commande appliquée, échange du modèle
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Une seule reconstruction à la fois
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    // Protégés par lock
+    private CoOccurrenceModel model;
+    private boolean rebuilding;
+    private final List<OrderPlacedEvent> duringRebuild = new ArrayList<>();
+
+    private final AtomicLong ordersApplied = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+    private volatile long lastRebuildMillis;
+
+    public RecommendationService(JdbcTemplate jdbcTemplate,
+                                 ProductCatalogCache productCatalogCache,
+                                 @Value("${recommendations.top-k:20}") int topK,
+                                 @Value("${recommendations.min-support:2}") long minSupport,
+                                 @Value("${recommendations.max-basket-size:50}") int maxBasketSize,
+                                 @Value("${recommendations.parallelism:0}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.productCatalogCache = productCatalogCache;
+        this.topK = Math.max(1, topK);
+        this.minSupport = Math.max(1, minSupport);
+        this.maxBasketSize = Math.max(2, maxBasketSize);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.model = new CoOccurrenceModel(this.topK, this.minSupport, this.maxBasketSize);
+    }
+
+    /**
+     * Les {@code limit} produits les plus souvent achetés avec {@code productId} ; les produits supprimés
+     * depuis la dernière reconstruction sont sautés.
+     */
+    public List<Recommendation> recommend(Long productId, int limit) {
+        List<CoOccurrenceModel.Neighbour> neighbours;
+        lock.readLock().lock();
+        try {
+            neighbours = model.neighbours(productId, topK);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Fiches depuis le cache catalogue, en un seul lot : au plus une requête IN pour les voisins absents du cache
+        Map<Long, ProductDetails> details = productCatalogCache.findAll(
+                        neighbours.stream().map(CoOccurrenceModel.Neighbour::productId).toList(), List.of()).stream()
+                .collect(Collectors.toMap(ProductDetails::id, Function.identity()));
+        List<Recommendation> result = new ArrayList<>(Math.min(limit, neighbours.size()));
+        for (CoOccurrenceModel.Neighbour neighbour : neighbours) {
+            if (result.size() == limit) {
+                break;
+            }
+            ProductDetails product = details.get(neighbour.productId());
+            if (product != null) {
+                result.add(new Recommendation(product.toSummary(), neighbour.score()));
+            }
+        }
+        return result;
+    }
+
+    public int topK() {
+        return topK;
+    }
+
+    // Après le commit : une commande annulée n'arrive jamais ici
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        long[] productIds = productIds(event);
+        lock.writeLock().lock();
+        try {
+            model.add(productIds, ORDER_WEIGHT);
+            if (rebuilding) {
+                duringRebuild.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ordersApplied.incrementAndGet();
+    }
+
+    // Construction initiale en tâche de fond (thread virtuel) : l'application répond pendant la lecture des commandes
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(cron = "${recommendations.rebuild-cron:-}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * Recalcule tout le modèle depuis lignes_commande et articles_panier.
+     */
+    public RebuildReport rebuild() {
+        rebuildLock.lock();
+        try {
+            long start = System.nanoTime();
+            lock.writeLock().lock();
+            try {
+                rebuilding = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            CoOccurrenceModel fresh;
+            long upTo;
+            int basketCount;
+            try {
+                // 1) Paniers : commandes jusqu'à upTo puis paniers en cours, en tableaux primitifs
+                upTo = jdbcTemplate.queryForObject(MAX_ORDER_SQL, Long.class);
+                Baskets baskets = new Baskets();
+                load(baskets, ORDER_LINES_SQL, ORDER_WEIGHT, upTo);
+                load(baskets, CART_LINES_SQL, CART_WEIGHT);
+                basketCount = baskets.count();
+
+                // 2) Lignes de la matrice en parallèle, dans un pool dédié (pas le pool commun)
+                try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+                    fresh = CoOccurrenceModel.build(baskets, topK, minSupport, maxBasketSize, pool);
+                }
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    rebuilding = false;
+                    duringRebuild.clear();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            // 3) Commandes arrivées pendant la lecture, puis échange
+            int replayed = 0;
+            lock.writeLock().lock();
+            try {
+                for (OrderPlacedEvent event : duringRebuild) {
+                    if (event.orderId() > upTo) {
+                        fresh.add(productIds(event), ORDER_WEIGHT);
+                        replayed++;
+                    }
+                }
+                duringRebuild.clear();
+                rebuilding = false;
+                model = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            rebuilds.incrementAndGet();
+            lastRebuildMillis = (System.nanoTime() - start) / 1_000_000;
+            RebuildReport report = new RebuildReport(basketCount, fresh.products(), fresh.pairs() / 2, replayed,
+                    Duration.ofNanos(System.nanoTime() - start));
+            log.info("Recommendations rebuilt: {}", report);
+            return report;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public Metrics metrics() {
+        lock.readLock().lock();
+        try {
+            return new Metrics(model.products(), ordersApplied.get(), rebuilds.get(), lastRebuildMillis, rebuilding);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Lignes triées par panier : un panier se termine quand la clé change
+    private void load(Baskets baskets, String sql, int weight, Object... args) {
+        long[] current = new long[maxBasketSize];
+        int[] size = {0};
+        long[] key = {Long.MIN_VALUE};
+        jdbcTemplate.query(sql, rs -> {
+            long basket = rs.getLong(1);
+            if (basket != key[0]) {
+                baskets.add(Arrays.copyOf(current, size[0]), weight);
+                key[0] = basket;
+                size[0] = 0;
+            }
+            if (size[0] < maxBasketSize) {
+                current[size[0]++] = rs.getLong(2);
+            }
+        }, args);
+        baskets.add(Arrays.copyOf(current, size[0]), weight);
+    }
+
+    private static long[] productIds(OrderPlacedEvent event) {
+        return event.lines().stream().mapToLong(OrderPlacedEvent.Line::productId).toArray();
+    }
+
+    public record RebuildReport(int baskets, int products, long pairs, int ordersReplayed, Duration elapsed) {
+    }
+
+    public record Metrics(int products, long ordersApplied, long rebuilds, long lastRebuildMillis, boolean rebuilding) {
+    }
+}
@@ -1,13 +1,62 @@
 package com.myfullstackproject.springbootproject1.repository;
 
+import com.myfullstackproject.springbootproject1.dto.CartLine;
+import com.myfullstackproject.springbootproject1.dto.CheckoutLine;
 import com.myfullstackproject.springbootproject1.model.CartItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
 
+    String LINE_SELECT = "select new com.myfullstackproject.springbootproject1.dto.CartLine("
+            + "ci.id, ci.quantity, p.id, p.asin, p.title, p.price, p.rating, p.ratingCount, p.rank, p.imageUrl, p.categorie.id) "
+            + "from CartItem ci join ci.product p ";
+
     List<CartItem> findByUtilisateur_Id(Long utilisateurId);
-}
\ No newline at end of file
+
+    // Panier complet avec résumés produit : une seule requête (jointure), pas de chargement paresseux ligne par ligne
+    @Query(LINE_SELECT + "where ci.utilisateur.id = :utilisateurId order by ci.id")
+    List<CartLine> findLinesByUtilisateurId(Long utilisateurId);
+
+    @Query(LINE_SELECT + "where ci.utilisateur.id = :utilisateurId and p.id = :productId")
+    Optional<CartLine> findLine(Long utilisateurId, Long productId);
+
+    @Query(LINE_SELECT + "where ci.id = :cartItemId")
+    Optional<CartLine> findLineById(Long cartItemId);
+
+    // Ajout ou incrément atomique sur la clé unique (utilisateur_id, produit_id).
+    // Table touchée déclarée : sans elle, Hibernate vide tout le cache de second niveau après une requête native
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "articles_panier"))
+    @Query(value = "INSERT INTO articles_panier (utilisateur_id, produit_id, quantite) VALUES (:utilisateurId, :productId, :quantity) "
+            + "ON DUPLICATE KEY UPDATE quantite = quantite + VALUES(quantite)", nativeQuery = true)
+    int upsertIncrement(Long utilisateurId, Long productId, int quantity);
+
+    @Modifying
+    @Query("update CartItem ci set ci.quantity = :quantity where ci.id = :cartItemId and ci.utilisateur.id = :utilisateurId")
+    int updateQuantity(Long cartItemId, Long utilisateurId, int quantity);
+
+    @Modifying
+    @Query("delete from CartItem ci where ci.id = :cartItemId and ci.utilisateur.id = :utilisateurId")
+    int deleteOwned(Long cartItemId, Long utilisateurId);
+
+    @Modifying
+    @Query("delete from CartItem ci where ci.utilisateur.id = :utilisateurId")
+    int deleteByUtilisateurId(Long utilisateurId);
+
+    // Lecture de la commande : prix, stock et version courants ; ordre par produit pour verrouiller toujours dans le même ordre
+    @Query("select new com.myfullstackproject.springbootproject1.dto.CheckoutLine("
+            + "p.id, p.asin, p.title, p.price, p.rating, p.ratingCount, p.rank, p.imageUrl, p.categorie.id, "
+            + "ci.quantity, p.stock, p.version) "
+            + "from CartItem ci join ci.product p where ci.utilisateur.id = :utilisateurId order by p.id")
+    List<CheckoutLine> findCheckoutLines(Long utilisateurId);
+}
@@ -0,0 +1,24 @@
+package com.myfullstackproject.springbootproject1.repository;
+
+import com.myfullstackproject.springbootproject1.config.SecondLevelCacheConfiguration;
+import com.myfullstackproject.springbootproject1.model.Categorie;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+@Transactional(readOnly = true)
+public interface CategorieRepository extends JpaRepository<Categorie, Long> {
+
+    // Liste des catégories depuis le cache de requêtes (invalidé par toute écriture sur categorie)
+    @Override
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SecondLevelCacheConfiguration.CATEGORY_QUERIES)})
+    List<Categorie> findAll();
+}
@@ -0,0 +1,34 @@
+package com.myfullstackproject.springbootproject1.repository;
+
+import com.myfullstackproject.springbootproject1.dto.OrderHeader;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position dans l'historique de commandes (date_creation puis id, décroissants).
+ * Sérialisée en base64 opaque pour le client.
+ */
+public record OrderCursor(LocalDateTime createdAt, long id) {
+
+    public static OrderCursor after(OrderHeader last) {
+        return new OrderCursor(last.createdAt(), last.id());
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new OrderCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur invalide", e);
+        }
+    }
+}
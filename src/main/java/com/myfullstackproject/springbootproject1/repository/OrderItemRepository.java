@@ -1,9 +1,21 @@
 package com.myfullstackproject.springbootproject1.repository;
 
+import com.myfullstackproject.springbootproject1.dto.OrderItemRow;
 import com.myfullstackproject.springbootproject1.model.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
-}
\ No newline at end of file
+
+    // Lignes de toutes les commandes d'une page, avec résumé produit : une requête quel que soit le nombre de commandes
+    @Query("select new com.myfullstackproject.springbootproject1.dto.OrderItemRow("
+            + "oi.order.id, oi.quantity, oi.unitPrice, p.id, p.asin, p.title, p.price, p.rating, p.ratingCount, "
+            + "p.rank, p.imageUrl, p.categorie.id) "
+            + "from OrderItem oi join oi.product p where oi.order.id in :orderIds order by oi.id")
+    List<OrderItemRow> findRowsByOrderIdIn(Collection<Long> orderIds);
+}
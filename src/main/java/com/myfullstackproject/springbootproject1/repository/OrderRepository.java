@@ -1,13 +1,31 @@
 package com.myfullstackproject.springbootproject1.repository;
 
+import com.myfullstackproject.springbootproject1.dto.OrderHeader;
 import com.myfullstackproject.springbootproject1.model.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
-    List<Order> findByUtilisateur_Id(Long utilisateurId);
-}
\ No newline at end of file
+    String HEADER_SELECT = "select new com.myfullstackproject.springbootproject1.dto.OrderHeader("
+            + "o.id, o.createdAt, o.totalAmount) from Order o ";
+
+    // Historique par clé (date_creation, id) décroissante : index idx_commandes_utilisateur_date
+    @Query(HEADER_SELECT + "where o.utilisateur.id = :utilisateurId order by o.createdAt desc, o.id desc")
+    List<OrderHeader> findHeaders(Long utilisateurId, Pageable page);
+
+    @Query(HEADER_SELECT + "where o.utilisateur.id = :utilisateurId "
+            + "and (o.createdAt < :createdAt or (o.createdAt = :createdAt and o.id < :id)) "
+            + "order by o.createdAt desc, o.id desc")
+    List<OrderHeader> findHeadersBefore(Long utilisateurId, LocalDateTime createdAt, Long id, Pageable page);
+
+    @Query(HEADER_SELECT + "where o.id = :id and o.utilisateur.id = :utilisateurId")
+    Optional<OrderHeader> findHeader(Long id, Long utilisateurId);
+}
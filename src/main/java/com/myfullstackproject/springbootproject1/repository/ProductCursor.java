@@ -0,0 +1,47 @@
+package com.myfullstackproject.springbootproject1.repository;
+
+import com.myfullstackproject.springbootproject1.dto.ProductSummary;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position dans une liste triée : tri et sens qui l'ont produite, dernière valeur de tri vue
+ * (null = on est dans la queue des valeurs nulles) et dernier id.
+ * Sérialisée en base64 opaque pour le client ; un curseur n'est accepté que pour le tri et le sens qui l'ont émis.
+ */
+public record ProductCursor(ProductSort sort, boolean descending, Object value, long id) {
+
+    private static final String NULL_VALUE = "~";
+
+    public static ProductCursor after(ProductSort sort, boolean descending, ProductSummary last) {
+        return new ProductCursor(sort, descending, sort.valueOf(last), last.id());
+    }
+
+    public String encode() {
+        String raw = sort.getProperty() + "|" + (descending ? "desc" : "asc") + "|"
+                + (value == null ? NULL_VALUE : value.toString()) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String cursor, ProductSort sort, boolean descending) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur invalide", e);
+        }
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Curseur invalide");
+        }
+        if (!sort.getProperty().equals(parts[0]) || !(descending ? "desc" : "asc").equals(parts[1])) {
+            throw new IllegalArgumentException("Curseur émis pour un autre tri : " + parts[0] + " " + parts[1]);
+        }
+        try {
+            long id = Long.parseLong(parts[3]);
+            return new ProductCursor(sort, descending, NULL_VALUE.equals(parts[2]) ? null : sort.parse(parts[2]), id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur invalide", e);
+        }
+    }
+}
@@ -1,13 +1,98 @@
 package com.myfullstackproject.springbootproject1.repository;
 
+import com.myfullstackproject.springbootproject1.dto.ProductDetails;
+import com.myfullstackproject.springbootproject1.dto.ProductFacetRow;
+import com.myfullstackproject.springbootproject1.dto.ProductSummary;
 import com.myfullstackproject.springbootproject1.model.Product;
+import com.myfullstackproject.springbootproject1.search.SearchDocument;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+// Lectures du catalogue en transactions readOnly : servies par la réplique si elle est configurée
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+@Transactional(readOnly = true)
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+
+    String DETAILS_SELECT = "select new com.myfullstackproject.springbootproject1.dto.ProductDetails("
+            + "p.id, p.asin, p.title, p.price, p.rating, p.ratingCount, p.rank, p.description, p.imageUrl, "
+            + "p.no_sellers, c.id, c.nom, p.lastModified) "
+            + "from Product p left join p.categorie c ";
+
+    // Export complet : curseur JDBC, à consommer dans une transaction (useCursorFetch=true côté MySQL)
+    @Query(ProductRepositoryCustomImpl.SUMMARY_SELECT + "order by p.id")
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<ProductSummary> streamAllSummaries();
+
+    String SEARCH_DOCUMENT_SELECT = "select new com.myfullstackproject.springbootproject1.search.SearchDocument("
+            + "p.id, p.title, p.description, p.price, p.rating, p.categorie.id) "
+            + "from Product p ";
+
+    @Query(ProductRepositoryCustomImpl.SUMMARY_SELECT + "where p.id in :ids")
+    List<ProductSummary> findSummariesByIdIn(Collection<Long> ids);
+
+    @Query(ProductRepositoryCustomImpl.SUMMARY_SELECT + "where p.asin in :asins")
+    List<ProductSummary> findSummariesByAsinIn(Collection<String> asins);
+
+    // Équivalents SQL des classements en mémoire (LeaderboardService) : tests et benchmark
+    @Query(ProductRepositoryCustomImpl.SUMMARY_SELECT
+            + "where p.categorie.id = :categorieId and p.rank is not null order by p.rank, p.id")
+    List<ProductSummary> findTopRankedInCategorie(Long categorieId, Pageable page);
+
+    @Query(ProductRepositoryCustomImpl.SUMMARY_SELECT
+            + "where p.categorie.id = :categorieId and p.rating is not null and p.ratingCount >= :minReviews "
+            + "order by p.rating desc, p.ratingCount desc, p.id")
+    List<ProductSummary> findTopRatedInCategorie(Long categorieId, long minReviews, Pageable page);
+
+    @Query(SEARCH_DOCUMENT_SELECT)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<SearchDocument> streamSearchDocuments();
+
+    @Query(SEARCH_DOCUMENT_SELECT + "where p.id in :ids")
+    List<SearchDocument> findSearchDocumentsByIdIn(Collection<Long> ids);
+
+    @Query(SEARCH_DOCUMENT_SELECT + "where p.asin in :asins")
+    List<SearchDocument> findSearchDocumentsByAsinIn(Collection<String> asins);
+
+    String FACET_ROW_SELECT = "select new com.myfullstackproject.springbootproject1.dto.ProductFacetRow("
+            + "p.id, p.categorie.id, p.price, p.rating) "
+            + "from Product p ";
+
+    @Query(FACET_ROW_SELECT)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<ProductFacetRow> streamFacetRows();
+
+    @Query(FACET_ROW_SELECT + "where p.id in :ids")
+    List<ProductFacetRow> findFacetRowsByIdIn(Collection<Long> ids);
+
+    @Query(FACET_ROW_SELECT + "where p.asin in :asins")
+    List<ProductFacetRow> findFacetRowsByAsinIn(Collection<String> asins);
+
+    @Query(DETAILS_SELECT + "where p.id = :id")
+    Optional<ProductDetails> findDetailsById(Long id);
+
+    @Query(DETAILS_SELECT + "where p.asin = :asin")
+    Optional<ProductDetails> findDetailsByAsin(String asin);
+
+    // Lots du cache catalogue (POST /api/produits/batch) : une requête IN par type de clé
+    @Query(DETAILS_SELECT + "where p.id in :ids")
+    List<ProductDetails> findDetailsByIdIn(Collection<Long> ids);
+
+    @Query(DETAILS_SELECT + "where p.asin in :asins")
+    List<ProductDetails> findDetailsByAsinIn(Collection<String> asins);
 
-    // Exemple de méthodes de recherche (on pourra les utiliser plus tard)
-    // List<Product> findByCategory(String category);
-    // List<Product> findByTitleContainingIgnoreCase(String keyword);
-}
\ No newline at end of file
+    @Query("select p.id from Product p where p.asin = :asin")
+    Optional<Long> findIdByAsin(String asin);
+}
@@ -0,0 +1,22 @@
+package com.myfullstackproject.springbootproject1.repository;
+
+import com.myfullstackproject.springbootproject1.dto.ProductSummary;
+
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Page suivante en pagination par clé : (valeur de tri, id) strictement après {@code after}, valeurs nulles en dernier.
+     *
+     * @param after null pour la première page
+     */
+    default List<ProductSummary> findSummariesAfter(ProductSort sort, boolean descending, ProductCursor after, int limit) {
+        return findSummariesAfter(null, sort, descending, after, limit);
+    }
+
+    /**
+     * Même chose, restreint à une catégorie (null = toutes).
+     */
+    List<ProductSummary> findSummariesAfter(Long categorieId, ProductSort sort, boolean descending, ProductCursor after, int limit);
+}
@@ -0,0 +1,68 @@
+package com.myfullstackproject.springbootproject1.repository;
+
+import com.myfullstackproject.springbootproject1.dto.ProductSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pagination par clé en deux segments : d'abord les produits dont la clé de tri est renseignée
+ * (parcours d'index sur (clé, id)), puis ceux où elle est nulle, par id.
+ * Pas de OFFSET : le coût d'une page ne dépend pas de sa position.
+ */
+@Transactional(readOnly = true)
+class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    static final String SUMMARY_SELECT = "select new com.myfullstackproject.springbootproject1.dto.ProductSummary("
+            + "p.id, p.asin, p.title, p.price, p.rating, p.ratingCount, p.rank, p.imageUrl, p.categorie.id) "
+            + "from Product p ";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductSummary> findSummariesAfter(Long categorieId, ProductSort sort, boolean descending,
+                                                   ProductCursor after, int limit) {
+        String categoryClause = categorieId != null ? " and p.categorie.id = :categorieId" : "";
+        String key = "p." + sort.getProperty();
+        String cmp = descending ? "<" : ">";
+        String dir = descending ? " desc" : " asc";
+        List<ProductSummary> page = new ArrayList<>(limit);
+
+        if (after == null || after.value() != null) {
+            String jpql = SUMMARY_SELECT + "where " + key + " is not null" + categoryClause
+                    + (after != null ? " and (" + key + cmp + " :value or (" + key + " = :value and p.id" + cmp + " :id))" : "")
+                    + " order by " + key + dir + ", p.id" + dir;
+            TypedQuery<ProductSummary> query = entityManager.createQuery(jpql, ProductSummary.class)
+                    .setMaxResults(limit);
+            if (after != null) {
+                query.setParameter("value", after.value()).setParameter("id", after.id());
+            }
+            if (categorieId != null) {
+                query.setParameter("categorieId", categorieId);
+            }
+            page.addAll(query.getResultList());
+        }
+
+        if (page.size() < limit) {
+            boolean resumeInNulls = after != null && after.value() == null;
+            String jpql = SUMMARY_SELECT + "where " + key + " is null" + categoryClause
+                    + (resumeInNulls ? " and p.id" + cmp + " :id" : "")
+                    + " order by p.id" + dir;
+            TypedQuery<ProductSummary> query = entityManager.createQuery(jpql, ProductSummary.class)
+                    .setMaxResults(limit - page.size());
+            if (resumeInNulls) {
+                query.setParameter("id", after.id());
+            }
+            if (categorieId != null) {
+                query.setParameter("categorieId", categorieId);
+            }
+            page.addAll(query.getResultList());
+        }
+        return page;
+    }
+}
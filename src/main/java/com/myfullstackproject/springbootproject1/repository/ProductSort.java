@@ -0,0 +1,53 @@
+package com.myfullstackproject.springbootproject1.repository;
+
+import com.myfullstackproject.springbootproject1.dto.ProductSummary;
+
+import java.util.function.Function;
+
+/**
+ * Tris disponibles pour la pagination par clé (keyset) des produits.
+ */
+public enum ProductSort {
+
+    RANK("rank", false, ProductSummary::rank, Integer::valueOf),
+    PRICE("price", false, ProductSummary::price, Double::valueOf),
+    RATING("rating", true, ProductSummary::rating, Double::valueOf);
+
+    private final String property;
+    private final boolean descendingByDefault;
+    private final Function<ProductSummary, Object> extractor;
+    private final Function<String, Object> parser;
+
+    ProductSort(String property, boolean descendingByDefault,
+                Function<ProductSummary, Object> extractor, Function<String, Object> parser) {
+        this.property = property;
+        this.descendingByDefault = descendingByDefault;
+        this.extractor = extractor;
+        this.parser = parser;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public boolean isDescendingByDefault() {
+        return descendingByDefault;
+    }
+
+    public Object valueOf(ProductSummary summary) {
+        return extractor.apply(summary);
+    }
+
+    public Object parse(String value) {
+        return parser.apply(value);
+    }
+
+    public static ProductSort from(String name) {
+        for (ProductSort sort : values()) {
+            if (sort.property.equalsIgnoreCase(name)) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Tri inconnu : " + name);
+    }
+}
@@ -1,16 +1,37 @@
 package com.myfullstackproject.springbootproject1.repository;
 
+import com.myfullstackproject.springbootproject1.dto.RatingTotals;
+import com.myfullstackproject.springbootproject1.dto.ReviewLine;
 import com.myfullstackproject.springbootproject1.model.Rating;
 import com.myfullstackproject.springbootproject1.model.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 @Repository
+@Transactional(readOnly = true)
 public interface RatingRepository extends JpaRepository<Rating, Long> {
 
+    String LINE_SELECT = "select new com.myfullstackproject.springbootproject1.dto.ReviewLine("
+            + "r.id, r.stars, r.comment, r.createdAt, u.nom) from Rating r left join r.utilisateur u ";
+
     List<Rating> findByProduct(Product product);
 
     List<Rating> findByUtilisateur_Id(Long utilisateurId);
-}
\ No newline at end of file
+
+    // Avis d'un produit par clé (id décroissant) : index idx_avis_produit
+    @Query(LINE_SELECT + "where r.product.id = :productId order by r.id desc")
+    List<ReviewLine> findLines(Long productId, Pageable page);
+
+    @Query(LINE_SELECT + "where r.product.id = :productId and r.id < :beforeId order by r.id desc")
+    List<ReviewLine> findLinesBefore(Long productId, Long beforeId, Pageable page);
+
+    // Réconciliation : totaux de tous les produits notés en une seule requête
+    @Query("select new com.myfullstackproject.springbootproject1.dto.RatingTotals(r.product.id, sum(r.stars), count(r)) "
+            + "from Rating r where r.stars is not null group by r.product.id")
+    List<RatingTotals> findTotals();
+}
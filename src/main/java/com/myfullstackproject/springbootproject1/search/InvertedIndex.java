@@ -0,0 +1,232 @@
+package com.myfullstackproject.springbootproject1.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Index inversé en mémoire sur titre + description, classement BM25.
+ * <p>
+ * Chaque produit indexé reçoit un docId dense ; les colonnes de filtre (prix, note, catégorie)
+ * sont rangées dans des tableaux primitifs indexés par docId. Une mise à jour ajoute un nouveau docId
+ * et marque l'ancien comme supprimé : les postings restent en ajout seul, triés par docId.
+ * <p>
+ * Non thread-safe : l'accès est synchronisé par {@link ProductSearchService}.
+ */
+final class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // Un terme du titre compte comme trois occurrences dans la description
+    private static final int TITLE_WEIGHT = 3;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final TreeMap<String, PostingList> postings = new TreeMap<>();
+    private final Map<Long, Integer> docsByProductId = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+
+    private long[] productIds = new long[1024];
+    private int[] lengths = new int[1024];
+    private double[] prices = new double[1024];
+    private double[] ratings = new double[1024];
+    private long[] categorieIds = new long[1024];
+    private int maxDoc;
+    private int liveDocs;
+    private long totalLength;
+
+    // Tampons de scores (remis à zéro après usage) prêtés aux recherches : pas de ThreadLocal, chaque requête
+    // a son propre thread virtuel. Les recherches ne bloquent pas, il y en a au plus une par cœur à la fois ;
+    // au-delà, le tampon alloué en plus n'est pas gardé.
+    private final ArrayBlockingQueue<float[]> scoreBuffers =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    void add(SearchDocument document) {
+        remove(document.id());
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : Tokenizer.tokenize(document.title())) {
+            frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String term : Tokenizer.tokenize(document.description())) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+
+        int doc = maxDoc++;
+        ensureCapacity(maxDoc);
+        int length = 0;
+        for (int frequency : frequencies.values()) {
+            length += frequency;
+        }
+        productIds[doc] = document.id();
+        lengths[doc] = length;
+        prices[doc] = document.price() == null ? Double.NaN : document.price();
+        ratings[doc] = document.rating() == null ? Double.NaN : document.rating();
+        categorieIds[doc] = document.categorieId() == null ? 0 : document.categorieId();
+
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), k -> new PostingList()).add(doc, entry.getValue());
+        }
+        docsByProductId.put(document.id(), doc);
+        liveDocs++;
+        totalLength += length;
+    }
+
+    boolean remove(long productId) {
+        Integer doc = docsByProductId.remove(productId);
+        if (doc == null) {
+            return false;
+        }
+        deleted.set(doc);
+        liveDocs--;
+        totalLength -= lengths[doc];
+        return true;
+    }
+
+    /**
+     * Part des docId occupés par des versions supprimées ; au-delà d'un seuil, mieux vaut reconstruire.
+     */
+    double deletedRatio() {
+        return maxDoc == 0 ? 0 : (double) deleted.cardinality() / maxDoc;
+    }
+
+    int maxDoc() {
+        return maxDoc;
+    }
+
+    void trim() {
+        postings.values().forEach(PostingList::trim);
+    }
+
+    /**
+     * @param prefixLastTerm le dernier terme est complété (recherche pendant la frappe)
+     */
+    SearchResult search(List<String> terms, boolean prefixLastTerm, SearchFilter filter, int limit) {
+        if (terms.isEmpty() || liveDocs == 0) {
+            return new SearchResult(0, List.of());
+        }
+
+        float[] scores = scoreBuffers.poll();
+        if (scores == null || scores.length < maxDoc) {
+            // Taille des colonnes plutôt que maxDoc : le tampon survit aux ajouts jusqu'au prochain agrandissement
+            scores = new float[productIds.length];
+        }
+        int[] touched = new int[64];
+        int touchedCount = 0;
+        double averageLength = (double) totalLength / liveDocs;
+
+        for (int t = 0; t < terms.size(); t++) {
+            List<PostingList> lists = new ArrayList<>();
+            String term = terms.get(t);
+            if (prefixLastTerm && t == terms.size() - 1) {
+                SortedMap<String, PostingList> expansions = postings.subMap(term, term + Character.MAX_VALUE);
+                for (PostingList list : expansions.values()) {
+                    lists.add(list);
+                    if (lists.size() >= MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                }
+            } else if (postings.containsKey(term)) {
+                lists.add(postings.get(term));
+            }
+
+            for (PostingList list : lists) {
+                // docCount inclut les versions supprimées : borné pour rester strictement positif
+                double idf = Math.max(1e-3, Math.log(1 + (liveDocs - list.docCount() + 0.5) / (list.docCount() + 0.5)));
+                PostingList.Cursor cursor = list.cursor();
+                while (cursor.next()) {
+                    int doc = cursor.doc();
+                    if (scores[doc] == 0) {
+                        if (touchedCount == touched.length) {
+                            touched = Arrays.copyOf(touched, touchedCount * 2);
+                        }
+                        touched[touchedCount++] = doc;
+                        if (!accept(doc, filter)) {
+                            // -inf reste -inf : le document est écarté pour les termes suivants
+                            scores[doc] = Float.NEGATIVE_INFINITY;
+                            continue;
+                        }
+                    }
+                    if (scores[doc] == Float.NEGATIVE_INFINITY) {
+                        continue;
+                    }
+                    double tf = cursor.frequency();
+                    double norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                    scores[doc] += (float) (idf * tf * (K1 + 1) / (tf + norm));
+                }
+            }
+        }
+
+        PriorityQueue<int[]> top = new PriorityQueue<>(Math.max(1, limit),
+                (a, b) -> Float.compare(Float.intBitsToFloat(a[1]), Float.intBitsToFloat(b[1])));
+        long total = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int doc = touched[i];
+            float score = scores[doc];
+            scores[doc] = 0;
+            if (score == Float.NEGATIVE_INFINITY || score <= 0) {
+                continue;
+            }
+            total++;
+            if (top.size() < limit) {
+                top.add(new int[]{doc, Float.floatToIntBits(score)});
+            } else if (limit > 0 && score > Float.intBitsToFloat(top.peek()[1])) {
+                top.poll();
+                top.add(new int[]{doc, Float.floatToIntBits(score)});
+            }
+        }
+
+        List<SearchResult.Hit> hits = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            int[] entry = top.poll();
+            hits.add(new SearchResult.Hit(productIds[entry[0]], Float.intBitsToFloat(entry[1])));
+        }
+        Collections.reverse(hits);
+        // Tous les scores touchés ont été remis à zéro
+        scoreBuffers.offer(scores);
+        return new SearchResult(total, hits);
+    }
+
+    SearchIndexStats stats() {
+        long postingBytes = 0;
+        for (PostingList list : postings.values()) {
+            postingBytes += list.sizeInBytes();
+        }
+        return new SearchIndexStats(liveDocs, maxDoc, postings.size(), postingBytes);
+    }
+
+    private boolean accept(int doc, SearchFilter filter) {
+        if (deleted.get(doc)) {
+            return false;
+        }
+        if (filter.categorieId() != null && categorieIds[doc] != filter.categorieId()) {
+            return false;
+        }
+        // NaN (prix ou note inconnus) échoue à toutes les comparaisons : exclu dès qu'un filtre est posé
+        if (filter.minPrice() != null && !(prices[doc] >= filter.minPrice())) {
+            return false;
+        }
+        if (filter.maxPrice() != null && !(prices[doc] <= filter.maxPrice())) {
+            return false;
+        }
+        return filter.minRating() == null || ratings[doc] >= filter.minRating();
+    }
+
+    private void ensureCapacity(int size) {
+        if (size > productIds.length) {
+            int capacity = Math.max(size, productIds.length * 2);
+            productIds = Arrays.copyOf(productIds, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            ratings = Arrays.copyOf(ratings, capacity);
+            categorieIds = Arrays.copyOf(categorieIds, capacity);
+        }
+    }
+}
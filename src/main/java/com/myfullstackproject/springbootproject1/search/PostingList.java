@@ -0,0 +1,91 @@
+package com.myfullstackproject.springbootproject1.search;
+
+import java.util.Arrays;
+
+/**
+ * Liste de postings compacte : couples (écart de docId, fréquence) encodés en varint dans un byte[].
+ * Les docId sont ajoutés en ordre croissant, ce qui garde les écarts petits (1 à 2 octets en général).
+ */
+final class PostingList {
+
+    private byte[] data = new byte[8];
+    private int length;
+    private int lastDoc = -1;
+    private int docCount;
+
+    void add(int doc, int frequency) {
+        ensureCapacity(10);
+        writeVarint(doc - lastDoc);
+        writeVarint(frequency);
+        lastDoc = doc;
+        docCount++;
+    }
+
+    int docCount() {
+        return docCount;
+    }
+
+    int sizeInBytes() {
+        return data.length;
+    }
+
+    void trim() {
+        if (data.length > length) {
+            data = Arrays.copyOf(data, length);
+        }
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + extra));
+        }
+    }
+
+    private void writeVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+
+    final class Cursor {
+
+        private int position;
+        private int doc = -1;
+        private int frequency;
+
+        boolean next() {
+            if (position >= length) {
+                return false;
+            }
+            doc += readVarint();
+            frequency = readVarint();
+            return true;
+        }
+
+        int doc() {
+            return doc;
+        }
+
+        int frequency() {
+            return frequency;
+        }
+
+        private int readVarint() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+    }
+}
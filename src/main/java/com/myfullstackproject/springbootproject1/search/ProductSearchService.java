@@ -0,0 +1,202 @@
+package com.myfullstackproject.springbootproject1.search;
+
+import com.myfullstackproject.springbootproject1.event.ProductsChangedEvent;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Recherche plein texte sur les produits via un {@link InvertedIndex} en mémoire.
+ * <p>
+ * Construction complète au démarrage (après l'import CSV), puis mise à jour incrémentale
+ * à chaque {@link ProductsChangedEvent} : seuls les produits concernés sont relus et réindexés.
+ * Lecture et application se font sous {@code updateLock}, comme dans {@code LeaderboardService} : deux événements
+ * sur un même produit s'appliquent dans l'ordre, le dernier relit forcément la dernière version.
+ * <p>
+ * Une reconstruction complète n'a lieu que lorsque trop de docId sont occupés par des versions supprimées ;
+ * elle est alors planifiée ({@code search.compaction-check-interval}), jamais faite sur le thread qui a écrit.
+ */
+@Service
+public class ProductSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchService.class);
+    private static final double COMPACTION_THRESHOLD = 0.3;
+
+    private enum State { NOT_BUILT, REBUILDING, READY }
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // Sérialise lecture + application des modifications incrémentales (et leur rejeu après reconstruction)
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private final int compactionMinDocs;
+    private volatile boolean compactionNeeded;
+
+    // Protégés par lock
+    private InvertedIndex index = new InvertedIndex();
+    private State state = State.NOT_BUILT;
+    private final Set<Long> pendingIds = new HashSet<>();
+    private final Set<String> pendingAsins = new HashSet<>();
+
+    public ProductSearchService(ProductRepository productRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${search.compaction-min-docs:10000}") int compactionMinDocs) {
+        this.productRepository = productRepository;
+        this.compactionMinDocs = compactionMinDocs;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public SearchResult search(String query, SearchFilter filter, int limit) {
+        List<String> terms = Tokenizer.tokenize(query);
+        // Pas d'espace final : le dernier mot est probablement en cours de frappe
+        boolean prefixLastTerm = query != null && !query.isEmpty() && !Character.isWhitespace(query.charAt(query.length() - 1));
+        lock.readLock().lock();
+        try {
+            return index.search(terms, prefixLastTerm, filter, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Construction initiale en tâche de fond (thread virtuel) : l'application répond pendant la lecture du catalogue
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${search.compaction-check-interval:30s}")
+    public void compactIfNeeded() {
+        if (compactionNeeded) {
+            rebuild();
+        }
+    }
+
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            long start = System.nanoTime();
+            compactionNeeded = false;
+            lock.writeLock().lock();
+            try {
+                state = State.REBUILDING;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            InvertedIndex fresh = new InvertedIndex();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<SearchDocument> documents = productRepository.streamSearchDocuments()) {
+                    documents.forEach(fresh::add);
+                }
+            });
+            fresh.trim();
+
+            // Échange et rejeu sous updateLock : aucune modification ne passe entre les deux
+            updateLock.lock();
+            try {
+                Set<Long> ids;
+                Set<String> asins;
+                lock.writeLock().lock();
+                try {
+                    index = fresh;
+                    state = State.READY;
+                    ids = new HashSet<>(pendingIds);
+                    asins = new HashSet<>(pendingAsins);
+                    pendingIds.clear();
+                    pendingAsins.clear();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                // Modifications arrivées pendant la lecture : rejouées sur le nouvel index
+                applyChanges(ids, asins);
+            } finally {
+                updateLock.unlock();
+            }
+            log.info("Search index rebuilt in {} ms: {}", (System.nanoTime() - start) / 1_000_000, fresh.stats());
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (state == State.NOT_BUILT) {
+                return; // la première construction lira tout
+            }
+            if (state == State.REBUILDING) {
+                pendingIds.addAll(event.ids());
+                pendingAsins.addAll(event.asins());
+                return;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        applyChanges(event.ids(), event.asins());
+    }
+
+    public SearchIndexStats stats() {
+        lock.readLock().lock();
+        try {
+            return index.stats();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void applyChanges(Set<Long> ids, Set<String> asins) {
+        if (ids.isEmpty() && asins.isEmpty()) {
+            return;
+        }
+        updateLock.lock();
+        try {
+            // Relus sous updateLock : un événement plus ancien ne peut pas écraser un plus récent
+            List<SearchDocument> byId = ids.isEmpty() ? List.of() : productRepository.findSearchDocumentsByIdIn(ids);
+            List<SearchDocument> byAsin = asins.isEmpty() ? List.of() : productRepository.findSearchDocumentsByAsinIn(asins);
+
+            lock.writeLock().lock();
+            try {
+                Set<Long> found = new HashSet<>();
+                for (SearchDocument document : byId) {
+                    index.add(document);
+                    found.add(document.id());
+                }
+                for (SearchDocument document : byAsin) {
+                    index.add(document);
+                }
+                for (Long id : ids) {
+                    if (!found.contains(id)) {
+                        index.remove(id); // produit supprimé
+                    }
+                }
+                if (index.maxDoc() >= compactionMinDocs && index.deletedRatio() > COMPACTION_THRESHOLD) {
+                    compactionNeeded = true;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+}
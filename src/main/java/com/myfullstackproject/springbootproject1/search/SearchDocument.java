@@ -0,0 +1,7 @@
+package com.myfullstackproject.springbootproject1.search;
+
+/**
+ * Colonnes d'un produit nécessaires à l'indexation (texte + colonnes de filtre).
+ */
+public record SearchDocument(Long id, String title, String description, Double price, Double rating, Long categorieId) {
+}
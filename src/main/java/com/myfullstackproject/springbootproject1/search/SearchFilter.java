@@ -0,0 +1,9 @@
+package com.myfullstackproject.springbootproject1.search;
+
+/**
+ * Filtres de recherche ; chaque critère null est ignoré.
+ */
+public record SearchFilter(Long categorieId, Double minPrice, Double maxPrice, Double minRating) {
+
+    public static final SearchFilter NONE = new SearchFilter(null, null, null, null);
+}
@@ -0,0 +1,7 @@
+package com.myfullstackproject.springbootproject1.search;
+
+/**
+ * Taille de l'index : documents vivants, docId alloués (y compris versions supprimées), termes, octets de postings.
+ */
+public record SearchIndexStats(int liveDocs, int maxDoc, int terms, long postingBytes) {
+}
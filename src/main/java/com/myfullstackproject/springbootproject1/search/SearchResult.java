@@ -0,0 +1,12 @@
+package com.myfullstackproject.springbootproject1.search;
+
+import java.util.List;
+
+/**
+ * Résultat brut de l'index : ids produit classés par score décroissant.
+ */
+public record SearchResult(long totalMatches, List<Hit> hits) {
+
+    public record Hit(long productId, double score) {
+    }
+}
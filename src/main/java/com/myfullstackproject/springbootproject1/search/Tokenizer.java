@@ -0,0 +1,52 @@
+package com.myfullstackproject.springbootproject1.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Découpage en termes : minuscules, accents retirés, séparation sur tout ce qui n'est ni lettre ni chiffre.
+ */
+final class Tokenizer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it", "of", "on",
+            "or", "the", "to", "with", "au", "aux", "de", "des", "du", "en", "et", "la", "le", "les", "un", "une");
+
+    private Tokenizer() {
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                current.append(c);
+            } else {
+                flush(current, tokens);
+            }
+        }
+        flush(current, tokens);
+        return tokens;
+    }
+
+    private static void flush(StringBuilder current, List<String> tokens) {
+        if (current.length() > 1 && current.length() <= 40) {
+            String token = current.toString();
+            if (!STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        current.setLength(0);
+    }
+}
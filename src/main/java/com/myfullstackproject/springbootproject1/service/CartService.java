@@ -0,0 +1,52 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.dto.CartLine;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Point d'entrée panier, indépendant du mode de stockage ({@link CartStore}).
+ */
+@Service
+public class CartService {
+
+    private final CartStore cartStore;
+
+    public CartService(CartStore cartStore) {
+        this.cartStore = cartStore;
+    }
+
+    public CartLine addToCart(Long utilisateurId, Long productId, int quantity) {
+        checkQuantity(quantity);
+        return cartStore.addToCart(utilisateurId, productId, quantity);
+    }
+
+    public List<CartLine> getCart(Long utilisateurId) {
+        return cartStore.getCart(utilisateurId);
+    }
+
+    public CartLine updateQuantity(Long utilisateurId, Long cartItemId, int quantity) {
+        checkQuantity(quantity);
+        return cartStore.updateQuantity(utilisateurId, cartItemId, quantity);
+    }
+
+    public void removeItem(Long utilisateurId, Long cartItemId) {
+        cartStore.removeItem(utilisateurId, cartItemId);
+    }
+
+    public void flush(Long utilisateurId) {
+        cartStore.flush(utilisateurId);
+    }
+
+    public void clear(Long utilisateurId) {
+        cartStore.clear(utilisateurId);
+    }
+
+    // Une quantité nulle ou négative donnerait un montant négatif et rendrait du stock à la commande
+    private static void checkQuantity(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("La quantité doit être positive");
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.dto.CartLine;
+
+import java.util.List;
+
+/**
+ * Stockage des paniers. Implémentation choisie par {@code cart.store.mode} :
+ * {@code direct} (défaut, une instruction d'écriture par opération) ou {@code write-behind} (mémoire + écriture différée).
+ */
+public interface CartStore {
+
+    CartLine addToCart(Long utilisateurId, Long productId, int quantity);
+
+    List<CartLine> getCart(Long utilisateurId);
+
+    CartLine updateQuantity(Long utilisateurId, Long cartItemId, int quantity);
+
+    void removeItem(Long utilisateurId, Long cartItemId);
+
+    /**
+     * Garantit que articles_panier reflète le panier de l'utilisateur (avant une commande par exemple).
+     */
+    default void flush(Long utilisateurId) {
+    }
+
+    /**
+     * Vide le panier de l'utilisateur (après une commande), dans la transaction de l'appelant.
+     */
+    void clear(Long utilisateurId);
+}
@@ -0,0 +1,30 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bilan d'un import différentiel : ids des produits insérés, modifiés, supprimés et retirés (conservés avec
+ * un stock à 0 car référencés). Les caches et index en aval peuvent n'invalider que {@link #changedIds()}.
+ * {@code skippedRemovals} : ASIN absents du fichier non traités (fichier incomplet ou garde-fou dépassé).
+ */
+public record CatalogDelta(long rowsRead, long rejected, long unchanged,
+                           List<Long> insertedIds, List<Long> updatedIds,
+                           List<Long> deletedIds, List<Long> retiredIds,
+                           long skippedRemovals, Duration elapsed) {
+
+    public Set<Long> changedIds() {
+        Set<Long> ids = new HashSet<>(insertedIds);
+        ids.addAll(updatedIds);
+        ids.addAll(deletedIds);
+        ids.addAll(retiredIds);
+        return ids;
+    }
+
+    public double rowsPerSecond() {
+        long millis = Math.max(1, elapsed.toMillis());
+        return rowsRead * 1000.0 / millis;
+    }
+}
@@ -0,0 +1,218 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.model.Product;
+import com.myfullstackproject.springbootproject1.util.Fnv64;
+import com.myfullstackproject.springbootproject1.util.LongLongHashMap;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.exceptions.CsvValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Import différentiel du catalogue ({@code catalog.import.mode=delta}) : le fournisseur renvoie chaque nuit le
+ * fichier complet, dont seules quelques lignes changent.
+ * <p>
+ * Une empreinte 64 bits de chaque ligne appliquée est gardée par ASIN (table empreintes_catalogue). L'import
+ * charge ces empreintes dans une {@link LongLongHashMap} (hash de l'ASIN -> empreinte), lit le fichier au fil
+ * de l'eau et n'envoie au {@link ProductBatchWriter} que les lignes nouvelles ou modifiées. Les ASIN connus
+ * absents du fichier sont ensuite supprimés (ou retirés s'ils sont référencés), par lots eux aussi.
+ * Les lignes inchangées ne coûtent ni écriture ni invalidation de cache.
+ * <p>
+ * L'empreinte porte sur les valeurs converties ({@link CsvProductMapper}) : un changement de format
+ * (« 19.990 » au lieu de « 19.99 ») n'est pas une modification. Les modifications locales d'un produit
+ * (API, avis) restent en place tant que la ligne fournisseur ne change pas.
+ */
+@Service
+public class CatalogDeltaImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogDeltaImporter.class);
+
+    private final ProductBatchWriter productBatchWriter;
+    private final CategorieResolver categorieResolver;
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final double maxDeleteRatio;
+
+    public CatalogDeltaImporter(ProductBatchWriter productBatchWriter,
+                                CategorieResolver categorieResolver,
+                                JdbcTemplate jdbcTemplate,
+                                @Value("${catalog.import.batch-size:1000}") int batchSize,
+                                @Value("${catalog.import.delta.max-delete-ratio:0.2}") double maxDeleteRatio) {
+        this.productBatchWriter = productBatchWriter;
+        this.categorieResolver = categorieResolver;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxDeleteRatio = maxDeleteRatio;
+    }
+
+    /**
+     * Applique les fichiers comme un seul catalogue : un ASIN n'est supprimé que s'il manque à tous.
+     */
+    public CatalogDelta importDelta(List<Resource> resources) {
+        long start = System.nanoTime();
+
+        // 1) Empreintes de l'import précédent
+        LongLongHashMap known = loadFingerprints();
+        LongLongHashMap seen = new LongLongHashMap(Math.max(16, known.size()));
+        log.info("Delta CSV import: {} known fingerprints, batch size {}", known.size(), batchSize);
+
+        // 2) Lecture des fichiers : seules les lignes nouvelles ou modifiées sont écrites
+        long rowsRead = 0;
+        long rejected = 0;
+        long unchanged = 0;
+        boolean complete = true;
+        DeltaTotals totals = new DeltaTotals();
+        List<ProductBatchWriter.FingerprintedProduct> batch = new ArrayList<>(batchSize);
+
+        for (Resource resource : resources) {
+            if (!resource.exists()) {
+                log.error("CSV file not found at: {}", resource.getDescription());
+                complete = false;
+                continue;
+            }
+            try (Reader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8));
+                 CSVReader csvReader = new CSVReaderBuilder(reader).withSkipLines(1).build()) {
+
+                String[] row;
+                while ((row = csvReader.readNext()) != null) {
+                    rowsRead++;
+                    Product product = CsvProductMapper.toProduct(row);
+                    if (product == null) {
+                        rejected++;
+                        continue;
+                    }
+
+                    long key = asinKey(product.getAsin());
+                    long fingerprint = fingerprint(product);
+                    // ASIN répété dans le fichier : comparé à sa ligne précédente (la dernière gagne)
+                    long previous = seen.containsKey(key) ? seen.get(key, ProductBatchWriter.RETIRED)
+                            : known.get(key, ProductBatchWriter.RETIRED);
+                    seen.put(key, fingerprint);
+                    if (previous == fingerprint) {
+                        unchanged++;
+                        continue;
+                    }
+
+                    categorieResolver.resolve(product);
+                    batch.add(new ProductBatchWriter.FingerprintedProduct(product, fingerprint));
+                    if (batch.size() >= batchSize) {
+                        totals.add(productBatchWriter.applyDelta(batch, List.of()));
+                        batch.clear();
+                    }
+                }
+            } catch (IOException | CsvValidationException e) {
+                log.error("Error loading CSV file: {}", e.getMessage(), e);
+                complete = false;
+            }
+        }
+        if (!batch.isEmpty()) {
+            totals.add(productBatchWriter.applyDelta(batch, List.of()));
+        }
+
+        // 3) ASIN connus absents du fichier (les produits déjà retirés n'y figurent plus)
+        List<String> removed = new ArrayList<>();
+        forEachFingerprint(rs -> {
+            if (rs.getLong(2) != ProductBatchWriter.RETIRED && !seen.containsKey(asinKey(rs.getString(1)))) {
+                removed.add(rs.getString(1));
+            }
+        });
+
+        long skippedRemovals = 0;
+        if (!complete) {
+            log.warn("Delta CSV import: {} removals skipped, the catalog was not read completely", removed.size());
+            skippedRemovals = removed.size();
+        } else if (removed.size() > known.size() * maxDeleteRatio) {
+            // Fichier tronqué côté fournisseur : on ne vide pas le catalogue
+            log.warn("Delta CSV import: {} of {} known products missing from the file, above "
+                    + "catalog.import.delta.max-delete-ratio={}; removals skipped", removed.size(), known.size(), maxDeleteRatio);
+            skippedRemovals = removed.size();
+        } else {
+            for (int from = 0; from < removed.size(); from += batchSize) {
+                List<String> chunk = removed.subList(from, Math.min(removed.size(), from + batchSize));
+                totals.add(productBatchWriter.applyDelta(List.of(), chunk));
+            }
+        }
+
+        CatalogDelta delta = new CatalogDelta(rowsRead, rejected, unchanged,
+                totals.inserted, totals.updated, totals.deleted, totals.retired,
+                skippedRemovals, Duration.ofNanos(System.nanoTime() - start));
+        log.info("Delta CSV import done: {} rows read, {} unchanged, {} inserted, {} updated, {} deleted, {} retired, "
+                        + "{} rejected in {} ms ({} rows/s)",
+                delta.rowsRead(), delta.unchanged(), delta.insertedIds().size(), delta.updatedIds().size(),
+                delta.deletedIds().size(), delta.retiredIds().size(), delta.rejected(),
+                delta.elapsed().toMillis(), Math.round(delta.rowsPerSecond()));
+        return delta;
+    }
+
+    private LongLongHashMap loadFingerprints() {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM empreintes_catalogue", Integer.class);
+        LongLongHashMap fingerprints = new LongLongHashMap(count == null ? 16 : Math.max(16, count));
+        forEachFingerprint(rs -> {
+            fingerprints.put(asinKey(rs.getString(1)), rs.getLong(2));
+        });
+        return fingerprints;
+    }
+
+    // Lecture au fil du curseur (code_asin, empreinte), sans charger la table en liste
+    private void forEachFingerprint(RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT code_asin, empreinte FROM empreintes_catalogue");
+            ps.setFetchSize(batchSize);
+            return ps;
+        }, handler);
+    }
+
+    /**
+     * Clé de l'ASIN dans les tables en mémoire. Une collision sur 64 bits (probabilité de l'ordre de 10^-8
+     * pour un million d'ASIN) ferait passer une ligne pour inchangée jusqu'à sa prochaine modification.
+     */
+    static long asinKey(String asin) {
+        return Fnv64.hash(Fnv64.OFFSET, asin);
+    }
+
+    /**
+     * Empreinte des colonnes importées, jamais égale à {@link ProductBatchWriter#RETIRED}.
+     */
+    static long fingerprint(Product product) {
+        long h = Fnv64.OFFSET;
+        h = Fnv64.hash(h, product.getTitle());
+        h = Fnv64.hash(h, product.getPrice());
+        h = Fnv64.hash(h, product.getRating());
+        h = Fnv64.hash(h, product.getRatingCount());
+        h = Fnv64.hash(h, product.getRank());
+        h = Fnv64.hash(h, product.getNo_sellers());
+        h = Fnv64.hash(h, product.getCategorie() != null ? product.getCategorie().getNom() : null);
+        return h == ProductBatchWriter.RETIRED ? 1 : h;
+    }
+
+    private static final class DeltaTotals {
+
+        private final List<Long> inserted = new ArrayList<>();
+        private final List<Long> updated = new ArrayList<>();
+        private final List<Long> deleted = new ArrayList<>();
+        private final List<Long> retired = new ArrayList<>();
+
+        void add(ProductBatchWriter.DeltaResult result) {
+            inserted.addAll(result.inserted());
+            updated.addAll(result.updated());
+            deleted.addAll(result.deleted());
+            retired.addAll(result.retired());
+        }
+    }
+}
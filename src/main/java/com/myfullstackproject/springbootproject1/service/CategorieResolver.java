@@ -0,0 +1,79 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.model.Product;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Résolution nom de catégorie -> id dans la table categorie, créée à la volée si besoin.
+ * Thread-safe : appelée en parallèle par les workers d'import.
+ */
+@Component
+public class CategorieResolver {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityCacheInvalidator entityCacheInvalidator;
+    private final TransactionTemplate requiresNew;
+    private final Map<String, Long> idsByName = new ConcurrentHashMap<>();
+
+    public CategorieResolver(JdbcTemplate jdbcTemplate,
+                             EntityCacheInvalidator entityCacheInvalidator,
+                             PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityCacheInvalidator = entityCacheInvalidator;
+        // La catégorie est commitée tout de suite : un lot produits annulé ne doit pas laisser un id orphelin en cache
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Renseigne l'id de la catégorie (transiente, nom seul) portée par le produit.
+     */
+    public void resolve(Product product) {
+        if (product.getCategorie() != null && product.getCategorie().getId() == null) {
+            product.getCategorie().setId(resolveId(product.getCategorie().getNom()));
+        }
+    }
+
+    public Long resolveId(String nom) {
+        if (nom == null) {
+            return null;
+        }
+        Long id = idsByName.get(nom);
+        return id != null ? id : idsByName.computeIfAbsent(nom, this::findOrCreate);
+    }
+
+    public void clear() {
+        idsByName.clear();
+    }
+
+    private Long findOrCreate(String nom) {
+        Long id = requiresNew.execute(status -> {
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM categorie WHERE nom = ? ORDER BY id", Long.class, nom);
+            if (!ids.isEmpty()) {
+                return ids.get(0);
+            }
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement("INSERT INTO categorie (nom) VALUES (?)", new String[]{"id"});
+                ps.setString(1, nom);
+                return ps;
+            }, keyHolder);
+            return keyHolder.getKey().longValue();
+        });
+        // Insertion JDBC invisible pour Hibernate : liste des catégories en cache à invalider
+        entityCacheInvalidator.categoriesChanged();
+        return id;
+    }
+}
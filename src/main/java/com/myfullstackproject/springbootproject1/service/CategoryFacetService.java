@@ -0,0 +1,323 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.dto.CategoryFacets;
+import com.myfullstackproject.springbootproject1.dto.ProductFacetRow;
+import com.myfullstackproject.springbootproject1.event.ProductsChangedEvent;
+import com.myfullstackproject.springbootproject1.repository.CategorieRepository;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import com.myfullstackproject.springbootproject1.util.LongLongHashMap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Facettes par catégorie (nombre de produits, histogramme des prix, répartition des notes),
+ * tenues en mémoire dans des tableaux de compteurs et mises à jour produit par produit.
+ * <p>
+ * Pour chaque produit on garde sa contribution (catégorie, tranche de prix, tranche de note, prix) :
+ * une modification retire l'ancienne contribution et ajoute la nouvelle, sans GROUP BY ni parcours de
+ * {@code Categorie.produits}. Lecture des lignes et application se font sous {@code updateLock} : deux
+ * événements sur un même produit s'appliquent dans l'ordre.
+ * <p>
+ * La reconstruction remplit de nouveaux compteurs sans verrou, à côté des anciens qui continuent de servir,
+ * puis les échange et rejoue les modifications arrivées pendant la lecture (comme {@code ProductSearchService}).
+ */
+@Service
+public class CategoryFacetService {
+
+    // Bornes basses des tranches de prix ; la dernière tranche est ouverte
+    static final double[] PRICE_BOUNDS = {0, 10, 25, 50, 100, 250, 500};
+    // Tranches de note [0,1[ ... [4,5]
+    static final int RATING_BUCKETS = 5;
+
+    // Disposition du tableau de compteurs d'une catégorie
+    private static final int COUNT = 0;
+    private static final int PRICE_OFFSET = 1;
+    private static final int UNKNOWN_PRICE = PRICE_OFFSET + PRICE_BOUNDS.length;
+    private static final int RATING_OFFSET = UNKNOWN_PRICE + 1;
+    private static final int UNKNOWN_RATING = RATING_OFFSET + RATING_BUCKETS;
+    private static final int PRICED = UNKNOWN_RATING + 1;
+    private static final int COUNTERS = PRICED + 1;
+
+    private static final int NO_BUCKET = 0xF;
+
+    private final ProductRepository productRepository;
+    private final CategorieRepository categorieRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    // Protégés par lock
+    private Counters counters = new Counters();
+    private boolean built;
+    private boolean rebuilding;
+    private final Set<Long> pendingIds = new HashSet<>();
+    private final Set<String> pendingAsins = new HashSet<>();
+
+    // Verrous explicites plutôt que synchronized : les sections qui lisent la base n'épinglent pas les threads virtuels.
+    // lock n'est tenu que le temps de lire ou modifier les compteurs, jamais pendant une requête sur produits
+    private final ReentrantLock lock = new ReentrantLock();
+    // Sérialise lecture + application des modifications incrémentales (et leur rejeu après reconstruction)
+    private final ReentrantLock updateLock = new ReentrantLock();
+    // Une seule reconstruction à la fois
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private volatile List<CategoryFacets> snapshot;
+
+    public CategoryFacetService(ProductRepository productRepository,
+                                CategorieRepository categorieRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.categorieRepository = categorieRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // Construction initiale en tâche de fond (thread virtuel) : l'application répond pendant la lecture du catalogue
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            lock.lock();
+            try {
+                rebuilding = true;
+            } finally {
+                lock.unlock();
+            }
+
+            Counters fresh = new Counters();
+            try {
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    try (Stream<ProductFacetRow> rows = productRepository.streamFacetRows()) {
+                        rows.forEach(fresh::add);
+                    }
+                });
+            } catch (RuntimeException e) {
+                lock.lock();
+                try {
+                    rebuilding = false;
+                    pendingIds.clear();
+                    pendingAsins.clear();
+                } finally {
+                    lock.unlock();
+                }
+                throw e;
+            }
+
+            // Échange et rejeu sous updateLock : aucune modification ne passe entre les deux
+            updateLock.lock();
+            try {
+                Set<Long> ids;
+                Set<String> asins;
+                lock.lock();
+                try {
+                    counters = fresh;
+                    built = true;
+                    rebuilding = false;
+                    snapshot = null;
+                    ids = new HashSet<>(pendingIds);
+                    asins = new HashSet<>(pendingAsins);
+                    pendingIds.clear();
+                    pendingAsins.clear();
+                } finally {
+                    lock.unlock();
+                }
+                // Modifications arrivées pendant la lecture : rejouées sur les nouveaux compteurs
+                applyChanges(ids, asins);
+            } finally {
+                updateLock.unlock();
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        lock.lock();
+        try {
+            if (rebuilding) {
+                pendingIds.addAll(event.ids());
+                pendingAsins.addAll(event.asins());
+                return;
+            }
+            if (!built) {
+                return; // la première construction lira tout
+            }
+        } finally {
+            lock.unlock();
+        }
+        applyChanges(event.ids(), event.asins());
+    }
+
+    public List<CategoryFacets> allFacets() {
+        List<CategoryFacets> current = snapshot;
+        if (current == null) {
+            current = buildSnapshot();
+        }
+        return current;
+    }
+
+    public Optional<CategoryFacets> facets(Long categorieId) {
+        return allFacets().stream().filter(f -> f.id().equals(categorieId)).findFirst();
+    }
+
+    private void applyChanges(Set<Long> ids, Set<String> asins) {
+        if (ids.isEmpty() && asins.isEmpty()) {
+            return;
+        }
+        updateLock.lock();
+        try {
+            // Relues sous updateLock : une ligne plus ancienne ne peut pas écraser une plus récente
+            List<ProductFacetRow> rows = new ArrayList<>();
+            if (!ids.isEmpty()) {
+                rows.addAll(productRepository.findFacetRowsByIdIn(ids));
+            }
+            if (!asins.isEmpty()) {
+                rows.addAll(productRepository.findFacetRowsByAsinIn(asins));
+            }
+
+            lock.lock();
+            try {
+                Set<Long> found = new HashSet<>();
+                for (ProductFacetRow row : rows) {
+                    counters.subtract(row.id());
+                    counters.add(row);
+                    found.add(row.id());
+                }
+                for (Long id : ids) {
+                    if (!found.contains(id)) {
+                        counters.subtract(id); // produit supprimé
+                    }
+                }
+                snapshot = null;
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private List<CategoryFacets> buildSnapshot() {
+        // Une seule requête sur la petite table categorie, pas sur produits, faite hors du verrou
+        Map<Long, String> names = new HashMap<>();
+        categorieRepository.findAll().forEach(c -> names.put(c.getId(), c.getNom()));
+
+        lock.lock();
+        try {
+            if (snapshot != null) {
+                return snapshot;
+            }
+            List<CategoryFacets> facets = new ArrayList<>();
+            for (Map.Entry<Long, String> entry : names.entrySet()) {
+                long[] values = counters.byCategorie.getOrDefault(entry.getKey(), new long[COUNTERS]);
+                facets.add(toFacets(entry.getKey(), entry.getValue(), values,
+                        counters.priceSumByCategorie.getOrDefault(entry.getKey(), 0.0)));
+            }
+            facets.sort((a, b) -> a.nom().compareToIgnoreCase(b.nom()));
+            snapshot = List.copyOf(facets);
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    static int priceBucket(Double price) {
+        if (price == null || price < 0) {
+            return NO_BUCKET;
+        }
+        int bucket = Arrays.binarySearch(PRICE_BOUNDS, price);
+        return bucket >= 0 ? bucket : -bucket - 2;
+    }
+
+    static int ratingBucket(Double rating) {
+        if (rating == null || rating < 0) {
+            return NO_BUCKET;
+        }
+        return Math.min(RATING_BUCKETS - 1, (int) Math.floor(rating));
+    }
+
+    private static CategoryFacets toFacets(Long id, String nom, long[] counters, double priceSum) {
+        List<CategoryFacets.Bucket> priceHistogram = new ArrayList<>(PRICE_BOUNDS.length);
+        for (int i = 0; i < PRICE_BOUNDS.length; i++) {
+            Double to = i + 1 < PRICE_BOUNDS.length ? PRICE_BOUNDS[i + 1] : null;
+            priceHistogram.add(new CategoryFacets.Bucket(PRICE_BOUNDS[i], to, counters[PRICE_OFFSET + i]));
+        }
+        List<CategoryFacets.Bucket> ratingDistribution = new ArrayList<>(RATING_BUCKETS);
+        for (int i = 0; i < RATING_BUCKETS; i++) {
+            ratingDistribution.add(new CategoryFacets.Bucket(i, i + 1.0, counters[RATING_OFFSET + i]));
+        }
+        Double averagePrice = counters[PRICED] > 0 ? priceSum / counters[PRICED] : null;
+        return new CategoryFacets(id, nom, counters[COUNT], averagePrice,
+                priceHistogram, counters[UNKNOWN_PRICE], ratingDistribution, counters[UNKNOWN_RATING]);
+    }
+
+    // Compteurs de toutes les catégories et contribution de chaque produit ; non thread-safe
+    private static final class Counters {
+
+        private final Map<Long, long[]> byCategorie = new HashMap<>();
+        private final Map<Long, Double> priceSumByCategorie = new HashMap<>();
+        // produit -> catégorie << 8 | tranche prix << 4 | tranche note
+        private final LongLongHashMap contributions = new LongLongHashMap(1 << 12);
+        // produit -> bits du prix (pour retirer la somme)
+        private final LongLongHashMap prices = new LongLongHashMap(1 << 12);
+
+        void add(ProductFacetRow row) {
+            if (row.categorieId() == null) {
+                return;
+            }
+            int priceBucket = priceBucket(row.price());
+            int ratingBucket = ratingBucket(row.rating());
+            long[] counters = byCategorie.computeIfAbsent(row.categorieId(), id -> new long[COUNTERS]);
+            counters[COUNT]++;
+            counters[priceBucket == NO_BUCKET ? UNKNOWN_PRICE : PRICE_OFFSET + priceBucket]++;
+            counters[ratingBucket == NO_BUCKET ? UNKNOWN_RATING : RATING_OFFSET + ratingBucket]++;
+            if (row.price() != null) {
+                counters[PRICED]++;
+                priceSumByCategorie.merge(row.categorieId(), row.price(), Double::sum);
+                prices.put(row.id(), Double.doubleToLongBits(row.price()));
+            }
+            contributions.put(row.id(), row.categorieId() << 8 | (long) priceBucket << 4 | ratingBucket);
+        }
+
+        void subtract(long productId) {
+            if (!contributions.containsKey(productId)) {
+                return;
+            }
+            long packed = contributions.get(productId, 0);
+            contributions.remove(productId);
+            long categorieId = packed >>> 8;
+            int priceBucket = (int) (packed >>> 4) & 0xF;
+            int ratingBucket = (int) packed & 0xF;
+
+            long[] counters = byCategorie.get(categorieId);
+            counters[COUNT]--;
+            counters[priceBucket == NO_BUCKET ? UNKNOWN_PRICE : PRICE_OFFSET + priceBucket]--;
+            counters[ratingBucket == NO_BUCKET ? UNKNOWN_RATING : RATING_OFFSET + ratingBucket]--;
+            if (prices.containsKey(productId)) {
+                counters[PRICED]--;
+                priceSumByCategorie.merge(categorieId, -Double.longBitsToDouble(prices.get(productId, 0)), Double::sum);
+                prices.remove(productId);
+            }
+        }
+    }
+}
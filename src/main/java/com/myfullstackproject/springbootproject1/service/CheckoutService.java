@@ -0,0 +1,199 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.dto.CheckoutLine;
+import com.myfullstackproject.springbootproject1.dto.OrderDetails;
+import com.myfullstackproject.springbootproject1.dto.OrderLine;
+import com.myfullstackproject.springbootproject1.event.OrderPlacedEvent;
+import com.myfullstackproject.springbootproject1.model.Order;
+import com.myfullstackproject.springbootproject1.repository.CartItemRepository;
+import com.myfullstackproject.springbootproject1.repository.OrderRepository;
+import com.myfullstackproject.springbootproject1.repository.UtilisateurRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Passage de commande : le panier devient une commande et ses lignes, en une transaction.
+ * <p>
+ * Pas de verrou de table : chaque produit est réservé par un UPDATE conditionné sur la version lue
+ * (et sur le stock restant quand il est suivi). Si un produit a changé entre la lecture et la réservation
+ * (prix modifié, stock pris par une autre commande), la transaction est annulée et rejouée.
+ * Les lignes de commande sont insérées en un lot JDBC, avec le prix unitaire figé.
+ * Un {@link OrderPlacedEvent} est publié dans la transaction pour les agrégats de ventes.
+ */
+@Service
+public class CheckoutService {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckoutService.class);
+
+    // Stock non suivi (NULL) : on vérifie seulement la version, sans l'incrémenter,
+    // pour que les commandes sur un même produit sans stock ne se gênent pas
+    private static final String RESERVE_SQL =
+            "UPDATE produits SET stock = stock - ?, version = CASE WHEN stock IS NULL THEN version ELSE version + 1 END "
+                    + "WHERE id = ? AND version = ? AND (stock IS NULL OR stock >= ?)";
+
+    private static final String INSERT_LINE_SQL =
+            "INSERT INTO lignes_commande (commande_id, produit_id, quantite, prix_unitaire) VALUES (?, ?, ?, ?)";
+
+    private final CartService cartService;
+    private final CartItemRepository cartItemRepository;
+    private final OrderRepository orderRepository;
+    private final UtilisateurRepository utilisateurRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityCacheInvalidator entityCacheInvalidator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final int batchSize;
+
+    private final AtomicLong ordersPlaced = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong abandoned = new AtomicLong();
+
+    public CheckoutService(CartService cartService,
+                           CartItemRepository cartItemRepository,
+                           OrderRepository orderRepository,
+                           UtilisateurRepository utilisateurRepository,
+                           JdbcTemplate jdbcTemplate,
+                           EntityCacheInvalidator entityCacheInvalidator,
+                           ApplicationEventPublisher eventPublisher,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${checkout.max-attempts:5}") int maxAttempts,
+                           @Value("${checkout.batch-size:100}") int batchSize) {
+        this.cartService = cartService;
+        this.cartItemRepository = cartItemRepository;
+        this.orderRepository = orderRepository;
+        this.utilisateurRepository = utilisateurRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityCacheInvalidator = entityCacheInvalidator;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public OrderDetails checkout(Long utilisateurId) {
+        // Panier en écriture différée : articles_panier doit être à jour avant la lecture
+        cartService.flush(utilisateurId);
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                OrderDetails order = transactionTemplate.execute(status -> placeOrder(utilisateurId));
+                // Stock et version modifiés en JDBC : entrées du cache de second niveau périmées
+                entityCacheInvalidator.evictProducts(order.items().stream()
+                        .map(line -> line.product().id())
+                        .toList());
+                ordersPlaced.incrementAndGet();
+                return order;
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.incrementAndGet();
+                if (attempt >= maxAttempts) {
+                    abandoned.incrementAndGet();
+                    log.warn("Checkout abandoned for user {} after {} attempts: {}", utilisateurId, attempt, e.getMessage());
+                    throw new RuntimeException("Commande impossible : produits modifiés pendant la commande, réessayez", e);
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    public Metrics metrics() {
+        return new Metrics(ordersPlaced.get(), conflicts.get(), abandoned.get());
+    }
+
+    private OrderDetails placeOrder(Long utilisateurId) {
+        List<CheckoutLine> lines = cartItemRepository.findCheckoutLines(utilisateurId);
+        if (lines.isEmpty()) {
+            throw new RuntimeException("Panier vide");
+        }
+
+        // 1) Montant calculé côté serveur à partir des prix lus
+        BigDecimal total = BigDecimal.ZERO;
+        for (CheckoutLine line : lines) {
+            // Lignes écrites avant la validation des quantités : refusées plutôt que rendre du stock
+            if (line.quantity() == null || line.quantity() <= 0) {
+                throw new RuntimeException("Quantité invalide pour " + line.product().asin());
+            }
+            if (line.product().price() == null) {
+                throw new RuntimeException("Prix indisponible pour " + line.product().asin());
+            }
+            if (line.stock() != null && line.stock() < line.quantity()) {
+                throw new RuntimeException("Stock insuffisant pour " + line.product().asin());
+            }
+            total = total.add(BigDecimal.valueOf(line.product().price()).multiply(BigDecimal.valueOf(line.quantity())));
+        }
+
+        // 2) Réservation : une ligne modifiée entre-temps ne correspond plus à (id, version)
+        int[][] reserved = jdbcTemplate.batchUpdate(RESERVE_SQL, lines, batchSize, (ps, line) -> {
+            ps.setInt(1, line.quantity());
+            ps.setLong(2, line.product().id());
+            ps.setLong(3, line.version());
+            ps.setInt(4, line.quantity());
+        });
+        int index = 0;
+        for (int[] batch : reserved) {
+            for (int count : batch) {
+                if (count == 0) {
+                    throw new OptimisticLockingFailureException(
+                            "Produit " + lines.get(index).product().asin() + " modifié pendant la commande");
+                }
+                index++;
+            }
+        }
+
+        // 3) En-tête de commande puis lignes en un lot, prix unitaire figé
+        Order order = orderRepository.save(Order.builder()
+                .utilisateur(utilisateurRepository.getReferenceById(utilisateurId))
+                .createdAt(LocalDateTime.now())
+                .totalAmount(total.setScale(2, RoundingMode.HALF_UP).doubleValue())
+                .build());
+        jdbcTemplate.batchUpdate(INSERT_LINE_SQL, lines, batchSize, (ps, line) -> {
+            ps.setLong(1, order.getId());
+            ps.setLong(2, line.product().id());
+            ps.setInt(3, line.quantity());
+            ps.setDouble(4, line.product().price());
+        });
+
+        // 4) Panier vidé dans la même transaction
+        cartService.clear(utilisateurId);
+
+        List<OrderLine> items = new ArrayList<>(lines.size());
+        List<OrderPlacedEvent.Line> placed = new ArrayList<>(lines.size());
+        for (CheckoutLine line : lines) {
+            items.add(new OrderLine(line.quantity(), line.product().price(), line.product()));
+            placed.add(new OrderPlacedEvent.Line(line.product().id(), line.product().categorieId(),
+                    line.quantity(), line.product().price()));
+        }
+
+        // 5) Livré aux agrégats de ventes après le commit seulement (annulé avec la transaction)
+        eventPublisher.publishEvent(new OrderPlacedEvent(order.getId(), order.getCreatedAt(), placed));
+        return new OrderDetails(order.getId(), order.getCreatedAt(), order.getTotalAmount(), items);
+    }
+
+    private static void backoff(int attempt) {
+        try {
+            // Attente aléatoire croissante : évite que les perdants se retrouvent à nouveau ensemble
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 10L * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Commande interrompue", e);
+        }
+    }
+
+    public record Metrics(long ordersPlaced, long conflicts, long abandoned) {
+    }
+}
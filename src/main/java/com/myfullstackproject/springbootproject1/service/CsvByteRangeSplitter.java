@@ -0,0 +1,194 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Découpe un fichier CSV en plages d'octets qui commencent toutes au début d'un enregistrement.
+ * Un retour à la ligne à l'intérieur d'un champ entre guillemets n'est jamais pris comme frontière.
+ * <p>
+ * Les points de coupe sont d'abord placés à intervalles réguliers, puis recalés sur l'enregistrement suivant.
+ * Seul le nombre de guillemets de chaque tranche est compté sur tout le fichier, en parallèle :
+ * aucun passage octet par octet sur un seul thread avant le parsing.
+ */
+public final class CsvByteRangeSplitter {
+
+    private CsvByteRangeSplitter() {
+    }
+
+    public record ByteRange(Path file, long start, long end) {
+
+        public long length() {
+            return end - start;
+        }
+
+        /**
+         * Flux limité à la plage ; le fichier est ouvert à chaque appel, chaque worker a donc son propre canal.
+         */
+        public InputStream open() throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            channel.position(start);
+            return new BoundedInputStream(Channels.newInputStream(channel), length());
+        }
+    }
+
+    /**
+     * @param skipHeader ignorer la première ligne du fichier
+     * @param parts      nombre de plages visé (le résultat peut en compter moins sur un petit fichier)
+     */
+    public static List<ByteRange> split(Path file, boolean skipHeader, int parts) throws IOException {
+        long size = Files.size(file);
+        List<ByteRange> ranges = new ArrayList<>();
+        if (size == 0) {
+            return ranges;
+        }
+
+        int chunks = (int) Math.min(Math.max(1, parts), size);
+        long[] offsets = new long[chunks + 1];
+        for (int i = 0; i <= chunks; i++) {
+            offsets[i] = size * i / chunks;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // 1) Parité des guillemets de chaque tranche, en parallèle : on connaît ainsi l'état
+            // « dans un champ entre guillemets » à chaque point de coupe approximatif
+            boolean[] oddQuotes = quoteParities(channel, offsets);
+
+            // 2) Recalage de chaque point de coupe sur le début d'enregistrement suivant (lecture courte)
+            List<Long> starts = new ArrayList<>();
+            boolean inQuotes = false;
+            long previous = -1;
+            for (int i = 0; i < chunks; i++) {
+                long start = i == 0 && !skipHeader ? 0 : nextRecord(channel, offsets[i], inQuotes, size);
+                inQuotes ^= oddQuotes[i];
+                // Un enregistrement plus long qu'une tranche donne deux fois la même frontière
+                if (start > previous && start < size) {
+                    starts.add(start);
+                    previous = start;
+                }
+            }
+            for (int i = 0; i < starts.size(); i++) {
+                long end = i + 1 < starts.size() ? starts.get(i + 1) : size;
+                ranges.add(new ByteRange(file, starts.get(i), end));
+            }
+        }
+        return ranges;
+    }
+
+    // Lectures positionnelles sur un canal partagé, une tranche par thread virtuel
+    private static boolean[] quoteParities(FileChannel channel, long[] offsets) throws IOException {
+        int chunks = offsets.length - 1;
+        boolean[] odd = new boolean[chunks];
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Boolean>> futures = new ArrayList<>(chunks);
+            for (int i = 0; i < chunks; i++) {
+                long from = offsets[i];
+                long to = offsets[i + 1];
+                futures.add(executor.submit(() -> countQuotes(channel, from, to) % 2 == 1));
+            }
+            for (int i = 0; i < chunks; i++) {
+                odd[i] = futures.get(i).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Découpage CSV interrompu");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return odd;
+    }
+
+    private static long countQuotes(FileChannel channel, long from, long to) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        long count = 0;
+        long position = from;
+        while (position < to) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), to - position));
+            int n = channel.read(buffer, position);
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                if (buffer.get(i) == '"') {
+                    count++;
+                }
+            }
+            position += n;
+        }
+        return count;
+    }
+
+    // Position qui suit le premier retour à la ligne hors guillemets à partir de from (size si aucun)
+    private static long nextRecord(FileChannel channel, long from, boolean inQuotes, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 13);
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int n = channel.read(buffer, position);
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                byte b = buffer.get(i);
+                if (b == '"') {
+                    inQuotes = !inQuotes;
+                } else if (b == '\n' && !inQuotes) {
+                    return position + i + 1;
+                }
+            }
+            position += n;
+        }
+        return size;
+    }
+
+    private static final class BoundedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b != -1) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = super.read(buffer, offset, (int) Math.min(length, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+    }
+}
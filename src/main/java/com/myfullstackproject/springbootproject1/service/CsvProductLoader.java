@@ -1,115 +1,178 @@
-//package com.myfullstackproject.springbootproject1.service;
-//
-//import com.myfullstackproject.springbootproject1.model.Product;
-//import com.myfullstackproject.springbootproject1.repository.ProductRepository;
-//import com.opencsv.CSVReader;
-//import com.opencsv.exceptions.CsvException;
-//import org.slf4j.Logger;
-//import org.slf4j.LoggerFactory;
-//import org.springframework.boot.CommandLineRunner;
-//import org.springframework.stereotype.Service;
-//
-//import java.io.IOException;
-//import java.io.InputStream;
-//import java.io.InputStreamReader;
-//import java.util.ArrayList;
-//import java.util.List;
-//
-//@Service
-//public class CsvProductLoader implements CommandLineRunner {
-//
-//    private static final Logger log = LoggerFactory.getLogger(CsvProductLoader.class);
-//    private static final String CSV_FILE_PATH = "/Cleaned1.csv";
-//
-//    // CSV column indices
-//    private static final int ASIN_COLUMN = 0;
-//    private static final int CATEGORY_COLUMN = 1;
-//    private static final int PRODUCT_LINK_COLUMN = 2;
-//    private static final int RANK_COLUMN = 4;
-//    private static final int RATING_COLUMN = 5;
-//    private static final int REVIEWS_COUNT_COLUMN = 6;
-//    private static final int PRICE_COLUMN = 7;
-//    private static final int TITLE_COLUMN = 15;
-//
-//    private final ProductRepository productRepository;
-//
-//    public CsvProductLoader(ProductRepository productRepository) {
-//        this.productRepository = productRepository;
-//    }
-//
-//    @Override
-//    public void run(String... args) {
-//        if (productRepository.count() > 0) {
-//            log.info("Products already loaded in database. Skipping CSV import.");
-//            return;
-//        }
-//
-//        log.info("Loading products from CSV file...");
-//
-//        try (InputStream is = getClass().getResourceAsStream(CSV_FILE_PATH)) {
-//            if (is == null) {
-//                log.error("CSV file not found at: {}", CSV_FILE_PATH);
-//                return;
-//            }
-//
-//            try (InputStreamReader reader = new InputStreamReader(is);
-//                 CSVReader csvReader = new CSVReader(reader)) {
-//
-//                List<String[]> allRows = csvReader.readAll();
-//                List<Product> products = new ArrayList<>();
-//
-//                // Skip header row (index 0)
-//                for (int i = 1; i < allRows.size(); i++) {
-//                    String[] row = allRows.get(i);
-//
-//                    try {
-//                        Product product = Product.builder()
-//                                .asin(row[ASIN_COLUMN])
-//                                .category(row[CATEGORY_COLUMN])
-//                                .productLink(row[PRODUCT_LINK_COLUMN])
-//                                .rank(parseInteger(row[RANK_COLUMN]))
-//                                .rating(parseDouble(row[RATING_COLUMN]))
-//                                .ratingCount(parseLong(row[REVIEWS_COUNT_COLUMN]))
-//                                .price(parseDouble(row[PRICE_COLUMN]))
-//                                .title(row.length > TITLE_COLUMN ? row[TITLE_COLUMN] : "")
-//                                .build();
-//
-//                        products.add(product);
-//                    } catch (Exception e) {
-//                        log.warn("Error parsing row {}: {}", i, e.getMessage());
-//                    }
-//                }
-//
-//                productRepository.saveAll(products);
-//                log.info("Successfully loaded {} products from CSV into database.", products.size());
-//            }
-//
-//        } catch (IOException | CsvException e) {
-//            log.error("Error loading CSV file: {}", e.getMessage(), e);
-//        }
-//    }
-//
-//    private Integer parseInteger(String value) {
-//        try {
-//            return value != null && !value.trim().isEmpty() ? Integer.parseInt(value.trim()) : null;
-//        } catch (NumberFormatException e) {
-//            return null;
-//        }
-//    }
-//
-//    private Long parseLong(String value) {
-//        try {
-//            return value != null && !value.trim().isEmpty() ? Long.parseLong(value.trim()) : null;
-//        } catch (NumberFormatException e) {
-//            return null;
-//        }
-//    }
-//
-//    private Double parseDouble(String value) {
-//        try {
-//            return value != null && !value.trim().isEmpty() ? Double.parseDouble(value.trim()) : null;
-//        } catch (NumberFormatException e) {
-//            return null;
-//        }
-//    }
-//}
\ No newline at end of file
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.model.Product;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.exceptions.CsvValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Import du catalogue CSV au démarrage.
+ * Lecture ligne par ligne (mémoire bornée par la taille de lot) et upsert JDBC par lots sur code_asin.
+ * En mode {@code parallel}, les fichiers locaux passent par le {@link ParallelCatalogImporter} ; en mode
+ * {@code delta}, le {@link CatalogDeltaImporter} n'écrit que les lignes modifiées depuis l'import précédent.
+ * <p>
+ * Par défaut l'import tourne en tâche de fond une fois l'application prête : la base garde le catalogue
+ * précédent, servi pendant l'import ; chaque lot publie ses {@code ProductsChangedEvent} comme un import
+ * à chaud. Avec {@code catalog.import.background=false}, il a lieu avant que l'application soit déclarée prête.
+ */
+@Service
+public class CsvProductLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(CsvProductLoader.class);
+
+    private final ProductBatchWriter productBatchWriter;
+    private final CategorieResolver categorieResolver;
+    private final ParallelCatalogImporter parallelCatalogImporter;
+    private final CatalogDeltaImporter catalogDeltaImporter;
+    private final ResourceLoader resourceLoader;
+    private final boolean enabled;
+    private final boolean background;
+    private final String mode;
+    private final String[] locations;
+    private final int batchSize;
+
+    public CsvProductLoader(ProductBatchWriter productBatchWriter,
+                            CategorieResolver categorieResolver,
+                            ParallelCatalogImporter parallelCatalogImporter,
+                            CatalogDeltaImporter catalogDeltaImporter,
+                            ResourceLoader resourceLoader,
+                            @Value("${catalog.import.enabled:true}") boolean enabled,
+                            @Value("${catalog.import.background:true}") boolean background,
+                            @Value("${catalog.import.mode:sequential}") String mode,
+                            @Value("${catalog.import.location:classpath:Cleaned1..csv}") String[] locations,
+                            @Value("${catalog.import.batch-size:1000}") int batchSize) {
+        this.productBatchWriter = productBatchWriter;
+        this.categorieResolver = categorieResolver;
+        this.parallelCatalogImporter = parallelCatalogImporter;
+        this.catalogDeltaImporter = catalogDeltaImporter;
+        this.resourceLoader = resourceLoader;
+        this.enabled = enabled;
+        this.background = background;
+        this.mode = mode;
+        this.locations = locations;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    // Avant ApplicationReadyEvent, au moment où tourneraient les CommandLineRunner
+    @EventListener(ApplicationStartedEvent.class)
+    public void onApplicationStarted() {
+        if (!background) {
+            run();
+        }
+    }
+
+    // Hors du chemin critique du démarrage (thread virtuel)
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (background) {
+            run();
+        }
+    }
+
+    public void run() {
+        if (!enabled) {
+            log.info("CSV import disabled (catalog.import.enabled=false).");
+            return;
+        }
+
+        if ("delta".equalsIgnoreCase(mode)) {
+            List<Resource> resources = new ArrayList<>();
+            for (String location : locations) {
+                resources.add(resourceLoader.getResource(location.trim()));
+            }
+            catalogDeltaImporter.importDelta(resources);
+            return;
+        }
+
+        List<Path> files = new ArrayList<>();
+        for (String location : locations) {
+            Resource resource = resourceLoader.getResource(location.trim());
+            if ("parallel".equalsIgnoreCase(mode) && resource.isFile()) {
+                try {
+                    files.add(resource.getFile().toPath());
+                    continue;
+                } catch (IOException e) {
+                    log.warn("Cannot resolve {} as a file, falling back to sequential import", location);
+                }
+            }
+            importCatalog(resource);
+        }
+        if (!files.isEmpty()) {
+            parallelCatalogImporter.importFiles(files);
+        }
+    }
+
+    public ImportReport importCatalog(Resource resource) {
+        if (!resource.exists()) {
+            log.error("CSV file not found at: {}", resource.getDescription());
+            return new ImportReport(0, 0, 0, 0, Duration.ZERO);
+        }
+
+        log.info("Loading products from {} (batch size {})...", resource.getDescription(), batchSize);
+        long start = System.nanoTime();
+        long rowsRead = 0;
+        long rejected = 0;
+        long inserted = 0;
+        long updated = 0;
+        List<Product> batch = new ArrayList<>(batchSize);
+
+        try (Reader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8));
+             CSVReader csvReader = new CSVReaderBuilder(reader).withSkipLines(1).build()) {
+
+            String[] row;
+            while ((row = csvReader.readNext()) != null) {
+                rowsRead++;
+                Product product = CsvProductMapper.toProduct(row);
+                if (product == null) {
+                    rejected++;
+                    log.debug("Rejected CSV line {}", csvReader.getLinesRead());
+                    continue;
+                }
+
+                categorieResolver.resolve(product);
+                batch.add(product);
+                if (batch.size() >= batchSize) {
+                    ProductBatchWriter.UpsertResult result = productBatchWriter.upsert(batch);
+                    inserted += result.inserted();
+                    updated += result.updated();
+                    batch.clear();
+                }
+            }
+
+            ProductBatchWriter.UpsertResult result = productBatchWriter.upsert(batch);
+            inserted += result.inserted();
+            updated += result.updated();
+
+        } catch (IOException | CsvValidationException e) {
+            log.error("Error loading CSV file: {}", e.getMessage(), e);
+        }
+
+        ImportReport report = new ImportReport(rowsRead, inserted, updated, rejected,
+                Duration.ofNanos(System.nanoTime() - start));
+        log.info("CSV import done: {} rows read, {} inserted, {} updated, {} rejected in {} ms ({} rows/s)",
+                report.rowsRead(), report.inserted(), report.updated(), report.rejected(),
+                report.elapsed().toMillis(), Math.round(report.rowsPerSecond()));
+        return report;
+    }
+}
@@ -0,0 +1,102 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.model.Categorie;
+import com.myfullstackproject.springbootproject1.model.Product;
+
+/**
+ * Conversion d'une ligne du CSV catalogue (format Cleaned1..csv) en {@link Product}.
+ * Sans état : partagé par le chargeur et tous les workers d'import.
+ */
+public final class CsvProductMapper {
+
+    // CSV column indices
+    public static final int ASIN_COLUMN = 0;
+    public static final int CATEGORY_COLUMN = 1;
+    public static final int PRODUCT_LINK_COLUMN = 2;
+    public static final int NO_SELLERS_COLUMN = 3;
+    public static final int RANK_COLUMN = 4;
+    public static final int RATING_COLUMN = 5;
+    public static final int REVIEWS_COUNT_COLUMN = 6;
+    public static final int PRICE_COLUMN = 7;
+    public static final int FIRST_CATEGORY_FLAG_COLUMN = 8;
+    public static final int TITLE_COLUMN = 15;
+
+    // Colonnes one-hot Books..Video Games, dans l'ordre du fichier
+    static final String[] CATEGORY_FLAGS = {
+            "Books", "Camera & Photo", "Clothing, Shoes & Jewelry", "Electronics",
+            "Gift Cards", "Toys & Games", "Video Games"
+    };
+
+    private CsvProductMapper() {
+    }
+
+    /**
+     * @return le produit, ou {@code null} si la ligne est inexploitable (colonnes manquantes, ASIN vide)
+     */
+    public static Product toProduct(String[] row) {
+        if (row == null || row.length <= PRICE_COLUMN) {
+            return null;
+        }
+        String asin = row[ASIN_COLUMN] == null ? "" : row[ASIN_COLUMN].trim();
+        if (asin.isEmpty()) {
+            return null;
+        }
+
+        String categoryName = categoryName(row);
+        return Product.builder()
+                .asin(asin)
+                .categorie(categoryName == null ? null : Categorie.builder().nom(categoryName).build())
+                .no_sellers(emptyToNull(row[NO_SELLERS_COLUMN]))
+                .rank(parseInteger(row[RANK_COLUMN]))
+                .rating(parseDouble(row[RATING_COLUMN]))
+                .ratingCount(parseLong(row[REVIEWS_COUNT_COLUMN]))
+                .price(parseDouble(row[PRICE_COLUMN]))
+                .title(row.length > TITLE_COLUMN ? row[TITLE_COLUMN] : "")
+                .build();
+    }
+
+    /**
+     * Nom de catégorie : colonne Category, sinon la première colonne one-hot à 1.
+     */
+    public static String categoryName(String[] row) {
+        String category = emptyToNull(row[CATEGORY_COLUMN]);
+        if (category != null) {
+            return category;
+        }
+        for (int i = 0; i < CATEGORY_FLAGS.length; i++) {
+            int column = FIRST_CATEGORY_FLAG_COLUMN + i;
+            if (row.length > column && "1".equals(emptyToNull(row[column]))) {
+                return CATEGORY_FLAGS[i];
+            }
+        }
+        return null;
+    }
+
+    static String emptyToNull(String value) {
+        return value != null && !value.trim().isEmpty() ? value.trim() : null;
+    }
+
+    static Integer parseInteger(String value) {
+        try {
+            return value != null && !value.trim().isEmpty() ? Integer.parseInt(value.trim()) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static Long parseLong(String value) {
+        try {
+            return value != null && !value.trim().isEmpty() ? Long.parseLong(value.trim()) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static Double parseDouble(String value) {
+        try {
+            return value != null && !value.trim().isEmpty() ? Double.parseDouble(value.trim()) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.dto.CartLine;
+import com.myfullstackproject.springbootproject1.repository.CartItemRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Une seule instruction d'écriture par opération panier : pas de chargement préalable du produit,
+ * de l'utilisateur ni du panier. Les clés étrangères et le contrôle de propriétaire sont portés
+ * par la requête elle-même.
+ * <p>
+ * L'ajout et le changement de quantité relisent ensuite la ligne (même transaction, par clé) pour la renvoyer :
+ * MySQL n'a pas de {@code RETURNING}, et seule la base connaît la quantité après incrément et le produit
+ * d'un item désigné par son id. Suppression et vidage restent à un aller-retour.
+ */
+@Service
+@ConditionalOnProperty(name = "cart.store.mode", havingValue = "direct", matchIfMissing = true)
+public class DirectCartStore implements CartStore {
+
+    private final CartItemRepository cartItemRepository;
+    private final ProductCatalogCache productCatalogCache;
+
+    public DirectCartStore(CartItemRepository cartItemRepository, ProductCatalogCache productCatalogCache) {
+        this.cartItemRepository = cartItemRepository;
+        this.productCatalogCache = productCatalogCache;
+    }
+
+    @Override
+    @Transactional
+    public CartLine addToCart(Long utilisateurId, Long productId, int quantity) {
+        // Produit vérifié dans le cache catalogue ; la clé étrangère reste le garde-fou
+        if (!productCatalogCache.exists(productId)) {
+            throw new RuntimeException("Produit introuvable");
+        }
+        try {
+            cartItemRepository.upsertIncrement(utilisateurId, productId, quantity);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("Utilisateur ou produit introuvable", e);
+        }
+        // Second aller-retour : id de la ligne et quantité après incrément
+        return cartItemRepository.findLine(utilisateurId, productId)
+                .orElseThrow(() -> new RuntimeException("Item panier introuvable"));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CartLine> getCart(Long utilisateurId) {
+        return cartItemRepository.findLinesByUtilisateurId(utilisateurId);
+    }
+
+    @Override
+    @Transactional
+    public CartLine updateQuantity(Long utilisateurId, Long cartItemId, int quantity) {
+        // 0 ligne : item inexistant ou appartenant à un autre utilisateur
+        if (cartItemRepository.updateQuantity(cartItemId, utilisateurId, quantity) == 0) {
+            throw new RuntimeException("Item panier introuvable");
+        }
+        // Second aller-retour : produit de la ligne, pour le résumé renvoyé
+        return cartItemRepository.findLineById(cartItemId)
+                .orElseThrow(() -> new RuntimeException("Item panier introuvable"));
+    }
+
+    @Override
+    @Transactional
+    public void removeItem(Long utilisateurId, Long cartItemId) {
+        if (cartItemRepository.deleteOwned(cartItemId, utilisateurId) == 0) {
+            throw new RuntimeException("Item panier introuvable");
+        }
+    }
+
+    @Override
+    @Transactional
+    public void clear(Long utilisateurId) {
+        cartItemRepository.deleteByUtilisateurId(utilisateurId);
+    }
+}
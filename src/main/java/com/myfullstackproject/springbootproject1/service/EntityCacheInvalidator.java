@@ -0,0 +1,48 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.config.SecondLevelCacheConfiguration;
+import com.myfullstackproject.springbootproject1.event.ProductsChangedEvent;
+import com.myfullstackproject.springbootproject1.model.Categorie;
+import com.myfullstackproject.springbootproject1.model.Product;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+
+/**
+ * Garde le cache de second niveau Hibernate cohérent avec les écritures JDBC, que Hibernate ne voit pas
+ * (import par lots, compteurs d'avis, réservation de stock, création de catégories).
+ */
+@Component
+public class EntityCacheInvalidator {
+
+    private final Cache cache;
+
+    public EntityCacheInvalidator(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.getCache().unwrap(Cache.class);
+    }
+
+    // Après commit, comme les autres caches : une relecture concurrente ne remet pas l'ancienne valeur
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        if (!event.ids().isEmpty()) {
+            evictProducts(event.ids());
+        } else if (!event.asins().isEmpty()) {
+            // Import : seuls les ASIN sont connus, la région produits est vidée
+            cache.evictEntityData(Product.class);
+        }
+    }
+
+    public void evictProducts(Collection<Long> ids) {
+        for (Long id : ids) {
+            cache.evictEntityData(Product.class, id);
+        }
+    }
+
+    public void categoriesChanged() {
+        cache.evictEntityData(Categorie.class);
+        cache.evictQueryRegion(SecondLevelCacheConfiguration.CATEGORY_QUERIES);
+    }
+}
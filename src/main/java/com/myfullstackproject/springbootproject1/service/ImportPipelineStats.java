@@ -0,0 +1,106 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compteurs du pipeline d'import parallèle, par étape (parse / écriture) et pour la file entre les deux.
+ * Mis à jour par les workers, lisibles à tout moment pendant l'import.
+ */
+public class ImportPipelineStats {
+
+    private final AtomicLong rangesParsed = new AtomicLong();
+    private final AtomicLong rowsParsed = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+    private final AtomicLong parseNanos = new AtomicLong();
+    private final AtomicLong batchesWritten = new AtomicLong();
+    private final AtomicLong rowsInserted = new AtomicLong();
+    private final AtomicLong rowsUpdated = new AtomicLong();
+    private final AtomicLong writeNanos = new AtomicLong();
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final AtomicLong maxQueueDepth = new AtomicLong();
+    private final AtomicLong producerWaitNanos = new AtomicLong();
+
+    void rangeParsed(long rows, long rejected, long nanos) {
+        rangesParsed.incrementAndGet();
+        rowsParsed.addAndGet(rows);
+        rowsRejected.addAndGet(rejected);
+        parseNanos.addAndGet(nanos);
+    }
+
+    void batchWritten(ProductBatchWriter.UpsertResult result, long nanos) {
+        batchesWritten.incrementAndGet();
+        rowsInserted.addAndGet(result.inserted());
+        rowsUpdated.addAndGet(result.updated());
+        writeNanos.addAndGet(nanos);
+    }
+
+    void enqueued(long waitNanos) {
+        producerWaitNanos.addAndGet(waitNanos);
+        maxQueueDepth.accumulateAndGet(queueDepth.incrementAndGet(), Math::max);
+    }
+
+    void dequeued() {
+        queueDepth.decrementAndGet();
+    }
+
+    public long getRangesParsed() {
+        return rangesParsed.get();
+    }
+
+    public long getRowsParsed() {
+        return rowsParsed.get();
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected.get();
+    }
+
+    public long getBatchesWritten() {
+        return batchesWritten.get();
+    }
+
+    public long getRowsInserted() {
+        return rowsInserted.get();
+    }
+
+    public long getRowsUpdated() {
+        return rowsUpdated.get();
+    }
+
+    public long getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public long getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    /** Temps cumulé des producteurs bloqués sur une file pleine (contre-pression). */
+    public long getProducerWaitMillis() {
+        return producerWaitNanos.get() / 1_000_000;
+    }
+
+    /** Lignes/s par thread de parsing (temps cumulé des workers). */
+    public double getParseRowsPerSecondPerThread() {
+        return perSecond(rowsParsed.get(), parseNanos.get());
+    }
+
+    /** Lignes/s par thread d'écriture (temps cumulé des writers). */
+    public double getWriteRowsPerSecondPerThread() {
+        return perSecond(rowsInserted.get() + rowsUpdated.get(), writeNanos.get());
+    }
+
+    private static double perSecond(long rows, long nanos) {
+        return nanos == 0 ? 0 : rows * 1_000_000_000.0 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("parse: %d ranges, %d rows (%d rejected), %.0f rows/s/thread | "
+                        + "write: %d batches, %d inserted, %d updated, %.0f rows/s/thread | "
+                        + "queue: depth %d, max %d, producer wait %d ms",
+                getRangesParsed(), getRowsParsed(), getRowsRejected(), getParseRowsPerSecondPerThread(),
+                getBatchesWritten(), getRowsInserted(), getRowsUpdated(), getWriteRowsPerSecondPerThread(),
+                getQueueDepth(), getMaxQueueDepth(), getProducerWaitMillis());
+    }
+}
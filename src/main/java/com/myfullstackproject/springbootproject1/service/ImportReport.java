@@ -0,0 +1,14 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import java.time.Duration;
+
+/**
+ * Bilan d'un import CSV du catalogue.
+ */
+public record ImportReport(long rowsRead, long inserted, long updated, long rejected, Duration elapsed) {
+
+    public double rowsPerSecond() {
+        long millis = Math.max(1, elapsed.toMillis());
+        return rowsRead * 1000.0 / millis;
+    }
+}
@@ -0,0 +1,403 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.dto.ProductSummary;
+import com.myfullstackproject.springbootproject1.event.ProductsChangedEvent;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Classements de la page d'accueil, par catégorie et sur tout le catalogue, tenus en mémoire :
+ * meilleures ventes (rang_amazon croissant) et mieux notés (note_moyenne, au moins {@code minReviews} avis).
+ * <p>
+ * Chaque classement est un tableau trié des {@code 2 × size} meilleurs produits, remplacé en entier
+ * à chaque changement : la lecture ne prend aucun verrou et ne fait qu'une copie des premières cases.
+ * <p>
+ * Construction complète au démarrage (un parcours du catalogue, un tas borné par classement), puis mise à jour
+ * produit par produit à chaque {@link ProductsChangedEvent} (nouvel avis, modification). La marge au-delà de
+ * {@code size} absorbe les produits qui sortent d'un classement ; quand elle est épuisée, ou après un import
+ * (gros lots d'ASIN), le classement est marqué périmé et reconstruit au prochain passage planifié.
+ * <p>
+ * La reconstruction lit le catalogue sans verrou, pendant que les classements courants continuent de servir ;
+ * les produits modifiés entre-temps sont mis de côté, puis rejoués sous le verrou juste après l'échange
+ * (comme {@code RecommendationService}). Un avis ou une modification n'attend jamais la lecture du catalogue.
+ */
+@Service
+public class LeaderboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardService.class);
+
+    // Clé du classement sur tout le catalogue (les produits sans catégorie n'apparaissent que là)
+    static final long ALL = 0L;
+
+    public enum Ranking {
+        RANK, RATING;
+
+        public static Ranking parse(String value) {
+            return Ranking.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    // Meilleur en premier ; l'id départage pour un ordre stable
+    private static final Comparator<ProductSummary> BY_RANK = Comparator
+            .comparing(ProductSummary::rank)
+            .thenComparing(ProductSummary::id);
+
+    private static final Comparator<ProductSummary> BY_RATING = Comparator
+            .comparing(ProductSummary::rating, Comparator.reverseOrder())
+            .thenComparing(ProductSummary::ratingCount, Comparator.reverseOrder())
+            .thenComparing(ProductSummary::id);
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int size;
+    private final int capacity;
+    private final long minReviews;
+
+    // Lecture sans verrou ; remplacée en entier sous lock
+    private volatile Map<Long, Boards> boards = Map.of();
+
+    // Protégés par lock : catégorie des produits entrés dans un classement depuis la dernière construction
+    private Map<Long, Long> categoryOf = new HashMap<>();
+    private boolean built;
+    private boolean rebuilding;
+    private final Set<Long> pendingIds = new HashSet<>();
+    private final Set<String> pendingAsins = new HashSet<>();
+    private volatile boolean stale;
+
+    // Verrou explicite plutôt que synchronized : les sections qui lisent la base n'épinglent pas les threads virtuels
+    private final ReentrantLock lock = new ReentrantLock();
+    // Une seule reconstruction à la fois
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong updates = new AtomicLong();
+    private volatile long lastRebuildMillis;
+
+    public LeaderboardService(ProductRepository productRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${leaderboard.size:100}") int size,
+                              @Value("${leaderboard.min-reviews:20}") long minReviews) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.size = Math.max(1, size);
+        this.capacity = 2 * this.size;
+        this.minReviews = Math.max(0, minReviews);
+    }
+
+    /**
+     * Les {@code limit} premiers du classement ({@code categorieId} null = tout le catalogue).
+     */
+    public List<ProductSummary> top(Ranking ranking, Long categorieId, int limit) {
+        Boards current = boards.get(categorieId == null ? ALL : categorieId);
+        if (current == null) {
+            return List.of();
+        }
+        ProductSummary[] entries = current.get(ranking).entries();
+        return List.of(Arrays.copyOf(entries, Math.min(Math.min(limit, size), entries.length)));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Construction initiale en tâche de fond (thread virtuel) : l'application répond pendant la lecture du catalogue
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${leaderboard.refresh-interval:30s}")
+    public void rebuildIfStale() {
+        if (stale) {
+            rebuild();
+        }
+    }
+
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            long start = System.nanoTime();
+            lock.lock();
+            try {
+                stale = false;
+                rebuilding = true;
+            } finally {
+                lock.unlock();
+            }
+
+            // 1) Lecture du catalogue hors verrou : les modifications reçues entre-temps sont mises de côté
+            Map<Long, Heaps> heaps = new HashMap<>();
+            try {
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    try (Stream<ProductSummary> rows = productRepository.streamAllSummaries()) {
+                        rows.forEach(p -> {
+                            heaps.computeIfAbsent(ALL, k -> new Heaps()).offer(p);
+                            if (p.categorieId() != null) {
+                                heaps.computeIfAbsent(p.categorieId(), k -> new Heaps()).offer(p);
+                            }
+                        });
+                    }
+                });
+            } catch (RuntimeException e) {
+                lock.lock();
+                try {
+                    rebuilding = false;
+                    pendingIds.clear();
+                    pendingAsins.clear();
+                    stale = true; // modifications mises de côté perdues : nouvel essai au prochain passage
+                } finally {
+                    lock.unlock();
+                }
+                throw e;
+            }
+
+            Map<Long, Boards> rebuilt = new HashMap<>();
+            Map<Long, Long> categories = new HashMap<>();
+            heaps.forEach((key, h) -> {
+                Boards b = new Boards(h.rank.toBoard(BY_RANK), h.rating.toBoard(BY_RATING));
+                rebuilt.put(key, b);
+                if (key != ALL) {
+                    b.forEachId(id -> categories.put(id, key));
+                }
+            });
+
+            // 2) Échange, puis rejeu des produits modifiés pendant la lecture
+            lock.lock();
+            try {
+                boards = Map.copyOf(rebuilt);
+                categoryOf = categories;
+                built = true;
+                rebuilding = false;
+                Set<Long> ids = new HashSet<>(pendingIds);
+                Set<String> asins = new HashSet<>(pendingAsins);
+                pendingIds.clear();
+                pendingAsins.clear();
+                if (!ids.isEmpty() || !asins.isEmpty()) {
+                    apply(ids, asins);
+                }
+            } finally {
+                lock.unlock();
+            }
+            rebuilds.incrementAndGet();
+            lastRebuildMillis = (System.nanoTime() - start) / 1_000_000;
+            log.debug("Leaderboards rebuilt: {} categories in {} ms", rebuilt.size() - 1, lastRebuildMillis);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        lock.lock();
+        try {
+            if (rebuilding) {
+                pendingIds.addAll(event.ids());
+                pendingAsins.addAll(event.asins());
+                return;
+            }
+            if (!built) {
+                return;
+            }
+            apply(event.ids(), event.asins());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Appelé sous lock
+    private void apply(Set<Long> ids, Set<String> asins) {
+        // Import : des milliers de produits par lot, une reconstruction coûte moins cher
+        if (ids.size() + asins.size() > capacity) {
+            stale = true;
+            return;
+        }
+        // Relus sous le verrou : deux événements sur un même produit s'appliquent dans l'ordre
+        List<ProductSummary> rows = new ArrayList<>();
+        if (!ids.isEmpty()) {
+            rows.addAll(productRepository.findSummariesByIdIn(ids));
+        }
+        if (!asins.isEmpty()) {
+            rows.addAll(productRepository.findSummariesByAsinIn(asins));
+        }
+        Set<Long> changed = new HashSet<>(ids);
+        rows.forEach(p -> changed.add(p.id()));
+
+        Map<Long, Boards> next = new HashMap<>(boards);
+        Set<Long> touched = new HashSet<>();
+        touched.add(ALL);
+        for (Long id : changed) {
+            Long previous = categoryOf.remove(id);
+            if (previous != null) {
+                touched.add(previous);
+            }
+        }
+        for (Long key : touched) {
+            Boards b = next.get(key);
+            if (b != null) {
+                next.put(key, b.without(changed));
+            }
+        }
+        for (ProductSummary p : rows) {
+            next.put(ALL, next.getOrDefault(ALL, Boards.EMPTY).with(p, this));
+            if (p.categorieId() != null) {
+                next.put(p.categorieId(), next.getOrDefault(p.categorieId(), Boards.EMPTY).with(p, this));
+                categoryOf.put(p.id(), p.categorieId());
+            }
+        }
+        for (Boards b : next.values()) {
+            // Marge épuisée : les suivants sont inconnus, il faut relire le catalogue
+            if (b.rank().isShort(size) || b.rating().isShort(size)) {
+                stale = true;
+                break;
+            }
+        }
+        boards = Map.copyOf(next);
+        updates.incrementAndGet();
+    }
+
+    public Metrics metrics() {
+        return new Metrics(Math.max(0, boards.size() - 1), rebuilds.get(), updates.get(), lastRebuildMillis, stale);
+    }
+
+    private boolean qualifies(Ranking ranking, ProductSummary p) {
+        return ranking == Ranking.RANK
+                ? p.rank() != null
+                : p.rating() != null && p.ratingCount() != null && p.ratingCount() >= minReviews;
+    }
+
+    /**
+     * Un classement : les {@code capacity} meilleurs, triés. {@code truncated} = d'autres produits
+     * qualifiés existent au-delà du dernier.
+     */
+    private record Board(ProductSummary[] entries, boolean truncated) {
+
+        static final Board EMPTY = new Board(new ProductSummary[0], false);
+
+        Board without(Set<Long> ids) {
+            ProductSummary[] kept = Arrays.stream(entries)
+                    .filter(p -> !ids.contains(p.id()))
+                    .toArray(ProductSummary[]::new);
+            return kept.length == entries.length ? this : new Board(kept, truncated);
+        }
+
+        Board with(ProductSummary p, Comparator<ProductSummary> order, int capacity) {
+            int position = Arrays.binarySearch(entries, p, order);
+            if (position >= 0) {
+                return this;
+            }
+            position = -position - 1;
+            // Après le dernier d'un classement tronqué : des produits inconnus passent peut-être devant
+            if (position == entries.length && (truncated || entries.length >= capacity)) {
+                return this;
+            }
+            ProductSummary[] grown = new ProductSummary[entries.length + 1];
+            System.arraycopy(entries, 0, grown, 0, position);
+            grown[position] = p;
+            System.arraycopy(entries, position, grown, position + 1, entries.length - position);
+            return grown.length > capacity
+                    ? new Board(Arrays.copyOf(grown, capacity), true)
+                    : new Board(grown, truncated);
+        }
+
+        boolean isShort(int size) {
+            return truncated && entries.length < size;
+        }
+    }
+
+    private record Boards(Board rank, Board rating) {
+
+        static final Boards EMPTY = new Boards(Board.EMPTY, Board.EMPTY);
+
+        Board get(Ranking ranking) {
+            return ranking == Ranking.RANK ? rank : rating;
+        }
+
+        Boards without(Set<Long> ids) {
+            return new Boards(rank.without(ids), rating.without(ids));
+        }
+
+        Boards with(ProductSummary p, LeaderboardService service) {
+            return new Boards(
+                    service.qualifies(Ranking.RANK, p) ? rank.with(p, BY_RANK, service.capacity) : rank,
+                    service.qualifies(Ranking.RATING, p) ? rating.with(p, BY_RATING, service.capacity) : rating);
+        }
+
+        void forEachId(LongConsumer action) {
+            for (ProductSummary p : rank.entries()) {
+                action.accept(p.id());
+            }
+            for (ProductSummary p : rating.entries()) {
+                action.accept(p.id());
+            }
+        }
+    }
+
+    // Tas bornés de la construction : le pire en tête, retiré dès que la capacité est dépassée
+    private final class Heaps {
+        final TopK rank = new TopK(Ranking.RANK, BY_RANK);
+        final TopK rating = new TopK(Ranking.RATING, BY_RATING);
+
+        void offer(ProductSummary p) {
+            rank.offer(p);
+            rating.offer(p);
+        }
+    }
+
+    private final class TopK {
+        final Ranking ranking;
+        final PriorityQueue<ProductSummary> heap;
+        long qualified;
+
+        TopK(Ranking ranking, Comparator<ProductSummary> order) {
+            this.ranking = ranking;
+            this.heap = new PriorityQueue<>(order.reversed());
+        }
+
+        void offer(ProductSummary p) {
+            if (!qualifies(ranking, p)) {
+                return;
+            }
+            qualified++;
+            heap.offer(p);
+            if (heap.size() > capacity) {
+                heap.poll();
+            }
+        }
+
+        Board toBoard(Comparator<ProductSummary> order) {
+            ProductSummary[] entries = heap.toArray(ProductSummary[]::new);
+            Arrays.sort(entries, order);
+            return new Board(entries, qualified > capacity);
+        }
+    }
+
+    public record Metrics(int categories, long rebuilds, long updates, long lastRebuildMillis, boolean stale) {
+    }
+}
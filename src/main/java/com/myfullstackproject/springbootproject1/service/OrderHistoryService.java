@@ -0,0 +1,74 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.dto.OrderDetails;
+import com.myfullstackproject.springbootproject1.dto.OrderHeader;
+import com.myfullstackproject.springbootproject1.dto.OrderItemRow;
+import com.myfullstackproject.springbootproject1.dto.OrderLine;
+import com.myfullstackproject.springbootproject1.dto.OrderPage;
+import com.myfullstackproject.springbootproject1.repository.OrderCursor;
+import com.myfullstackproject.springbootproject1.repository.OrderItemRepository;
+import com.myfullstackproject.springbootproject1.repository.OrderRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Historique des commandes en un nombre fixe de requêtes : une pour la page d'en-têtes,
+ * une pour toutes leurs lignes (avec résumés produit). Aucune entité Order/OrderItem n'est chargée,
+ * donc aucun chargement paresseux ligne par ligne.
+ */
+@Service
+public class OrderHistoryService {
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+
+    public OrderHistoryService(OrderRepository orderRepository, OrderItemRepository orderItemRepository) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public OrderPage history(Long utilisateurId, OrderCursor after, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        List<OrderHeader> headers = after == null
+                ? orderRepository.findHeaders(utilisateurId, page)
+                : orderRepository.findHeadersBefore(utilisateurId, after.createdAt(), after.id(), page);
+
+        String nextCursor = headers.size() == limit
+                ? OrderCursor.after(headers.get(headers.size() - 1)).encode()
+                : null;
+        return new OrderPage(withLines(headers), nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<OrderDetails> findOrder(Long utilisateurId, Long orderId) {
+        return orderRepository.findHeader(orderId, utilisateurId)
+                .map(header -> withLines(List.of(header)).get(0));
+    }
+
+    private List<OrderDetails> withLines(List<OrderHeader> headers) {
+        if (headers.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<OrderLine>> linesByOrder = new HashMap<>();
+        for (OrderHeader header : headers) {
+            linesByOrder.put(header.id(), new ArrayList<>());
+        }
+        for (OrderItemRow row : orderItemRepository.findRowsByOrderIdIn(linesByOrder.keySet())) {
+            linesByOrder.get(row.orderId()).add(row.line());
+        }
+
+        List<OrderDetails> orders = new ArrayList<>(headers.size());
+        for (OrderHeader header : headers) {
+            orders.add(new OrderDetails(header.id(), header.createdAt(), header.totalAmount(), linesByOrder.get(header.id())));
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,238 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.model.Product;
+import com.opencsv.CSVReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Import CSV en pipeline : découpage en plages d'octets -> parsing + résolution des catégories
+ * sur un pool de workers -> files bornées -> un nombre fixe de threads d'écriture JDBC.
+ * <p>
+ * Chaque writer a sa propre file et reçoit toujours les mêmes ASIN (partition par hash) :
+ * deux writers ne peuvent donc jamais insérer le même code_asin en même temps.
+ * Les files étant bornées, les parseurs attendent quand la base n'arrive pas à suivre.
+ */
+@Service
+public class ParallelCatalogImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelCatalogImporter.class);
+
+    // Marqueur de fin de flux pour les writers (comparé par référence)
+    private static final List<Product> END_OF_STREAM = new ArrayList<>();
+
+    private final ProductBatchWriter productBatchWriter;
+    private final CategorieResolver categorieResolver;
+    private final int parseThreads;
+    private final int writerThreads;
+    private final int queueCapacity;
+    private final int batchSize;
+
+    private volatile ImportPipelineStats lastStats = new ImportPipelineStats();
+
+    public ParallelCatalogImporter(ProductBatchWriter productBatchWriter,
+                                   CategorieResolver categorieResolver,
+                                   @Value("${catalog.import.parallel.parse-threads:0}") int parseThreads,
+                                   @Value("${catalog.import.parallel.writer-threads:4}") int writerThreads,
+                                   @Value("${catalog.import.parallel.queue-capacity:8}") int queueCapacity,
+                                   @Value("${catalog.import.batch-size:1000}") int batchSize) {
+        this.productBatchWriter = productBatchWriter;
+        this.categorieResolver = categorieResolver;
+        this.parseThreads = parseThreads > 0 ? parseThreads : Runtime.getRuntime().availableProcessors();
+        this.writerThreads = Math.max(1, writerThreads);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Compteurs de l'import en cours, ou du dernier import terminé.
+     */
+    public ImportPipelineStats getLastStats() {
+        return lastStats;
+    }
+
+    public ImportReport importFiles(List<Path> files) {
+        long start = System.nanoTime();
+        ImportPipelineStats stats = new ImportPipelineStats();
+        lastStats = stats;
+
+        List<CsvByteRangeSplitter.ByteRange> ranges = new ArrayList<>();
+        try {
+            for (Path file : files) {
+                // Plus de plages que de workers, pour équilibrer les fins de fichier
+                ranges.addAll(CsvByteRangeSplitter.split(file, true, parseThreads * 4));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de découper les fichiers CSV", e);
+        }
+        log.info("Parallel CSV import: {} file(s), {} ranges, {} parse threads, {} writer threads",
+                files.size(), ranges.size(), parseThreads, writerThreads);
+
+        List<BlockingQueue<List<Product>>> queues = new ArrayList<>(writerThreads);
+        for (int i = 0; i < writerThreads; i++) {
+            queues.add(new ArrayBlockingQueue<>(queueCapacity));
+        }
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        ExecutorService parsers = Executors.newFixedThreadPool(parseThreads, namedThreads("csv-parse-"));
+        ExecutorService writers = Executors.newFixedThreadPool(writerThreads, namedThreads("csv-write-"));
+
+        try {
+            for (BlockingQueue<List<Product>> queue : queues) {
+                writers.execute(() -> writeLoop(queue, stats, failure));
+            }
+
+            List<Callable<Void>> parseTasks = new ArrayList<>(ranges.size());
+            for (CsvByteRangeSplitter.ByteRange range : ranges) {
+                parseTasks.add(() -> {
+                    parseRange(range, queues, stats, failure);
+                    return null;
+                });
+            }
+            parsers.invokeAll(parseTasks);
+
+            for (BlockingQueue<List<Product>> queue : queues) {
+                queue.put(END_OF_STREAM);
+            }
+            writers.shutdown();
+            writers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        } finally {
+            parsers.shutdownNow();
+            writers.shutdownNow();
+        }
+
+        log.info("Parallel CSV import stats: {}", stats);
+        if (failure.get() != null) {
+            throw new IllegalStateException("Import CSV parallèle interrompu", failure.get());
+        }
+
+        ImportReport report = new ImportReport(stats.getRowsParsed(), stats.getRowsInserted(),
+                stats.getRowsUpdated(), stats.getRowsRejected(), Duration.ofNanos(System.nanoTime() - start));
+        log.info("Parallel CSV import done: {} rows read, {} inserted, {} updated, {} rejected in {} ms ({} rows/s)",
+                report.rowsRead(), report.inserted(), report.updated(), report.rejected(),
+                report.elapsed().toMillis(), Math.round(report.rowsPerSecond()));
+        return report;
+    }
+
+    private void parseRange(CsvByteRangeSplitter.ByteRange range,
+                            List<BlockingQueue<List<Product>>> queues,
+                            ImportPipelineStats stats,
+                            AtomicReference<Throwable> failure) throws InterruptedException {
+        long start = System.nanoTime();
+        long waited = 0;
+        long rows = 0;
+        long rejected = 0;
+        List<List<Product>> pending = new ArrayList<>(queues.size());
+        for (int i = 0; i < queues.size(); i++) {
+            pending.add(new ArrayList<>(batchSize));
+        }
+
+        try (Reader reader = new BufferedReader(new InputStreamReader(range.open(), StandardCharsets.UTF_8));
+             CSVReader csvReader = new CSVReader(reader)) {
+
+            String[] row;
+            while ((row = csvReader.readNext()) != null) {
+                if (failure.get() != null) {
+                    return;
+                }
+                rows++;
+                Product product = CsvProductMapper.toProduct(row);
+                if (product == null) {
+                    rejected++;
+                    continue;
+                }
+                categorieResolver.resolve(product);
+
+                int partition = Math.floorMod(product.getAsin().hashCode(), queues.size());
+                List<Product> batch = pending.get(partition);
+                batch.add(product);
+                if (batch.size() >= batchSize) {
+                    waited += enqueue(queues.get(partition), batch, stats);
+                    pending.set(partition, new ArrayList<>(batchSize));
+                }
+            }
+
+            for (int i = 0; i < pending.size(); i++) {
+                if (!pending.get(i).isEmpty()) {
+                    waited += enqueue(queues.get(i), pending.get(i), stats);
+                }
+            }
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            stats.rangeParsed(rows, rejected, System.nanoTime() - start - waited);
+        }
+    }
+
+    private static long enqueue(BlockingQueue<List<Product>> queue, List<Product> batch,
+                                ImportPipelineStats stats) throws InterruptedException {
+        long start = System.nanoTime();
+        queue.put(batch);
+        long waited = System.nanoTime() - start;
+        stats.enqueued(waited);
+        return waited;
+    }
+
+    private void writeLoop(BlockingQueue<List<Product>> queue,
+                           ImportPipelineStats stats,
+                           AtomicReference<Throwable> failure) {
+        try {
+            while (true) {
+                List<Product> batch = queue.take();
+                if (batch == END_OF_STREAM) {
+                    return;
+                }
+                stats.dequeued();
+                // Après un échec on continue de vider la file pour ne pas bloquer les parseurs
+                if (failure.get() != null) {
+                    continue;
+                }
+                try {
+                    long start = System.nanoTime();
+                    ProductBatchWriter.UpsertResult result = productBatchWriter.upsert(batch);
+                    stats.batchWritten(result, System.nanoTime() - start);
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,285 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.event.ProductsChangedEvent;
+import com.myfullstackproject.springbootproject1.model.Product;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Écriture JDBC par lots dans la table produits, avec upsert sur code_asin.
+ * On passe par JDBC plutôt que saveAll() : avec GenerationType.IDENTITY,
+ * Hibernate ne sait pas regrouper les INSERT.
+ * Les catégories doivent déjà être résolues (voir {@link CategorieResolver}).
+ * <p>
+ * {@link #applyDelta} sert l'import différentiel : seules les lignes modifiées arrivent ici, avec leur
+ * empreinte, qui est enregistrée dans la même transaction que le produit.
+ */
+@Component
+public class ProductBatchWriter {
+
+    private static final String SELECT_EXISTING_SQL =
+            "SELECT code_asin FROM produits WHERE code_asin IN (:asins)";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO produits (code_asin, titre, prix, note_moyenne, nombre_avis, rang_amazon, nombre_vendur, categorie_id, "
+                    + "date_modification, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    // version incrémentée : une commande en cours sur l'ancien prix échouera au contrôle optimiste.
+    // Produit déjà noté localement : la note affichée combine la nouvelle valeur catalogue et les avis locaux.
+    // Les colonnes d'avis locaux ne sont pas modifiées ici, l'ordre des affectations est donc sans effet (MySQL/H2).
+    private static final String UPDATE_SQL =
+            "UPDATE produits SET titre = ?, prix = ?, "
+                    + "note_moyenne = CASE WHEN nombre_avis_locaux = 0 THEN ? ELSE (? + somme_avis) / (? + nombre_avis_locaux) END, "
+                    + "nombre_avis = CASE WHEN nombre_avis_locaux = 0 THEN ? ELSE ? + nombre_avis_locaux END, "
+                    + "somme_notes_catalogue = ?, nombre_avis_catalogue = ?, "
+                    + "rang_amazon = ?, nombre_vendur = ?, categorie_id = ?, date_modification = ?, version = version + 1 "
+                    + "WHERE code_asin = ?";
+
+    // Un import complet réécrit les produits : leurs empreintes ne décrivent plus la base
+    private static final String DELETE_FINGERPRINTS_SQL =
+            "DELETE FROM empreintes_catalogue WHERE code_asin IN (:asins)";
+
+    private static final String SELECT_EXISTING_FINGERPRINTS_SQL =
+            "SELECT p.id, p.code_asin, e.empreinte FROM produits p "
+                    + "LEFT JOIN empreintes_catalogue e ON e.code_asin = p.code_asin WHERE p.code_asin IN (:asins)";
+
+    private static final String SELECT_IDS_SQL =
+            "SELECT id, code_asin FROM produits WHERE code_asin IN (:asins)";
+
+    // Paniers, commandes et avis ont une clé étrangère vers produits
+    private static final String SELECT_REMOVED_SQL =
+            "SELECT p.id, p.code_asin, "
+                    + "(EXISTS (SELECT 1 FROM lignes_commande l WHERE l.produit_id = p.id) "
+                    + "OR EXISTS (SELECT 1 FROM avis_produits a WHERE a.produit_id = p.id) "
+                    + "OR EXISTS (SELECT 1 FROM articles_panier c WHERE c.produit_id = p.id)) AS reference_produit "
+                    + "FROM produits p WHERE p.code_asin IN (:asins)";
+
+    private static final String UPSERT_FINGERPRINT_SQL =
+            "INSERT INTO empreintes_catalogue (code_asin, empreinte) VALUES (?, ?) "
+                    + "ON DUPLICATE KEY UPDATE empreinte = VALUES(empreinte)";
+
+    private static final String DELETE_FINGERPRINT_SQL = "DELETE FROM empreintes_catalogue WHERE code_asin = ?";
+
+    private static final String DELETE_PRODUCT_SQL = "DELETE FROM produits WHERE id = ?";
+
+    // Stock à 0 : plus commandable (CheckoutService), historique conservé
+    private static final String RETIRE_SQL =
+            "UPDATE produits SET stock = 0, date_modification = ?, version = version + 1 WHERE id = ?";
+
+    // Produit retiré revenu dans le fichier : stock de nouveau non suivi
+    private static final String RESTORE_SQL =
+            "UPDATE produits SET stock = NULL WHERE id = ? AND stock = 0";
+
+    /**
+     * Empreinte des produits retirés du fichier mais conservés ; jamais produite par le calcul d'empreinte.
+     */
+    public static final long RETIRED = 0L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProductBatchWriter(JdbcTemplate jdbcTemplate,
+                              NamedParameterJdbcTemplate namedJdbcTemplate,
+                              ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Insère les nouveaux ASIN et met à jour les existants, en un lot JDBC par type d'ordre.
+     * Si un ASIN apparaît plusieurs fois dans le lot, la dernière ligne gagne.
+     */
+    @Transactional
+    public UpsertResult upsert(Collection<Product> products) {
+        if (products.isEmpty()) {
+            return new UpsertResult(0, 0);
+        }
+
+        Map<String, Product> byAsin = new LinkedHashMap<>();
+        for (Product product : products) {
+            byAsin.put(product.getAsin(), product);
+        }
+
+        Set<String> existing = new HashSet<>(namedJdbcTemplate.queryForList(
+                SELECT_EXISTING_SQL, Map.of("asins", byAsin.keySet()), String.class));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        for (Product p : byAsin.values()) {
+            if (existing.contains(p.getAsin())) {
+                updates.add(updateArgs(p, now));
+            } else {
+                inserts.add(insertArgs(p, now));
+            }
+        }
+
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+        }
+        namedJdbcTemplate.update(DELETE_FINGERPRINTS_SQL, Map.of("asins", byAsin.keySet()));
+        // Délivré aux caches après le commit du lot
+        eventPublisher.publishEvent(ProductsChangedEvent.ofAsins(byAsin.keySet()));
+        return new UpsertResult(inserts.size(), updates.size());
+    }
+
+    /**
+     * Lot d'import différentiel : upsert des lignes modifiées, puis traitement des ASIN disparus du fichier.
+     * Un produit disparu est supprimé, sauf s'il est référencé par une commande, un avis ou un panier : il est
+     * alors retiré (stock à 0, empreinte {@link #RETIRED}). Les empreintes suivent dans la même transaction.
+     * L'événement publié porte les ids : les caches et index n'invalident que les produits touchés.
+     */
+    @Transactional
+    public DeltaResult applyDelta(Collection<FingerprintedProduct> changed, Collection<String> removedAsins) {
+        Map<String, FingerprintedProduct> byAsin = new LinkedHashMap<>();
+        for (FingerprintedProduct row : changed) {
+            byAsin.put(row.product().getAsin(), row);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> insertedIds = new ArrayList<>();
+        List<Long> updatedIds = new ArrayList<>();
+        List<Long> deletedIds = new ArrayList<>();
+        List<Long> retiredIds = new ArrayList<>();
+
+        // 1) Lignes nouvelles ou modifiées
+        if (!byAsin.isEmpty()) {
+            Map<String, Long> existingIds = new HashMap<>();
+            List<Object[]> restores = new ArrayList<>();
+            namedJdbcTemplate.query(SELECT_EXISTING_FINGERPRINTS_SQL, Map.of("asins", byAsin.keySet()), rs -> {
+                long id = rs.getLong(1);
+                existingIds.put(rs.getString(2), id);
+                long fingerprint = rs.getLong(3);
+                if (!rs.wasNull() && fingerprint == RETIRED) {
+                    restores.add(new Object[]{id});
+                }
+            });
+
+            List<Object[]> inserts = new ArrayList<>();
+            List<Object[]> updates = new ArrayList<>();
+            List<Object[]> fingerprints = new ArrayList<>(byAsin.size());
+            for (FingerprintedProduct row : byAsin.values()) {
+                Product p = row.product();
+                Long id = existingIds.get(p.getAsin());
+                if (id != null) {
+                    updates.add(updateArgs(p, now));
+                    updatedIds.add(id);
+                } else {
+                    inserts.add(insertArgs(p, now));
+                }
+                fingerprints.add(new Object[]{p.getAsin(), row.fingerprint()});
+            }
+
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+                Set<String> insertedAsins = new HashSet<>(byAsin.keySet());
+                insertedAsins.removeAll(existingIds.keySet());
+                insertedIds.addAll(namedJdbcTemplate.query(SELECT_IDS_SQL, Map.of("asins", insertedAsins),
+                        (rs, rowNum) -> rs.getLong(1)));
+            }
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+            }
+            if (!restores.isEmpty()) {
+                jdbcTemplate.batchUpdate(RESTORE_SQL, restores);
+            }
+            jdbcTemplate.batchUpdate(UPSERT_FINGERPRINT_SQL, fingerprints);
+        }
+
+        // 2) ASIN disparus du fichier
+        if (!removedAsins.isEmpty()) {
+            List<Object[]> deletes = new ArrayList<>();
+            List<Object[]> retires = new ArrayList<>();
+            List<Object[]> retiredFingerprints = new ArrayList<>();
+            // Empreintes supprimées : toutes sauf celles des produits retirés
+            Set<String> dropped = new HashSet<>(removedAsins);
+            namedJdbcTemplate.query(SELECT_REMOVED_SQL, Map.of("asins", Set.copyOf(removedAsins)), rs -> {
+                long id = rs.getLong(1);
+                String asin = rs.getString(2);
+                if (rs.getBoolean(3)) {
+                    retires.add(new Object[]{now, id});
+                    retiredFingerprints.add(new Object[]{asin, RETIRED});
+                    retiredIds.add(id);
+                    dropped.remove(asin);
+                } else {
+                    deletes.add(new Object[]{id});
+                    deletedIds.add(id);
+                }
+            });
+
+            if (!deletes.isEmpty()) {
+                jdbcTemplate.batchUpdate(DELETE_PRODUCT_SQL, deletes);
+            }
+            if (!retires.isEmpty()) {
+                jdbcTemplate.batchUpdate(RETIRE_SQL, retires);
+                jdbcTemplate.batchUpdate(UPSERT_FINGERPRINT_SQL, retiredFingerprints);
+            }
+            if (!dropped.isEmpty()) {
+                jdbcTemplate.batchUpdate(DELETE_FINGERPRINT_SQL, dropped.stream().map(asin -> new Object[]{asin}).toList());
+            }
+        }
+
+        DeltaResult result = new DeltaResult(insertedIds, updatedIds, deletedIds, retiredIds);
+        if (!result.isEmpty()) {
+            eventPublisher.publishEvent(new ProductsChangedEvent(result.changedIds(), Set.of()));
+        }
+        return result;
+    }
+
+    private static Object[] insertArgs(Product p, LocalDateTime now) {
+        return new Object[]{p.getAsin(), p.getTitle(), p.getPrice(), p.getRating(),
+                p.getRatingCount(), p.getRank(), p.getNo_sellers(), categorieId(p), now};
+    }
+
+    private static Object[] updateArgs(Product p, LocalDateTime now) {
+        double catalogSum = ReviewService.catalogSum(p.getRating(), p.getRatingCount());
+        long catalogCount = ReviewService.catalogCount(p.getRating(), p.getRatingCount());
+        return new Object[]{p.getTitle(), p.getPrice(),
+                p.getRating(), catalogSum, catalogCount,
+                p.getRatingCount(), catalogCount,
+                catalogSum, catalogCount,
+                p.getRank(), p.getNo_sellers(), categorieId(p), now, p.getAsin()};
+    }
+
+    private static Long categorieId(Product product) {
+        return product.getCategorie() != null ? product.getCategorie().getId() : null;
+    }
+
+    public record UpsertResult(int inserted, int updated) {
+    }
+
+    public record FingerprintedProduct(Product product, long fingerprint) {
+    }
+
+    public record DeltaResult(List<Long> inserted, List<Long> updated, List<Long> deleted, List<Long> retired) {
+
+        public boolean isEmpty() {
+            return inserted.isEmpty() && updated.isEmpty() && deleted.isEmpty() && retired.isEmpty();
+        }
+
+        public Set<Long> changedIds() {
+            Set<Long> ids = new HashSet<>(inserted);
+            ids.addAll(updated);
+            ids.addAll(deleted);
+            ids.addAll(retired);
+            return ids;
+        }
+    }
+}
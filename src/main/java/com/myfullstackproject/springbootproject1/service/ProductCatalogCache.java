@@ -0,0 +1,215 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.myfullstackproject.springbootproject1.datasource.ReadYourWrites;
+import com.myfullstackproject.springbootproject1.dto.ProductDetails;
+import com.myfullstackproject.springbootproject1.event.ProductsChangedEvent;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import com.myfullstackproject.springbootproject1.util.SingleFlight;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Cache mémoire des fiches produit, indexé par id et par ASIN, devant {@link ProductRepository}.
+ * Borné en taille et en durée ; vidé pour les produits concernés à chaque {@link ProductsChangedEvent}.
+ * <p>
+ * Sur un défaut de cache, les requêtes simultanées pour un même produit partagent un seul chargement
+ * ({@link SingleFlight}), y compris quand le produit fait partie d'un lot ({@link #findAll}). Le chargement
+ * se fait hors de tout verrou du cache ; une invalidation survenue pendant la lecture empêche sa mise en cache.
+ * <p>
+ * Le chargement qui suit une invalidation est servi par n'importe quel thread, pas forcément celui qui a écrit :
+ * pendant {@code datasource.replica.sticky-window} après chaque invalidation, les chargements lisent le primaire
+ * ({@link ReadYourWrites#onPrimary}), sinon une réplique en retard remettrait l'ancienne fiche en cache pour tout le TTL.
+ */
+@Service
+public class ProductCatalogCache {
+
+    private final ProductRepository productRepository;
+    private final Cache<Long, ProductDetails> byId;
+    // ASIN -> id, nettoyé quand l'entrée correspondante quitte byId
+    private final Map<String, Long> idsByAsin = new ConcurrentHashMap<>();
+
+    private final SingleFlight<Long, ProductDetails> idLoads = new SingleFlight<>();
+    private final SingleFlight<String, ProductDetails> asinLoads = new SingleFlight<>();
+    // Incrémenté avant chaque invalidation : un chargement commencé avant n'est pas gardé
+    private final AtomicLong invalidations = new AtomicLong();
+    private final LongAdder loadNanos = new LongAdder();
+    private final long stickyWindowMillis;
+    // Échéance des chargements sur le primaire après la dernière invalidation
+    private volatile long primaryUntil;
+
+    public ProductCatalogCache(ProductRepository productRepository,
+                               @Value("${catalog.cache.maximum-size:100000}") long maximumSize,
+                               @Value("${catalog.cache.ttl:10m}") Duration ttl,
+                               @Value("${datasource.replica.sticky-window:5s}") Duration stickyWindow) {
+        this.productRepository = productRepository;
+        this.stickyWindowMillis = stickyWindow.toMillis();
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .executor(Runnable::run)
+                .removalListener((Long id, ProductDetails details, RemovalCause cause) -> {
+                    if (details != null && details.asin() != null) {
+                        idsByAsin.remove(details.asin(), id);
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    public Optional<ProductDetails> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        ProductDetails details = byId.getIfPresent(id);
+        if (details == null) {
+            details = idLoads.load(id,
+                    key -> first(load(() -> productRepository.findDetailsById(key).stream().toList())));
+        }
+        return Optional.ofNullable(details);
+    }
+
+    public Optional<ProductDetails> findByAsin(String asin) {
+        if (asin == null) {
+            return Optional.empty();
+        }
+        Long id = idsByAsin.get(asin);
+        if (id != null) {
+            return findById(id);
+        }
+        return Optional.ofNullable(asinLoads.load(asin,
+                key -> first(load(() -> productRepository.findDetailsByAsin(key).stream().toList()))));
+    }
+
+    /**
+     * Fiches des {@code ids} puis des {@code asins}, dans l'ordre demandé et sans doublon ; les produits
+     * inexistants sont omis. Les fiches absentes du cache sont lues en une requête IN par type de clé.
+     */
+    public List<ProductDetails> findAll(Collection<Long> ids, Collection<String> asins) {
+        // 1) ASIN déjà connus -> ids ; les autres seront lus par ASIN
+        List<Long> wantedIds = new ArrayList<>(ids);
+        List<String> unknownAsins = new ArrayList<>();
+        for (String asin : asins) {
+            Long id = idsByAsin.get(asin);
+            if (id != null) {
+                wantedIds.add(id);
+            } else {
+                unknownAsins.add(asin);
+            }
+        }
+
+        // 2) Cache, puis chargements groupés (partagés avec les chargements en vol)
+        Map<Long, ProductDetails> found = new HashMap<>(byId.getAllPresent(wantedIds));
+        List<Long> missingIds = wantedIds.stream().filter(id -> !found.containsKey(id)).toList();
+        if (!missingIds.isEmpty()) {
+            found.putAll(idLoads.loadAll(missingIds, keys -> byKey(
+                    load(() -> productRepository.findDetailsByIdIn(keys)), ProductDetails::id)));
+        }
+        Map<String, ProductDetails> foundByAsin = unknownAsins.isEmpty() ? Map.of()
+                : asinLoads.loadAll(unknownAsins, keys -> byKey(
+                        load(() -> productRepository.findDetailsByAsinIn(keys)), ProductDetails::asin));
+
+        // 3) Ordre de la demande
+        Map<Long, ProductDetails> result = new LinkedHashMap<>();
+        for (Long id : wantedIds) {
+            ProductDetails details = found.get(id);
+            if (details != null) {
+                result.putIfAbsent(id, details);
+            }
+        }
+        for (String asin : unknownAsins) {
+            ProductDetails details = foundByAsin.get(asin);
+            if (details != null) {
+                result.putIfAbsent(details.id(), details);
+            }
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    public boolean exists(Long id) {
+        return findById(id).isPresent();
+    }
+
+    // Lecture en base puis mise en cache, sauf si une invalidation est arrivée entre-temps
+    // (la fiche lue peut alors précéder la modification : elle est renvoyée mais pas gardée)
+    private List<ProductDetails> load(Supplier<List<ProductDetails>> query) {
+        long generation = invalidations.get();
+        long start = System.nanoTime();
+        List<ProductDetails> loaded = System.currentTimeMillis() < primaryUntil
+                ? ReadYourWrites.onPrimary(query) : query.get();
+        loadNanos.add(System.nanoTime() - start);
+        for (ProductDetails details : loaded) {
+            byId.put(details.id(), details);
+            if (invalidations.get() != generation) {
+                byId.invalidate(details.id());
+            } else if (details.asin() != null) {
+                idsByAsin.put(details.asin(), details.id());
+            }
+        }
+        return loaded;
+    }
+
+    private static ProductDetails first(List<ProductDetails> loaded) {
+        return loaded.isEmpty() ? null : loaded.get(0);
+    }
+
+    private static <K> Map<K, ProductDetails> byKey(List<ProductDetails> loaded, Function<ProductDetails, K> key) {
+        return loaded.stream().collect(Collectors.toMap(key, Function.identity(), (a, b) -> a));
+    }
+
+    // Après commit : pas de rechargement d'une valeur qui serait encore annulée
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        primaryUntil = System.currentTimeMillis() + stickyWindowMillis;
+        invalidations.incrementAndGet();
+        byId.invalidateAll(event.ids());
+        for (String asin : event.asins()) {
+            Long id = idsByAsin.get(asin);
+            if (id != null) {
+                byId.invalidate(id);
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        primaryUntil = System.currentTimeMillis() + stickyWindowMillis;
+        invalidations.incrementAndGet();
+        byId.invalidateAll();
+        idsByAsin.clear();
+    }
+
+    public CacheMetrics metrics() {
+        CacheStats stats = byId.stats();
+        long loads = idLoads.loads() + asinLoads.loads();
+        return new CacheMetrics(byId.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.evictionCount(), stats.hitRate(), loads == 0 ? 0 : loadNanos.sum() / 1_000_000.0 / loads,
+                loads, idLoads.coalesced() + asinLoads.coalesced());
+    }
+
+    /**
+     * {@code loads} : requêtes SQL de chargement (un lot compte pour une) ; {@code coalescedLoads} : produits
+     * demandés pendant qu'un autre appel les chargeait déjà, servis sans requête supplémentaire.
+     */
+    public record CacheMetrics(long size, long hits, long misses, long evictions,
+                               double hitRate, double averageLoadMillis, long loads, long coalescedLoads) {
+    }
+}
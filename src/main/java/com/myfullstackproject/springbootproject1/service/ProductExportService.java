@@ -0,0 +1,45 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.dto.ProductSummary;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Export NDJSON du catalogue (un ProductSummary par ligne), écrit au fil du curseur :
+ * la table n'est jamais chargée entièrement en mémoire.
+ */
+@Service
+public class ProductExportService {
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+
+    public ProductExportService(ProductRepository productRepository, ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public long writeNdjson(OutputStream target) throws IOException {
+        long written = 0;
+        OutputStream out = new BufferedOutputStream(target, 1 << 16);
+        try (Stream<ProductSummary> summaries = productRepository.streamAllSummaries()) {
+            Iterator<ProductSummary> it = summaries.iterator();
+            while (it.hasNext()) {
+                out.write(objectMapper.writeValueAsBytes(it.next()));
+                out.write('\n');
+                written++;
+            }
+        }
+        out.flush();
+        return written;
+    }
+}
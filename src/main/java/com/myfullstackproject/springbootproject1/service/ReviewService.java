@@ -0,0 +1,227 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.dto.RatingTotals;
+import com.myfullstackproject.springbootproject1.dto.ReviewLine;
+import com.myfullstackproject.springbootproject1.dto.ReviewPage;
+import com.myfullstackproject.springbootproject1.event.ProductsChangedEvent;
+import com.myfullstackproject.springbootproject1.model.Rating;
+import com.myfullstackproject.springbootproject1.model.Utilisateur;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import com.myfullstackproject.springbootproject1.repository.RatingRepository;
+import com.myfullstackproject.springbootproject1.repository.UtilisateurRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Avis produits et agrégats note_moyenne / nombre_avis tenus à jour au fil de l'eau.
+ * <p>
+ * Un avis ne relit jamais les autres avis : il ajoute ses étoiles aux compteurs du produit
+ * (somme_avis, nombre_avis_locaux) par un UPDATE atomique qui recalcule aussi la note affichée.
+ * La valeur du catalogue CSV est figée dans somme_notes_catalogue / nombre_avis_catalogue au premier
+ * avis local, pour que la note affichée combine les deux.
+ * <p>
+ * La réconciliation recalcule tous les compteurs en une passe (un GROUP BY + UPDATE par lots) ;
+ * les dépôts d'avis sont suspendus pendant ce temps.
+ */
+@Service
+public class ReviewService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewService.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    // Premier avis local : la note courante est la valeur catalogue, on la fige.
+    // Note sans nombre d'avis : elle compte pour un avis, comme dans catalogCount
+    private static final String CAPTURE_CATALOG_SQL =
+            "UPDATE produits SET somme_notes_catalogue = COALESCE(note_moyenne * COALESCE(nombre_avis, 1), 0), "
+                    + "nombre_avis_catalogue = CASE WHEN note_moyenne IS NULL THEN 0 ELSE COALESCE(nombre_avis, 1) END "
+                    + "WHERE id = ? AND nombre_avis_locaux = 0";
+
+    // Affectations ordonnées pour MySQL (évaluées de gauche à droite) : la note est calculée
+    // avant la mise à jour des compteurs, comme en H2 qui lit toujours les anciennes valeurs
+    private static final String ADD_REVIEW_SQL =
+            "UPDATE produits SET note_moyenne = (somme_notes_catalogue + somme_avis + ?) / (nombre_avis_catalogue + nombre_avis_locaux + 1), "
+                    + "nombre_avis = nombre_avis_catalogue + nombre_avis_locaux + 1, "
+                    + "somme_avis = somme_avis + ?, nombre_avis_locaux = nombre_avis_locaux + 1, date_modification = ? WHERE id = ?";
+
+    private static final String RECONCILE_SQL =
+            "UPDATE produits SET note_moyenne = (somme_notes_catalogue + ?) / (nombre_avis_catalogue + ?), "
+                    + "nombre_avis = nombre_avis_catalogue + ?, somme_avis = ?, nombre_avis_locaux = ?, date_modification = ? "
+                    + "WHERE id = ?";
+
+    private static final String ORPHANS_SQL =
+            "SELECT id FROM produits p WHERE p.nombre_avis_locaux > 0 "
+                    + "AND NOT EXISTS (SELECT 1 FROM avis_produits a WHERE a.produit_id = p.id)";
+
+    // Plus aucun avis local : retour à la valeur catalogue
+    private static final String RESET_SQL =
+            "UPDATE produits SET note_moyenne = CASE WHEN nombre_avis_catalogue = 0 THEN NULL "
+                    + "ELSE somme_notes_catalogue / nombre_avis_catalogue END, "
+                    + "nombre_avis = nombre_avis_catalogue, somme_avis = 0, nombre_avis_locaux = 0, date_modification = ? WHERE id = ?";
+
+    private final RatingRepository ratingRepository;
+    private final ProductRepository productRepository;
+    private final UtilisateurRepository utilisateurRepository;
+    private final ProductCatalogCache productCatalogCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Lecture : dépôts d'avis concurrents ; écriture : réconciliation (instance unique)
+    private final ReadWriteLock reconcileLock = new ReentrantReadWriteLock();
+
+    public ReviewService(RatingRepository ratingRepository,
+                         ProductRepository productRepository,
+                         UtilisateurRepository utilisateurRepository,
+                         ProductCatalogCache productCatalogCache,
+                         JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         ApplicationEventPublisher eventPublisher) {
+        this.ratingRepository = ratingRepository;
+        this.productRepository = productRepository;
+        this.utilisateurRepository = utilisateurRepository;
+        this.productCatalogCache = productCatalogCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Somme des étoiles représentée par une note catalogue (0 sans note).
+     */
+    static double catalogSum(Double rating, Long ratingCount) {
+        return rating == null ? 0 : rating * catalogCount(rating, ratingCount);
+    }
+
+    /**
+     * Poids d'une note catalogue : son nombre d'avis, ou un avis si le CSV ne le donne pas
+     * (sinon le premier avis local remplacerait la note et sa suppression l'effacerait).
+     */
+    static long catalogCount(Double rating, Long ratingCount) {
+        if (rating == null) {
+            return 0;
+        }
+        return ratingCount == null ? 1 : ratingCount;
+    }
+
+    public ReviewLine submit(Long utilisateurId, Long productId, Integer stars, String comment) {
+        if (stars == null || stars < 1 || stars > 5) {
+            throw new IllegalArgumentException("La note doit être comprise entre 1 et 5");
+        }
+        if (!productCatalogCache.exists(productId)) {
+            throw new RuntimeException("Produit introuvable");
+        }
+
+        reconcileLock.readLock().lock();
+        try {
+            return transactionTemplate.execute(status -> {
+                Utilisateur author = utilisateurRepository.findById(utilisateurId)
+                        .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+                Rating rating = ratingRepository.save(Rating.builder()
+                        .utilisateur(author)
+                        .product(productRepository.getReferenceById(productId))
+                        .stars(stars)
+                        .comment(comment)
+                        .createdAt(LocalDateTime.now())
+                        .build());
+
+                // Deux UPDATE sur la même ligne : le premier la verrouille jusqu'au commit
+                jdbcTemplate.update(CAPTURE_CATALOG_SQL, productId);
+                jdbcTemplate.update(ADD_REVIEW_SQL, stars, stars, rating.getCreatedAt(), productId);
+                eventPublisher.publishEvent(ProductsChangedEvent.ofProduct(productId, null));
+
+                return new ReviewLine(rating.getId(), stars, comment, rating.getCreatedAt(), author.getNom());
+            });
+        } finally {
+            reconcileLock.readLock().unlock();
+        }
+    }
+
+    public ReviewPage reviews(Long productId, Long beforeId, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        List<ReviewLine> items = beforeId == null
+                ? ratingRepository.findLines(productId, page)
+                : ratingRepository.findLinesBefore(productId, beforeId, page);
+        String nextCursor = items.size() == limit ? String.valueOf(items.get(items.size() - 1).id()) : null;
+        return new ReviewPage(items, nextCursor);
+    }
+
+    /**
+     * Recalcule les compteurs d'avis de tous les produits à partir de avis_produits.
+     */
+    public ReconcileReport reconcile() {
+        reconcileLock.writeLock().lock();
+        try {
+            long start = System.nanoTime();
+            ReconcileReport report = transactionTemplate.execute(status -> reconcileInTransaction(start));
+            log.info("Rating aggregates reconciled: {}", report);
+            return report;
+        } finally {
+            reconcileLock.writeLock().unlock();
+        }
+    }
+
+    @Scheduled(cron = "${reviews.reconcile.cron:-}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    private ReconcileReport reconcileInTransaction(long start) {
+        // 1) Produits notés : un seul GROUP BY, puis mise à jour par lots
+        List<RatingTotals> totals = ratingRepository.findTotals();
+        LocalDateTime now = LocalDateTime.now();
+        long reviews = 0;
+        for (int from = 0; from < totals.size(); from += BATCH_SIZE) {
+            List<RatingTotals> batch = totals.subList(from, Math.min(from + BATCH_SIZE, totals.size()));
+            Set<Long> ids = new HashSet<>();
+            for (RatingTotals t : batch) {
+                ids.add(t.productId());
+                reviews += t.count();
+            }
+            jdbcTemplate.batchUpdate(CAPTURE_CATALOG_SQL, batch, batch.size(),
+                    (ps, t) -> ps.setLong(1, t.productId()));
+            jdbcTemplate.batchUpdate(RECONCILE_SQL, batch, batch.size(), (ps, t) -> {
+                ps.setLong(1, t.starSum());
+                ps.setLong(2, t.count());
+                ps.setLong(3, t.count());
+                ps.setLong(4, t.starSum());
+                ps.setLong(5, t.count());
+                ps.setObject(6, now);
+                ps.setLong(7, t.productId());
+            });
+            eventPublisher.publishEvent(new ProductsChangedEvent(ids, Set.of()));
+        }
+
+        // 2) Produits dont tous les avis ont disparu
+        List<Long> orphans = jdbcTemplate.queryForList(ORPHANS_SQL, Long.class);
+        List<Object[]> resets = new ArrayList<>(orphans.size());
+        for (Long id : orphans) {
+            resets.add(new Object[]{now, id});
+        }
+        if (!resets.isEmpty()) {
+            jdbcTemplate.batchUpdate(RESET_SQL, resets);
+            eventPublisher.publishEvent(new ProductsChangedEvent(Set.copyOf(orphans), Set.of()));
+        }
+
+        return new ReconcileReport(totals.size(), orphans.size(), reviews, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    public record ReconcileReport(int productsReviewed, int productsReset, long reviews, Duration elapsed) {
+    }
+}
@@ -0,0 +1,388 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.dto.CartLine;
+import com.myfullstackproject.springbootproject1.dto.ProductSummary;
+import com.myfullstackproject.springbootproject1.repository.CartItemRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Paniers tenus en mémoire, écrits dans articles_panier en différé.
+ * <p>
+ * Chaque utilisateur a son propre panier, avec son propre verrou. Le panier est lu en base au premier accès,
+ * puis la mémoire fait foi : les changements de quantité et les suppressions ne font que marquer la ligne
+ * comme modifiée, et un flush périodique (ou explicite, avant une commande) écrit la dernière valeur
+ * de toutes les lignes modifiées en lots JDBC. Dix clics sur "+" donnent un seul UPDATE.
+ * <p>
+ * Seul l'ajout d'un produit absent du panier est écrit tout de suite, pour obtenir l'id de la ligne ;
+ * un produit retiré puis rajouté avant le flush est traité ainsi, après l'écriture de sa suppression.
+ * Suppose que tous les accès panier d'un utilisateur passent par cette instance (une seule instance
+ * ou affinité de session).
+ */
+@Service
+@ConditionalOnProperty(name = "cart.store.mode", havingValue = "write-behind")
+public class WriteBehindCartStore implements CartStore {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindCartStore.class);
+
+    private static final String UPDATE_SQL = "UPDATE articles_panier SET quantite = ? WHERE id = ?";
+    private static final String DELETE_SQL = "DELETE FROM articles_panier WHERE id = ?";
+
+    private final CartItemRepository cartItemRepository;
+    private final ProductCatalogCache productCatalogCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long idleMillis;
+
+    private final Map<Long, UserCart> carts = new ConcurrentHashMap<>();
+    // Verrous explicites plutôt que synchronized : un thread virtuel bloqué en base ne reste pas épinglé
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final AtomicLong mutations = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+
+    public WriteBehindCartStore(CartItemRepository cartItemRepository,
+                                ProductCatalogCache productCatalogCache,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${cart.store.batch-size:500}") int batchSize,
+                                @Value("${cart.store.idle-eviction:30m}") Duration idle) {
+        this.cartItemRepository = cartItemRepository;
+        this.productCatalogCache = productCatalogCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.idleMillis = idle.toMillis();
+    }
+
+    @Override
+    public CartLine addToCart(Long utilisateurId, Long productId, int quantity) {
+        if (!productCatalogCache.exists(productId)) {
+            throw new RuntimeException("Produit introuvable");
+        }
+        UserCart cart = lockedCart(utilisateurId);
+        Line line = cart.lines.get(productId);
+        while (line != null && line.deleted) {
+            // Ligne en attente de suppression : son DELETE est peut-être déjà parti dans un flush en cours.
+            // On le laisse aboutir (et la ligne disparaître) puis on recrée la ligne comme une nouvelle,
+            // au lieu de faire revivre un id qui n'existera plus en base.
+            cart.lock.unlock();
+            flush(List.of(cart));
+            cart = lockedCart(utilisateurId);
+            line = cart.lines.get(productId);
+        }
+        try {
+            if (line == null) {
+                // Nouvelle ligne : écrite tout de suite pour obtenir son id
+                CartLine created = transactionTemplate.execute(status -> {
+                    try {
+                        cartItemRepository.upsertIncrement(utilisateurId, productId, quantity);
+                    } catch (DataIntegrityViolationException e) {
+                        throw new RuntimeException("Utilisateur ou produit introuvable", e);
+                    }
+                    return cartItemRepository.findLine(utilisateurId, productId)
+                            .orElseThrow(() -> new RuntimeException("Item panier introuvable"));
+                });
+                line = new Line(created.id(), productId, created.quantity());
+                cart.lines.put(productId, line);
+                return toCartLine(line);
+            }
+            line.quantity += quantity;
+            cart.markDirty(productId);
+            mutations.incrementAndGet();
+            return toCartLine(line);
+        } finally {
+            cart.lock.unlock();
+        }
+    }
+
+    @Override
+    public List<CartLine> getCart(Long utilisateurId) {
+        UserCart cart = lockedCart(utilisateurId);
+        try {
+            List<CartLine> result = new ArrayList<>(cart.lines.size());
+            for (Line line : cart.lines.values()) {
+                if (!line.deleted) {
+                    result.add(toCartLine(line));
+                }
+            }
+            return result;
+        } finally {
+            cart.lock.unlock();
+        }
+    }
+
+    @Override
+    public CartLine updateQuantity(Long utilisateurId, Long cartItemId, int quantity) {
+        UserCart cart = lockedCart(utilisateurId);
+        try {
+            Line line = cart.find(cartItemId);
+            line.quantity = quantity;
+            cart.markDirty(line.productId);
+            mutations.incrementAndGet();
+            return toCartLine(line);
+        } finally {
+            cart.lock.unlock();
+        }
+    }
+
+    @Override
+    public void removeItem(Long utilisateurId, Long cartItemId) {
+        UserCart cart = lockedCart(utilisateurId);
+        try {
+            Line line = cart.find(cartItemId);
+            line.deleted = true;
+            cart.markDirty(line.productId);
+            mutations.incrementAndGet();
+        } finally {
+            cart.lock.unlock();
+        }
+    }
+
+    @Override
+    public void flush(Long utilisateurId) {
+        UserCart cart = carts.get(utilisateurId);
+        if (cart != null) {
+            flush(List.of(cart));
+        }
+    }
+
+    @Override
+    public void clear(Long utilisateurId) {
+        // Oublier le panier en mémoire suffit : si la transaction échoue, il sera relu en base
+        UserCart cart = carts.remove(utilisateurId);
+        if (cart != null) {
+            cart.lock.lock();
+            try {
+                cart.dirty.clear();
+            } finally {
+                cart.lock.unlock();
+            }
+        }
+        cartItemRepository.deleteByUtilisateurId(utilisateurId);
+    }
+
+    @Scheduled(fixedDelayString = "${cart.store.flush-interval:5s}")
+    public void flushAll() {
+        flush(new ArrayList<>(carts.values()));
+        evictIdleCarts();
+    }
+
+    // Arrêt de l'application : rien ne doit être perdu
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushAll();
+        log.info("Write-behind cart store flushed on shutdown: {}", metrics());
+    }
+
+    public Metrics metrics() {
+        long dirty = 0;
+        for (UserCart cart : carts.values()) {
+            cart.lock.lock();
+            try {
+                dirty += cart.dirty.size();
+            } finally {
+                cart.lock.unlock();
+            }
+        }
+        return new Metrics(carts.size(), dirty, mutations.get(), rowsWritten.get(), flushes.get());
+    }
+
+    private void flush(List<UserCart> toFlush) {
+        // Un seul flush à la fois : deux écritures de la même ligne ne peuvent pas se croiser
+        flushLock.lock();
+        try {
+            List<Object[]> updates = new ArrayList<>();
+            List<Object[]> deletes = new ArrayList<>();
+            Map<UserCart, Set<Long>> snapshot = new LinkedHashMap<>();
+
+            for (UserCart cart : toFlush) {
+                cart.lock.lock();
+                try {
+                    if (cart.dirty.isEmpty()) {
+                        continue;
+                    }
+                    for (Long productId : cart.dirty) {
+                        Line line = cart.lines.get(productId);
+                        if (line.deleted) {
+                            deletes.add(new Object[]{line.id});
+                        } else {
+                            updates.add(new Object[]{line.quantity, line.id});
+                        }
+                    }
+                    snapshot.put(cart, new HashSet<>(cart.dirty));
+                    cart.dirty.clear();
+                } finally {
+                    cart.lock.unlock();
+                }
+            }
+            if (snapshot.isEmpty()) {
+                return;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!updates.isEmpty()) {
+                        jdbcTemplate.batchUpdate(UPDATE_SQL, updates, batchSize,
+                                (ps, row) -> {
+                                    ps.setInt(1, (Integer) row[0]);
+                                    ps.setLong(2, (Long) row[1]);
+                                });
+                    }
+                    if (!deletes.isEmpty()) {
+                        jdbcTemplate.batchUpdate(DELETE_SQL, deletes, batchSize,
+                                (ps, row) -> ps.setLong(1, (Long) row[0]));
+                    }
+                });
+            } catch (RuntimeException e) {
+                // Échec : les lignes redeviennent sales et repartiront au prochain flush
+                for (Map.Entry<UserCart, Set<Long>> entry : snapshot.entrySet()) {
+                    entry.getKey().lock.lock();
+                    try {
+                        entry.getKey().dirty.addAll(entry.getValue());
+                    } finally {
+                        entry.getKey().lock.unlock();
+                    }
+                }
+                log.error("Cart flush failed, {} carts kept dirty: {}", snapshot.size(), e.getMessage());
+                throw e;
+            }
+
+            rowsWritten.addAndGet(updates.size() + deletes.size());
+            flushes.incrementAndGet();
+            // Les suppressions sont en base : on oublie les lignes (sauf si recréées entre-temps)
+            for (Map.Entry<UserCart, Set<Long>> entry : snapshot.entrySet()) {
+                UserCart cart = entry.getKey();
+                cart.lock.lock();
+                try {
+                    for (Long productId : entry.getValue()) {
+                        Line line = cart.lines.get(productId);
+                        if (line != null && line.deleted && !cart.dirty.contains(productId)) {
+                            cart.lines.remove(productId);
+                        }
+                    }
+                } finally {
+                    cart.lock.unlock();
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void evictIdleCarts() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, UserCart> entry : carts.entrySet()) {
+            UserCart cart = entry.getValue();
+            cart.lock.lock();
+            try {
+                // Retrait sous le verrou du panier : une modification qui le tient voit le panier encore en place
+                if (cart.dirty.isEmpty() && now - cart.lastAccess > idleMillis) {
+                    carts.remove(entry.getKey(), cart);
+                }
+            } finally {
+                cart.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Panier de l'utilisateur, verrouillé. Un panier évincé (ou vidé par {@link #clear}) entre la lecture de
+     * la map et la prise du verrou n'est plus flushé : on recommence avec celui relu en base.
+     */
+    private UserCart lockedCart(Long utilisateurId) {
+        while (true) {
+            UserCart cart = cart(utilisateurId);
+            cart.lock.lock();
+            if (carts.get(utilisateurId) == cart) {
+                cart.lastAccess = System.currentTimeMillis();
+                return cart;
+            }
+            cart.lock.unlock();
+        }
+    }
+
+    private UserCart cart(Long utilisateurId) {
+        UserCart cart = carts.get(utilisateurId);
+        if (cart == null) {
+            // Lecture en base hors de computeIfAbsent (qui bloquerait la case de la map pendant la requête) ;
+            // deux premiers accès simultanés lisent la même chose, le premier inséré gagne
+            UserCart loaded = new UserCart();
+            for (CartLine line : cartItemRepository.findLinesByUtilisateurId(utilisateurId)) {
+                loaded.lines.put(line.product().id(), new Line(line.id(), line.product().id(), line.quantity()));
+            }
+            loaded.lastAccess = System.currentTimeMillis();
+            UserCart existing = carts.putIfAbsent(utilisateurId, loaded);
+            cart = existing != null ? existing : loaded;
+        }
+        return cart;
+    }
+
+    private CartLine toCartLine(Line line) {
+        // Résumé produit servi par le cache catalogue : lecture du panier sans base
+        ProductSummary product = productCatalogCache.findById(line.productId)
+                .map(details -> details.toSummary())
+                .orElse(new ProductSummary(line.productId, null, null, null, null, null, null, null, null));
+        return new CartLine(line.id, line.quantity, product);
+    }
+
+    public record Metrics(int cartsInMemory, long dirtyLines, long mutations, long rowsWritten, long flushes) {
+    }
+
+    private static final class UserCart {
+
+        private final Map<Long, Line> lines = new LinkedHashMap<>();
+        private final Set<Long> dirty = new HashSet<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile long lastAccess;
+
+        void markDirty(Long productId) {
+            dirty.add(productId);
+        }
+
+        Line find(Long cartItemId) {
+            for (Line line : lines.values()) {
+                if (line.id.equals(cartItemId) && !line.deleted) {
+                    return line;
+                }
+            }
+            throw new RuntimeException("Item panier introuvable");
+        }
+    }
+
+    private static final class Line {
+
+        private final Long id;
+        private final Long productId;
+        private int quantity;
+        private boolean deleted;
+
+        Line(Long id, Long productId, int quantity) {
+            this.id = id;
+            this.productId = productId;
+            this.quantity = quantity;
+        }
+    }
+}
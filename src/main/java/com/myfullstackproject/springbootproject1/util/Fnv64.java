@@ -0,0 +1,34 @@
+package com.myfullstackproject.springbootproject1.util;
+
+/**
+ * Empreinte 64 bits d'une suite de champs : FNV-1a sur les caractères, séparateur de champ et marqueur null,
+ * puis mélange final (murmur3 fmix64). Stable d'une JVM à l'autre, contrairement à {@code hashCode}.
+ * <p>
+ * Usage : {@code long h = Fnv64.OFFSET; h = Fnv64.hash(h, a); h = Fnv64.hash(h, b); ...}
+ */
+public final class Fnv64 {
+
+    public static final long OFFSET = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private Fnv64() {
+    }
+
+    public static long hash(long h, Object field) {
+        if (field == null) {
+            h *= PRIME; // distinct de la chaîne vide, qui ajoute le séparateur
+        } else {
+            String value = field.toString();
+            for (int i = 0; i < value.length(); i++) {
+                h = (h ^ value.charAt(i)) * PRIME;
+            }
+            h = (h ^ 0x1F) * PRIME;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,124 @@
+package com.myfullstackproject.springbootproject1.util;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Chargements en vol, par clé : un appel qui demande une clé déjà en cours de chargement attend le résultat
+ * de ce chargement au lieu d'en lancer un second (« single flight »). Rien n'est gardé une fois le chargement
+ * terminé : c'est au cache en amont de conserver les valeurs.
+ * <p>
+ * Aucun verrou n'est tenu pendant le chargement ; les appels en attente bloquent sur un {@link CompletableFuture},
+ * ce qui n'épingle pas les threads virtuels. Un chargement groupé termine ses propres clés avant d'attendre
+ * celles des autres : pas d'interblocage entre deux lots qui se recouvrent.
+ * Une valeur {@code null} (clé inexistante) est partagée comme les autres ; une exception aussi.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public V load(K key, Function<K, V> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.increment();
+            return join(existing);
+        }
+        loads.increment();
+        try {
+            V value = loader.apply(key);
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Charge les clés absentes d'un seul appel à {@code loader} ; les clés déjà en vol sont attendues.
+     * Le résultat ne contient que les clés de valeur non nulle.
+     */
+    public Map<K, V> loadAll(Collection<K> keys, Function<Set<K>, Map<K, V>> loader) {
+        Map<K, CompletableFuture<V>> mine = new LinkedHashMap<>();
+        Map<K, CompletableFuture<V>> others = new HashMap<>();
+        for (K key : new LinkedHashSet<>(keys)) {
+            CompletableFuture<V> future = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+            if (existing != null) {
+                others.put(key, existing);
+            } else {
+                mine.put(key, future);
+            }
+        }
+
+        Map<K, V> result = new HashMap<>();
+        if (!mine.isEmpty()) {
+            loads.increment();
+            try {
+                Map<K, V> loaded = loader.apply(mine.keySet());
+                mine.forEach((key, future) -> {
+                    V value = loaded.get(key);
+                    future.complete(value);
+                    if (value != null) {
+                        result.put(key, value);
+                    }
+                });
+            } catch (RuntimeException | Error e) {
+                mine.values().forEach(future -> future.completeExceptionally(e));
+                throw e;
+            } finally {
+                mine.forEach(inFlight::remove);
+            }
+        }
+        coalesced.add(others.size());
+        others.forEach((key, future) -> {
+            V value = join(future);
+            if (value != null) {
+                result.put(key, value);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Appels au chargeur (un lot compte pour un).
+     */
+    public long loads() {
+        return loads.sum();
+    }
+
+    /**
+     * Clés servies par le chargement d'un autre appel.
+     */
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
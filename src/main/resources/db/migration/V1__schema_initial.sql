@@ -0,0 +1,130 @@
+-- Schéma tel que créé jusqu'ici par spring.jpa.hibernate.ddl-auto=update (MySQL 8, InnoDB).
+-- Les noms de contraintes sont ceux générés par Hibernate : une base existante peut être reprise
+-- avec spring.flyway.baseline-on-migrate (cette version est alors considérée comme appliquée).
+
+CREATE TABLE utilisateur (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    nom VARCHAR(100) NOT NULL,
+    email VARCHAR(150) NOT NULL,
+    mot_de_passe VARCHAR(255) NOT NULL,
+    reponse_secrete VARCHAR(255),
+    role ENUM ('ACHETEUR', 'ADMIN', 'ANALYSTE', 'VENDEUR') NOT NULL,
+    date_creation DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT UKrma38wvnqfaf66vvmi57c71lo UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE categorie (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    nom VARCHAR(100) NOT NULL,
+    description TEXT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE produits (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    code_asin VARCHAR(255) NOT NULL,
+    titre VARCHAR(255),
+    prix FLOAT(53),
+    note_moyenne FLOAT(53),
+    nombre_avis BIGINT,
+    rang_amazon INTEGER,
+    description TEXT,
+    image_url VARCHAR(255),
+    nombre_vendur VARCHAR(255),
+    stock INTEGER,
+    somme_notes_catalogue FLOAT(53) DEFAULT 0 NOT NULL,
+    nombre_avis_catalogue BIGINT DEFAULT 0 NOT NULL,
+    somme_avis BIGINT DEFAULT 0 NOT NULL,
+    nombre_avis_locaux BIGINT DEFAULT 0 NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
+    date_modification DATETIME(6),
+    categorie_id BIGINT,
+    utilisateur_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT UKypvlpym1e2flg48cvmbd17t6 UNIQUE (code_asin)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_produits_rang ON produits (rang_amazon, id);
+CREATE INDEX idx_produits_prix ON produits (prix, id);
+CREATE INDEX idx_produits_note ON produits (note_moyenne, id);
+CREATE INDEX idx_produits_categorie_rang ON produits (categorie_id, rang_amazon, id);
+
+CREATE TABLE articles_panier (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    utilisateur_id BIGINT,
+    produit_id BIGINT,
+    quantite INTEGER,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_panier_utilisateur_produit UNIQUE (utilisateur_id, produit_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE avis_produits (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    produit_id BIGINT,
+    utilisateur_id BIGINT,
+    nb_etoiles INTEGER,
+    commentaire VARCHAR(255),
+    date_creation DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_avis_produit ON avis_produits (produit_id, id);
+
+CREATE TABLE commandes (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    utilisateur_id BIGINT,
+    date_creation DATETIME(6),
+    montant_total FLOAT(53),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_commandes_utilisateur_date ON commandes (utilisateur_id, date_creation, id);
+
+CREATE TABLE lignes_commande (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    commande_id BIGINT,
+    produit_id BIGINT,
+    quantite INTEGER,
+    prix_unitaire FLOAT(53),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- Agrégats de ventes : pas de clé étrangère, l'historique survit aux suppressions
+CREATE TABLE stats_ventes_jour (
+    jour DATE NOT NULL,
+    chiffre_affaires FLOAT(53) NOT NULL,
+    commandes BIGINT NOT NULL,
+    articles BIGINT NOT NULL,
+    PRIMARY KEY (jour)
+) ENGINE = InnoDB;
+
+CREATE TABLE stats_ventes_categorie_jour (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    jour DATE NOT NULL,
+    categorie_id BIGINT NOT NULL,
+    chiffre_affaires FLOAT(53) NOT NULL,
+    quantite BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_stats_categorie_jour UNIQUE (jour, categorie_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE stats_ventes_produit_jour (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    jour DATE NOT NULL,
+    produit_id BIGINT NOT NULL,
+    chiffre_affaires FLOAT(53) NOT NULL,
+    quantite BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_stats_produit_jour UNIQUE (jour, produit_id)
+) ENGINE = InnoDB;
+
+ALTER TABLE produits ADD CONSTRAINT FKrajacxk0shaocjomehg40ap74 FOREIGN KEY (categorie_id) REFERENCES categorie (id);
+ALTER TABLE produits ADD CONSTRAINT FKaei9j3aljnapqwbynch4kevpd FOREIGN KEY (utilisateur_id) REFERENCES utilisateur (id);
+ALTER TABLE articles_panier ADD CONSTRAINT FK1yuslgdlk3eqrw2xp4syx2cpu FOREIGN KEY (produit_id) REFERENCES produits (id);
+ALTER TABLE articles_panier ADD CONSTRAINT FKp5jwlnnl0wjkpogf41elefpx1 FOREIGN KEY (utilisateur_id) REFERENCES utilisateur (id);
+ALTER TABLE avis_produits ADD CONSTRAINT FKpqr70njanuf861qyayd2fs9q1 FOREIGN KEY (produit_id) REFERENCES produits (id);
+ALTER TABLE avis_produits ADD CONSTRAINT FKaib5srl8j1eyqju6vmvhvkh7o FOREIGN KEY (utilisateur_id) REFERENCES utilisateur (id);
+ALTER TABLE commandes ADD CONSTRAINT FKiqoxd09nia5grj8w3hwdf5np4 FOREIGN KEY (utilisateur_id) REFERENCES utilisateur (id);
+ALTER TABLE lignes_commande ADD CONSTRAINT FKtry44xh8jbos217m4nk3wyyem FOREIGN KEY (commande_id) REFERENCES commandes (id);
+ALTER TABLE lignes_commande ADD CONSTRAINT FK97125vvuxcin9rytjad4u9bm4 FOREIGN KEY (produit_id) REFERENCES produits (id);
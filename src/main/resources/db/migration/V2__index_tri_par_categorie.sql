@@ -0,0 +1,4 @@
+-- Pages d'une catégorie triées par prix ou par note (CategorieController, ProductPages) :
+-- même forme (clé de tri, id) que idx_produits_categorie_rang pour la pagination par clé
+CREATE INDEX idx_produits_categorie_prix ON produits (categorie_id, prix, id);
+CREATE INDEX idx_produits_categorie_note ON produits (categorie_id, note_moyenne, id);
@@ -0,0 +1,6 @@
+-- Horloge de réplication (ReadReplicaRouting) : écrite sur le primaire, relue sur la réplique
+CREATE TABLE horloge_replication (
+    id BIGINT NOT NULL,
+    horodatage_ms BIGINT NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
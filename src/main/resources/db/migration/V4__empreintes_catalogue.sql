@@ -0,0 +1,6 @@
+-- Empreinte de la dernière ligne fournisseur appliquée, par ASIN (import différentiel, CatalogDeltaImporter)
+CREATE TABLE empreintes_catalogue (
+    code_asin VARCHAR(255) NOT NULL,
+    empreinte BIGINT NOT NULL,
+    PRIMARY KEY (code_asin)
+) ENGINE = InnoDB;
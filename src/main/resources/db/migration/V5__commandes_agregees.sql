@@ -0,0 +1,5 @@
+-- Commandes déjà comptées dans les agrégats de ventes (SalesRollupService) : une commande non marquée
+-- est rattrapée au démarrage. Les commandes existantes sont considérées comme comptées.
+ALTER TABLE commandes ADD COLUMN agregee BOOLEAN NOT NULL DEFAULT FALSE;
+UPDATE commandes SET agregee = TRUE;
+CREATE INDEX idx_commandes_agregee ON commandes (agregee);
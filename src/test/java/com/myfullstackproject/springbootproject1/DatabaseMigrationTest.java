@@ -0,0 +1,40 @@
+package com.myfullstackproject.springbootproject1;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Les migrations Flyway créent le schéma attendu par les entités : Hibernate le valide au démarrage.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:migrations;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "catalog.import.enabled=false"})
+class DatabaseMigrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testMigrationsMatchEntities() {
+        List<String> versions = jdbcTemplate.queryForList(
+                "SELECT \"version\" FROM \"flyway_schema_history\" WHERE \"success\" AND \"version\" IS NOT NULL ORDER BY \"installed_rank\"", String.class);
+        assertEquals(List.of("1", "2", "3", "4", "5"), versions);
+
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT index_name FROM information_schema.indexes WHERE table_name = 'produits'", String.class);
+        assertTrue(indexes.contains("idx_produits_categorie_prix"), indexes::toString);
+        assertTrue(indexes.contains("idx_produits_categorie_note"), indexes::toString);
+
+        List<String> orderIndexes = jdbcTemplate.queryForList(
+                "SELECT index_name FROM information_schema.indexes WHERE table_name = 'commandes'", String.class);
+        assertTrue(orderIndexes.contains("idx_commandes_agregee"), orderIndexes::toString);
+    }
+}
@@ -0,0 +1,104 @@
+package com.myfullstackproject.springbootproject1;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Même charge HTTP contre l'application en threads plateforme puis en threads virtuels : débit et p99.
+ * Exclu du build normal ; lancer avec {@code mvn test -Pload-test}.
+ * Les threads virtuels épinglés (JFR jdk.VirtualThreadPinned) dans le code de l'application font échouer le test.
+ */
+@Tag("load")
+class LoadComparisonTest {
+
+    private static final int PRODUCTS = 5_000;
+    private static final int CLIENTS = Integer.getInteger("load.clients", 400);
+    private static final int REQUESTS = Integer.getInteger("load.requests", 20_000);
+    // Pool Tomcat volontairement borné pour le mode plateforme (ignoré en threads virtuels)
+    private static final int PLATFORM_THREADS = Integer.getInteger("load.platform-threads", 50);
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.println("mode      | requests | errors | req/s   | p50 ms | p99 ms | pinned (app)");
+        System.out.println(platform);
+        System.out.println(virtual);
+
+        assertEquals(0, platform.errors());
+        assertEquals(0, virtual.errors());
+        assertEquals(0, virtual.pinnedInApp(), "Virtual threads pinned inside application code");
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringbootProject1Application.class)
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "server.tomcat.threads.max=" + PLATFORM_THREADS,
+                        "spring.jpa.show-sql=false",
+                        "catalog.import.enabled=false")
+                .run();
+        AtomicLong pinnedInApp = new AtomicLong();
+        try (RecordingStream pinning = new RecordingStream()) {
+            pinning.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            pinning.onEvent("jdk.VirtualThreadPinned", event -> {
+                if (inApplicationCode(event)) {
+                    pinnedInApp.incrementAndGet();
+                }
+            });
+            pinning.startAsync();
+
+            LoadHarness.seed(context, PRODUCTS);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String base = "http://localhost:" + port;
+            // Requêtes bloquantes sur la base : pages par clé, triées sur deux index différents
+            List<URI> uris = List.of(
+                    URI.create(base + "/api/produits?size=50"),
+                    URI.create(base + "/api/produits?sort=price&size=50"),
+                    URI.create(base + "/api/panier"));
+
+            LoadHarness.fire(uris, CLIENTS, REQUESTS / 10); // chauffe
+            LoadHarness.Stats result = LoadHarness.fire(uris, CLIENTS, REQUESTS);
+            return new Result(virtualThreads ? "virtual " : "platform", result.requests(), result.errors(),
+                    result.perSecond(), result.p50(), result.p99(), pinnedInApp.get());
+        } finally {
+            context.close();
+        }
+    }
+
+    private static boolean inApplicationCode(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return false;
+        }
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            if (frame.getMethod().getType().getName().startsWith("com.myfullstackproject.")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Result(String mode, int requests, int errors, double perSecond, double p50, double p99,
+                          long pinnedInApp) {
+
+        @Override
+        public String toString() {
+            return String.format("%s  | %8d | %6d | %7.0f | %6.1f | %6.1f | %d",
+                    mode, requests, errors, perSecond, p50, p99, pinnedInApp);
+        }
+    }
+}
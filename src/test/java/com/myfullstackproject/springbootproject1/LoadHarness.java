@@ -0,0 +1,95 @@
+package com.myfullstackproject.springbootproject1;
+
+import com.myfullstackproject.springbootproject1.model.Product;
+import com.myfullstackproject.springbootproject1.service.ProductBatchWriter;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Outils communs aux tests de charge : catalogue de départ et clients HTTP concurrents.
+ */
+final class LoadHarness {
+
+    private LoadHarness() {
+    }
+
+    static void seed(ConfigurableApplicationContext context, int count) {
+        ProductBatchWriter writer = context.getBean(ProductBatchWriter.class);
+        for (int from = 0; from < count; from += 1000) {
+            List<Product> batch = new ArrayList<>();
+            for (int i = from; i < Math.min(from + 1000, count); i++) {
+                batch.add(Product.builder().asin(String.format("LOAD%06d", i)).title("Load " + i)
+                        .price(1.0 + i % 500).rank(i).build());
+            }
+            writer.upsert(batch);
+        }
+    }
+
+    /**
+     * {@code requests} requêtes GET réparties sur {@code clients} clients, en tournant sur les URI.
+     */
+    static Stats fire(List<URI> uris, int clients, int requests) throws InterruptedException {
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        AtomicInteger remaining = new AtomicInteger(requests);
+        AtomicInteger errors = new AtomicInteger();
+        ConcurrentLinkedQueue<long[]> latencies = new ConcurrentLinkedQueue<>();
+
+        long start = System.nanoTime();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int client = c;
+                pool.execute(() -> {
+                    long[] mine = new long[requests / clients + 1];
+                    int n = 0;
+                    int next;
+                    while ((next = remaining.decrementAndGet()) >= 0) {
+                        HttpRequest request = HttpRequest.newBuilder(uris.get((client + next) % uris.size()))
+                                .timeout(Duration.ofSeconds(30)).build();
+                        long t0 = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (n == mine.length) {
+                            mine = Arrays.copyOf(mine, n * 2);
+                        }
+                        mine[n++] = System.nanoTime() - t0;
+                    }
+                    latencies.add(Arrays.copyOf(mine, n));
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Stats(all.length, errors.get(), all.length / seconds,
+                percentile(all, 0.50), percentile(all, 0.99));
+    }
+
+    static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+
+    record Stats(int requests, int errors, double perSecond, double p50, double p99) {
+    }
+}
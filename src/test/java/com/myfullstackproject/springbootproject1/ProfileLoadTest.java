@@ -0,0 +1,205 @@
+package com.myfullstackproject.springbootproject1;
+
+import com.myfullstackproject.springbootproject1.model.Role;
+import com.myfullstackproject.springbootproject1.model.Utilisateur;
+import com.myfullstackproject.springbootproject1.repository.UtilisateurRepository;
+import com.myfullstackproject.springbootproject1.service.CartService;
+import com.myfullstackproject.springbootproject1.service.CheckoutService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Même charge contre la configuration par défaut puis contre le profil prod : démarrage (ddl-auto=update
+ * contre migrations Flyway), import par lots JDBC, lectures HTTP et commandes concurrentes.
+ * <p>
+ * Exclu du build normal ; lancer avec {@code mvn test -Pload-test -Dtest=ProfileLoadTest}.
+ * Sans {@code -Dload.datasource.url}, chaque profil tourne sur une base H2 en mémoire (mode MySQL) ;
+ * avec une URL MySQL (et {@code load.datasource.username} / {@code load.datasource.password}), toutes les tables
+ * de la base sont supprimées avant chaque profil : utiliser une base jetable.
+ */
+@Tag("load")
+class ProfileLoadTest {
+
+    private static final int PRODUCTS = Integer.getInteger("load.products", 20_000);
+    private static final int CATEGORIES = 20;
+    private static final int CLIENTS = Integer.getInteger("load.clients", 200);
+    private static final int REQUESTS = Integer.getInteger("load.requests", 10_000);
+    private static final int BUYERS = Integer.getInteger("load.buyers", 100);
+    private static final int ROUNDS = 5;
+    private static final int LINES_PER_ORDER = 5;
+
+    private static final String URL = System.getProperty("load.datasource.url");
+    private static final String USERNAME = System.getProperty("load.datasource.username", "sa");
+    private static final String PASSWORD = System.getProperty("load.datasource.password", "");
+
+    // Le premier profil paie le démarrage à froid de la JVM : pour des chiffres nets, un profil par exécution
+    private static final List<String> PROFILES = List.of(System.getProperty("load.profiles", "default,prod").split(","));
+
+    @Test
+    void compareDefaultAndProdProfiles() throws Exception {
+        List<Result> results = new ArrayList<>();
+        for (String profile : PROFILES) {
+            results.add(run(profile.trim()));
+        }
+
+        System.out.println("profile | startup ms | import rows/s | re-import rows/s | req/s   | p50 ms | p99 ms | orders/s | errors");
+        results.forEach(System.out::println);
+
+        for (Result result : results) {
+            assertEquals(0, result.errors(), result.profile());
+        }
+    }
+
+    private Result run(String profile) throws Exception {
+        String url = URL != null ? URL : "jdbc:h2:mem:load_" + profile + ";MODE=MySQL";
+        if (URL != null) {
+            dropAllTables(url);
+        }
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=" + USERNAME,
+                "--spring.datasource.password=" + PASSWORD,
+                // Pilote déduit de l'URL (la configuration de test impose H2)
+                "--spring.datasource.driver-class-name=",
+                "--spring.jpa.show-sql=false",
+                "--catalog.import.enabled=false"));
+        if (profile.equals("default")) {
+            // Comme application.properties (la configuration de test utilise create-drop)
+            args.add("--spring.jpa.hibernate.ddl-auto=update");
+        }
+
+        long start = System.nanoTime();
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(SpringbootProject1Application.class);
+        if (!profile.equals("default")) {
+            builder.profiles(profile);
+        }
+        ConfigurableApplicationContext context = builder.run(args.toArray(String[]::new));
+        long startupMillis = (System.nanoTime() - start) / 1_000_000;
+        try {
+            // 1) Import : INSERT par lots, puis le même catalogue en UPDATE par lots
+            long t0 = System.nanoTime();
+            LoadHarness.seed(context, PRODUCTS);
+            double importRate = PRODUCTS / ((System.nanoTime() - t0) / 1e9);
+            t0 = System.nanoTime();
+            LoadHarness.seed(context, PRODUCTS);
+            double reimportRate = PRODUCTS / ((System.nanoTime() - t0) / 1e9);
+            long firstCategorie = assignCategories(context.getBean(JdbcTemplate.class));
+
+            // 2) Lectures HTTP : pages par clé (global et par catégorie), classement
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String base = "http://localhost:" + port;
+            List<URI> uris = List.of(
+                    URI.create(base + "/api/produits?size=50"),
+                    URI.create(base + "/api/produits?sort=price&size=50"),
+                    URI.create(base + "/api/categories/" + firstCategorie + "/produits?sort=price&size=50"),
+                    URI.create(base + "/api/categories/" + (firstCategorie + 1) + "/produits?sort=rating&size=50"));
+            LoadHarness.fire(uris, CLIENTS, REQUESTS / 10); // chauffe
+            LoadHarness.Stats reads = LoadHarness.fire(uris, CLIENTS, REQUESTS);
+
+            // 3) Écritures : paniers remplis puis commandes concurrentes (lots de réservation et de lignes)
+            OrderStats orders = placeOrders(context);
+
+            return new Result(profile, startupMillis, importRate, reimportRate, reads.perSecond(), reads.p50(),
+                    reads.p99(), orders.perSecond(), reads.errors() + orders.errors());
+        } finally {
+            context.close();
+        }
+    }
+
+    private static long assignCategories(JdbcTemplate jdbc) {
+        for (int i = 0; i < CATEGORIES; i++) {
+            jdbc.update("INSERT INTO categorie (nom) VALUES (?)", "Load " + i);
+        }
+        long first = jdbc.queryForObject("SELECT MIN(id) FROM categorie", Long.class);
+        jdbc.update("UPDATE produits SET categorie_id = ? + MOD(id, ?)", first, CATEGORIES);
+        return first;
+    }
+
+    private static OrderStats placeOrders(ConfigurableApplicationContext context) throws InterruptedException {
+        UtilisateurRepository users = context.getBean(UtilisateurRepository.class);
+        CartService cartService = context.getBean(CartService.class);
+        CheckoutService checkoutService = context.getBean(CheckoutService.class);
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        long firstProduct = jdbc.queryForObject("SELECT MIN(id) FROM produits", Long.class);
+
+        List<Long> buyers = new ArrayList<>(BUYERS);
+        for (int i = 0; i < BUYERS; i++) {
+            buyers.add(users.save(Utilisateur.builder().nom("load" + i).email("load" + i + "@example.com")
+                    .motDePasse("secret").role(Role.ACHETEUR).build()).getId());
+        }
+
+        AtomicInteger errors = new AtomicInteger();
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            int r = round;
+            try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int b = 0; b < buyers.size(); b++) {
+                    Long buyer = buyers.get(b);
+                    int offset = (b * LINES_PER_ORDER + r) % (PRODUCTS - LINES_PER_ORDER);
+                    pool.execute(() -> {
+                        try {
+                            for (int line = 0; line < LINES_PER_ORDER; line++) {
+                                cartService.addToCart(buyer, firstProduct + offset + line, 1 + line);
+                            }
+                            checkoutService.checkout(buyer);
+                        } catch (RuntimeException e) {
+                            errors.incrementAndGet();
+                        }
+                    });
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return new OrderStats(ROUNDS * buyers.size() / seconds, errors.get());
+    }
+
+    // Base MySQL jetable : chaque profil part d'un schéma vide (Flyway refuse un schéma inconnu sans baseline)
+    private static void dropAllTables(String url) throws Exception {
+        try (Connection connection = DriverManager.getConnection(url, USERNAME, PASSWORD);
+             Statement statement = connection.createStatement()) {
+            List<String> tables = new ArrayList<>();
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT table_name FROM information_schema.tables WHERE table_schema = DATABASE()")) {
+                while (rs.next()) {
+                    tables.add(rs.getString(1));
+                }
+            }
+            statement.execute("SET FOREIGN_KEY_CHECKS = 0");
+            for (String table : tables) {
+                statement.execute("DROP TABLE `" + table + "`");
+            }
+            statement.execute("SET FOREIGN_KEY_CHECKS = 1");
+        }
+    }
+
+    private record OrderStats(double perSecond, int errors) {
+    }
+
+    private record Result(String profile, long startupMillis, double importRate, double reimportRate,
+                          double perSecond, double p50, double p99, double ordersPerSecond, int errors) {
+
+        @Override
+        public String toString() {
+            return String.format("%-7s | %10d | %13.0f | %16.0f | %7.0f | %6.1f | %6.1f | %8.0f | %d",
+                    profile, startupMillis, importRate, reimportRate, perSecond, p50, p99, ordersPerSecond, errors);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.myfullstackproject.springbootproject1;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Temps jusqu'à la première réponse 200 de {@code GET /api/produits} et jusqu'à l'état prêt (ReadinessState
+ * ACCEPTING_TRAFFIC), mesurés depuis le lancement d'une JVM séparée, pour chaque configuration de démarrage :
+ * <ul>
+ *     <li>{@code default} : ddl-auto=update, dépôts JPA initialisés d'emblée, import CSV avant l'état prêt ;</li>
+ *     <li>{@code prod} : migrations Flyway, dépôts différés, import en tâche de fond ;</li>
+ *     <li>{@code prod+aot} : idem avec le contexte précalculé ;</li>
+ *     <li>{@code prod+aot+cds} : idem avec l'archive CDS.</li>
+ * </ul>
+ * Lance le jar extrait par {@code mvn -Pfast-start package -DskipTests} (à faire avant), H2 ajouté au classpath,
+ * avec un catalogue CSV généré de {@code load.startup.products} lignes. Exclu du build normal :
+ * {@code mvn test -Pload-test -Dtest=StartupTimeTest}.
+ */
+@Tag("load")
+class StartupTimeTest {
+
+    private static final int PRODUCTS = Integer.getInteger("load.startup.products", 20_000);
+    private static final int RUNS = Integer.getInteger("load.startup.runs", 3);
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    private static final Path FAST_START = Path.of("target", "fast-start");
+    private static final String MAIN_CLASS = SpringbootProject1Application.class.getName();
+
+    @Test
+    void compareStartupConfigurations() throws Exception {
+        Path jar;
+        try (var files = Files.list(FAST_START)) {
+            jar = files.filter(p -> p.toString().endsWith(".jar")).findFirst().orElse(null);
+        } catch (IOException e) {
+            jar = null;
+        }
+        assumeTrue(jar != null, "Lancer d'abord mvn -Pfast-start package -DskipTests");
+        Path archive = FAST_START.resolve("application.jsa");
+        Path catalog = writeCatalog();
+
+        List<Result> results = new ArrayList<>();
+        results.add(measure("default", jar, catalog, List.of(), List.of(
+                "--spring.data.jpa.repositories.bootstrap-mode=default",
+                "--catalog.import.background=false")));
+        results.add(measure("prod", jar, catalog, List.of(), prodArgs()));
+        results.add(measure("prod+aot", jar, catalog, List.of("-Dspring.aot.enabled=true"), prodArgs()));
+        if (Files.exists(archive)) {
+            results.add(measure("prod+aot+cds", jar, catalog,
+                    List.of("-Dspring.aot.enabled=true", "-XX:SharedArchiveFile=" + archive, "-Xlog:cds=off"), prodArgs()));
+        }
+
+        System.out.println("config        | first 200 ms (median) | ready ms (median) | runs");
+        results.forEach(System.out::println);
+        for (Result result : results) {
+            assertTrue(result.firstResponseMillis() > 0, result.config());
+        }
+    }
+
+    // Profil prod dans les trois cas : le contexte précalculé (AOT) avec ce profil garde Flyway
+    private static List<String> prodArgs() {
+        return List.of("--spring.profiles.active=prod");
+    }
+
+    private static Result measure(String config, Path jar, Path catalog, List<String> jvmArgs, List<String> appArgs)
+            throws Exception {
+        long[] firstResponse = new long[RUNS];
+        long[] ready = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            long[] times = start(jar, catalog, jvmArgs, appArgs);
+            firstResponse[run] = times[0];
+            ready[run] = times[1];
+        }
+        return new Result(config, median(firstResponse), median(ready), RUNS);
+    }
+
+    // {première réponse 200, état prêt} en ms depuis le lancement du processus
+    private static long[] start(Path jar, Path catalog, List<String> jvmArgs, List<String> appArgs) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        String h2 = Path.of(org.h2.Driver.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        // Le jar d'abord, H2 ensuite : classpath compatible avec celui de l'exécution d'entraînement CDS
+        command.addAll(List.of("-cp", jar + File.pathSeparator + h2, MAIN_CLASS,
+                "--server.port=" + port,
+                // Noms en minuscules comme MySQL : les migrations Flyway passent telles quelles
+                "--spring.datasource.url=jdbc:h2:mem:startup;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--catalog.import.location=file:" + catalog.toAbsolutePath(),
+                "--logging.level.org.springframework.boot.availability=DEBUG"));
+        command.addAll(appArgs);
+
+        AtomicLong readyAt = new AtomicLong();
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        Thread reader = Thread.ofVirtual().start(() -> {
+            try (BufferedReader lines = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    if (line.contains("ReadinessState changed to ACCEPTING_TRAFFIC")) {
+                        readyAt.compareAndSet(0, System.nanoTime());
+                    }
+                }
+            } catch (IOException ignored) {
+                // processus arrêté
+            }
+        });
+
+        try {
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/produits?size=50"))
+                    .timeout(Duration.ofSeconds(10)).build();
+            long deadline = start + TIMEOUT.toNanos();
+            long firstResponse = 0;
+            while (firstResponse == 0) {
+                assertTrue(process.isAlive(), "Le démarrage a échoué : " + String.join(" ", command));
+                assertTrue(System.nanoTime() < deadline, "Pas de réponse après " + TIMEOUT);
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        firstResponse = System.nanoTime();
+                    }
+                } catch (IOException e) {
+                    Thread.sleep(10); // serveur pas encore à l'écoute
+                }
+            }
+            while (readyAt.get() == 0 && System.nanoTime() < deadline && process.isAlive()) {
+                Thread.sleep(10);
+            }
+            return new long[]{(firstResponse - start) / 1_000_000,
+                    readyAt.get() == 0 ? -1 : (readyAt.get() - start) / 1_000_000};
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+            reader.join();
+        }
+    }
+
+    private static Path writeCatalog() throws Exception {
+        Path file = Path.of("target", "startup-catalog.csv");
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            writer.println("ASIN,Category,Product Link,No of Sellers,Rank,Rating,Reviews Count,Price,Books,"
+                    + "Camera & Photo,\"Clothing, Shoes & Jewelry\",Electronics,Gift Cards,Toys & Games,Video Games,Product Title");
+            for (int i = 0; i < PRODUCTS; i++) {
+                writer.printf("S%09d,Electronics,https://example.com/%d,%d,%d,4.%d,%d,%d.99,0,0,0,1,0,0,0,Product %d%n",
+                        i, i, i % 20, i + 1, i % 10, i % 5000, i % 300, i);
+            }
+        }
+        return file;
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private record Result(String config, long firstResponseMillis, long readyMillis, int runs) {
+
+        @Override
+        public String toString() {
+            return String.format("%-13s | %21d | %17d | %d", config, firstResponseMillis, readyMillis, runs);
+        }
+    }
+}
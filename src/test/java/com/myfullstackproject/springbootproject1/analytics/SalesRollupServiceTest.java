@@ -0,0 +1,211 @@
+package com.myfullstackproject.springbootproject1.analytics;
+
+import com.myfullstackproject.springbootproject1.dto.BasketStats;
+import com.myfullstackproject.springbootproject1.dto.CategoryRevenue;
+import com.myfullstackproject.springbootproject1.dto.DailyRevenue;
+import com.myfullstackproject.springbootproject1.dto.TopProduct;
+import com.myfullstackproject.springbootproject1.model.Categorie;
+import com.myfullstackproject.springbootproject1.model.Product;
+import com.myfullstackproject.springbootproject1.model.Role;
+import com.myfullstackproject.springbootproject1.model.Utilisateur;
+import com.myfullstackproject.springbootproject1.repository.CartItemRepository;
+import com.myfullstackproject.springbootproject1.repository.CategorieRepository;
+import com.myfullstackproject.springbootproject1.repository.OrderItemRepository;
+import com.myfullstackproject.springbootproject1.repository.OrderRepository;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import com.myfullstackproject.springbootproject1.repository.UtilisateurRepository;
+import com.myfullstackproject.springbootproject1.service.CartService;
+import com.myfullstackproject.springbootproject1.service.CheckoutService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class SalesRollupServiceTest {
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategorieRepository categorieRepository;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDate today = LocalDate.now();
+    private Utilisateur user;
+    private Categorie categorie;
+    private Product cheap;
+    private Product expensive;
+
+    @BeforeEach
+    void setUp() {
+        user = utilisateurRepository.save(Utilisateur.builder()
+                .nom("analyste")
+                .email("analyste" + System.nanoTime() + "@example.com")
+                .motDePasse("secret")
+                .role(Role.ACHETEUR)
+                .build());
+        categorie = categorieRepository.save(Categorie.builder().nom("Stats " + System.nanoTime()).build());
+        cheap = productRepository.save(Product.builder().asin("STAT" + System.nanoTime()).title("Petit")
+                .price(2.0).categorie(categorie).build());
+        expensive = productRepository.save(Product.builder().asin("STAT" + System.nanoTime()).title("Grand")
+                .price(10.0).categorie(categorie).build());
+        // État de départ connu : tout ce qui est déjà validé est dans les agrégats
+        salesRollupService.refresh();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Les autres tests vident produits : ne pas laisser de lignes qui les référencent
+        orderItemRepository.deleteAll();
+        orderRepository.deleteAll();
+        cartItemRepository.deleteAll();
+    }
+
+    @Test
+    void testOrdersReachRollupsOnlyAfterRefresh() {
+        DailyRevenue before = day();
+        BasketStats basketBefore = salesAnalyticsService.basket(today, today);
+
+        placeOrders();
+        // Rien n'est écrit dans les agrégats pendant la commande
+        assertEquals(before, day());
+        assertTrue(salesRollupService.metrics().pendingOrders() >= 2);
+
+        salesRollupService.refresh();
+
+        DailyRevenue after = day();
+        assertEquals(2, after.orders() - before.orders());
+        assertEquals(6, after.items() - before.items());
+        assertEquals(28.0, after.revenue() - before.revenue(), 1e-9);
+
+        BasketStats basket = salesAnalyticsService.basket(today, today);
+        assertEquals(basketBefore.orders() + 2, basket.orders());
+        assertEquals(basket.revenue() / basket.orders(), basket.averageAmount(), 1e-9);
+
+        assertProductAndCategoryTotals();
+    }
+
+    @Test
+    void testRebuildRecomputesFromOrders() {
+        placeOrders();
+        salesRollupService.refresh();
+
+        // Agrégats faussés : la reconstruction repart de commandes / lignes_commande
+        jdbcTemplate.update("UPDATE stats_ventes_produit_jour SET quantite = 999 WHERE produit_id = ?", cheap.getId());
+        jdbcTemplate.update("DELETE FROM stats_ventes_categorie_jour WHERE categorie_id = ?", categorie.getId());
+        placeOrders();
+
+        SalesRollupService.RebuildReport report = salesRollupService.rebuild();
+        assertEquals(orderRepository.count(), report.orders());
+        // Les commandes en attente sont déjà couvertes : pas de double comptage
+        assertEquals(0, salesRollupService.refresh());
+
+        DailyRevenue rebuilt = day();
+        assertEquals(orderRepository.count(), rebuilt.orders());
+
+        TopProduct top = top(cheap.getId());
+        assertEquals(8, top.quantity());
+        assertEquals(16.0, top.revenue(), 1e-9);
+        assertEquals("Petit", top.product().title());
+        CategoryRevenue category = category();
+        assertEquals(12, category.quantity());
+        assertEquals(56.0, category.revenue(), 1e-9);
+    }
+
+    @Test
+    void testCatchUpAppliesOrdersWhoseEventWasLost() {
+        placeOrders();
+        salesRollupService.refresh();
+        TopProduct before = top(cheap.getId());
+
+        // Commande validée dont l'événement n'a jamais été traité (arrêt brutal avant le rafraîchissement)
+        jdbcTemplate.update("INSERT INTO commandes (utilisateur_id, date_creation, montant_total, agregee) "
+                + "VALUES (?, ?, 4.0, FALSE)", user.getId(), today.atTime(12, 0));
+        Long orderId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM commandes", Long.class);
+        jdbcTemplate.update("INSERT INTO lignes_commande (commande_id, produit_id, quantite, prix_unitaire) "
+                + "VALUES (?, ?, 2, 2.0)", orderId, cheap.getId());
+
+        assertEquals(1, salesRollupService.catchUp());
+        assertEquals(before.quantity() + 2, top(cheap.getId()).quantity());
+        // Déjà marquée : ni un second rattrapage ni la reconstruction ne la comptent deux fois
+        assertEquals(0, salesRollupService.catchUp());
+        salesRollupService.rebuild();
+        assertEquals(before.quantity() + 2, top(cheap.getId()).quantity());
+        assertEquals(orderRepository.count(), day().orders());
+    }
+
+    // Deux commandes : 3 petits + 1 grand (16), puis 1 petit + 1 grand (12)
+    private void placeOrders() {
+        cartService.addToCart(user.getId(), cheap.getId(), 3);
+        cartService.addToCart(user.getId(), expensive.getId(), 1);
+        checkoutService.checkout(user.getId());
+        cartService.addToCart(user.getId(), cheap.getId(), 1);
+        cartService.addToCart(user.getId(), expensive.getId(), 1);
+        checkoutService.checkout(user.getId());
+    }
+
+    private void assertProductAndCategoryTotals() {
+        TopProduct cheapTotals = top(cheap.getId());
+        assertEquals(4, cheapTotals.quantity());
+        assertEquals(8.0, cheapTotals.revenue(), 1e-9);
+        TopProduct expensiveTotals = top(expensive.getId());
+        assertEquals(2, expensiveTotals.quantity());
+        assertEquals(20.0, expensiveTotals.revenue(), 1e-9);
+
+        CategoryRevenue category = category();
+        assertEquals(categorie.getNom(), category.categorieNom());
+        assertEquals(6, category.quantity());
+        assertEquals(28.0, category.revenue(), 1e-9);
+    }
+
+    private DailyRevenue day() {
+        List<DailyRevenue> days = salesAnalyticsService.dailyRevenue(today, today);
+        return days.isEmpty() ? new DailyRevenue(today, 0, 0, 0) : days.get(0);
+    }
+
+    private TopProduct top(Long productId) {
+        return salesAnalyticsService.topProducts(today, today, 100).stream()
+                .filter(t -> t.productId().equals(productId))
+                .findFirst().orElseThrow();
+    }
+
+    private CategoryRevenue category() {
+        return salesAnalyticsService.revenueByCategory(today, today).stream()
+                .filter(c -> categorie.getId().equals(c.categorieId()))
+                .findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,170 @@
+package com.myfullstackproject.springbootproject1.config;
+
+import com.myfullstackproject.springbootproject1.model.CartItem;
+import com.myfullstackproject.springbootproject1.model.OrderItem;
+import com.myfullstackproject.springbootproject1.model.Product;
+import com.myfullstackproject.springbootproject1.model.Role;
+import com.myfullstackproject.springbootproject1.model.Utilisateur;
+import com.myfullstackproject.springbootproject1.repository.CartItemRepository;
+import com.myfullstackproject.springbootproject1.repository.CategorieRepository;
+import com.myfullstackproject.springbootproject1.repository.OrderItemRepository;
+import com.myfullstackproject.springbootproject1.repository.OrderRepository;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import com.myfullstackproject.springbootproject1.repository.UtilisateurRepository;
+import com.myfullstackproject.springbootproject1.service.CartService;
+import com.myfullstackproject.springbootproject1.service.CategorieResolver;
+import com.myfullstackproject.springbootproject1.service.CheckoutService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class SecondLevelCacheConfigurationTest {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private CategorieResolver categorieResolver;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategorieRepository categorieRepository;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private TransactionTemplate transactionTemplate;
+    private Utilisateur user;
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        user = utilisateurRepository.save(Utilisateur.builder()
+                .nom("cache")
+                .email("cache" + System.nanoTime() + "@example.com")
+                .motDePasse("secret")
+                .role(Role.ACHETEUR)
+                .build());
+        for (int i = 0; i < 3; i++) {
+            Product product = productRepository.save(Product.builder().asin("L2C" + System.nanoTime())
+                    .title("Caché " + i).price(5.0).stock(10).build());
+            products.add(product);
+            cartService.addToCart(user.getId(), product.getId(), 1);
+        }
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Les autres tests vident produits : ne pas laisser de lignes qui les référencent
+        orderItemRepository.deleteAll();
+        orderRepository.deleteAll();
+        cartItemRepository.deleteAll();
+    }
+
+    @Test
+    void testCartLinesResolveProductsAndOwnerFromCache() {
+        long cold = statementsFor(this::touchCart);
+        long warm = statementsFor(this::touchCart);
+
+        // À froid : lignes + 3 produits + utilisateur ; à chaud : les lignes seulement
+        assertEquals(5, cold);
+        assertEquals(1, warm);
+        assertTrue(statistics.getSecondLevelCacheHitCount() >= 4);
+
+        // L'ajout au panier (requête native) n'invalide pas les entités en cache
+        cartService.addToCart(user.getId(), products.get(0).getId(), 1);
+        assertEquals(1, statementsFor(this::touchCart));
+    }
+
+    @Test
+    void testOrderItemsResolveProductsFromCacheAndSeeReservedStock() {
+        Long orderId = checkoutService.checkout(user.getId()).id();
+
+        long cold = statementsFor(() -> touchOrder(orderId));
+        long warm = statementsFor(() -> touchOrder(orderId));
+        assertTrue(cold >= 4, "cold load should read each product: " + cold);
+        assertTrue(warm < cold, "warm load should hit the cache: " + warm + " vs " + cold);
+
+        // Stock réservé en JDBC : l'entrée en cache a été évincée à la commande
+        assertEquals(9, productRepository.findById(products.get(0).getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void testCategoryListingUsesQueryCacheAndSeesJdbcInserts() {
+        int before = categorieRepository.findAll().size();
+        statistics.clear();
+        categorieRepository.findAll();
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        categorieResolver.resolveId("Catégorie L2 " + System.nanoTime());
+        assertEquals(before + 1, categorieRepository.findAll().size());
+    }
+
+    private void touchCart() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (CartItem item : cartItemRepository.findByUtilisateur_Id(user.getId())) {
+                assertNotNull(item.getProduct().getTitle());
+                assertNotNull(item.getUtilisateur().getNom());
+            }
+        });
+    }
+
+    private void touchOrder(Long orderId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<OrderItem> items = entityManager
+                    .createQuery("select oi from OrderItem oi where oi.order.id = :orderId", OrderItem.class)
+                    .setParameter("orderId", orderId)
+                    .getResultList();
+            assertEquals(3, items.size());
+            items.forEach(item -> assertNotNull(item.getProduct().getTitle()));
+        });
+    }
+
+    private long statementsFor(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,204 @@
+package com.myfullstackproject.springbootproject1.controller;
+
+import com.myfullstackproject.springbootproject1.model.Product;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import com.myfullstackproject.springbootproject1.service.ProductBatchWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductBatchWriter productBatchWriter;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            products.add(Product.builder()
+                    .asin("PAGE" + i)
+                    .title("Produit " + i)
+                    // quelques produits sans prix ni rang : ils doivent sortir en fin de liste
+                    .price(i % 5 == 0 ? null : (double) (i % 4))
+                    .rank(i % 5 == 0 ? null : 100 - i)
+                    .rating(4.0)
+                    .description("long text")
+                    .build());
+        }
+        productRepository.saveAll(products);
+    }
+
+    @Test
+    void testKeysetPaginationVisitsEveryProductOnce() throws Exception {
+        for (String sort : List.of("rank", "price", "rating")) {
+            Set<Long> seen = new HashSet<>();
+            List<Double> prices = new ArrayList<>();
+            String cursor = null;
+            int pages = 0;
+            do {
+                String url = "/api/produits?size=5&sort=" + sort + (cursor != null ? "&cursor=" + cursor : "");
+                JsonNode page = objectMapper.readTree(mockMvc.perform(get(url))
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString());
+                for (JsonNode item : page.get("items")) {
+                    assertTrue(seen.add(item.get("id").asLong()), "Product returned twice for sort " + sort);
+                    assertFalse(item.has("description"), "Listing must not carry the description");
+                    prices.add(item.get("price").isNull() ? null : item.get("price").asDouble());
+                }
+                cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asString();
+                pages++;
+            } while (cursor != null && pages < 20);
+
+            assertEquals(23, seen.size(), "Every product should be listed for sort " + sort);
+            if (sort.equals("price")) {
+                for (int i = 1; i < 18; i++) {
+                    assertTrue(prices.get(i - 1) <= prices.get(i), "Prices should be ascending");
+                }
+                assertNull(prices.get(prices.size() - 1), "Null prices come last");
+            }
+        }
+    }
+
+    @Test
+    void testInvalidSortIsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/produits?sort=unknown")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testInvalidDirectionIsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/produits?sort=price&direction=up")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/produits?sort=price&direction=DESC")).andExpect(status().isOk());
+    }
+
+    @Test
+    void testCursorFromAnotherSortIsBadRequest() throws Exception {
+        JsonNode page = objectMapper.readTree(mockMvc.perform(get("/api/produits?size=5&sort=price"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        String cursor = page.get("nextCursor").asString();
+
+        mockMvc.perform(get("/api/produits?size=5&sort=price&cursor=" + cursor)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/produits?size=5&sort=rank&cursor=" + cursor)).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/produits?size=5&sort=price&direction=desc&cursor=" + cursor))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testExportStreamsOneJsonLinePerProduct() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/produits/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.strip().split("\n");
+        assertEquals(23, lines.length);
+        assertTrue(objectMapper.readTree(lines[0]).has("asin"));
+    }
+
+    @Test
+    void testFieldsSelectorKeepsOnlyRequestedFields() throws Exception {
+        JsonNode page = objectMapper.readTree(mockMvc.perform(get("/api/produits?size=5&fields=title,price"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+
+        assertNotNull(page.get("nextCursor").asString());
+        for (JsonNode item : page.get("items")) {
+            Set<String> names = new HashSet<>(item.propertyNames());
+            assertEquals(Set.of("id", "title", "price"), names);
+        }
+        // Sans fields : la réponse suivante n'est pas filtrée
+        JsonNode full = objectMapper.readTree(mockMvc.perform(get("/api/produits?size=1"))
+                .andReturn().getResponse().getContentAsString());
+        assertTrue(full.get("items").get(0).has("rank"));
+
+        mockMvc.perform(get("/api/produits?fields=title,motDePasse")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testBatchLookupReturnsFoundProductsAndMissingKeys() throws Exception {
+        List<Product> products = productRepository.findAll();
+        String body = "{\"ids\": [" + products.get(1).getId() + ", " + products.get(0).getId() + ", -5],"
+                + " \"asins\": [\"" + products.get(2).getAsin() + "\", \"INCONNU\"]}";
+
+        JsonNode batch = objectMapper.readTree(mockMvc.perform(post("/api/produits/batch")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+
+        List<Long> ids = new ArrayList<>();
+        batch.get("products").forEach(item -> ids.add(item.get("id").asLong()));
+        assertEquals(List.of(products.get(1).getId(), products.get(0).getId(), products.get(2).getId()), ids);
+        assertEquals(-5, batch.get("missingIds").get(0).asLong());
+        assertEquals("INCONNU", batch.get("missingAsins").get(0).asString());
+
+        StringBuilder tooMany = new StringBuilder("{\"ids\": [1");
+        for (int i = 2; i <= 501; i++) {
+            tooMany.append(", ").append(i);
+        }
+        mockMvc.perform(post("/api/produits/batch").contentType(MediaType.APPLICATION_JSON).content(tooMany + "]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testProductDetailsSupportConditionalRequests() throws Exception {
+        Product product = productRepository.findAll().get(0);
+        String url = "/api/produits/" + product.getId();
+
+        MvcResult first = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+        assertNotNull(etag);
+        assertFalse(objectMapper.readTree(first.getResponse().getContentAsString()).has("lastModified"));
+
+        mockMvc.perform(get(url).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get(url).header("If-Modified-Since", first.getResponse().getHeader("Last-Modified")))
+                .andExpect(status().isNotModified());
+
+        // Fiche modifiée par un import : nouvelle version servie
+        product.setTitle("Nouveau titre");
+        productBatchWriter.upsert(List.of(product));
+        MvcResult changed = mockMvc.perform(get(url).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertNotEquals(etag, changed.getResponse().getHeader("ETag"));
+        assertEquals("Nouveau titre", objectMapper.readTree(changed.getResponse().getContentAsString()).get("title").asString());
+    }
+}
@@ -0,0 +1,219 @@
+package com.myfullstackproject.springbootproject1.datasource;
+
+import com.myfullstackproject.springbootproject1.dto.ProductSummary;
+import com.myfullstackproject.springbootproject1.event.ProductsChangedEvent;
+import com.myfullstackproject.springbootproject1.feed.ProductChangeFeed;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import com.myfullstackproject.springbootproject1.repository.ProductSort;
+import com.myfullstackproject.springbootproject1.service.ProductCatalogCache;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Deux bases H2 en mémoire tiennent lieu de primaire et de réplique. La « réplication » est une copie
+ * de la base primaire (SCRIPT) : tout ce qui est écrit ensuite sur le primaire manque à la réplique.
+ * Les écritures de préparation passent directement par le pool primaire, sans épingler le thread du test.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rwprimary;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "datasource.replica.enabled=true",
+        "datasource.replica.url=jdbc:h2:mem:rwreplica;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "datasource.replica.username=sa",
+        "datasource.replica.password=",
+        // Vérifications du retard déclenchées par le test
+        "datasource.replica.lag-check-interval=1h",
+        "datasource.replica.max-lag=5s",
+        "datasource.replica.sticky-window=5s",
+        "catalog.stream.coalesce-window=1h",
+        "catalog.import.enabled=false"})
+@AutoConfigureMockMvc
+class ReadReplicaRoutingTest {
+
+    private static final List<String> ASINS = List.of("RW-REPLICATED", "RW-PRIMARY-ONLY");
+
+    @Autowired
+    private ReadReplicaRouting routing;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    @Autowired
+    private ProductChangeFeed productChangeFeed;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.end();
+    }
+
+    @Test
+    void testReadOnlyTransactionsUseReplicaUntilItLags() {
+        JdbcTemplate primary = new JdbcTemplate(routing.primary());
+        primary.update("DELETE FROM produits WHERE code_asin IN (?, ?)", ASINS.get(0), ASINS.get(1));
+
+        // 1) Réplique vide (pas d'horloge) : lectures sur le primaire
+        new JdbcTemplate(routing.replica()).execute("DROP ALL OBJECTS");
+        routing.checkReplica();
+        assertFalse(routing.metrics().replicaInUse());
+        long lagging = routing.metrics().primaryReadsLagging();
+        assertTrue(productRepository.findSummariesByAsinIn(ASINS).isEmpty());
+        assertTrue(routing.metrics().primaryReadsLagging() > lagging);
+
+        // 2) Copie à jour : les transactions readOnly des dépôts lisent la réplique
+        insertProduct(primary, ASINS.get(0));
+        replicate();
+        routing.checkReplica();
+        assertTrue(routing.metrics().replicaInUse());
+        insertProduct(primary, ASINS.get(1));
+
+        long replicaReads = routing.metrics().replicaReads();
+        assertEquals(List.of(ASINS.get(0)), asins(productRepository.findSummariesByAsinIn(ASINS)));
+        assertFalse(asins(productRepository.findSummariesAfter(ProductSort.PRICE, false, null, 1000))
+                .contains(ASINS.get(1)));
+        assertTrue(routing.metrics().replicaReads() >= replicaReads + 2);
+
+        // 3) Réplique en retard au-delà de max-lag : retour au primaire
+        new JdbcTemplate(routing.replica()).update("UPDATE horloge_replication SET horodatage_ms = ?",
+                System.currentTimeMillis() - 60_000);
+        routing.checkReplica();
+        ReadReplicaRouting.Metrics metrics = routing.metrics();
+        assertFalse(metrics.replicaInUse());
+        assertTrue(metrics.replicaLagMillis() >= 60_000, metrics::toString);
+        assertEquals(2, productRepository.findSummariesByAsinIn(ASINS).size());
+
+        // 4) Après une transaction en écriture, le thread lit le primaire pendant la fenêtre
+        replicate();
+        routing.checkReplica();
+        insertProduct(primary, "RW-AFTER-WRITE");
+        assertTrue(productRepository.findIdByAsin("RW-AFTER-WRITE").isEmpty());
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.update("UPDATE produits SET stock = 1 WHERE code_asin = ?", ASINS.get(0)));
+        long sticky = routing.metrics().primaryReadsSticky();
+        assertTrue(productRepository.findIdByAsin("RW-AFTER-WRITE").isPresent());
+        assertEquals(sticky + 1, routing.metrics().primaryReadsSticky());
+    }
+
+    @Test
+    void testClientReadsItsOwnCartAfterWriting() throws Exception {
+        JdbcTemplate primary = new JdbcTemplate(routing.primary());
+        // Utilisateur de démonstration des contrôleurs (id 1)
+        primary.update("MERGE INTO utilisateur (id, nom, email, mot_de_passe, role) KEY (id) "
+                + "VALUES (1, 'demo', 'demo@example.com', 'secret', 'ACHETEUR')");
+        primary.update("DELETE FROM articles_panier WHERE utilisateur_id = 1");
+        long productId = insertProduct(primary, "RW-CART-" + System.nanoTime());
+        replicate();
+        routing.checkReplica();
+        assertTrue(routing.metrics().replicaInUse());
+
+        // 1) Ajout au panier : cookie d'épinglage au primaire
+        MvcResult added = mockMvc.perform(post("/api/panier/add/" + productId).param("quantity", "2"))
+                .andExpect(status().isOk()).andReturn();
+        Cookie cookie = added.getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+        assertNotNull(cookie);
+        assertTrue(Long.parseLong(cookie.getValue()) > System.currentTimeMillis());
+
+        // 2) Avec le cookie : le panier vient du primaire
+        long sticky = routing.metrics().primaryReadsSticky();
+        assertEquals(1, cart(cookie).size());
+        assertTrue(routing.metrics().primaryReadsSticky() > sticky);
+
+        // 3) Sans cookie (autre client) : la réplique, qui n'a pas encore la ligne
+        assertEquals(0, cart(null).size());
+
+        ReadReplicaRouting.Metrics metrics = routing.metrics();
+        assertEquals(List.of("primary", "replica"), metrics.pools().stream().map(ReadReplicaRouting.Pool::role).toList());
+        assertTrue(metrics.pools().get(1).total() > 0, metrics::toString);
+        mockMvc.perform(get("/api/metrics/datasources")).andExpect(status().isOk());
+    }
+
+    @Test
+    void testSharedReadsAfterChangeIgnoreLaggingReplica() {
+        JdbcTemplate primary = new JdbcTemplate(routing.primary());
+        String asin = "RW-PRICE-" + System.nanoTime();
+        long productId = insertProduct(primary, asin);
+        replicate();
+        routing.checkReplica();
+        assertTrue(routing.metrics().replicaInUse());
+
+        // 1) Abonné au flux, fiche en cache : prix 10 lu sur la réplique
+        SseEmitter emitter = productChangeFeed.subscribe(List.of(productId));
+        assertEquals(10.0, productCatalogCache.findById(productId).orElseThrow().price());
+
+        // 2) Nouveau prix sur le primaire seul (réplique dans sa fenêtre de retard), écrit par un autre client :
+        // ce thread n'est pas épinglé
+        primary.update("UPDATE produits SET prix = 20.0 WHERE id = ?", productId);
+        eventPublisher.publishEvent(ProductsChangedEvent.ofProduct(productId, asin));
+
+        // 3) Le rechargement du cache et le flux lisent le primaire
+        assertEquals(20.0, productCatalogCache.findById(productId).orElseThrow().price());
+        long published = productChangeFeed.metrics().published();
+        productChangeFeed.flush();
+        assertEquals(published + 1, productChangeFeed.metrics().published());
+        emitter.complete();
+    }
+
+    private JsonNode cart(Cookie cookie) throws Exception {
+        var request = get("/api/panier");
+        if (cookie != null) {
+            request.cookie(cookie);
+        }
+        MvcResult result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    // Copie complète du primaire vers la réplique, horloge comprise : la réplique est à jour
+    private void replicate() {
+        JdbcTemplate primary = new JdbcTemplate(routing.primary());
+        JdbcTemplate replica = new JdbcTemplate(routing.replica());
+        List<String> script = primary.queryForList("SCRIPT", String.class);
+        replica.execute("DROP ALL OBJECTS");
+        script.forEach(replica::execute);
+        replica.update("UPDATE horloge_replication SET horodatage_ms = ?", System.currentTimeMillis());
+    }
+
+    private static long insertProduct(JdbcTemplate primary, String asin) {
+        primary.update("INSERT INTO produits (code_asin, titre, prix, somme_notes_catalogue, nombre_avis_catalogue, "
+                + "somme_avis, nombre_avis_locaux, version) VALUES (?, ?, 10.0, 0, 0, 0, 0, 0)", asin, asin);
+        return primary.queryForObject("SELECT id FROM produits WHERE code_asin = ?", Long.class, asin);
+    }
+
+    private static List<String> asins(List<ProductSummary> summaries) {
+        return summaries.stream().map(ProductSummary::asin).toList();
+    }
+}
@@ -0,0 +1,149 @@
+package com.myfullstackproject.springbootproject1.feed;
+
+import com.myfullstackproject.springbootproject1.model.Product;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Fenêtre de regroupement d'une heure : le test déclenche lui-même les flush.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:productstream;MODE=MySQL",
+        "catalog.import.enabled=false",
+        "catalog.stream.coalesce-window=1h",
+        "catalog.stream.buffer-size=2"})
+@AutoConfigureMockMvc
+class ProductChangeFeedTest {
+
+    @Autowired
+    private ProductChangeFeed feed;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testChangesWithinWindowAreCoalesced() throws Exception {
+        Product product = productRepository.save(Product.builder()
+                .asin("STREAM1").title("Suivi").price(10.0).rating(4.0).build());
+        Long id = product.getId();
+
+        // 1) Abonnement : l'état courant arrive tout de suite
+        MvcResult result = mockMvc.perform(get("/api/produits/stream").param("ids", id + ",999999"))
+                .andExpect(request().asyncStarted()).andReturn();
+        MockHttpServletResponse response = result.getResponse();
+        awaitContent(response, "\"prix\":10.0");
+        assertTrue(response.getContentAsString().contains("event:" + ProductChangeFeed.EVENT_NAME));
+
+        // 2) Trois prix dans la fenêtre : un seul événement, avec le dernier
+        long published = feed.metrics().published();
+        update(id, p -> p.setPrice(11.0));
+        update(id, p -> p.setPrice(12.0));
+        update(id, p -> p.setPrice(13.0));
+        feed.flush();
+        awaitContent(response, "\"prix\":13.0");
+        assertFalse(response.getContentAsString().contains("\"prix\":11.0"));
+        assertFalse(response.getContentAsString().contains("\"prix\":12.0"));
+        assertEquals(published + 1, feed.metrics().published());
+        assertTrue(feed.metrics().notifications() >= 3);
+
+        // 3) Ni prix ni note modifiés : rien n'est envoyé
+        update(id, p -> p.setTitle("Nouveau titre"));
+        feed.flush();
+        assertEquals(published + 1, feed.metrics().published());
+
+        // 4) Note modifiée
+        update(id, p -> p.setRating(4.5));
+        feed.flush();
+        awaitContent(response, "\"noteMoyenne\":4.5");
+
+        mockMvc.perform(get("/api/produits/stream").param("ids", "")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/metrics/product-stream")).andExpect(status().isOk());
+    }
+
+    @Test
+    void testSlowConsumerIsDropped() throws Exception {
+        Product product = productRepository.save(Product.builder()
+                .asin("STREAM2").title("Lent").price(5.0).rating(3.0).build());
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Connexion qui n'avance plus : la première écriture reste bloquée
+        SseEmitter stalled = new SseEmitter() {
+            @Override
+            public void send(Set<DataWithMediaType> items) throws IOException {
+                sending.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        try {
+            Long id = product.getId();
+            feed.register(stalled, List.of(id));
+            int subscribers = feed.metrics().subscribers();
+            long dropped = feed.metrics().dropped();
+            update(id, p -> p.setPrice(6.0));
+            feed.flush();
+            assertTrue(sending.await(5, TimeUnit.SECONDS));
+
+            // Tampon de 2 : rempli, puis débordé
+            update(id, p -> p.setPrice(7.0));
+            feed.flush();
+            update(id, p -> p.setPrice(8.0));
+            feed.flush();
+            assertEquals(dropped, feed.metrics().dropped());
+            update(id, p -> p.setPrice(9.0));
+            feed.flush();
+            assertEquals(dropped + 1, feed.metrics().dropped());
+            assertEquals(subscribers - 1, feed.metrics().subscribers());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private void update(Long id, Consumer<Product> change) {
+        Product product = productRepository.findById(id).orElseThrow();
+        change.accept(product);
+        productRepository.save(product);
+    }
+
+    private static void awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!response.getContentAsString().contains(expected)) {
+            assertTrue(System.currentTimeMillis() < deadline, () -> "Flux sans " + expected + " : " + content(response));
+            Thread.sleep(10);
+        }
+    }
+
+    private static String content(MockHttpServletResponse response) {
+        try {
+            return response.getContentAsString();
+        } catch (Exception e) {
+            return e.toString();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.myfullstackproject.springbootproject1.monitoring;
+
+import com.myfullstackproject.springbootproject1.model.Product;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "request.metrics.query-budget=0"})
+@AutoConfigureMockMvc
+class RequestMetricsFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RequestMetrics requestMetrics;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        requestMetrics.reset();
+        product = productRepository.save(Product.builder().asin("METR" + System.nanoTime()).title("Mesuré").build());
+    }
+
+    @Test
+    void testRequestsAreGroupedByEndpointWithSqlCounts() throws Exception {
+        mockMvc.perform(get("/api/produits/" + product.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/api/produits?size=5")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/produits?size=5")).andExpect(status().isOk());
+
+        JsonNode endpoints = objectMapper.readTree(mockMvc.perform(get("/api/metrics/requests"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+
+        JsonNode list = find(endpoints, "GET /api/produits");
+        assertEquals(2, list.get("requests").asLong());
+        assertTrue(list.get("statementsPerRequest").asDouble() >= 1);
+        // Budget à 0 : toute requête qui touche la base est signalée
+        assertEquals(2, list.get("overBudget").asLong());
+        long histogramTotal = 0;
+        for (JsonNode count : list.get("latencyHistogram")) {
+            histogramTotal += count.asLong();
+        }
+        assertEquals(2, histogramTotal);
+
+        assertNotNull(find(endpoints, "GET /api/produits/{id}"));
+        // Les chemins non suivis (ici /api/metrics) ne sont pas mesurés
+        assertNull(find(endpoints, "GET /api/metrics/requests"));
+    }
+
+    @Test
+    void testHibernateStatisticsAreExposed() throws Exception {
+        mockMvc.perform(get("/api/produits?size=5")).andExpect(status().isOk());
+
+        JsonNode stats = objectMapper.readTree(mockMvc.perform(get("/api/metrics/hibernate"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+        assertTrue(stats.get("enabled").asBoolean());
+        assertTrue(stats.get("preparedStatements").asLong() > 0);
+        assertTrue(stats.has("secondLevelCacheHits"));
+        assertTrue(stats.has("queryCacheHits"));
+        assertTrue(stats.get("secondLevelCacheRegions").has("produits"));
+    }
+
+    private static JsonNode find(JsonNode endpoints, String endpoint) {
+        for (JsonNode node : endpoints) {
+            if (endpoint.equals(node.get("endpoint").asString())) {
+                return node;
+            }
+        }
+        return null;
+    }
+}
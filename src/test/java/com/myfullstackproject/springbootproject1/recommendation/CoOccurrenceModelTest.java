@@ -0,0 +1,67 @@
+package com.myfullstackproject.springbootproject1.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoOccurrenceModelTest {
+
+    @Test
+    void testParallelBuildMatchesSequentialBuildAndIncrementalCounts() {
+        Random random = new Random(42);
+        Baskets baskets = new Baskets();
+        List<long[]> added = new ArrayList<>();
+        for (int b = 0; b < 5_000; b++) {
+            long[] basket = new long[2 + random.nextInt(6)];
+            for (int k = 0; k < basket.length; k++) {
+                // Catalogue de 500 produits, les premiers bien plus fréquents
+                basket[k] = 1 + (long) (500 * Math.pow(random.nextDouble(), 2));
+            }
+            baskets.add(basket, b % 4 == 0 ? 1 : 3);
+            added.add(basket);
+        }
+
+        CoOccurrenceModel sequential;
+        CoOccurrenceModel parallel;
+        try (ForkJoinPool one = new ForkJoinPool(1); ForkJoinPool four = new ForkJoinPool(4)) {
+            sequential = CoOccurrenceModel.build(baskets, 10, 2, 50, one);
+            parallel = CoOccurrenceModel.build(baskets, 10, 2, 50, four);
+        }
+        CoOccurrenceModel incremental = new CoOccurrenceModel(10, 2, 50);
+        for (int b = 0; b < added.size(); b++) {
+            incremental.add(added.get(b), b % 4 == 0 ? 1 : 3);
+        }
+
+        assertEquals(sequential.products(), parallel.products());
+        assertEquals(sequential.pairs(), incremental.pairs());
+        for (long product = 1; product <= 500; product++) {
+            assertEquals(sequential.neighbours(product, 10), parallel.neighbours(product, 10));
+            for (long other = 1; other <= 500; other += 7) {
+                assertEquals(sequential.coOccurrences(product, other), incremental.coOccurrences(product, other));
+            }
+        }
+    }
+
+    @Test
+    void testNeighboursAreRankedByCosineAboveMinSupport() {
+        CoOccurrenceModel model = new CoOccurrenceModel(10, 2, 50);
+        model.add(new long[]{1, 2}, 3);
+        model.add(new long[]{1, 2}, 3);
+        model.add(new long[]{1, 3, 3}, 3);
+        model.add(new long[]{1, 4}, 1); // sous le support minimum
+
+        // n(1) = 10, c(1,2) = 6 / n(2) = 6, c(1,3) = 3 / n(3) = 3
+        List<CoOccurrenceModel.Neighbour> neighbours = model.neighbours(1, 10);
+        assertEquals(List.of(2L, 3L), neighbours.stream().map(CoOccurrenceModel.Neighbour::productId).toList());
+        assertEquals(6 / Math.sqrt(60), neighbours.get(0).score(), 1e-6);
+        assertEquals(3 / Math.sqrt(30), neighbours.get(1).score(), 1e-6);
+        assertEquals(1, model.coOccurrences(4, 1));
+        assertEquals(1, model.neighbours(1, 1).size());
+        assertTrue(model.neighbours(99, 10).isEmpty());
+    }
+}
@@ -0,0 +1,141 @@
+package com.myfullstackproject.springbootproject1.recommendation;
+
+import com.myfullstackproject.springbootproject1.dto.Recommendation;
+import com.myfullstackproject.springbootproject1.model.Product;
+import com.myfullstackproject.springbootproject1.model.Role;
+import com.myfullstackproject.springbootproject1.model.Utilisateur;
+import com.myfullstackproject.springbootproject1.repository.CartItemRepository;
+import com.myfullstackproject.springbootproject1.repository.OrderItemRepository;
+import com.myfullstackproject.springbootproject1.repository.OrderRepository;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import com.myfullstackproject.springbootproject1.repository.UtilisateurRepository;
+import com.myfullstackproject.springbootproject1.service.CartService;
+import com.myfullstackproject.springbootproject1.service.CheckoutService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class RecommendationServiceTest {
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    private Utilisateur buyer;
+    private Product tent;
+    private Product sleepingBag;
+    private Product stove;
+    private Product lamp;
+
+    @BeforeEach
+    void setUp() {
+        buyer = user("campeur");
+        tent = product("Tente");
+        sleepingBag = product("Sac de couchage");
+        stove = product("Réchaud");
+        lamp = product("Lampe");
+        recommendationService.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Les autres tests vident produits : ne pas laisser de lignes qui les référencent
+        orderItemRepository.deleteAll();
+        orderRepository.deleteAll();
+        cartItemRepository.deleteAll();
+    }
+
+    @Test
+    void testOrdersUpdateRecommendationsWithoutRebuild() {
+        long rebuilds = recommendationService.metrics().rebuilds();
+        assertTrue(recommendationService.recommend(tent.getId(), 10).isEmpty());
+
+        placeOrders();
+
+        assertEquals(List.of(sleepingBag.getId(), stove.getId()), ids(recommendationService.recommend(tent.getId(), 10)));
+        assertEquals(List.of(tent.getId()), ids(recommendationService.recommend(sleepingBag.getId(), 10)));
+        assertEquals(1, recommendationService.recommend(tent.getId(), 1).size());
+        assertEquals("Sac de couchage", recommendationService.recommend(tent.getId(), 1).get(0).product().title());
+        assertEquals(rebuilds, recommendationService.metrics().rebuilds());
+    }
+
+    @Test
+    void testRebuildReadsOrdersAndOpenCarts() {
+        placeOrders();
+        // Paniers en cours : signal plus faible, deux paniers atteignent le support minimum
+        for (String nom : List.of("panier1", "panier2")) {
+            Long visitor = user(nom).getId();
+            cartService.addToCart(visitor, tent.getId(), 1);
+            cartService.addToCart(visitor, lamp.getId(), 1);
+        }
+        assertFalse(ids(recommendationService.recommend(tent.getId(), 10)).contains(lamp.getId()));
+
+        RecommendationService.RebuildReport report = recommendationService.rebuild();
+        assertTrue(report.products() >= 4);
+
+        // n(tente) = 3 + 3 + 3 + 1 + 1 : sac 6/√66, réchaud 3/√33, lampe 2/√22
+        List<Recommendation> recommendations = recommendationService.recommend(tent.getId(), 10);
+        assertEquals(List.of(sleepingBag.getId(), stove.getId(), lamp.getId()), ids(recommendations));
+        assertEquals(6 / Math.sqrt(66), recommendations.get(0).score(), 1e-6);
+        assertEquals(2 / Math.sqrt(22), recommendations.get(2).score(), 1e-6);
+    }
+
+    // Tente + sac deux fois, tente + réchaud une fois
+    private void placeOrders() {
+        order(tent, sleepingBag);
+        order(tent, sleepingBag);
+        order(tent, stove);
+    }
+
+    private void order(Product... products) {
+        for (Product product : products) {
+            cartService.addToCart(buyer.getId(), product.getId(), 1);
+        }
+        checkoutService.checkout(buyer.getId());
+    }
+
+    private Utilisateur user(String nom) {
+        return utilisateurRepository.save(Utilisateur.builder()
+                .nom(nom)
+                .email(nom + System.nanoTime() + "@example.com")
+                .motDePasse("secret")
+                .role(Role.ACHETEUR)
+                .build());
+    }
+
+    private Product product(String title) {
+        return productRepository.save(Product.builder().asin("RECO" + System.nanoTime()).title(title)
+                .price(10.0).stock(100).build());
+    }
+
+    private static List<Long> ids(List<Recommendation> recommendations) {
+        return recommendations.stream().map(r -> r.product().id()).toList();
+    }
+}
@@ -0,0 +1,71 @@
+package com.myfullstackproject.springbootproject1.search;
+
+import com.myfullstackproject.springbootproject1.model.Product;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ProductSearchServiceTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    private Product speaker;
+    private Product cable;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        speaker = productRepository.save(Product.builder().asin("SRCH1").title("Echo Dot smart speaker")
+                .description("Compact speaker with Alexa").price(49.99).rating(4.7).build());
+        cable = productRepository.save(Product.builder().asin("SRCH2").title("USB cable")
+                .description("Works with any speaker").price(9.99).rating(3.9).build());
+        productRepository.save(Product.builder().asin("SRCH3").title("Kindle Paperwhite")
+                .description("Écran haute résolution").price(129.99).rating(4.8).build());
+        productSearchService.rebuild();
+    }
+
+    @Test
+    void testTitleMatchesRankFirst() {
+        SearchResult result = productSearchService.search("speaker ", SearchFilter.NONE, 10);
+
+        assertEquals(2, result.totalMatches());
+        assertEquals(speaker.getId(), result.hits().get(0).productId());
+        assertEquals(cable.getId(), result.hits().get(1).productId());
+    }
+
+    @Test
+    void testFiltersAndPrefixAndAccents() {
+        SearchResult cheap = productSearchService.search("speaker ", new SearchFilter(null, null, 20.0, null), 10);
+        assertEquals(List.of(cable.getId()), cheap.hits().stream().map(SearchResult.Hit::productId).toList());
+
+        SearchResult wellRated = productSearchService.search("speaker ", new SearchFilter(null, null, null, 4.5), 10);
+        assertEquals(1, wellRated.totalMatches());
+
+        assertEquals(1, productSearchService.search("paperw", SearchFilter.NONE, 10).totalMatches());
+        assertEquals(1, productSearchService.search("ecran", SearchFilter.NONE, 10).totalMatches());
+    }
+
+    @Test
+    void testSaveUpdatesIndexIncrementally() {
+        cable.setTitle("HDMI cord");
+        cable.setDescription("Braided");
+        productRepository.save(cable);
+
+        assertEquals(1, productSearchService.search("speaker ", SearchFilter.NONE, 10).totalMatches());
+        assertEquals(cable.getId(), productSearchService.search("hdmi ", SearchFilter.NONE, 10).hits().get(0).productId());
+
+        productRepository.delete(speaker);
+        assertEquals(0, productSearchService.search("speaker ", SearchFilter.NONE, 10).totalMatches());
+    }
+}
@@ -0,0 +1,101 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.dto.CartLine;
+import com.myfullstackproject.springbootproject1.model.Product;
+import com.myfullstackproject.springbootproject1.model.Role;
+import com.myfullstackproject.springbootproject1.model.Utilisateur;
+import com.myfullstackproject.springbootproject1.repository.CartItemRepository;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import com.myfullstackproject.springbootproject1.repository.UtilisateurRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class CartServiceTest {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    private Utilisateur alice;
+    private Utilisateur bob;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        cartItemRepository.deleteAll();
+        alice = utilisateurRepository.save(user("alice"));
+        bob = utilisateurRepository.save(user("bob"));
+        product = productRepository.save(Product.builder().asin("CART" + System.nanoTime()).title("Panier").price(5.0).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Les autres tests vident produits : ne pas laisser de lignes qui les référencent
+        cartItemRepository.deleteAll();
+    }
+
+    @Test
+    void testAddTwiceIncrementsSingleLine() {
+        cartService.addToCart(alice.getId(), product.getId(), 2);
+        CartLine line = cartService.addToCart(alice.getId(), product.getId(), 3);
+
+        assertEquals(5, line.quantity());
+        assertEquals(product.getAsin(), line.product().asin());
+        List<CartLine> cart = cartService.getCart(alice.getId());
+        assertEquals(1, cart.size());
+        assertEquals(5, cart.get(0).quantity());
+    }
+
+    @Test
+    void testUnknownProductIsRejected() {
+        assertThrows(RuntimeException.class, () -> cartService.addToCart(alice.getId(), -42L, 1));
+    }
+
+    @Test
+    void testNonPositiveQuantityIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> cartService.addToCart(alice.getId(), product.getId(), 0));
+        assertThrows(IllegalArgumentException.class, () -> cartService.addToCart(alice.getId(), product.getId(), -5));
+        assertTrue(cartService.getCart(alice.getId()).isEmpty());
+
+        CartLine line = cartService.addToCart(alice.getId(), product.getId(), 2);
+        assertThrows(IllegalArgumentException.class, () -> cartService.updateQuantity(alice.getId(), line.id(), -1));
+        assertEquals(2, cartService.getCart(alice.getId()).get(0).quantity());
+    }
+
+    @Test
+    void testOnlyOwnerCanUpdateOrDelete() {
+        CartLine line = cartService.addToCart(alice.getId(), product.getId(), 1);
+
+        assertThrows(RuntimeException.class, () -> cartService.updateQuantity(bob.getId(), line.id(), 9));
+        assertThrows(RuntimeException.class, () -> cartService.removeItem(bob.getId(), line.id()));
+
+        assertEquals(4, cartService.updateQuantity(alice.getId(), line.id(), 4).quantity());
+        cartService.removeItem(alice.getId(), line.id());
+        assertTrue(cartService.getCart(alice.getId()).isEmpty());
+    }
+
+    private static Utilisateur user(String nom) {
+        return Utilisateur.builder()
+                .nom(nom)
+                .email(nom + System.nanoTime() + "@example.com")
+                .motDePasse("secret")
+                .role(Role.ACHETEUR)
+                .build();
+    }
+}
@@ -0,0 +1,157 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.event.ProductsChangedEvent;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@RecordApplicationEvents
+class CatalogDeltaImporterTest {
+
+    private static final String HEADER = "ASIN,Category,Product Link,No of Sellers,Rank,Rating,Reviews Count,Price,"
+            + "Books,Camera & Photo,\"Clothing, Shoes & Jewelry\",Electronics,Gift Cards,Toys & Games,Video Games,Product Title\n";
+
+    @Autowired
+    private CatalogDeltaImporter catalogDeltaImporter;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM empreintes_catalogue");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM avis_produits WHERE produit_id IN "
+                + "(SELECT id FROM produits WHERE code_asin LIKE 'DELTA%')");
+    }
+
+    @Test
+    void testOnlyChangedRowsAreWritten() {
+        CatalogDelta first = catalogDeltaImporter.importDelta(List.of(csv(
+                row("DELTA1", "19.99", "First"), row("DELTA2", "9.99", "Second"), row("DELTA3", "5.00", "Third"),
+                row("DELTA4", "7.50", "Fourth"), row("DELTA5", "3.25", "Fifth"))));
+        assertEquals(5, first.insertedIds().size());
+        assertEquals(5, productRepository.count());
+        long unchangedVersion = version("DELTA3");
+
+        // 1) Même fichier (format différent) : rien n'est écrit, aucun événement
+        events.clear();
+        CatalogDelta same = catalogDeltaImporter.importDelta(List.of(csv(
+                row("DELTA1", "19.990", "First"), row("DELTA2", "9.99", "Second"), row("DELTA3", "5.0", "Third"),
+                row("DELTA4", "7.5", "Fourth"), row("DELTA5", "3.25", "Fifth"))));
+        assertEquals(5, same.unchanged());
+        assertTrue(same.changedIds().isEmpty());
+        assertEquals(0, events.stream(ProductsChangedEvent.class).count());
+
+        // 2) Un prix modifié, un produit ajouté, un produit disparu
+        long deletedId = id("DELTA2");
+        CatalogDelta delta = catalogDeltaImporter.importDelta(List.of(csv(
+                row("DELTA1", "17.99", "First"), row("DELTA3", "5.00", "Third"), row("DELTA4", "7.50", "Fourth"),
+                row("DELTA5", "3.25", "Fifth"), row("DELTA6", "4.00", "Sixth"))));
+        assertEquals(3, delta.unchanged());
+        assertEquals(List.of(id("DELTA6")), delta.insertedIds());
+        assertEquals(List.of(id("DELTA1")), delta.updatedIds());
+        assertEquals(List.of(deletedId), delta.deletedIds());
+        assertEquals(17.99, column("DELTA1", "prix", Double.class));
+        assertTrue(productRepository.findIdByAsin("DELTA2").isEmpty());
+        assertEquals(unchangedVersion, version("DELTA3"));
+
+        // Invalidation ciblée : les événements portent exactement les ids touchés
+        Set<Long> published = new HashSet<>();
+        events.stream(ProductsChangedEvent.class).forEach(event -> published.addAll(event.ids()));
+        assertEquals(delta.changedIds(), published);
+    }
+
+    @Test
+    void testReferencedProductIsRetiredThenRestored() {
+        String full = row("DELTA1", "1.00", "A") + row("DELTA2", "2.00", "B") + row("DELTA3", "3.00", "C")
+                + row("DELTA4", "4.00", "D") + row("DELTA5", "5.00", "E");
+        catalogDeltaImporter.importDelta(List.of(csv(full)));
+        long reviewedId = id("DELTA5");
+        jdbcTemplate.update("INSERT INTO avis_produits (produit_id, nb_etoiles, commentaire) VALUES (?, 5, 'ok')", reviewedId);
+
+        // 1) Produit avec un avis absent du fichier : conservé, plus commandable
+        CatalogDelta removed = catalogDeltaImporter.importDelta(List.of(csv(full.replace(row("DELTA5", "5.00", "E"), ""))));
+        assertEquals(List.of(reviewedId), removed.retiredIds());
+        assertTrue(removed.deletedIds().isEmpty());
+        assertEquals(0, column("DELTA5", "stock", Integer.class));
+
+        // Import suivant : déjà retiré, rien à refaire
+        CatalogDelta again = catalogDeltaImporter.importDelta(List.of(csv(full.replace(row("DELTA5", "5.00", "E"), ""))));
+        assertTrue(again.changedIds().isEmpty());
+
+        // 2) La ligne revient : remis en vente
+        CatalogDelta back = catalogDeltaImporter.importDelta(List.of(csv(full)));
+        assertEquals(List.of(reviewedId), back.updatedIds());
+        assertNull(column("DELTA5", "stock", Integer.class));
+    }
+
+    @Test
+    void testRemovalsSkippedWhenFileLooksTruncated() {
+        catalogDeltaImporter.importDelta(List.of(csv(row("DELTA1", "1.00", "A") + row("DELTA2", "2.00", "B")
+                + row("DELTA3", "3.00", "C") + row("DELTA4", "4.00", "D") + row("DELTA5", "5.00", "E"))));
+
+        CatalogDelta truncated = catalogDeltaImporter.importDelta(List.of(csv(row("DELTA1", "1.00", "A"))));
+        assertEquals(4, truncated.skippedRemovals());
+        assertTrue(truncated.deletedIds().isEmpty());
+        assertEquals(5, productRepository.count());
+
+        // Fichier manquant : aucune suppression non plus
+        CatalogDelta missing = catalogDeltaImporter.importDelta(List.of(csv(row("DELTA1", "1.00", "A")
+                + row("DELTA2", "2.00", "B") + row("DELTA3", "3.00", "C") + row("DELTA4", "4.00", "D")),
+                new ByteArrayResource(new byte[0]) {
+                    @Override
+                    public boolean exists() {
+                        return false;
+                    }
+                }));
+        assertEquals(1, missing.skippedRemovals());
+        assertEquals(5, productRepository.count());
+    }
+
+    private long id(String asin) {
+        return productRepository.findIdByAsin(asin).orElseThrow();
+    }
+
+    private long version(String asin) {
+        return column(asin, "version", Long.class);
+    }
+
+    private <T> T column(String asin, String column, Class<T> type) {
+        return jdbcTemplate.queryForObject("SELECT " + column + " FROM produits WHERE code_asin = ?", type, asin);
+    }
+
+    private static String row(String asin, String price, String title) {
+        return asin + ",Electronics,link,1,1,4.5,10," + price + ",0,0,0,1,0,0,0," + title + "\n";
+    }
+
+    private static Resource csv(String... rows) {
+        return new ByteArrayResource((HEADER + String.join("", rows)).getBytes(StandardCharsets.UTF_8));
+    }
+}
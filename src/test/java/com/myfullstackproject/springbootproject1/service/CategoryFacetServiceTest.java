@@ -0,0 +1,66 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.dto.CategoryFacets;
+import com.myfullstackproject.springbootproject1.model.Categorie;
+import com.myfullstackproject.springbootproject1.model.Product;
+import com.myfullstackproject.springbootproject1.repository.CategorieRepository;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class CategoryFacetServiceTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategorieRepository categorieRepository;
+
+    @Autowired
+    private CategoryFacetService categoryFacetService;
+
+    private Categorie jouets;
+    private Product voiture;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        jouets = categorieRepository.save(Categorie.builder().nom("Jouets test").build());
+        voiture = productRepository.save(Product.builder().asin("FACET1").categorie(jouets).price(12.0).rating(4.5).build());
+        productRepository.save(Product.builder().asin("FACET2").categorie(jouets).price(30.0).rating(3.2).build());
+        productRepository.save(Product.builder().asin("FACET3").categorie(jouets).build());
+        categoryFacetService.rebuild();
+    }
+
+    @Test
+    void testFacetsAreComputedPerCategory() {
+        CategoryFacets facets = categoryFacetService.facets(jouets.getId()).orElseThrow();
+
+        assertEquals(3, facets.productCount());
+        assertEquals(21.0, facets.averagePrice());
+        assertEquals(1, facets.priceHistogram().get(1).count()); // [10, 25[
+        assertEquals(1, facets.priceHistogram().get(2).count()); // [25, 50[
+        assertEquals(1, facets.unknownPrice());
+        assertEquals(1, facets.ratingDistribution().get(4).count());
+        assertEquals(1, facets.ratingDistribution().get(3).count());
+    }
+
+    @Test
+    void testFacetsFollowProductChangesIncrementally() {
+        voiture.setPrice(600.0);
+        voiture = productRepository.save(voiture); // version incrémentée : garder l'instance à jour
+
+        CategoryFacets facets = categoryFacetService.facets(jouets.getId()).orElseThrow();
+        assertEquals(0, facets.priceHistogram().get(1).count());
+        assertEquals(1, facets.priceHistogram().get(6).count()); // 500+
+        assertEquals(315.0, facets.averagePrice());
+
+        productRepository.delete(voiture);
+        assertEquals(2, categoryFacetService.facets(jouets.getId()).orElseThrow().productCount());
+    }
+}
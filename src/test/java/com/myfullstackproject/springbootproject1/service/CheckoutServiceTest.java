@@ -0,0 +1,164 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.dto.OrderDetails;
+import com.myfullstackproject.springbootproject1.model.Product;
+import com.myfullstackproject.springbootproject1.model.Role;
+import com.myfullstackproject.springbootproject1.model.Utilisateur;
+import com.myfullstackproject.springbootproject1.repository.CartItemRepository;
+import com.myfullstackproject.springbootproject1.repository.OrderItemRepository;
+import com.myfullstackproject.springbootproject1.repository.OrderRepository;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import com.myfullstackproject.springbootproject1.repository.UtilisateurRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class CheckoutServiceTest {
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        // Les autres tests vident produits : ne pas laisser de lignes qui les référencent
+        orderItemRepository.deleteAll();
+        orderRepository.deleteAll();
+        cartItemRepository.deleteAll();
+    }
+
+    @Test
+    void testCheckoutSnapshotsPricesAndEmptiesCart() {
+        Utilisateur user = utilisateurRepository.save(user("checkout"));
+        Product book = productRepository.save(product("CHK", 12.5, 3));
+        Product pen = productRepository.save(product("CHK", 1.2, null));
+        cartService.addToCart(user.getId(), book.getId(), 2);
+        cartService.addToCart(user.getId(), pen.getId(), 3);
+
+        OrderDetails order = checkoutService.checkout(user.getId());
+
+        assertEquals(28.6, order.totalAmount(), 1e-9);
+        assertEquals(2, order.items().size());
+        assertTrue(cartService.getCart(user.getId()).isEmpty());
+        assertEquals(1, productRepository.findById(book.getId()).orElseThrow().getStock());
+        assertNull(productRepository.findById(pen.getId()).orElseThrow().getStock());
+
+        // Le prix de la ligne ne suit pas les changements de prix du produit
+        Product changed = productRepository.findById(book.getId()).orElseThrow();
+        changed.setPrice(99.0);
+        productRepository.save(changed);
+        assertEquals(12.5, orderItemRepository.findAll().stream()
+                .filter(item -> item.getProduct().getId().equals(book.getId()))
+                .findFirst().orElseThrow().getUnitPrice(), 1e-9);
+    }
+
+    @Test
+    void testCheckoutRejectsInsufficientStockAndKeepsCart() {
+        Utilisateur user = utilisateurRepository.save(user("stock"));
+        Product rare = productRepository.save(product("RARE", 50.0, 1));
+        cartService.addToCart(user.getId(), rare.getId(), 2);
+
+        assertThrows(RuntimeException.class, () -> checkoutService.checkout(user.getId()));
+        assertEquals(1, cartService.getCart(user.getId()).size());
+        assertEquals(0, orderRepository.count());
+    }
+
+    @Test
+    void testCheckoutRefusesNonPositiveQuantities() {
+        Utilisateur user = utilisateurRepository.save(user("negative"));
+        Product book = productRepository.save(product("NEG", 10.0, 3));
+        // Ligne écrite avant la validation des quantités
+        jdbcTemplate.update("INSERT INTO articles_panier (utilisateur_id, produit_id, quantite) VALUES (?, ?, ?)",
+                user.getId(), book.getId(), -5);
+
+        assertThrows(RuntimeException.class, () -> checkoutService.checkout(user.getId()));
+        assertEquals(3, productRepository.findById(book.getId()).orElseThrow().getStock());
+        assertEquals(0, orderRepository.count());
+    }
+
+    @Test
+    void testConcurrentCheckoutsNeverOversell() throws Exception {
+        int buyers = 24;
+        int stock = 10;
+        Product flash = productRepository.save(product("FLASH", 19.99, stock));
+        List<Utilisateur> users = new ArrayList<>();
+        for (int i = 0; i < buyers; i++) {
+            Utilisateur user = utilisateurRepository.save(user("flash" + i));
+            cartService.addToCart(user.getId(), flash.getId(), 1);
+            users.add(user);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (Utilisateur user : users) {
+            results.add(pool.submit(() -> {
+                start.await();
+                try {
+                    checkoutService.checkout(user.getId());
+                    return true;
+                } catch (RuntimeException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+        int placed = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                placed++;
+            }
+        }
+        pool.shutdown();
+
+        int remaining = productRepository.findById(flash.getId()).orElseThrow().getStock();
+        assertTrue(placed > 0 && placed <= stock);
+        assertEquals(stock - placed, remaining);
+        assertEquals(placed, orderItemRepository.count());
+    }
+
+    private static Product product(String prefix, Double price, Integer stock) {
+        return Product.builder().asin(prefix + System.nanoTime()).title(prefix).price(price).stock(stock).build();
+    }
+
+    private static Utilisateur user(String nom) {
+        return Utilisateur.builder()
+                .nom(nom)
+                .email(nom + System.nanoTime() + "@example.com")
+                .motDePasse("secret")
+                .role(Role.ACHETEUR)
+                .build();
+    }
+}
@@ -1,58 +1,89 @@
-//package com.myfullstackproject.springbootproject1.service;
-//
-//import com.myfullstackproject.springbootproject1.model.Product;
-//import com.myfullstackproject.springbootproject1.repository.ProductRepository;
-//import org.junit.jupiter.api.BeforeEach;
-//import org.junit.jupiter.api.Test;
-//import org.springframework.beans.factory.annotation.Autowired;
-//import org.springframework.boot.test.context.SpringBootTest;
-//
-//import java.util.List;
-//
-//import static org.junit.jupiter.api.Assertions.*;
-//
-//@SpringBootTest
-//class CsvProductLoaderTest {
-//
-//    @Autowired
-//    private ProductRepository productRepository;
-//
-//    @Autowired
-//    private CsvProductLoader csvProductLoader;
-//
-//    @BeforeEach
-//    void setUp() {
-//        // Clean database before each test
-//        productRepository.deleteAll();
-//    }
-//
-//    @Test
-//    void testCsvLoadingIntoDatabase() {
-//        // Run the CSV loader
-//        csvProductLoader.run();
-//
-//        // Verify products were loaded
-//        List<Product> products = productRepository.findAll();
-//        assertFalse(products.isEmpty(), "Products should be loaded from CSV");
-//
-//        // Verify at least one product has expected data
-//        Product firstProduct = products.get(0);
-//        assertNotNull(firstProduct.getAsin(), "ASIN should not be null");
-//        assertNotNull(firstProduct.getTitle(), "Title should not be null");
-//        assertNotNull(firstProduct.getCategory(), "Category should not be null");
-//    }
-//
-//    @Test
-//    void testSkipLoadingWhenProductsExist() {
-//        // First load
-//        csvProductLoader.run();
-//        long countAfterFirstLoad = productRepository.count();
-//        assertTrue(countAfterFirstLoad > 0, "Products should be loaded");
-//
-//        // Second load should skip
-//        csvProductLoader.run();
-//        long countAfterSecondLoad = productRepository.count();
-//        assertEquals(countAfterFirstLoad, countAfterSecondLoad,
-//            "Second load should skip and not duplicate products");
-//    }
-//}
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.model.Product;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class CsvProductLoaderTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CsvProductLoader csvProductLoader;
+
+    @BeforeEach
+    void setUp() {
+        // Clean database before each test
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void testCsvLoadingIntoDatabase() {
+        // Run the CSV loader
+        csvProductLoader.run();
+
+        // Verify products were loaded
+        List<Product> products = productRepository.findAll();
+        assertFalse(products.isEmpty(), "Products should be loaded from CSV");
+
+        // Verify at least one product has expected data
+        Product firstProduct = products.get(0);
+        assertNotNull(firstProduct.getAsin(), "ASIN should not be null");
+        assertNotNull(firstProduct.getTitle(), "Title should not be null");
+        assertNotNull(firstProduct.getPrice(), "Price should not be null");
+    }
+
+    @Test
+    void testSecondLoadUpsertsInsteadOfDuplicating() {
+        // First load
+        csvProductLoader.run();
+        long countAfterFirstLoad = productRepository.count();
+        assertTrue(countAfterFirstLoad > 0, "Products should be loaded");
+
+        // Second load should update the same rows
+        csvProductLoader.run();
+        long countAfterSecondLoad = productRepository.count();
+        assertEquals(countAfterFirstLoad, countAfterSecondLoad,
+            "Second load should upsert and not duplicate products");
+    }
+
+    @Test
+    void testReportCountsRejectedRowsAndUpdates() {
+        String csv = """
+                ASIN,Category,Product Link,No of Sellers,Rank,Rating,Reviews Count,Price,Books,Camera & Photo,"Clothing, Shoes & Jewelry",Electronics,Gift Cards,Toys & Games,Video Games,Product Title
+                TESTASIN01,Electronics,link,1,1,4.5,10,19.99,0,0,0,1,0,0,0,First
+                ,Electronics,link,1,2,4.5,10,19.99,0,0,0,1,0,0,0,No asin
+                TESTASIN02,Electronics,link,1,3,,,9.99,0,0,0,1,0,0,0,Second
+                TESTASIN01,Electronics,link,1,1,4.6,11,17.99,0,0,0,1,0,0,0,First updated
+                """;
+        ImportReport first = csvProductLoader.importCatalog(resource(csv));
+        assertEquals(4, first.rowsRead());
+        assertEquals(1, first.rejected());
+        assertEquals(2, productRepository.count());
+
+        ImportReport second = csvProductLoader.importCatalog(resource(csv));
+        assertEquals(0, second.inserted());
+        assertEquals(2, second.updated());
+        assertEquals(2, productRepository.count());
+    }
+
+    private static ByteArrayResource resource(String csv) {
+        return new ByteArrayResource(csv.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public String getDescription() {
+                return "test CSV";
+            }
+        };
+    }
+}
@@ -0,0 +1,105 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.dto.ProductSummary;
+import com.myfullstackproject.springbootproject1.model.Categorie;
+import com.myfullstackproject.springbootproject1.model.Product;
+import com.myfullstackproject.springbootproject1.repository.CategorieRepository;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Classements de 3 (marge de 3) : la marge s'épuise en quelques suppressions
+@SpringBootTest(properties = {"leaderboard.size=3", "leaderboard.min-reviews=5"})
+class LeaderboardServiceTest {
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategorieRepository categorieRepository;
+
+    private Categorie livres;
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        products.clear();
+        livres = categorieRepository.save(Categorie.builder().nom("Livres top").build());
+        for (int i = 0; i < 10; i++) {
+            // Rang 10, 20, ... ; note croissante ; un produit sur deux a assez d'avis
+            products.add(productRepository.save(Product.builder().asin("TOP" + i).title("Livre " + i)
+                    .categorie(livres).rank((i + 1) * 10).rating(1.0 + i * 0.4).ratingCount(i % 2 == 0 ? 10L : 2L)
+                    .build()));
+        }
+        productRepository.save(Product.builder().asin("TOPX").title("Sans catégorie").rank(1).build());
+        leaderboardService.rebuild();
+    }
+
+    @Test
+    void testLeaderboardsMatchSqlOrderByLimit() {
+        assertEquals(sqlRanked(), ids(leaderboardService.top(LeaderboardService.Ranking.RANK, livres.getId(), 10)));
+        assertEquals(sqlRated(), ids(leaderboardService.top(LeaderboardService.Ranking.RATING, livres.getId(), 10)));
+        assertEquals(List.of(products.get(8).getId(), products.get(6).getId(), products.get(4).getId()), sqlRated());
+
+        // Global : le produit sans catégorie est premier
+        assertEquals("TOPX", leaderboardService.top(LeaderboardService.Ranking.RANK, null, 1).get(0).asin());
+        assertTrue(leaderboardService.top(LeaderboardService.Ranking.RANK, livres.getId() + 1000, 3).isEmpty());
+    }
+
+    @Test
+    void testProductChangesAreAppliedWithoutRebuild() {
+        long rebuilds = leaderboardService.metrics().rebuilds();
+
+        // Le dernier monte en tête des ventes, un produit peu noté obtient assez d'avis
+        Product last = products.get(9);
+        last.setRank(1);
+        productRepository.save(last);
+        Product rated = products.get(7);
+        rated.setRatingCount(50L);
+        productRepository.save(rated);
+        productRepository.delete(products.get(0));
+
+        assertEquals(sqlRanked(), ids(leaderboardService.top(LeaderboardService.Ranking.RANK, livres.getId(), 3)));
+        assertEquals(last.getId(), leaderboardService.top(LeaderboardService.Ranking.RANK, livres.getId(), 1).get(0).id());
+        assertEquals(sqlRated(), ids(leaderboardService.top(LeaderboardService.Ranking.RATING, livres.getId(), 3)));
+        assertEquals(rebuilds, leaderboardService.metrics().rebuilds());
+        assertFalse(leaderboardService.metrics().stale());
+    }
+
+    @Test
+    void testExhaustedMarginTriggersRebuild() {
+        // Les 4 meilleurs rangs disparaissent : il reste 2 des 6 gardés, les suivants sont inconnus
+        for (int i = 0; i < 4; i++) {
+            productRepository.delete(products.get(i));
+        }
+        assertTrue(leaderboardService.metrics().stale());
+
+        leaderboardService.rebuildIfStale();
+        assertFalse(leaderboardService.metrics().stale());
+        assertEquals(sqlRanked(), ids(leaderboardService.top(LeaderboardService.Ranking.RANK, livres.getId(), 3)));
+    }
+
+    private List<Long> sqlRanked() {
+        return ids(productRepository.findTopRankedInCategorie(livres.getId(), PageRequest.of(0, 3)));
+    }
+
+    private List<Long> sqlRated() {
+        return ids(productRepository.findTopRatedInCategorie(livres.getId(), 5, PageRequest.of(0, 3)));
+    }
+
+    private static List<Long> ids(List<ProductSummary> summaries) {
+        return summaries.stream().map(ProductSummary::id).toList();
+    }
+}
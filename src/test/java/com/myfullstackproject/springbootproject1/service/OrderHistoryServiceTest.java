@@ -0,0 +1,119 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.dto.OrderDetails;
+import com.myfullstackproject.springbootproject1.dto.OrderPage;
+import com.myfullstackproject.springbootproject1.model.Product;
+import com.myfullstackproject.springbootproject1.model.Role;
+import com.myfullstackproject.springbootproject1.model.Utilisateur;
+import com.myfullstackproject.springbootproject1.repository.CartItemRepository;
+import com.myfullstackproject.springbootproject1.repository.OrderCursor;
+import com.myfullstackproject.springbootproject1.repository.OrderItemRepository;
+import com.myfullstackproject.springbootproject1.repository.OrderRepository;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import com.myfullstackproject.springbootproject1.repository.UtilisateurRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class OrderHistoryServiceTest {
+
+    @Autowired
+    private OrderHistoryService orderHistoryService;
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Utilisateur user;
+    private final List<Long> placed = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        user = utilisateurRepository.save(Utilisateur.builder()
+                .nom("history")
+                .email("history" + System.nanoTime() + "@example.com")
+                .motDePasse("secret")
+                .role(Role.ACHETEUR)
+                .build());
+        Product first = productRepository.save(Product.builder().asin("HIST" + System.nanoTime()).title("Un").price(2.0).build());
+        Product second = productRepository.save(Product.builder().asin("HIST" + System.nanoTime()).title("Deux").price(3.0).build());
+        for (int i = 1; i <= 5; i++) {
+            cartService.addToCart(user.getId(), first.getId(), i);
+            cartService.addToCart(user.getId(), second.getId(), 1);
+            placed.add(checkoutService.checkout(user.getId()).id());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Les autres tests vident produits : ne pas laisser de lignes qui les référencent
+        orderItemRepository.deleteAll();
+        orderRepository.deleteAll();
+        cartItemRepository.deleteAll();
+    }
+
+    @Test
+    void testHistoryPagesNewestFirstWithConstantQueries() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<Long> seen = new ArrayList<>();
+        OrderCursor after = null;
+        do {
+            statistics.clear();
+            OrderPage page = orderHistoryService.history(user.getId(), after, 2);
+
+            // Une requête d'en-têtes + une requête de lignes, quel que soit le nombre de commandes
+            assertEquals(2, statistics.getPrepareStatementCount());
+            for (OrderDetails order : page.items()) {
+                assertEquals(2, order.items().size());
+                assertNotNull(order.items().get(0).product().asin());
+                seen.add(order.id());
+            }
+            after = page.nextCursor() == null ? null : OrderCursor.decode(page.nextCursor());
+        } while (after != null);
+
+        List<Long> newestFirst = new ArrayList<>(placed);
+        Collections.reverse(newestFirst);
+        assertEquals(newestFirst, seen);
+    }
+
+    @Test
+    void testOrderIsOnlyVisibleToItsOwner() {
+        Long orderId = placed.get(0);
+
+        OrderDetails order = orderHistoryService.findOrder(user.getId(), orderId).orElseThrow();
+        assertEquals(5.0, order.totalAmount());
+        assertTrue(orderHistoryService.findOrder(user.getId() + 1000, orderId).isEmpty());
+    }
+}
@@ -0,0 +1,105 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.model.Product;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import com.opencsv.CSVReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ParallelCatalogImporterTest {
+
+    private static final String HEADER = "ASIN,Category,Product Link,No of Sellers,Rank,Rating,Reviews Count,Price,"
+            + "Books,Camera & Photo,\"Clothing, Shoes & Jewelry\",Electronics,Gift Cards,Toys & Games,Video Games,Product Title\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ParallelCatalogImporter parallelCatalogImporter;
+
+    @Autowired
+    private CategorieResolver categorieResolver;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void testRangesNeverSplitQuotedRecords() throws Exception {
+        Path file = writeCsv("catalog.csv", 200, 0);
+
+        List<CsvByteRangeSplitter.ByteRange> ranges = CsvByteRangeSplitter.split(file, true, 7);
+        assertTrue(ranges.size() > 1, "File should be split in several ranges");
+        assertEquals(200, countRows(ranges));
+
+        // Tranches plus courtes qu'un enregistrement : plusieurs points de coupe retombent sur la même frontière
+        List<CsvByteRangeSplitter.ByteRange> tiny = CsvByteRangeSplitter.split(file, true, 5000);
+        assertTrue(tiny.size() <= 200);
+        assertEquals(200, countRows(tiny));
+    }
+
+    private static int countRows(List<CsvByteRangeSplitter.ByteRange> ranges) throws Exception {
+        int rows = 0;
+        for (CsvByteRangeSplitter.ByteRange range : ranges) {
+            try (CSVReader reader = new CSVReader(new InputStreamReader(range.open(), StandardCharsets.UTF_8))) {
+                String[] row;
+                while ((row = reader.readNext()) != null) {
+                    assertTrue(row[0].startsWith("PAR"), "Each range must start on a record boundary");
+                    assertEquals(16, row.length);
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    void testImportFilesResolvesCategoriesAndUpserts() throws Exception {
+        Path first = writeCsv("first.csv", 150, 0);
+        Path second = writeCsv("second.csv", 100, 100); // 50 ASIN en commun avec le premier fichier
+
+        ImportReport report = parallelCatalogImporter.importFiles(List.of(first, second));
+
+        assertEquals(250, report.rowsRead());
+        assertEquals(0, report.rejected());
+        assertEquals(200, productRepository.count());
+        assertEquals(250, parallelCatalogImporter.getLastStats().getRowsInserted()
+                + parallelCatalogImporter.getLastStats().getRowsUpdated());
+
+        Product withFlagOnly = productRepository.findAll().stream()
+                .filter(p -> p.getAsin().equals("PAR0000001"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(categorieResolver.resolveId("Books"), withFlagOnly.getCategorie().getId());
+    }
+
+    private Path writeCsv(String name, int rows, int firstIndex) throws Exception {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = firstIndex; i < firstIndex + rows; i++) {
+            // Une ligne sur deux : titre sur plusieurs lignes et catégorie déduite des colonnes one-hot
+            String category = i % 2 == 0 ? "Electronics" : "";
+            String flags = i % 2 == 0 ? "0,0,0,1,0,0,0" : "1,0,0,0,0,0,0";
+            String title = i % 2 == 0 ? "Product " + i : "\"Product, " + i + "\nsecond line\"";
+            csv.append(String.format("PAR%07d,%s,link,1,%d,4.5,10,9.99,%s,%s%n", i, category, i, flags, title));
+        }
+        Path file = tempDir.resolve(name);
+        Files.writeString(file, csv.toString());
+        return file;
+    }
+}
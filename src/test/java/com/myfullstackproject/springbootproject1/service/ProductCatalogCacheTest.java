@@ -0,0 +1,117 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.dto.ProductDetails;
+import com.myfullstackproject.springbootproject1.model.Product;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ProductCatalogCacheTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    @Autowired
+    private CsvProductLoader csvProductLoader;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        productCatalogCache.invalidateAll();
+        product = productRepository.save(Product.builder().asin("CACHE00001").title("Cached").price(10.0).build());
+    }
+
+    @Test
+    void testSecondLookupIsAHitByIdAndAsin() {
+        long missesBefore = productCatalogCache.metrics().misses();
+        long hitsBefore = productCatalogCache.metrics().hits();
+
+        assertEquals("Cached", productCatalogCache.findById(product.getId()).orElseThrow().title());
+        assertEquals(product.getId(), productCatalogCache.findByAsin("CACHE00001").orElseThrow().id());
+        assertTrue(productCatalogCache.findById(-1L).isEmpty());
+
+        assertEquals(missesBefore + 2, productCatalogCache.metrics().misses());
+        assertEquals(hitsBefore + 1, productCatalogCache.metrics().hits());
+    }
+
+    @Test
+    void testBatchServesCachedEntriesAndLoadsTheRestInOneQueryPerKeyType() {
+        Product second = productRepository.save(Product.builder().asin("CACHE00002").title("Second").price(3.0).build());
+        Product third = productRepository.save(Product.builder().asin("CACHE00003").title("Third").price(4.0).build());
+        productCatalogCache.findById(product.getId());
+        long loadsBefore = productCatalogCache.metrics().loads();
+
+        List<ProductDetails> found = productCatalogCache.findAll(
+                List.of(second.getId(), product.getId(), -1L), List.of("CACHE00003", "CACHE00001", "NOPE"));
+
+        assertEquals(List.of(second.getId(), product.getId(), third.getId()), found.stream().map(ProductDetails::id).toList());
+        // Une requête pour l'id manquant, une pour les ASIN inconnus ; CACHE00001 servi par le cache
+        assertEquals(loadsBefore + 2, productCatalogCache.metrics().loads());
+
+        // Tout est maintenant en cache, par id comme par ASIN
+        productCatalogCache.findAll(List.of(second.getId()), List.of("CACHE00003"));
+        assertEquals(loadsBefore + 2, productCatalogCache.metrics().loads());
+    }
+
+    @Test
+    void testConcurrentMissesAreLoadedOrCoalesced() throws Exception {
+        ProductCatalogCache.CacheMetrics before = productCatalogCache.metrics();
+        List<Future<ProductDetails>> lookups = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 50; i++) {
+                lookups.add(executor.submit(() -> productCatalogCache.findById(product.getId()).orElseThrow()));
+            }
+            for (Future<ProductDetails> lookup : lookups) {
+                assertEquals("Cached", lookup.get().title());
+            }
+        }
+
+        // Chaque défaut de cache a lancé un chargement ou attendu celui d'un autre
+        ProductCatalogCache.CacheMetrics after = productCatalogCache.metrics();
+        long misses = after.misses() - before.misses();
+        assertEquals(misses, (after.loads() - before.loads()) + (after.coalescedLoads() - before.coalescedLoads()));
+        assertEquals(50, misses + after.hits() - before.hits());
+    }
+
+    @Test
+    void testSaveInvalidatesEntry() {
+        productCatalogCache.findById(product.getId());
+
+        product.setPrice(12.5);
+        productRepository.save(product);
+
+        assertEquals(12.5, productCatalogCache.findById(product.getId()).orElseThrow().price());
+    }
+
+    @Test
+    void testImportInvalidatesEntryByAsin() {
+        productCatalogCache.findById(product.getId());
+
+        String csv = "ASIN,Category,Product Link,No of Sellers,Rank,Rating,Reviews Count,Price,Books,Camera & Photo,"
+                + "\"Clothing, Shoes & Jewelry\",Electronics,Gift Cards,Toys & Games,Video Games,Product Title\n"
+                + "CACHE00001,Books,link,1,1,4.5,10,8.75,1,0,0,0,0,0,0,Cached v2\n";
+        csvProductLoader.importCatalog(new ByteArrayResource(csv.getBytes(StandardCharsets.UTF_8)));
+
+        ProductDetails details = productCatalogCache.findById(product.getId()).orElseThrow();
+        assertEquals(8.75, details.price());
+        assertEquals("Books", details.categorieNom());
+    }
+}
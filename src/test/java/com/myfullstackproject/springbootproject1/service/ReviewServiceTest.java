@@ -0,0 +1,115 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.dto.ReviewPage;
+import com.myfullstackproject.springbootproject1.model.Product;
+import com.myfullstackproject.springbootproject1.model.Rating;
+import com.myfullstackproject.springbootproject1.model.Role;
+import com.myfullstackproject.springbootproject1.model.Utilisateur;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import com.myfullstackproject.springbootproject1.repository.RatingRepository;
+import com.myfullstackproject.springbootproject1.repository.UtilisateurRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ReviewServiceTest {
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    private Utilisateur user;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        user = utilisateurRepository.save(Utilisateur.builder()
+                .nom("critique")
+                .email("critique" + System.nanoTime() + "@example.com")
+                .motDePasse("secret")
+                .role(Role.ACHETEUR)
+                .build());
+        // Valeur catalogue : 3 avis, moyenne 4
+        product = productRepository.save(Product.builder().asin("AVIS" + System.nanoTime()).title("Noté")
+                .rating(4.0).ratingCount(3L).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Les autres tests vident produits : ne pas laisser de lignes qui les référencent
+        ratingRepository.deleteAll();
+    }
+
+    @Test
+    void testReviewsUpdateAggregatesOnTopOfCatalogValue() {
+        reviewService.submit(user.getId(), product.getId(), 5, "Parfait");
+        reviewService.submit(user.getId(), product.getId(), 1, "Cassé");
+
+        Product reloaded = productRepository.findById(product.getId()).orElseThrow();
+        assertEquals(5L, reloaded.getRatingCount());
+        assertEquals((12.0 + 6) / 5, reloaded.getRating(), 1e-9);
+
+        ReviewPage first = reviewService.reviews(product.getId(), null, 1);
+        assertEquals("Cassé", first.items().get(0).comment());
+        assertEquals("critique", first.items().get(0).author());
+        ReviewPage second = reviewService.reviews(product.getId(), Long.valueOf(first.nextCursor()), 1);
+        assertEquals("Parfait", second.items().get(0).comment());
+
+        assertThrows(IllegalArgumentException.class, () -> reviewService.submit(user.getId(), product.getId(), 6, null));
+    }
+
+    @Test
+    void testReconcileRecomputesFromReviewTable() {
+        reviewService.submit(user.getId(), product.getId(), 2, null);
+        // Avis écrit hors du service : les compteurs ne le voient pas
+        ratingRepository.save(Rating.builder().utilisateur(user).product(product).stars(5)
+                .createdAt(LocalDateTime.now()).build());
+
+        ReviewService.ReconcileReport report = reviewService.reconcile();
+        assertTrue(report.productsReviewed() >= 1);
+        Product reloaded = productRepository.findById(product.getId()).orElseThrow();
+        assertEquals(5L, reloaded.getRatingCount());
+        assertEquals((12.0 + 7) / 5, reloaded.getRating(), 1e-9);
+
+        // Plus aucun avis : retour à la valeur catalogue
+        ratingRepository.deleteAll();
+        reviewService.reconcile();
+        reloaded = productRepository.findById(product.getId()).orElseThrow();
+        assertEquals(3L, reloaded.getRatingCount());
+        assertEquals(4.0, reloaded.getRating(), 1e-9);
+    }
+
+    @Test
+    void testCatalogRatingWithoutCountIsKept() {
+        // Colonne Reviews Count vide dans le CSV : note sans nombre d'avis
+        Product unCounted = productRepository.save(Product.builder().asin("AVIS" + System.nanoTime()).title("Sans nombre")
+                .rating(4.0).build());
+
+        reviewService.submit(user.getId(), unCounted.getId(), 2, null);
+        Product reloaded = productRepository.findById(unCounted.getId()).orElseThrow();
+        assertEquals(2L, reloaded.getRatingCount());
+        assertEquals(3.0, reloaded.getRating(), 1e-9);
+
+        // Plus aucun avis : la note du fournisseur revient
+        ratingRepository.deleteAll();
+        reviewService.reconcile();
+        reloaded = productRepository.findById(unCounted.getId()).orElseThrow();
+        assertEquals(4.0, reloaded.getRating(), 1e-9);
+        assertEquals(1L, reloaded.getRatingCount());
+    }
+}
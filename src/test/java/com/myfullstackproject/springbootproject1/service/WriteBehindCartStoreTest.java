@@ -0,0 +1,174 @@
+package com.myfullstackproject.springbootproject1.service;
+
+import com.myfullstackproject.springbootproject1.dto.CartLine;
+import com.myfullstackproject.springbootproject1.dto.OrderDetails;
+import com.myfullstackproject.springbootproject1.model.Product;
+import com.myfullstackproject.springbootproject1.model.Role;
+import com.myfullstackproject.springbootproject1.model.Utilisateur;
+import com.myfullstackproject.springbootproject1.repository.CartItemRepository;
+import com.myfullstackproject.springbootproject1.repository.OrderItemRepository;
+import com.myfullstackproject.springbootproject1.repository.OrderRepository;
+import com.myfullstackproject.springbootproject1.repository.ProductRepository;
+import com.myfullstackproject.springbootproject1.repository.UtilisateurRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Éviction immédiate des paniers sans modification en attente, à chaque flushAll
+@SpringBootTest(properties = {"cart.store.mode=write-behind", "cart.store.flush-interval=1h",
+        "cart.store.idle-eviction=0ms"})
+class WriteBehindCartStoreTest {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private WriteBehindCartStore writeBehindCartStore;
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    private Utilisateur user;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        user = utilisateurRepository.save(Utilisateur.builder()
+                .nom("wb")
+                .email("wb" + System.nanoTime() + "@example.com")
+                .motDePasse("secret")
+                .role(Role.ACHETEUR)
+                .build());
+        product = productRepository.save(Product.builder().asin("WB" + System.nanoTime()).title("Différé").price(3.0).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeBehindCartStore.flushAll();
+        orderItemRepository.deleteAll();
+        orderRepository.deleteAll();
+        cartItemRepository.deleteAll();
+    }
+
+    @Test
+    void testQuantityChangesAreCoalescedIntoOneWrite() {
+        CartLine line = cartService.addToCart(user.getId(), product.getId(), 1);
+        long rowsBefore = writeBehindCartStore.metrics().rowsWritten();
+
+        for (int quantity = 2; quantity <= 10; quantity++) {
+            cartService.updateQuantity(user.getId(), line.id(), quantity);
+        }
+        cartService.addToCart(user.getId(), product.getId(), 5);
+
+        // Lecture servie par la mémoire, base pas encore à jour
+        assertEquals(15, cartService.getCart(user.getId()).get(0).quantity());
+        assertEquals(1, cartItemRepository.findLineById(line.id()).orElseThrow().quantity());
+
+        cartService.flush(user.getId());
+
+        assertEquals(15, cartItemRepository.findLineById(line.id()).orElseThrow().quantity());
+        assertEquals(rowsBefore + 1, writeBehindCartStore.metrics().rowsWritten());
+    }
+
+    @Test
+    void testRemovedLineIsDeletedOnFlush() {
+        CartLine line = cartService.addToCart(user.getId(), product.getId(), 2);
+
+        cartService.removeItem(user.getId(), line.id());
+        assertTrue(cartService.getCart(user.getId()).isEmpty());
+        assertTrue(cartItemRepository.findLineById(line.id()).isPresent());
+        assertThrows(RuntimeException.class, () -> cartService.updateQuantity(user.getId(), line.id(), 3));
+
+        cartService.flush(user.getId());
+
+        assertTrue(cartItemRepository.findLineById(line.id()).isEmpty());
+        CartLine again = cartService.addToCart(user.getId(), product.getId(), 1);
+        assertNotEquals(line.id(), again.id());
+        assertEquals(1, again.quantity());
+    }
+
+    @Test
+    void testEvictionDoesNotLoseConcurrentMutations() {
+        cartService.addToCart(user.getId(), product.getId(), 1);
+        int increments = 2000;
+        AtomicBoolean done = new AtomicBoolean();
+
+        // Flush + éviction en boucle pendant que le panier est modifié
+        CompletableFuture<Void> evictions = CompletableFuture.runAsync(() -> {
+            while (!done.get()) {
+                writeBehindCartStore.flushAll();
+            }
+        });
+        try {
+            for (int i = 0; i < increments; i++) {
+                cartService.addToCart(user.getId(), product.getId(), 1);
+            }
+        } finally {
+            done.set(true);
+            evictions.join();
+        }
+
+        writeBehindCartStore.flushAll();
+        CartLine line = cartItemRepository.findLine(user.getId(), product.getId()).orElseThrow();
+        assertEquals(increments + 1, line.quantity());
+    }
+
+    @Test
+    void testLineRemovedAndAddedBackDuringFlushReachesCheckout() {
+        CartLine line = cartService.addToCart(user.getId(), product.getId(), 1);
+        AtomicBoolean done = new AtomicBoolean();
+
+        // Retrait puis rajout du produit pendant que des flush écrivent les suppressions
+        CompletableFuture<Void> flushes = CompletableFuture.runAsync(() -> {
+            while (!done.get()) {
+                writeBehindCartStore.flushAll();
+            }
+        });
+        try {
+            for (int i = 0; i < 50; i++) {
+                cartService.removeItem(user.getId(), line.id());
+                // Suppression prise par un flush (peut-être pas encore validée) : rajout immédiat
+                while (writeBehindCartStore.metrics().dirtyLines() > 0) {
+                    Thread.onSpinWait();
+                }
+                line = cartService.addToCart(user.getId(), product.getId(), 1);
+                assertEquals(1, line.quantity());
+                // Une fois le flush en cours terminé, la ligne rendue existe bien en base
+                cartService.flush(user.getId());
+                assertEquals(line.id(), cartItemRepository.findLine(user.getId(), product.getId())
+                        .map(CartLine::id).orElse(null));
+            }
+        } finally {
+            done.set(true);
+            flushes.join();
+        }
+
+        writeBehindCartStore.flushAll();
+        assertEquals(line.id(), cartItemRepository.findLine(user.getId(), product.getId()).orElseThrow().id());
+        OrderDetails order = checkoutService.checkout(user.getId());
+        assertEquals(1, order.items().size());
+        assertEquals(1, order.items().get(0).quantity());
+    }
+}
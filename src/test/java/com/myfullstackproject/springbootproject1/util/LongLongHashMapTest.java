@@ -0,0 +1,36 @@
+package com.myfullstackproject.springbootproject1.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongLongHashMapTest {
+
+    @Test
+    void testBehavesLikeHashMapUnderRandomOperations() {
+        LongLongHashMap map = new LongLongHashMap(4);
+        Map<Long, Long> reference = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5_000) - 100; // inclut 0 et des clés négatives
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    map.put(key, i);
+                    reference.put(key, (long) i);
+                }
+                case 1 -> assertEquals(reference.remove(key) != null, map.remove(key));
+                default -> assertEquals(reference.getOrDefault(key, -1L), map.get(key, -1L));
+            }
+        }
+
+        assertEquals(reference.size(), map.size());
+        Map<Long, Long> copy = new HashMap<>();
+        map.forEach(copy::put);
+        assertEquals(reference, copy);
+    }
+}
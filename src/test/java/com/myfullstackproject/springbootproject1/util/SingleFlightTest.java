@@ -0,0 +1,121 @@
+package com.myfullstackproject.springbootproject1.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void testConcurrentCallsForOneKeyShareOneLoad() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> first = executor.submit(() -> flight.load(7L, key -> {
+                calls.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return "produit " + key;
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            // Appels arrivés pendant le chargement : en attente du premier
+            List<Future<String>> followers = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                followers.add(executor.submit(() -> flight.load(7L, key -> {
+                    calls.incrementAndGet();
+                    return "autre";
+                })));
+            }
+            while (flight.coalesced() < 20) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertEquals("produit 7", first.get(5, TimeUnit.SECONDS));
+            for (Future<String> follower : followers) {
+                assertEquals("produit 7", follower.get(5, TimeUnit.SECONDS));
+            }
+        }
+        assertEquals(1, calls.get());
+        assertEquals(1, flight.loads());
+        assertEquals(20, flight.coalesced());
+
+        // Chargement terminé : rien n'est gardé, l'appel suivant recharge
+        assertEquals("suivant", flight.load(7L, key -> "suivant"));
+        assertEquals(2, flight.loads());
+    }
+
+    @Test
+    void testBatchLoadsMissingKeysOnceAndWaitsForKeysInFlight() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> single = executor.submit(() -> flight.load(1L, key -> {
+                loading.countDown();
+                await(release);
+                return "un";
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            AtomicInteger batches = new AtomicInteger();
+            Future<Map<Long, String>> batch = executor.submit(() -> flight.loadAll(List.of(1L, 2L, 3L, 2L), keys -> {
+                batches.incrementAndGet();
+                assertEquals(Set.of(2L, 3L), keys);
+                // 3 n'existe pas : absent du résultat
+                return keys.stream().filter(k -> k != 3L).collect(Collectors.toMap(k -> k, k -> "n" + k));
+            }));
+            while (flight.loads() < 2) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertEquals("un", single.get(5, TimeUnit.SECONDS));
+            assertEquals(Map.of(1L, "un", 2L, "n2"), batch.get(5, TimeUnit.SECONDS));
+            assertEquals(1, batches.get());
+        }
+        assertEquals(1, flight.coalesced());
+    }
+
+    @Test
+    void testFailureIsPropagatedAndNotKept() {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> flight.load("A", key -> {
+                    throw new IllegalStateException("base indisponible");
+                }));
+        assertEquals("base indisponible", error.getMessage());
+        assertThrows(IllegalStateException.class, () -> flight.loadAll(List.of("A", "B"), keys -> {
+            throw new IllegalStateException("toujours indisponible");
+        }));
+
+        assertEquals("ok", flight.load("A", key -> "ok"));
+        assertEquals(Map.of("B", "ok"), flight.loadAll(List.of("B"), keys -> Map.of("B", "ok")));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}